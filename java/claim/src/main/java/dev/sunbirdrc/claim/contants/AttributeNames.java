@@ -12,4 +12,8 @@ public class AttributeNames {
     public static final String CONTENT = "content";
     public static final String TOTAL_PAGES = "totalPages";
     public static final String TOTAL_ELEMENTS = "totalElements";
+    public static final String HAS_NEXT = "hasNext";
+    public static final String STATUS = "status";
+    public static final String FROM = "from";
+    public static final String TO = "to";
 }
@@ -6,5 +6,7 @@ public class ErrorMessages {
     public static final String CLAIM_NOT_FOUND = "Claim not found";
     public static final String CLAIM_IS_ALREADY_PROCESSED = "Claim is already processed";
     public static final String ACCESS_TOKEN_IS_MISSING = "Access token is missing";
+    public static final String INVALID_CLAIM_STATUS = "Invalid claim status";
+    public static final String INVALID_DATE = "Invalid date, expected an ISO-8601 instant like 2022-01-31T00:00:00Z";
 
 }
@@ -3,6 +3,8 @@ package dev.sunbirdrc.claim.controller;
 import com.fasterxml.jackson.databind.JsonNode;
 import dev.sunbirdrc.claim.dto.ClaimWithNotesDTO;
 import dev.sunbirdrc.claim.entity.Claim;
+import dev.sunbirdrc.claim.exception.InvalidInputException;
+import dev.sunbirdrc.claim.model.ClaimStatus;
 import dev.sunbirdrc.claim.service.ClaimService;
 import dev.sunbirdrc.claim.service.ClaimsAuthorizer;
 import dev.sunbirdrc.pojos.dto.ClaimDTO;
@@ -17,11 +19,15 @@ import org.springframework.http.ResponseEntity;
 import org.springframework.stereotype.Controller;
 import org.springframework.web.bind.annotation.*;
 
+import java.time.Instant;
+import java.time.format.DateTimeParseException;
+import java.util.Date;
 import java.util.Map;
 import java.util.Optional;
 
-import static dev.sunbirdrc.claim.contants.AttributeNames.ATTESTOR_INFO;
-import static dev.sunbirdrc.claim.contants.AttributeNames.LOWERCASE_ENTITY;
+import static dev.sunbirdrc.claim.contants.AttributeNames.*;
+import static dev.sunbirdrc.claim.contants.ErrorMessages.INVALID_CLAIM_STATUS;
+import static dev.sunbirdrc.claim.contants.ErrorMessages.INVALID_DATE;
 
 @Controller
 public class ClaimsController {
@@ -41,10 +47,35 @@ public class ClaimsController {
                                                 @RequestBody JsonNode requestBody, Pageable pageable) {
         String entity = requestBody.get(LOWERCASE_ENTITY).asText();
         JsonNode attestorNode = requestBody.get(ATTESTOR_INFO);
-        Map<String, Object> claims = claimService.findClaimsForAttestor(entity, attestorNode, pageable);
+        String status = getStatus(requestBody);
+        Date from = getDate(requestBody, FROM);
+        Date to = getDate(requestBody, TO);
+        Map<String, Object> claims = claimService.findClaimsForAttestor(entity, attestorNode, status, from, to, pageable);
         return new ResponseEntity<>(claims, HttpStatus.OK);
     }
 
+    private String getStatus(JsonNode requestBody) {
+        if (!requestBody.hasNonNull(STATUS)) {
+            return null;
+        }
+        try {
+            return ClaimStatus.valueOf(requestBody.get(STATUS).asText().toUpperCase()).name();
+        } catch (IllegalArgumentException e) {
+            throw new InvalidInputException(INVALID_CLAIM_STATUS);
+        }
+    }
+
+    private Date getDate(JsonNode requestBody, String field) {
+        if (!requestBody.hasNonNull(field)) {
+            return null;
+        }
+        try {
+            return Date.from(Instant.parse(requestBody.get(field).asText()));
+        } catch (DateTimeParseException e) {
+            throw new InvalidInputException(INVALID_DATE);
+        }
+    }
+
     @RequestMapping(value = "/api/v1/getClaims/{claimId}", method = RequestMethod.POST)
     public ResponseEntity<ClaimWithNotesDTO> getClaimById(@RequestHeader HttpHeaders headers, @PathVariable String claimId,
                                               @RequestBody JsonNode requestBody) {
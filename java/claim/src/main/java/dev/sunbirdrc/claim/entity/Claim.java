@@ -9,10 +9,14 @@ import javax.persistence.*;
 import java.util.Date;
 
 @Entity
-@Table(name = Claim.TABLE_NAME)
+@Table(name = Claim.TABLE_NAME, indexes = {
+        @Index(name = "claims_attestor_entity_idx", columnList = "attestorEntity,status," + Claim.CREATED_AT)
+})
 public class Claim {
     public static final String TABLE_NAME= "claims";
     public static final String CREATED_AT = "created_at";
+    public static final String CREATED_AT_PROPERTY = "createdAt";
+    public static final String ID_PROPERTY = "id";
     private static final String ATTESTED_ON = "attested_on";
 
     @Id
@@ -52,6 +56,13 @@ public class Claim {
     @Column
     private String attestorUserId;
 
+    /**
+     * Set when the conditions only check the attestor's id, so that the claims of other
+     * attestors can be filtered out by the database
+     */
+    @Column
+    private String attestorOsid;
+
     @PrePersist
     protected void onCreate() {
         createdAt = new Date();
@@ -212,4 +223,12 @@ public class Claim {
     public void setAttestorUserId(String attestorUserId) {
         this.attestorUserId = attestorUserId;
     }
+
+    public String getAttestorOsid() {
+        return attestorOsid;
+    }
+
+    public void setAttestorOsid(String attestorOsid) {
+        this.attestorOsid = attestorOsid;
+    }
 }
@@ -25,7 +25,7 @@ public class CustomExceptionHandler {
     }
 
     @ExceptionHandler({ClaimAlreadyProcessedException.class, InvalidInputException.class, IOException.class})
-    public ResponseEntity<Object> handleBadRequestException(ClaimAlreadyProcessedException exception) {
+    public ResponseEntity<Object> handleBadRequestException(Exception exception) {
         ErrorResponse errorResponse = new ErrorResponse();
         errorResponse.setMessage(exception.getLocalizedMessage());
         return new ResponseEntity<>(errorResponse, HttpStatus.BAD_REQUEST);
@@ -1,9 +1,15 @@
 package dev.sunbirdrc.claim.repository;
 
 import dev.sunbirdrc.claim.entity.Claim;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Slice;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
+import java.util.Collection;
+import java.util.Date;
 import java.util.List;
 
 @Repository
@@ -11,4 +17,15 @@ public interface ClaimRepository extends JpaRepository<Claim, String> {
     List<Claim> findByConditionsIn(List<String> conditions);
     List<Claim> findByAttestorEntityIn(List<String> entities);
     List<Claim> findByAttestorEntity(String entity);
+
+    /**
+     * Returns a slice of the claims of the attestor entity with the given statuses, created in [from, to).
+     * Claims whose conditions only allow another attestor id are left out.
+     */
+    @Query("select c from Claim c where c.attestorEntity = :entity and c.status in :statuses" +
+            " and c.createdAt >= :from and c.createdAt < :to" +
+            " and (c.attestorOsid is null or c.attestorOsid = :attestorId)")
+    Slice<Claim> findClaimsForAttestor(@Param("entity") String entity, @Param("statuses") Collection<String> statuses,
+                                       @Param("from") Date from, @Param("to") Date to,
+                                       @Param("attestorId") String attestorId, Pageable pageable);
 }
@@ -14,7 +14,10 @@ import dev.sunbirdrc.registry.middleware.util.EntityUtil;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.data.domain.PageRequest;
 import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Slice;
+import org.springframework.data.domain.Sort;
 import org.springframework.stereotype.Service;
 
 import java.util.*;
@@ -32,6 +35,11 @@ public class ClaimService {
     private final SunbirdRCClient sunbirdRCClient;
     private final ClaimsAuthorizer claimsAuthorizer;
     private static final Logger logger = LoggerFactory.getLogger(ClaimService.class);
+    private static final int BATCH_SIZE = 500;
+    private static final Sort CLAIMS_ORDER = Sort.by(Claim.CREATED_AT_PROPERTY, Claim.ID_PROPERTY);
+    private static final List<String> ALL_STATUSES = Arrays.stream(ClaimStatus.values()).map(Enum::name).collect(Collectors.toList());
+    private static final Date MIN_DATE = new Date(0);
+    private static final Date MAX_DATE = new GregorianCalendar(9999, Calendar.DECEMBER, 31).getTime();
 
     @Autowired
     public ClaimService(ClaimRepository claimRepository, ClaimNoteRepository claimNoteRepository, SunbirdRCClient sunbirdRCClient, ClaimsAuthorizer claimsAuthorizer) {
@@ -42,6 +50,7 @@ public class ClaimService {
     }
 
     public Claim save(Claim claim) {
+        claim.setAttestorOsid(claimsAuthorizer.findAttestorIdInConditions(claim.getConditions()));
         return claimRepository.save(claim);
     }
 
@@ -54,27 +63,66 @@ public class ClaimService {
     }
 
     public Map<String, Object> findClaimsForAttestor(String entity, JsonNode attestorNode, Pageable pageable) {
-        List<Claim> claims = claimRepository.findByAttestorEntity(entity);
-        logger.info("Found {} claims to process", claims.size());
-        List<Claim> claimsToAttestor = claims.stream()
-                .filter(claim -> claimsAuthorizer.isAuthorizedAttestor(claim, attestorNode))
-                .collect(Collectors.toList());
-        return toMap(claimsToAttestor, pageable);
+        return findClaimsForAttestor(entity, attestorNode, null, null, null, pageable);
     }
 
-    private Map<String, Object> toMap(List<Claim> claims, Pageable pageable) {
+    /**
+     * Returns a page of the claims the attestor can attest. The claims are read from the database in
+     * batches, and reading stops once the page is filled. The totals are returned only when all the
+     * claims were read, otherwise hasNext tells there could be more pages.
+     *
+     * @param status optional status of the claims
+     * @param from   optional, claims created on or after
+     * @param to     optional, claims created before
+     */
+    public Map<String, Object> findClaimsForAttestor(String entity, JsonNode attestorNode, String status, Date from, Date to,
+                                                     Pageable pageable) {
+        String attestorId = claimsAuthorizer.getAttestorId(attestorNode);
+        List<String> statuses = status == null ? ALL_STATUSES : Collections.singletonList(status);
+        long skip = pageable.getOffset();
+        long authorizedCount = 0;
+        List<Claim> content = new ArrayList<>();
+        Pageable batch = PageRequest.of(0, BATCH_SIZE, CLAIMS_ORDER);
+        Slice<Claim> claims;
+        do {
+            claims = claimRepository.findClaimsForAttestor(entity, statuses, from == null ? MIN_DATE : from,
+                    to == null ? MAX_DATE : to, attestorId, batch);
+            for (Claim claim : claims) {
+                if (content.size() == pageable.getPageSize() && claims.hasNext()) {
+                    break;
+                }
+                if (isAuthorizedAttestor(claim, attestorId, attestorNode)) {
+                    if (authorizedCount >= skip && content.size() < pageable.getPageSize()) {
+                        content.add(claim);
+                    }
+                    authorizedCount++;
+                }
+            }
+            batch = claims.nextPageable();
+        } while (claims.hasNext() && content.size() < pageable.getPageSize());
+        logger.info("Found {} claims to attest after reading {} batches", content.size(), claims.getNumber() + 1);
+
         Map<String, Object> response = new HashMap<>();
-        response.put(TOTAL_PAGES, (int)(Math.ceil(claims.size() * 1.0/pageable.getPageSize())));
-        response.put(TOTAL_ELEMENTS, claims.size());
-        int start = (int) pageable.getOffset();
-        int end = Math.min((start + pageable.getPageSize()), claims.size());
-        if(start > claims.size()) {
-            response.put(CONTENT, new ArrayList<>());
-            return response;
+        response.put(CONTENT, content);
+        if (claims.hasNext()) {
+            response.put(HAS_NEXT, true);
+        } else {
+            response.put(TOTAL_PAGES, (int) (Math.ceil(authorizedCount * 1.0 / pageable.getPageSize())));
+            response.put(TOTAL_ELEMENTS, (int) authorizedCount);
         }
-        response.put(CONTENT, claims.subList(start, end));
         return response;
     }
+
+    /**
+     * Claims saved with an attestor id are already matched with the attestor by the database
+     */
+    private boolean isAuthorizedAttestor(Claim claim, String attestorId, JsonNode attestorNode) {
+        if (attestorId != null && attestorId.equals(claim.getAttestorOsid())) {
+            return true;
+        }
+        return claimsAuthorizer.isAuthorizedAttestor(claim, attestorNode);
+    }
+
     public Claim attestClaim(String claimId, JsonNode requestBody) {
         Claim claim = findById(claimId).orElseThrow(() -> new ResourceNotFoundException(CLAIM_NOT_FOUND));
         logger.info("Processing claim {}", claim.toString());
@@ -10,11 +10,14 @@ import org.springframework.beans.factory.annotation.Value;
 import org.springframework.stereotype.Service;
 
 import java.util.Collections;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
 
 @Service
 public class ClaimsAuthorizer {
 
     private static final String ATTESTOR = "ATTESTOR";
+    private static final String ID_LITERAL = "'([^']*)'";
     @Value("${uuid-property-name}")
     private String uuidPropertyName;
     private static final Logger logger = LoggerFactory.getLogger(ClaimsAuthorizer.class);
@@ -30,19 +33,54 @@ public class ClaimsAuthorizer {
             return false;
         }
         try {
-            String resolvedCondition = conditionResolverService.resolve(
+            return conditionResolverService.evaluate(
                     attestorNode,
                     ATTESTOR,
                     claim.getConditions(),
                     Collections.emptyList()
             );
-            return conditionResolverService.evaluate(resolvedCondition);
         } catch (Exception e) {
             logger.error("Exception occurred while resolving condition {}", ExceptionUtils.getStackTrace(e));
             return false;
         }
     }
 
+    /**
+     * Returns the id of the attestor entity, used to filter the claims in the database
+     */
+    public String getAttestorId(JsonNode attestorNode) {
+        if (attestorNode != null && attestorNode.has(uuidPropertyName)) {
+            return attestorNode.get(uuidPropertyName).asText();
+        }
+        return null;
+    }
+
+    /**
+     * Returns the attestor id the conditions compare with, when the conditions are only an equality
+     * of the attestor's id like ATTESTOR#$.osid#.equals('1-abc'). Returns null for any other condition,
+     * which has to be resolved for each attestor.
+     */
+    public String findAttestorIdInConditions(String conditions) {
+        if (conditions == null) {
+            return null;
+        }
+        String condition = conditions.trim();
+        while (condition.startsWith("(") && condition.endsWith(")")) {
+            condition = condition.substring(1, condition.length() - 1).trim();
+        }
+        String attestorId = Pattern.quote(ATTESTOR + "#$." + uuidPropertyName + "#");
+        Matcher matcher = Pattern.compile(attestorId + "(?:\\.equals\\(" + ID_LITERAL + "\\)|\\s*==\\s*" + ID_LITERAL + ")")
+                .matcher(condition);
+        if (!matcher.matches()) {
+            matcher = Pattern.compile("(?:" + ID_LITERAL + "\\.equals\\(" + attestorId + "\\)|" + ID_LITERAL + "\\s*==\\s*" + attestorId + ")")
+                    .matcher(condition);
+        }
+        if (matcher.matches()) {
+            return matcher.group(1) != null ? matcher.group(1) : matcher.group(2);
+        }
+        return null;
+    }
+
     public boolean isAuthorizedRequestor(Claim claim, JsonNode attestorNode) {
         if(!attestorNode.isNull() && attestorNode.has(uuidPropertyName)) {
             String userEntityId = attestorNode.get(uuidPropertyName).asText();
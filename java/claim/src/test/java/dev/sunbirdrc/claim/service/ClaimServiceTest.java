@@ -20,6 +20,8 @@ import org.springframework.data.domain.Page;
 import org.springframework.data.domain.PageImpl;
 import org.springframework.data.domain.PageRequest;
 import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Slice;
+import org.springframework.data.domain.SliceImpl;
 
 import java.util.*;
 
@@ -28,6 +30,7 @@ import static dev.sunbirdrc.claim.model.ClaimStatus.CLOSED;
 import static dev.sunbirdrc.claim.model.ClaimStatus.OPEN;
 import static org.junit.Assert.assertEquals;
 import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.eq;
 import static org.mockito.Mockito.*;
 
 @RunWith(MockitoJUnitRunner.class)
@@ -56,7 +59,7 @@ public class ClaimServiceTest {
         Pageable pageable = PageRequest.of(0, 3);
         String entity = "Teacher";
         JsonNode dummyNode = new ObjectMapper().nullNode();
-        when(claimRepository.findByAttestorEntity(entity)).thenReturn(allClaimsForEntity);
+        mockClaims(entity, new SliceImpl<>(allClaimsForEntity));
         when(claimsAuthorizer.isAuthorizedAttestor(claim1, dummyNode)).thenReturn(true);
         when(claimsAuthorizer.isAuthorizedAttestor(claim2, dummyNode)).thenReturn(false);
         when(claimsAuthorizer.isAuthorizedAttestor(claim3, dummyNode)).thenReturn(true);
@@ -77,7 +80,7 @@ public class ClaimServiceTest {
         Pageable pageable = PageRequest.of(1, 2);
         String entity = "Teacher";
         JsonNode dummyNode = new ObjectMapper().nullNode();
-        when(claimRepository.findByAttestorEntity(entity)).thenReturn(allClaimsForEntity);
+        mockClaims(entity, new SliceImpl<>(allClaimsForEntity));
         when(claimsAuthorizer.isAuthorizedAttestor(claim1, dummyNode)).thenReturn(true);
         when(claimsAuthorizer.isAuthorizedAttestor(claim2, dummyNode)).thenReturn(true);
         when(claimsAuthorizer.isAuthorizedAttestor(claim3, dummyNode)).thenReturn(true);
@@ -99,7 +102,7 @@ public class ClaimServiceTest {
         Pageable pageable = PageRequest.of(2, 2);
         String entity = "Teacher";
         JsonNode dummyNode = new ObjectMapper().nullNode();
-        when(claimRepository.findByAttestorEntity(entity)).thenReturn(allClaimsForEntity);
+        mockClaims(entity, new SliceImpl<>(allClaimsForEntity));
         when(claimsAuthorizer.isAuthorizedAttestor(claim1, dummyNode)).thenReturn(true);
         when(claimsAuthorizer.isAuthorizedAttestor(claim2, dummyNode)).thenReturn(true);
         when(claimsAuthorizer.isAuthorizedAttestor(claim3, dummyNode)).thenReturn(true);
@@ -111,6 +114,42 @@ public class ClaimServiceTest {
         assertEquals(claimService.findClaimsForAttestor(entity, dummyNode, pageable), actualClaims);
     }
 
+    @Test
+    public void shouldStopReadingClaimsOnceThePageIsFilled() {
+        Claim claim1 = getClaim("1");
+        Claim claim2 = getClaim("2");
+        Claim claim3 = getClaim("3");
+        String entity = "Teacher";
+        JsonNode dummyNode = new ObjectMapper().nullNode();
+        mockClaims(entity, new SliceImpl<>(Arrays.asList(claim1, claim2, claim3), PageRequest.of(0, 3), true));
+        when(claimsAuthorizer.isAuthorizedAttestor(claim1, dummyNode)).thenReturn(false);
+        when(claimsAuthorizer.isAuthorizedAttestor(claim2, dummyNode)).thenReturn(true);
+        Map<String, Object> expectedClaims = new HashMap<>();
+        expectedClaims.put(CONTENT, Collections.singletonList(claim2));
+        expectedClaims.put(HAS_NEXT, true);
+        assertEquals(expectedClaims, claimService.findClaimsForAttestor(entity, dummyNode, PageRequest.of(0, 1)));
+        verify(claimsAuthorizer, never()).isAuthorizedAttestor(claim3, dummyNode);
+        verify(claimRepository, times(1)).findClaimsForAttestor(any(), any(), any(), any(), any(), any());
+    }
+
+    @Test
+    public void shouldNotResolveConditionsOfClaimsMatchedByAttestorId() {
+        Claim claim1 = getClaim("1");
+        claim1.setAttestorOsid("1-attestor");
+        Claim claim2 = getClaim("2");
+        String entity = "Teacher";
+        JsonNode attestorNode = new ObjectMapper().createObjectNode().put("osid", "1-attestor");
+        mockClaims(entity, new SliceImpl<>(Arrays.asList(claim1, claim2)));
+        when(claimsAuthorizer.getAttestorId(attestorNode)).thenReturn("1-attestor");
+        when(claimsAuthorizer.isAuthorizedAttestor(claim2, attestorNode)).thenReturn(false);
+        Map<String, Object> expectedClaims = new HashMap<>();
+        expectedClaims.put(CONTENT, Collections.singletonList(claim1));
+        expectedClaims.put(TOTAL_PAGES, 1);
+        expectedClaims.put(TOTAL_ELEMENTS, 1);
+        assertEquals(expectedClaims, claimService.findClaimsForAttestor(entity, attestorNode, PageRequest.of(0, 2)));
+        verify(claimsAuthorizer, never()).isAuthorizedAttestor(claim1, attestorNode);
+    }
+
     @Test(expected = ResourceNotFoundException.class)
     public void attestClaimShouldThrowExceptionIfTheClaimIsNotFound() {
         String id = "1";
@@ -169,6 +208,10 @@ public class ClaimServiceTest {
         verify(claimRepository, atLeastOnce()).save(any());
         verify(claimNoteRepository, atLeastOnce()).save(expectedClaimNote);
     }
+    private void mockClaims(String entity, Slice<Claim> claims) {
+        when(claimRepository.findClaimsForAttestor(eq(entity), any(), any(), any(), any(), any())).thenReturn(claims);
+    }
+
     private Claim getClaim(String id) {
         Claim claim = new Claim();
         claim.setId(id);
@@ -0,0 +1,34 @@
+package dev.sunbirdrc.claim.service;
+
+import dev.sunbirdrc.registry.middleware.service.ConditionResolverService;
+import org.junit.Before;
+import org.junit.Test;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNull;
+
+public class ClaimsAuthorizerTest {
+    private ClaimsAuthorizer claimsAuthorizer;
+
+    @Before
+    public void setUp() {
+        claimsAuthorizer = new ClaimsAuthorizer(new ConditionResolverService());
+        ReflectionTestUtils.setField(claimsAuthorizer, "uuidPropertyName", "osid");
+    }
+
+    @Test
+    public void shouldFindAttestorIdOfEqualityConditions() {
+        assertEquals("1-abc", claimsAuthorizer.findAttestorIdInConditions("ATTESTOR#$.osid#.equals('1-abc')"));
+        assertEquals("1-abc", claimsAuthorizer.findAttestorIdInConditions("(ATTESTOR#$.osid# == '1-abc')"));
+        assertEquals("1-abc", claimsAuthorizer.findAttestorIdInConditions(" ('1-abc'.equals(ATTESTOR#$.osid#)) "));
+    }
+
+    @Test
+    public void shouldNotFindAttestorIdOfOtherConditions() {
+        assertNull(claimsAuthorizer.findAttestorIdInConditions(null));
+        assertNull(claimsAuthorizer.findAttestorIdInConditions("ATTESTOR#$.osid#.contains('1-abc')"));
+        assertNull(claimsAuthorizer.findAttestorIdInConditions("(ATTESTOR#$.osid#.equals('1-abc')) || (ATTESTOR#$.osid#.equals('1-def'))"));
+        assertNull(claimsAuthorizer.findAttestorIdInConditions("(ATTESTOR#$.[*]#.contains('board-cbse'))"));
+    }
+}
@@ -0,0 +1,522 @@
+package dev.sunbirdrc.elastic;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import dev.sunbirdrc.registry.middleware.util.Constants;
+import dev.sunbirdrc.registry.middleware.util.JSONUtil;
+import org.apache.commons.lang3.exception.ExceptionUtils;
+import org.elasticsearch.action.ActionListener;
+import org.elasticsearch.action.DocWriteRequest;
+import org.elasticsearch.action.bulk.BackoffPolicy;
+import org.elasticsearch.action.bulk.BulkItemResponse;
+import org.elasticsearch.action.bulk.BulkProcessor;
+import org.elasticsearch.action.bulk.BulkRequest;
+import org.elasticsearch.action.bulk.BulkResponse;
+import org.elasticsearch.action.delete.DeleteRequest;
+import org.elasticsearch.action.index.IndexRequest;
+import org.elasticsearch.action.update.UpdateRequest;
+import org.elasticsearch.client.RequestOptions;
+import org.elasticsearch.client.RestHighLevelClient;
+import org.elasticsearch.common.unit.ByteSizeUnit;
+import org.elasticsearch.common.unit.ByteSizeValue;
+import org.elasticsearch.common.unit.TimeValue;
+import org.elasticsearch.rest.RestStatus;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.io.Closeable;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.Deque;
+import java.util.HashMap;
+import java.util.function.BiConsumer;
+import java.util.IdentityHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Queue;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Queues the add, update and delete operations on the documents and sends them to elastic search
+ * with bulk requests. A bulk request is sent once enough operations (count or size) are queued, or
+ * the flush interval has passed.
+ *
+ * The operations on a document are sent one at a time, in the order they were queued, so that an
+ * update never reaches elastic search before the add it depends on. Items failing with a temporary
+ * error are sent again, up to maxRetries times, before the next operation on their document. A
+ * failed operation is dropped instead when a newer index or delete of its document was queued, as
+ * that replaces the document anyway; a newer partial update does not.
+ *
+ * The caller, e.g. the ElasticSearchActor on its dispatcher thread, does not wait for the sends.
+ * At most maxQueued operations wait to be handed to the bulk processor; beyond that, queueing waits
+ * up to queueTimeoutMillis for room and then rejects the operation. The operations are handed, in
+ * order, to the bulk processor by a feeder thread, which waits while maxPending operations are
+ * being sent.
+ */
+public class ElasticBulkIndexer implements Closeable {
+    private static Logger logger = LoggerFactory.getLogger(ElasticBulkIndexer.class);
+    private static final String BULK_CLIENT = "bulk";
+    private static final List<RestStatus> RETRY_STATUSES = Arrays.asList(RestStatus.TOO_MANY_REQUESTS,
+            RestStatus.SERVICE_UNAVAILABLE, RestStatus.BAD_GATEWAY, RestStatus.GATEWAY_TIMEOUT);
+
+    private static volatile ElasticBulkIndexer instance;
+
+    private String searchType = Constants.ES_DOC_TYPE;
+    private boolean hardDeleteEnabled;
+    private int bulkActions = 500;
+    private long bulkSizeInMB = 5;
+    private long flushIntervalMillis = 1000;
+    private int concurrentRequests = 1;
+    private int maxPending = 10000;
+    private int maxQueued = 100000;
+    private long queueTimeoutMillis = 100;
+    private int maxRetries = 3;
+    private long retryDelayMillis = 500;
+
+    private BulkProcessor bulkProcessor;
+    private Semaphore pendingPermits;
+    private ScheduledExecutorService retryScheduler;
+    private ExecutorService feeder;
+    private volatile boolean feeding;
+    private volatile LinkedBlockingQueue<DocWriteRequest<?>> incoming = new LinkedBlockingQueue<>(maxQueued);
+    private final Queue<DocWriteRequest<?>> retryQueue = new ConcurrentLinkedQueue<>();
+    // The next operations on their documents, to be handed to the bulk processor
+    private final Queue<DocWriteRequest<?>> readyQueue = new ConcurrentLinkedQueue<>();
+    private final Map<DocWriteRequest<?>, Integer> attempts = Collections.synchronizedMap(new IdentityHashMap<>());
+    // The documents with an operation being sent, guarded by itself
+    private final Map<String, DocumentOperations> documentOperations = new HashMap<>();
+    private final Map<Long, Long> flushStartTimes = new ConcurrentHashMap<>();
+
+    private final AtomicLong flushCount = new AtomicLong();
+    private final AtomicLong totalFlushMillis = new AtomicLong();
+    private final AtomicLong lastFlushMillis = new AtomicLong();
+    private final AtomicLong failedCount = new AtomicLong();
+    private final AtomicLong supersededCount = new AtomicLong();
+    private final AtomicLong rejectedCount = new AtomicLong();
+
+    /**
+     * Returns the started indexer, null when bulk indexing is not enabled
+     */
+    public static ElasticBulkIndexer getInstance() {
+        return instance;
+    }
+
+    /**
+     * Starts sending the queued operations and makes this the indexer returned by getInstance
+     */
+    public void start() {
+        RestHighLevelClient client = ElasticServiceImpl.getClient(BULK_CLIENT);
+        start((request, bulkListener) -> client.bulkAsync(request, RequestOptions.DEFAULT, bulkListener));
+    }
+
+    synchronized void start(BiConsumer<BulkRequest, ActionListener<BulkResponse>> bulkConsumer) {
+        if (bulkProcessor != null) {
+            return;
+        }
+        pendingPermits = new Semaphore(maxPending);
+        incoming = new LinkedBlockingQueue<>(maxQueued);
+        bulkProcessor = BulkProcessor.builder(bulkConsumer, new BulkListener())
+                .setBulkActions(bulkActions)
+                .setBulkSize(new ByteSizeValue(bulkSizeInMB, ByteSizeUnit.MB))
+                .setFlushInterval(TimeValue.timeValueMillis(flushIntervalMillis))
+                .setConcurrentRequests(concurrentRequests)
+                // Items rejected by a busy cluster are retried within the bulk request
+                .setBackoffPolicy(BackoffPolicy.exponentialBackoff(TimeValue.timeValueMillis(retryDelayMillis), maxRetries))
+                .build();
+        retryScheduler = Executors.newSingleThreadScheduledExecutor(runnable -> {
+            Thread thread = new Thread(runnable, "ElasticBulkRetry");
+            thread.setDaemon(true);
+            return thread;
+        });
+        retryScheduler.scheduleWithFixedDelay(this::requeueFailed, retryDelayMillis, retryDelayMillis, TimeUnit.MILLISECONDS);
+        feeder = Executors.newSingleThreadExecutor(runnable -> {
+            Thread thread = new Thread(runnable, "ElasticBulkFeeder");
+            thread.setDaemon(true);
+            return thread;
+        });
+        feeding = true;
+        feeder.submit(this::feed);
+        instance = this;
+        logger.info("Elastic bulk indexer started with {} actions, {} MB, {} ms flush interval", bulkActions, bulkSizeInMB, flushIntervalMillis);
+    }
+
+    public void addEntity(String index, String entityId, JsonNode inputEntity) {
+        Map<String, Object> inputMap = JSONUtil.convertJsonNodeToMap(inputEntity);
+        queue(new IndexRequest(index, searchType, entityId).source(inputMap));
+    }
+
+    public void updateEntity(String index, String entityId, JsonNode inputEntity) {
+        Map<String, Object> inputMap = JSONUtil.convertJsonNodeToMap(inputEntity);
+        queue(new UpdateRequest(index.toLowerCase(), searchType, entityId).doc(inputMap));
+    }
+
+    /**
+     * Removes the document, or marks it inactive when hard delete is not enabled
+     */
+    public void deleteEntity(String index, String entityId) {
+        String indexL = index.toLowerCase();
+        if (hardDeleteEnabled) {
+            queue(new DeleteRequest(indexL, searchType, entityId));
+        } else {
+            queue(new UpdateRequest(indexL, searchType, entityId)
+                    .doc(Collections.singletonMap(Constants.STATUS_KEYWORD, Constants.STATUS_INACTIVE)));
+        }
+    }
+
+    /**
+     * Queues the operation, waiting up to queueTimeoutMillis while maxQueued operations are queued
+     * already. The operation is rejected if there is still no room.
+     */
+    void queue(DocWriteRequest<?> request) {
+        boolean queued;
+        try {
+            queued = incoming.offer(request, queueTimeoutMillis, TimeUnit.MILLISECONDS);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            queued = false;
+        }
+        if (!queued) {
+            rejectedCount.incrementAndGet();
+            logger.error("Rejected {} {}/{}, {} elastic search operations are queued already", request.opType(),
+                    request.index(), request.id(), incoming.size());
+        }
+    }
+
+    /**
+     * Hands the queued operations to the bulk processor in order, waiting while maxPending
+     * operations are being sent. An operation on a document with an operation being sent waits
+     * for it to complete. Runs until closed and the queued operations are handed over.
+     */
+    private void feed() {
+        try {
+            while (feeding || !incoming.isEmpty()) {
+                DocWriteRequest<?> request = incoming.poll(flushIntervalMillis, TimeUnit.MILLISECONDS);
+                if (request == null) {
+                    continue;
+                }
+                pendingPermits.acquire();
+                if (admit(request)) {
+                    send(request);
+                }
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            logger.error("Interrupted with {} elastic search operations queued", incoming.size());
+        }
+    }
+
+    /**
+     * Returns true if the operation is to be sent now, false if it waits for the operation being
+     * sent on its document
+     */
+    private boolean admit(DocWriteRequest<?> request) {
+        synchronized (documentOperations) {
+            DocumentOperations operations = documentOperations.get(getDocumentKey(request));
+            if (operations == null) {
+                documentOperations.put(getDocumentKey(request), new DocumentOperations());
+                return true;
+            }
+            operations.waiting.add(request);
+            return false;
+        }
+    }
+
+    private void send(DocWriteRequest<?> request) {
+        try {
+            bulkProcessor.add(request);
+        } catch (RuntimeException e) {
+            failedCount.incrementAndGet();
+            completed(request);
+            logger.error("Failed to queue {} {}/{}: {}", request.opType(), request.index(), request.id(), ExceptionUtils.getStackTrace(e));
+        }
+    }
+
+    /**
+     * Sends the next operations on the documents whose operation completed
+     */
+    private void sendReady() {
+        DocWriteRequest<?> request;
+        while ((request = readyQueue.poll()) != null) {
+            send(request);
+        }
+    }
+
+    /**
+     * Sends the operations which failed with a temporary error again, except those superseded by
+     * a newer index or delete of their document. Runs on its own thread, as the bulk listener must
+     * not add to the processor.
+     */
+    private void requeueFailed() {
+        try {
+            sendReady();
+            DocWriteRequest<?> request;
+            while ((request = retryQueue.poll()) != null) {
+                DocWriteRequest<?> replacement = supersede(request);
+                send(replacement == null ? request : replacement);
+            }
+        } catch (Exception e) {
+            logger.error("Failed to requeue the elastic search operations: {}", ExceptionUtils.getStackTrace(e));
+        }
+    }
+
+    /**
+     * Drops the failed operation, and the operations waiting after it, if an index or delete of
+     * the document is waiting. Returns the latest such index or delete, to be sent in its place,
+     * or null when the failed operation is to be sent again.
+     */
+    private DocWriteRequest<?> supersede(DocWriteRequest<?> failed) {
+        List<DocWriteRequest<?>> superseded = new ArrayList<>();
+        DocWriteRequest<?> replacement;
+        synchronized (documentOperations) {
+            DocumentOperations operations = documentOperations.get(getDocumentKey(failed));
+            if (operations == null) {
+                return null;
+            }
+            int latest = -1;
+            int position = 0;
+            for (DocWriteRequest<?> waiting : operations.waiting) {
+                if (replacesDocument(waiting)) {
+                    latest = position;
+                }
+                position++;
+            }
+            if (latest < 0) {
+                return null;
+            }
+            superseded.add(failed);
+            for (int i = 0; i < latest; i++) {
+                superseded.add(operations.waiting.poll());
+            }
+            replacement = operations.waiting.poll();
+        }
+        for (DocWriteRequest<?> request : superseded) {
+            logger.debug("Not sending {} {}/{}, a newer index or delete was queued", request.opType(), request.index(), request.id());
+            attempts.remove(request);
+            supersededCount.incrementAndGet();
+            pendingPermits.release();
+        }
+        return replacement;
+    }
+
+    private static boolean replacesDocument(DocWriteRequest<?> request) {
+        return request instanceof IndexRequest || request instanceof DeleteRequest;
+    }
+
+    /**
+     * Retries the operation if it has attempts left. Otherwise, it is dropped.
+     */
+    private void retryOrDrop(DocWriteRequest<?> request, String reason) {
+        int attempt = attempts.merge(request, 1, Integer::sum);
+        if (attempt <= maxRetries) {
+            retryQueue.add(request);
+        } else {
+            failedCount.incrementAndGet();
+            completed(request);
+            logger.error("Giving up on {} {}/{} after {} attempts: {}", request.opType(), request.index(), request.id(), attempt, reason);
+        }
+    }
+
+    /**
+     * Releases the document of the operation, handing its next operation, if any, to be sent
+     */
+    private void completed(DocWriteRequest<?> request) {
+        attempts.remove(request);
+        DocWriteRequest<?> next;
+        synchronized (documentOperations) {
+            String key = getDocumentKey(request);
+            DocumentOperations operations = documentOperations.get(key);
+            next = operations == null ? null : operations.waiting.poll();
+            if (operations != null && next == null) {
+                documentOperations.remove(key);
+            }
+        }
+        pendingPermits.release();
+        if (next != null) {
+            readyQueue.add(next);
+            try {
+                retryScheduler.execute(this::sendReady);
+            } catch (RejectedExecutionException e) {
+                // Closing, the ready operations are sent by close
+            }
+        }
+    }
+
+    private static String getDocumentKey(DocWriteRequest<?> request) {
+        return request.index().toLowerCase() + "/" + request.id();
+    }
+
+    // The operations waiting for the one being sent on a document
+    private static class DocumentOperations {
+        private final Deque<DocWriteRequest<?>> waiting = new ArrayDeque<>();
+    }
+
+    private class BulkListener implements BulkProcessor.Listener {
+        @Override
+        public void beforeBulk(long executionId, BulkRequest request) {
+            flushStartTimes.put(executionId, System.currentTimeMillis());
+        }
+
+        @Override
+        public void afterBulk(long executionId, BulkRequest request, BulkResponse response) {
+            long latency = recordFlush(executionId);
+            List<DocWriteRequest<?>> requests = request.requests();
+            for (BulkItemResponse item : response.getItems()) {
+                DocWriteRequest<?> itemRequest = requests.get(item.getItemId());
+                if (!item.isFailed()) {
+                    completed(itemRequest);
+                } else if (RETRY_STATUSES.contains(item.getFailure().getStatus())) {
+                    retryOrDrop(itemRequest, item.getFailureMessage());
+                } else {
+                    failedCount.incrementAndGet();
+                    completed(itemRequest);
+                    logger.error("Failed {} {}/{}: {}", item.getOpType(), item.getIndex(), item.getId(), item.getFailureMessage());
+                }
+            }
+            logger.debug("Flushed {} operations in {} ms, {} pending", request.numberOfActions(), latency, getQueueDepth());
+        }
+
+        @Override
+        public void afterBulk(long executionId, BulkRequest request, Throwable failure) {
+            recordFlush(executionId);
+            logger.error("Bulk request of {} operations failed: {}", request.numberOfActions(), ExceptionUtils.getStackTrace(failure));
+            for (DocWriteRequest<?> itemRequest : request.requests()) {
+                retryOrDrop(itemRequest, failure.getMessage());
+            }
+        }
+
+        private long recordFlush(long executionId) {
+            Long startTime = flushStartTimes.remove(executionId);
+            long latency = startTime == null ? 0 : System.currentTimeMillis() - startTime;
+            flushCount.incrementAndGet();
+            totalFlushMillis.addAndGet(latency);
+            lastFlushMillis.set(latency);
+            return latency;
+        }
+    }
+
+    /**
+     * Returns the number of operations queued or being sent
+     */
+    public int getQueueDepth() {
+        return incoming.size() + (pendingPermits == null ? 0 : maxPending - pendingPermits.availablePermits());
+    }
+
+    public long getFlushCount() {
+        return flushCount.get();
+    }
+
+    public long getLastFlushMillis() {
+        return lastFlushMillis.get();
+    }
+
+    public double getAverageFlushMillis() {
+        long flushes = flushCount.get();
+        return flushes == 0 ? 0 : (double) totalFlushMillis.get() / flushes;
+    }
+
+    public long getFailedCount() {
+        return failedCount.get();
+    }
+
+    /**
+     * Returns the number of operations dropped as a newer index or delete of their document was queued
+     */
+    public long getSupersededCount() {
+        return supersededCount.get();
+    }
+
+    /**
+     * Returns the number of operations rejected as maxQueued operations were queued already
+     */
+    public long getRejectedCount() {
+        return rejectedCount.get();
+    }
+
+    /**
+     * Sends the queued operations and waits for them to complete
+     */
+    @Override
+    public synchronized void close() {
+        if (bulkProcessor == null) {
+            return;
+        }
+        if (instance == this) {
+            instance = null;
+        }
+        feeding = false;
+        feeder.shutdown();
+        try {
+            if (!feeder.awaitTermination(30, TimeUnit.SECONDS)) {
+                logger.error("Closing with {} elastic search operations not handed to the bulk processor", incoming.size());
+            }
+            // The operations waiting on their documents and the retries are sent by the scheduler
+            long deadline = System.currentTimeMillis() + 30000;
+            while (getQueueDepth() > incoming.size() && System.currentTimeMillis() < deadline) {
+                bulkProcessor.flush();
+                Thread.sleep(Math.min(retryDelayMillis, 100));
+            }
+            retryScheduler.shutdownNow();
+            requeueFailed();
+            bulkProcessor.awaitClose(30, TimeUnit.SECONDS);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+        logger.info("Elastic bulk indexer closed after {} flushes, {} failed operations, {} pending",
+                getFlushCount(), getFailedCount(), getQueueDepth());
+        bulkProcessor = null;
+    }
+
+    public void setSearchType(String searchType) {
+        this.searchType = searchType;
+    }
+
+    public void setHardDeleteEnabled(boolean hardDeleteEnabled) {
+        this.hardDeleteEnabled = hardDeleteEnabled;
+    }
+
+    public void setBulkActions(int bulkActions) {
+        this.bulkActions = bulkActions;
+    }
+
+    public void setBulkSizeInMB(long bulkSizeInMB) {
+        this.bulkSizeInMB = bulkSizeInMB;
+    }
+
+    public void setFlushIntervalMillis(long flushIntervalMillis) {
+        this.flushIntervalMillis = flushIntervalMillis;
+    }
+
+    public void setConcurrentRequests(int concurrentRequests) {
+        this.concurrentRequests = concurrentRequests;
+    }
+
+    public void setMaxPending(int maxPending) {
+        this.maxPending = maxPending;
+    }
+
+    public void setMaxQueued(int maxQueued) {
+        this.maxQueued = maxQueued;
+    }
+
+    public void setQueueTimeoutMillis(long queueTimeoutMillis) {
+        this.queueTimeoutMillis = queueTimeoutMillis;
+    }
+
+    public void setMaxRetries(int maxRetries) {
+        this.maxRetries = maxRetries;
+    }
+
+    public void setRetryDelayMillis(long retryDelayMillis) {
+        this.retryDelayMillis = retryDelayMillis;
+    }
+}
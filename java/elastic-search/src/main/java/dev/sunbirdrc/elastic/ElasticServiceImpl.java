@@ -29,6 +29,8 @@ import org.elasticsearch.action.admin.cluster.health.ClusterHealthRequest;
 import org.elasticsearch.action.admin.cluster.health.ClusterHealthResponse;
 import org.elasticsearch.action.admin.indices.create.CreateIndexRequest;
 import org.elasticsearch.action.admin.indices.create.CreateIndexResponse;
+import org.elasticsearch.action.bulk.BulkRequest;
+import org.elasticsearch.action.bulk.BulkResponse;
 import org.elasticsearch.action.delete.DeleteRequest;
 import org.elasticsearch.action.delete.DeleteResponse;
 import org.elasticsearch.action.get.GetRequest;
@@ -130,7 +132,7 @@ public class ElasticServiceImpl implements IElasticService {
      * @param indexName of ElasticSearch
      * @return
      */
-    private static RestHighLevelClient getClient(String indexName) {
+    static RestHighLevelClient getClient(String indexName) {
         logger.info("connection info: index:{} connectioninfo:{}", indexName, connectionInfo);
         if (null == esClient.get(indexName)) {
             createClient(indexName, connectionInfo);
@@ -207,6 +209,33 @@ public class ElasticServiceImpl implements IElasticService {
         return response.status();
     }
 
+    /**
+     * Adds the inputs as documents into elastic-search with a single bulk request
+     *
+     * @param index         - ElasticSearch Index
+     * @param inputEntities - input documents for adding, keyed by the entity id
+     * @return
+     */
+    @Override
+    public RestStatus addEntities(String index, Map<String, JsonNode> inputEntities) {
+        logger.debug("addEntities starts with index {} and {} entities", index, inputEntities.size());
+        BulkResponse response = null;
+        try {
+            BulkRequest bulkRequest = new BulkRequest();
+            for (Map.Entry<String, JsonNode> entry : inputEntities.entrySet()) {
+                Map<String, Object> inputMap = JSONUtil.convertJsonNodeToMap(entry.getValue());
+                bulkRequest.add(new IndexRequest(index, searchType, entry.getKey()).source(inputMap));
+            }
+            response = getClient(index).bulk(bulkRequest, RequestOptions.DEFAULT);
+            if (response.hasFailures()) {
+                logger.error("Failures in adding records to ElasticSearch: {}", response.buildFailureMessage());
+            }
+        } catch (IOException e) {
+            logger.error("Exception in adding records to ElasticSearch: {}", ExceptionUtils.getStackTrace(e));
+        }
+        return response.status();
+    }
+
     /**
      * Reads the document from Elastic search
      *
@@ -20,6 +20,13 @@ public interface IElasticService extends HealthIndicator {
      */
     RestStatus addEntity(String index, String id, JsonNode inputEntity);
 
+    /** Saves documents into ES(ElasticSearch) in one bulk request
+     * @param index - ElasticSearch Index
+     * @param inputEntities - input json documents for adding, keyed by the document id
+     * @return
+     */
+    RestStatus addEntities(String index, Map<String, JsonNode> inputEntities);
+
     /** Reads document with respect to input uuidPropertyValue from ES
      * @param index - ElasticSearch Index
      * @param uuidPropertyValue - which maps to document
@@ -0,0 +1,237 @@
+package dev.sunbirdrc.elastic;
+
+import org.elasticsearch.action.ActionListener;
+import org.elasticsearch.action.DocWriteRequest;
+import org.elasticsearch.action.bulk.BulkItemResponse;
+import org.elasticsearch.action.bulk.BulkRequest;
+import org.elasticsearch.action.bulk.BulkResponse;
+import org.elasticsearch.action.index.IndexRequest;
+import org.elasticsearch.action.update.UpdateRequest;
+import org.elasticsearch.rest.RestStatus;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashSet;
+import java.util.IdentityHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.BiFunction;
+import java.util.function.BooleanSupplier;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+/**
+ * The operations are mostly queued as deletes, which are sent as updates marking the documents
+ * inactive unless hard delete is enabled
+ */
+public class ElasticBulkIndexerTest {
+
+    private final List<String> sent = Collections.synchronizedList(new ArrayList<>());
+    private final Map<DocWriteRequest<?>, Integer> attempts = Collections.synchronizedMap(new IdentityHashMap<>());
+    private ElasticBulkIndexer indexer;
+    // Returns the failure status of an item of a bulk request, null when it succeeds
+    private volatile BiFunction<DocWriteRequest<?>, Integer, RestStatus> itemStatus = (request, attempt) -> null;
+
+    @Before
+    public void setUp() {
+        indexer = new ElasticBulkIndexer();
+        indexer.setBulkActions(2);
+        indexer.setFlushIntervalMillis(50);
+        indexer.setRetryDelayMillis(50);
+        indexer.setMaxRetries(2);
+    }
+
+    @After
+    public void tearDown() {
+        indexer.close();
+    }
+
+    private void respond(BulkRequest request, ActionListener<BulkResponse> listener) {
+        List<DocWriteRequest<?>> requests = request.requests();
+        BulkItemResponse[] items = new BulkItemResponse[requests.size()];
+        for (int i = 0; i < items.length; i++) {
+            DocWriteRequest<?> itemRequest = requests.get(i);
+            int attempt = attempts.merge(itemRequest, 1, Integer::sum) - 1;
+            sent.add(itemRequest.opType() + ":" + itemRequest.id());
+            RestStatus status = itemStatus.apply(itemRequest, attempt);
+            items[i] = status == null ? new BulkItemResponse(i, itemRequest.opType(), (org.elasticsearch.action.DocWriteResponse) null)
+                    : new BulkItemResponse(i, itemRequest.opType(), new BulkItemResponse.Failure(itemRequest.index(),
+                    itemRequest.type(), itemRequest.id(), new IllegalStateException(status.name()), status));
+        }
+        listener.onResponse(new BulkResponse(items, 1));
+    }
+
+    private static void waitFor(BooleanSupplier condition) throws InterruptedException {
+        long deadline = System.currentTimeMillis() + 10000;
+        while (!condition.getAsBoolean() && System.currentTimeMillis() < deadline) {
+            Thread.sleep(20);
+        }
+        assertTrue(condition.getAsBoolean());
+    }
+
+    @Test
+    public void shouldSendTheQueuedOperationsInBulk() throws Exception {
+        List<Integer> bulkSizes = Collections.synchronizedList(new ArrayList<>());
+        indexer.start((request, listener) -> {
+            bulkSizes.add(request.numberOfActions());
+            respond(request, listener);
+        });
+        for (int i = 0; i < 4; i++) {
+            indexer.deleteEntity("teacher", "id" + i);
+        }
+
+        waitFor(() -> sent.size() == 4 && indexer.getQueueDepth() == 0);
+        assertEquals(Arrays.asList(2, 2), bulkSizes);
+        assertEquals(Arrays.asList("UPDATE:id0", "UPDATE:id1", "UPDATE:id2", "UPDATE:id3"), sent);
+        assertEquals(0, indexer.getFailedCount());
+    }
+
+    @Test
+    public void shouldRetryAnOperationFailingWithATemporaryError() throws Exception {
+        itemStatus = (request, attempt) -> attempt == 0 ? RestStatus.SERVICE_UNAVAILABLE : null;
+        indexer.start(this::respond);
+        indexer.deleteEntity("teacher", "id1");
+
+        waitFor(() -> sent.size() == 2 && indexer.getQueueDepth() == 0);
+        assertEquals(sent.get(0), sent.get(1));
+        assertEquals(0, indexer.getFailedCount());
+    }
+
+    @Test
+    public void shouldGiveUpAfterTheRetries() throws Exception {
+        itemStatus = (request, attempt) -> RestStatus.GATEWAY_TIMEOUT;
+        indexer.start(this::respond);
+        indexer.deleteEntity("teacher", "id1");
+
+        waitFor(() -> indexer.getFailedCount() == 1 && indexer.getQueueDepth() == 0);
+        assertEquals(3, sent.size());
+    }
+
+    @Test
+    public void shouldNotRetryAnOperationSupersededByANewerOne() throws Exception {
+        // The first operation on each document fails once
+        Set<String> failedIds = Collections.synchronizedSet(new HashSet<>());
+        itemStatus = (request, attempt) -> attempt == 0 && failedIds.add(request.id()) ? RestStatus.SERVICE_UNAVAILABLE : null;
+        indexer.setHardDeleteEnabled(true);
+        indexer.start(this::respond);
+        indexer.deleteEntity("teacher", "id1");
+        indexer.deleteEntity("teacher", "id1");
+        indexer.deleteEntity("teacher", "id2");
+
+        waitFor(() -> indexer.getSupersededCount() == 1 && indexer.getQueueDepth() == 0);
+        // The first operation on id1 is not sent again after the newer one, the one on id2 is
+        waitFor(() -> sent.size() == 4);
+        Thread.sleep(200);
+        assertEquals(4, sent.size());
+        assertEquals(2, Collections.frequency(sent, "DELETE:id1"));
+        assertEquals(2, Collections.frequency(sent, "DELETE:id2"));
+        assertEquals(0, indexer.getFailedCount());
+    }
+
+    @Test
+    public void shouldNotBlockTheCallerWhileTheOperationsAreBeingSent() throws Exception {
+        CountDownLatch release = new CountDownLatch(1);
+        indexer.setMaxPending(1);
+        indexer.setBulkActions(1);
+        indexer.start((request, listener) -> {
+            try {
+                release.await(10, TimeUnit.SECONDS);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+            respond(request, listener);
+        });
+        long startTime = System.currentTimeMillis();
+        for (int i = 0; i < 5; i++) {
+            indexer.deleteEntity("teacher", "id" + i);
+        }
+
+        assertTrue(System.currentTimeMillis() - startTime < 1000);
+        waitFor(() -> indexer.getQueueDepth() == 5 && sent.isEmpty());
+        release.countDown();
+        waitFor(() -> sent.size() == 5 && indexer.getQueueDepth() == 0);
+    }
+
+    @Test
+    public void shouldRetryAFailedAddBeforeTheUpdateOfItsDocument() throws Exception {
+        Set<String> indexed = Collections.synchronizedSet(new HashSet<>());
+        itemStatus = (request, attempt) -> {
+            if (request.opType() == DocWriteRequest.OpType.INDEX) {
+                if (attempt == 0) {
+                    return RestStatus.SERVICE_UNAVAILABLE;
+                }
+                indexed.add(request.id());
+                return null;
+            }
+            return indexed.contains(request.id()) ? null : RestStatus.NOT_FOUND;
+        };
+        indexer.start(this::respond);
+        indexer.queue(new IndexRequest("teacher", "_doc", "id1").source(Collections.singletonMap("name", "a")));
+        indexer.queue(new UpdateRequest("teacher", "_doc", "id1").doc(Collections.singletonMap("name", "b")));
+
+        waitFor(() -> sent.size() == 3 && indexer.getQueueDepth() == 0);
+        assertEquals(Arrays.asList("INDEX:id1", "INDEX:id1", "UPDATE:id1"), sent);
+        assertEquals(0, indexer.getFailedCount());
+        assertEquals(0, indexer.getSupersededCount());
+    }
+
+    @Test
+    public void shouldReplaceAFailedOperationWithANewerIndexOfItsDocument() throws Exception {
+        itemStatus = (request, attempt) -> "a".equals(((IndexRequest) request).sourceAsMap().get("name")) ?
+                RestStatus.SERVICE_UNAVAILABLE : null;
+        List<DocWriteRequest<?>> sentRequests = Collections.synchronizedList(new ArrayList<>());
+        indexer.start((request, listener) -> {
+            sentRequests.addAll(request.requests());
+            respond(request, listener);
+        });
+        indexer.queue(new IndexRequest("teacher", "_doc", "id1").source(Collections.singletonMap("name", "a")));
+        indexer.queue(new IndexRequest("teacher", "_doc", "id1").source(Collections.singletonMap("name", "b")));
+        indexer.queue(new IndexRequest("teacher", "_doc", "id1").source(Collections.singletonMap("name", "c")));
+
+        waitFor(() -> indexer.getSupersededCount() == 2 && indexer.getQueueDepth() == 0);
+        assertEquals(2, sentRequests.size());
+        assertEquals("c", ((IndexRequest) sentRequests.get(1)).sourceAsMap().get("name"));
+        assertEquals(0, indexer.getFailedCount());
+    }
+
+    @Test
+    public void shouldRejectOperationsBeyondTheQueueLimit() throws Exception {
+        CountDownLatch release = new CountDownLatch(1);
+        AtomicInteger bulkRequests = new AtomicInteger();
+        indexer.setMaxPending(1);
+        indexer.setBulkActions(1);
+        indexer.setMaxQueued(2);
+        indexer.setQueueTimeoutMillis(10);
+        indexer.start((request, listener) -> {
+            bulkRequests.incrementAndGet();
+            try {
+                release.await(10, TimeUnit.SECONDS);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+            respond(request, listener);
+        });
+        // The first operation is being sent and the feeder holds the second one
+        indexer.deleteEntity("teacher", "id0");
+        waitFor(() -> bulkRequests.get() == 1);
+        indexer.deleteEntity("teacher", "id1");
+        waitFor(() -> indexer.getQueueDepth() == 1);
+        indexer.deleteEntity("teacher", "id2");
+        indexer.deleteEntity("teacher", "id3");
+        indexer.deleteEntity("teacher", "id4");
+
+        assertEquals(1, indexer.getRejectedCount());
+        release.countDown();
+        waitFor(() -> sent.size() == 4 && indexer.getQueueDepth() == 0);
+        assertEquals(Arrays.asList("UPDATE:id0", "UPDATE:id1", "UPDATE:id2", "UPDATE:id3"), sent);
+    }
+}
@@ -0,0 +1,39 @@
+package dev.sunbirdrc.encryption;
+
+/**
+ * A value encrypted by the encryption service, written as the id of the key and the base64 encoded
+ * cipher bytes separated by a pipe
+ */
+public final class Ciphertext {
+    private final int keyId;
+    private final String ciphertext;
+
+    public Ciphertext(int keyId, String ciphertext) {
+        this.keyId = keyId;
+        this.ciphertext = ciphertext;
+    }
+
+    public static Ciphertext parse(String value) throws CryptoException {
+        int separator = value.indexOf('|');
+        try {
+            int end = value.indexOf('|', separator + 1);
+            return new Ciphertext(Integer.parseInt(value.substring(0, separator)),
+                    value.substring(separator + 1, end < 0 ? value.length() : end));
+        } catch (RuntimeException e) {
+            throw new CryptoException(value + ": Invalid Ciphertext");
+        }
+    }
+
+    public int getKeyId() {
+        return keyId;
+    }
+
+    public String getCiphertext() {
+        return ciphertext;
+    }
+
+    @Override
+    public String toString() {
+        return keyId + "|" + ciphertext;
+    }
+}
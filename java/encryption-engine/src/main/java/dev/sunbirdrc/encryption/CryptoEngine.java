@@ -0,0 +1,147 @@
+package dev.sunbirdrc.encryption;
+
+import org.bouncycastle.jce.provider.BouncyCastleProvider;
+
+import javax.crypto.Cipher;
+import javax.crypto.spec.GCMParameterSpec;
+import java.nio.charset.StandardCharsets;
+import java.security.GeneralSecurityException;
+import java.security.Security;
+import java.util.ArrayList;
+import java.util.Base64;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Encrypts and decrypts values in process, as the _encrypt and _decrypt endpoints of the
+ * encryption service do. Maps and lists are navigated and every value in them is replaced; keys
+ * are kept as they are. The ciphertexts are interchangeable with those of the encryption service.
+ */
+public class CryptoEngine {
+    public static final String DEFAULT_SYMMETRIC_METHOD = "AES/GCM/NoPadding";
+    public static final String DEFAULT_ASYMMETRIC_METHOD = "RSA/NONE/OAEPWithSHA3-256AndMGF1Padding";
+
+    static {
+        Security.addProvider(new BouncyCastleProvider());
+    }
+
+    private final KeyStore keyStore;
+    private final String symmetricMethod;
+    private final String asymmetricMethod;
+
+    public CryptoEngine(KeyStore keyStore) {
+        this(keyStore, DEFAULT_SYMMETRIC_METHOD, DEFAULT_ASYMMETRIC_METHOD);
+    }
+
+    public CryptoEngine(KeyStore keyStore, String symmetricMethod, String asymmetricMethod) {
+        this.keyStore = keyStore;
+        this.symmetricMethod = symmetricMethod;
+        this.asymmetricMethod = asymmetricMethod;
+    }
+
+    /**
+     * @param value a single value, or a map or list of values
+     * @return the ciphertexts, in a map or list of the same shape as the value
+     */
+    public Object encrypt(Object value, String tenantId, Method method) throws CryptoException {
+        Object key = keyStore.getActiveKey(tenantId, method);
+        if (key == null) {
+            // The keys of a new tenant are generated on its first encryption, as the encryption service does
+            keyStore.generateKeys(tenantId);
+            key = keyStore.getActiveKey(tenantId, method);
+            if (key == null) {
+                throw new CryptoException(tenantId + ": No active key of the tenant");
+            }
+        }
+        final Object activeKey = key;
+        return process(value, plain -> encryptValue(plain, activeKey));
+    }
+
+    /**
+     * @param value a single ciphertext, or a map or list of ciphertexts
+     * @return the plain values, in a map or list of the same shape as the value
+     */
+    public Object decrypt(Object value) throws CryptoException {
+        return process(value, this::decryptValue);
+    }
+
+    private Object process(Object value, ValueOperation operation) throws CryptoException {
+        if (value instanceof Map) {
+            Map<?, ?> map = (Map<?, ?>) value;
+            Map<Object, Object> processed = new HashMap<>(map.size() * 4 / 3 + 1);
+            for (Map.Entry<?, ?> entry : map.entrySet()) {
+                processed.put(entry.getKey(), process(entry.getValue(), operation));
+            }
+            return processed;
+        } else if (value instanceof List) {
+            List<?> list = (List<?>) value;
+            List<Object> processed = new ArrayList<>(list.size());
+            for (Object element : list) {
+                processed.add(process(element, operation));
+            }
+            return processed;
+        } else if (value == null) {
+            return null;
+        }
+        return operation.apply(value.toString());
+    }
+
+    private String encryptValue(String plaintext, Object key) throws CryptoException {
+        byte[] plainBytes = plaintext.getBytes(StandardCharsets.UTF_8);
+        try {
+            if (key instanceof KeyStore.SymmetricKey) {
+                KeyStore.SymmetricKey symmetricKey = (KeyStore.SymmetricKey) key;
+                return new Ciphertext(symmetricKey.keyId, encode(symmetricCipher(Cipher.ENCRYPT_MODE, symmetricKey).doFinal(plainBytes))).toString();
+            }
+            KeyStore.AsymmetricKey asymmetricKey = (KeyStore.AsymmetricKey) key;
+            Cipher cipher = Cipher.getInstance(asymmetricMethod);
+            cipher.init(Cipher.ENCRYPT_MODE, asymmetricKey.publicKey);
+            return new Ciphertext(asymmetricKey.keyId, encode(cipher.doFinal(plainBytes))).toString();
+        } catch (GeneralSecurityException e) {
+            throw new CryptoException("Failed to encrypt a value", e);
+        }
+    }
+
+    private String decryptValue(String value) throws CryptoException {
+        Ciphertext ciphertext = Ciphertext.parse(value);
+        Object key = keyStore.getKey(ciphertext.getKeyId());
+        if (key == null) {
+            keyStore.refreshKeys();
+            key = keyStore.getKey(ciphertext.getKeyId());
+            if (key == null) {
+                throw new CryptoException(ciphertext.getKeyId() + ": Key not found in the database");
+            }
+        }
+        try {
+            byte[] cipherBytes = Base64.getDecoder().decode(ciphertext.getCiphertext());
+            byte[] plainBytes;
+            if (key instanceof KeyStore.SymmetricKey) {
+                plainBytes = symmetricCipher(Cipher.DECRYPT_MODE, (KeyStore.SymmetricKey) key).doFinal(cipherBytes);
+            } else {
+                Cipher cipher = Cipher.getInstance(asymmetricMethod);
+                cipher.init(Cipher.DECRYPT_MODE, ((KeyStore.AsymmetricKey) key).privateKey);
+                plainBytes = cipher.doFinal(cipherBytes);
+            }
+            return new String(plainBytes, StandardCharsets.UTF_8);
+        } catch (GeneralSecurityException | IllegalArgumentException e) {
+            throw new CryptoException(value + ": Failed to decrypt the value", e);
+        }
+    }
+
+    // The encryption service uses one initial vector per key, and GCM ciphers refuse to encrypt
+    // twice with the same key and initial vector, so a cipher is not reused across values
+    private Cipher symmetricCipher(int mode, KeyStore.SymmetricKey key) throws GeneralSecurityException {
+        Cipher cipher = Cipher.getInstance(symmetricMethod);
+        cipher.init(mode, key.secretKey, new GCMParameterSpec(128, key.initialVector));
+        return cipher;
+    }
+
+    private static String encode(byte[] bytes) {
+        return Base64.getEncoder().encodeToString(bytes);
+    }
+
+    private interface ValueOperation {
+        String apply(String value) throws CryptoException;
+    }
+}
@@ -0,0 +1,14 @@
+package dev.sunbirdrc.encryption;
+
+public class CryptoException extends Exception {
+
+    private static final long serialVersionUID = -4915310620349123376L;
+
+    public CryptoException(String message) {
+        super(message);
+    }
+
+    public CryptoException(String message, Throwable cause) {
+        super(message, cause);
+    }
+}
@@ -0,0 +1,81 @@
+package dev.sunbirdrc.encryption;
+
+import java.sql.Connection;
+import java.sql.DriverManager;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Reads and adds the keys of the eg_enc_symmetric_keys and eg_enc_asymmetric_keys tables of the
+ * encryption service database. A connection is opened for each statement, as keys are only read at
+ * startup and when an unknown key or tenant is seen.
+ */
+public class JdbcKeyRepository implements KeyRepository {
+    private static final String selectSymmetricKeyQuery = "SELECT key_id, tenant_id, active, secret_key, initial_vector FROM eg_enc_symmetric_keys";
+    private static final String selectAsymmetricKeyQuery = "SELECT key_id, tenant_id, active, public_key, private_key FROM eg_enc_asymmetric_keys";
+    private static final String insertSymmetricKeyQuery = "INSERT INTO eg_enc_symmetric_keys (key_id, secret_key, initial_vector, active, tenant_id) VALUES (?, ?, ?, ?, ?)";
+    private static final String insertAsymmetricKeyQuery = "INSERT INTO eg_enc_asymmetric_keys (key_id, public_key, private_key, active, tenant_id) VALUES (?, ?, ?, ?, ?)";
+
+    private final String url;
+    private final String user;
+    private final String password;
+
+    public JdbcKeyRepository(String url, String user, String password) {
+        this.url = url;
+        this.user = user;
+        this.password = password;
+    }
+
+    @Override
+    public List<StoredKey> fetchSymmetricKeys() throws CryptoException {
+        return fetchKeys(selectSymmetricKeyQuery);
+    }
+
+    @Override
+    public List<StoredKey> fetchAsymmetricKeys() throws CryptoException {
+        return fetchKeys(selectAsymmetricKeyQuery);
+    }
+
+    @Override
+    public void insertSymmetricKey(StoredKey key) throws CryptoException {
+        insertKey(insertSymmetricKeyQuery, key);
+    }
+
+    @Override
+    public void insertAsymmetricKey(StoredKey key) throws CryptoException {
+        insertKey(insertAsymmetricKeyQuery, key);
+    }
+
+    private List<StoredKey> fetchKeys(String query) throws CryptoException {
+        List<StoredKey> keys = new ArrayList<>();
+        try (Connection connection = DriverManager.getConnection(url, user, password);
+             Statement statement = connection.createStatement();
+             ResultSet resultSet = statement.executeQuery(query)) {
+            while (resultSet.next()) {
+                keys.add(new StoredKey(resultSet.getInt(1), resultSet.getString(2), resultSet.getBoolean(3),
+                        resultSet.getString(4), resultSet.getString(5)));
+            }
+        } catch (SQLException e) {
+            throw new CryptoException("Failed to read the keys from " + url, e);
+        }
+        return keys;
+    }
+
+    private void insertKey(String query, StoredKey key) throws CryptoException {
+        try (Connection connection = DriverManager.getConnection(url, user, password);
+             PreparedStatement statement = connection.prepareStatement(query)) {
+            statement.setInt(1, key.getKeyId());
+            statement.setString(2, key.getEncryptedKey());
+            statement.setString(3, key.getEncryptedSecondKey());
+            statement.setBoolean(4, key.isActive());
+            statement.setString(5, key.getTenantId());
+            statement.executeUpdate();
+        } catch (SQLException e) {
+            throw new CryptoException("Failed to add a key of " + key.getTenantId() + " to " + url, e);
+        }
+    }
+}
@@ -0,0 +1,14 @@
+package dev.sunbirdrc.encryption;
+
+import java.util.List;
+
+public interface KeyRepository {
+
+    List<StoredKey> fetchSymmetricKeys() throws CryptoException;
+
+    List<StoredKey> fetchAsymmetricKeys() throws CryptoException;
+
+    void insertSymmetricKey(StoredKey key) throws CryptoException;
+
+    void insertAsymmetricKey(StoredKey key) throws CryptoException;
+}
@@ -0,0 +1,195 @@
+package dev.sunbirdrc.encryption;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import javax.crypto.SecretKey;
+import javax.crypto.spec.SecretKeySpec;
+import java.security.GeneralSecurityException;
+import java.security.KeyFactory;
+import java.security.KeyPair;
+import java.security.KeyPairGenerator;
+import java.security.PrivateKey;
+import java.security.PublicKey;
+import java.security.SecureRandom;
+import java.security.spec.PKCS8EncodedKeySpec;
+import java.security.spec.X509EncodedKeySpec;
+import java.util.Base64;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * The keys of the encryption service, decrypted with the master key and decoded once when they
+ * are loaded. A refresh replaces all the keys at once, so lookups never see a partial load.
+ */
+public class KeyStore {
+    private static final Logger logger = LoggerFactory.getLogger(KeyStore.class);
+    // size.key.symmetric, size.initialvector, size.key.asymmetric and length.keyid of the encryption service
+    private static final int SYMMETRIC_KEY_SIZE = 256;
+    private static final int INITIAL_VECTOR_SIZE = 12;
+    private static final int ASYMMETRIC_KEY_SIZE = 1024;
+    private static final int KEY_ID_BOUND = 1000000;
+
+    private final KeyRepository keyRepository;
+    private final MasterKeyProvider masterKeyProvider;
+    private final SecureRandom secureRandom = new SecureRandom();
+    private volatile Keys keys = new Keys();
+
+    public KeyStore(KeyRepository keyRepository, MasterKeyProvider masterKeyProvider) {
+        this.keyRepository = keyRepository;
+        this.masterKeyProvider = masterKeyProvider;
+    }
+
+    /**
+     * Loads all the keys from the key tables again
+     */
+    public synchronized void refreshKeys() throws CryptoException {
+        List<StoredKey> symmetricKeys = keyRepository.fetchSymmetricKeys();
+        List<StoredKey> asymmetricKeys = keyRepository.fetchAsymmetricKeys();
+        Keys loaded = new Keys();
+        try {
+            KeyFactory keyFactory = KeyFactory.getInstance("RSA");
+            for (StoredKey storedKey : symmetricKeys) {
+                byte[] secretKey = Base64.getDecoder().decode(decrypt(storedKey.getEncryptedKey()));
+                byte[] initialVector = Base64.getDecoder().decode(decrypt(storedKey.getEncryptedSecondKey()));
+                loaded.add(storedKey, new SymmetricKey(storedKey.getKeyId(), new SecretKeySpec(secretKey, "AES"), initialVector));
+            }
+            for (StoredKey storedKey : asymmetricKeys) {
+                PublicKey publicKey = keyFactory.generatePublic(new X509EncodedKeySpec(
+                        Base64.getDecoder().decode(decrypt(storedKey.getEncryptedKey()))));
+                PrivateKey privateKey = keyFactory.generatePrivate(new PKCS8EncodedKeySpec(
+                        Base64.getDecoder().decode(decrypt(storedKey.getEncryptedSecondKey()))));
+                loaded.add(storedKey, new AsymmetricKey(storedKey.getKeyId(), publicKey, privateKey));
+            }
+        } catch (GeneralSecurityException | IllegalArgumentException e) {
+            throw new CryptoException("Failed to decode the keys", e);
+        }
+        keys = loaded;
+        logger.info("Loaded {} symmetric and {} asymmetric keys", symmetricKeys.size(), asymmetricKeys.size());
+    }
+
+    /**
+     * Generates and stores the missing active keys of a tenant, as the encryption service does for
+     * a new tenant. The keys are loaded again first, as they may have been added since the last load.
+     */
+    public synchronized void generateKeys(String tenantId) throws CryptoException {
+        refreshKeys();
+        boolean symmetricMissing = !hasActiveKey(tenantId, Method.SYM);
+        boolean asymmetricMissing = !hasActiveKey(tenantId, Method.ASY);
+        if (!symmetricMissing && !asymmetricMissing) {
+            return;
+        }
+        try {
+            if (symmetricMissing) {
+                byte[] secretKey = randomBytes(SYMMETRIC_KEY_SIZE / 8);
+                byte[] initialVector = randomBytes(INITIAL_VECTOR_SIZE);
+                keyRepository.insertSymmetricKey(new StoredKey(generateKeyId(), tenantId, true,
+                        encrypt(Base64.getEncoder().encodeToString(secretKey)),
+                        encrypt(Base64.getEncoder().encodeToString(initialVector))));
+            }
+            if (asymmetricMissing) {
+                KeyPairGenerator keyPairGenerator = KeyPairGenerator.getInstance("RSA");
+                keyPairGenerator.initialize(ASYMMETRIC_KEY_SIZE, secureRandom);
+                KeyPair keyPair = keyPairGenerator.generateKeyPair();
+                keyRepository.insertAsymmetricKey(new StoredKey(generateKeyId(), tenantId, true,
+                        encrypt(Base64.getEncoder().encodeToString(keyPair.getPublic().getEncoded())),
+                        encrypt(Base64.getEncoder().encodeToString(keyPair.getPrivate().getEncoded()))));
+            }
+        } catch (GeneralSecurityException e) {
+            throw new CryptoException(tenantId + ": Failed to generate the keys", e);
+        }
+        logger.info("Generated the keys of the tenant {}", tenantId);
+        refreshKeys();
+    }
+
+    private byte[] randomBytes(int size) {
+        byte[] bytes = new byte[size];
+        secureRandom.nextBytes(bytes);
+        return bytes;
+    }
+
+    // The symmetric and asymmetric keys share the ids
+    private int generateKeyId() {
+        int keyId;
+        do {
+            keyId = secureRandom.nextInt(KEY_ID_BOUND);
+        } while (getKey(keyId) != null);
+        return keyId;
+    }
+
+    private String encrypt(String key) throws CryptoException {
+        return masterKeyProvider.encryptWithMasterPassword(key);
+    }
+
+    private String decrypt(String encryptedKey) throws CryptoException {
+        return masterKeyProvider.decryptWithMasterPassword(encryptedKey);
+    }
+
+    /**
+     * @return the active key of the tenant for the method, null if it has none
+     */
+    Object getActiveKey(String tenantId, Method method) {
+        Keys current = keys;
+        Integer keyId = method == Method.SYM ? current.activeSymmetricKeys.get(tenantId) : current.activeAsymmetricKeys.get(tenantId);
+        return keyId == null ? null : getKey(keyId);
+    }
+
+    /**
+     * @return the SymmetricKey or AsymmetricKey of the id, null if there is no such key
+     */
+    Object getKey(int keyId) {
+        Keys current = keys;
+        SymmetricKey symmetricKey = current.symmetricKeys.get(keyId);
+        return symmetricKey != null ? symmetricKey : current.asymmetricKeys.get(keyId);
+    }
+
+    public boolean hasActiveKey(String tenantId, Method method) {
+        return getActiveKey(tenantId, method) != null;
+    }
+
+    private static class Keys {
+        private final Map<Integer, SymmetricKey> symmetricKeys = new HashMap<>();
+        private final Map<Integer, AsymmetricKey> asymmetricKeys = new HashMap<>();
+        private final Map<String, Integer> activeSymmetricKeys = new HashMap<>();
+        private final Map<String, Integer> activeAsymmetricKeys = new HashMap<>();
+
+        void add(StoredKey storedKey, SymmetricKey key) {
+            symmetricKeys.put(key.keyId, key);
+            if (storedKey.isActive()) {
+                activeSymmetricKeys.putIfAbsent(storedKey.getTenantId(), key.keyId);
+            }
+        }
+
+        void add(StoredKey storedKey, AsymmetricKey key) {
+            asymmetricKeys.put(key.keyId, key);
+            if (storedKey.isActive()) {
+                activeAsymmetricKeys.putIfAbsent(storedKey.getTenantId(), key.keyId);
+            }
+        }
+    }
+
+    static final class SymmetricKey {
+        final int keyId;
+        final SecretKey secretKey;
+        final byte[] initialVector;
+
+        SymmetricKey(int keyId, SecretKey secretKey, byte[] initialVector) {
+            this.keyId = keyId;
+            this.secretKey = secretKey;
+            this.initialVector = initialVector;
+        }
+    }
+
+    static final class AsymmetricKey {
+        final int keyId;
+        final PublicKey publicKey;
+        final PrivateKey privateKey;
+
+        AsymmetricKey(int keyId, PublicKey publicKey, PrivateKey privateKey) {
+            this.keyId = keyId;
+            this.publicKey = publicKey;
+            this.privateKey = privateKey;
+        }
+    }
+}
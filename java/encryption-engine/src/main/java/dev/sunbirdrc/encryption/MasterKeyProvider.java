@@ -0,0 +1,8 @@
+package dev.sunbirdrc.encryption;
+
+public interface MasterKeyProvider {
+
+    String encryptWithMasterPassword(String key) throws CryptoException;
+
+    String decryptWithMasterPassword(String encryptedKey) throws CryptoException;
+}
@@ -0,0 +1,21 @@
+package dev.sunbirdrc.encryption;
+
+/**
+ * Encryption methods of the encryption service, SYM for AES and ASY for RSA
+ */
+public enum Method {
+    SYM, ASY;
+
+    /**
+     * Returns the method of a value type, as mapped by the type.to.method.map of the encryption
+     * service
+     */
+    public static Method fromType(String type) throws CryptoException {
+        if ("Normal".equals(type)) {
+            return SYM;
+        } else if ("Imp".equals(type)) {
+            return ASY;
+        }
+        throw new CryptoException(type + ": Invalid data type");
+    }
+}
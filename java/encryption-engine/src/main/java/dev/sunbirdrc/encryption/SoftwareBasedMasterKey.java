@@ -0,0 +1,67 @@
+package dev.sunbirdrc.encryption;
+
+import javax.crypto.Cipher;
+import javax.crypto.SecretKey;
+import javax.crypto.SecretKeyFactory;
+import javax.crypto.spec.GCMParameterSpec;
+import javax.crypto.spec.PBEKeySpec;
+import javax.crypto.spec.SecretKeySpec;
+import java.nio.charset.StandardCharsets;
+import java.security.GeneralSecurityException;
+import java.util.Base64;
+
+/**
+ * The master key of the encryption service when master.password.provider is software: an AES key
+ * derived from the master password and salt, used with the master initial vector.
+ */
+public class SoftwareBasedMasterKey implements MasterKeyProvider {
+    private static final int SALT_SIZE = 8;
+    // size.initialvector of the encryption service, 12 bytes for AES-GCM
+    private static final int INITIAL_VECTOR_SIZE = 12;
+
+    private final SecretKey masterKey;
+    private final byte[] masterInitialVector;
+    private final String symmetricMethod;
+
+    public SoftwareBasedMasterKey(String masterPassword, String masterSalt, String masterInitialVector,
+                                  String symmetricMethod) throws CryptoException {
+        byte[] salt = new byte[SALT_SIZE];
+        for (int i = 0; i < salt.length; i++) {
+            salt[i] = (byte) masterSalt.charAt(i);
+        }
+        this.masterInitialVector = new byte[INITIAL_VECTOR_SIZE];
+        for (int i = 0; i < this.masterInitialVector.length; i++) {
+            this.masterInitialVector[i] = (byte) masterInitialVector.charAt(i);
+        }
+        this.symmetricMethod = symmetricMethod;
+        try {
+            SecretKeyFactory factory = SecretKeyFactory.getInstance("PBKDF2WithHmacSHA256");
+            SecretKey derivedKey = factory.generateSecret(new PBEKeySpec(masterPassword.toCharArray(), salt, 65536, 256));
+            this.masterKey = new SecretKeySpec(derivedKey.getEncoded(), "AES");
+        } catch (GeneralSecurityException e) {
+            throw new CryptoException("Failed to derive the master key", e);
+        }
+    }
+
+    @Override
+    public String encryptWithMasterPassword(String key) throws CryptoException {
+        try {
+            Cipher cipher = Cipher.getInstance(symmetricMethod);
+            cipher.init(Cipher.ENCRYPT_MODE, masterKey, new GCMParameterSpec(128, masterInitialVector));
+            return Base64.getEncoder().encodeToString(cipher.doFinal(key.getBytes(StandardCharsets.UTF_8)));
+        } catch (GeneralSecurityException e) {
+            throw new CryptoException("Failed to encrypt a key with the master key", e);
+        }
+    }
+
+    @Override
+    public String decryptWithMasterPassword(String encryptedKey) throws CryptoException {
+        try {
+            Cipher cipher = Cipher.getInstance(symmetricMethod);
+            cipher.init(Cipher.DECRYPT_MODE, masterKey, new GCMParameterSpec(128, masterInitialVector));
+            return new String(cipher.doFinal(Base64.getDecoder().decode(encryptedKey)), StandardCharsets.UTF_8);
+        } catch (GeneralSecurityException | IllegalArgumentException e) {
+            throw new CryptoException("Failed to decrypt a key with the master key", e);
+        }
+    }
+}
@@ -0,0 +1,48 @@
+package dev.sunbirdrc.encryption;
+
+/**
+ * A row of the key tables of the encryption service. The key material is encrypted with the master
+ * key: the secret key and initial vector of a symmetric key, or the public and private key of an
+ * asymmetric key.
+ */
+public final class StoredKey {
+    private final int keyId;
+    private final String tenantId;
+    private final boolean active;
+    private final String encryptedKey;
+    private final String encryptedSecondKey;
+
+    public StoredKey(int keyId, String tenantId, boolean active, String encryptedKey, String encryptedSecondKey) {
+        this.keyId = keyId;
+        this.tenantId = tenantId;
+        this.active = active;
+        this.encryptedKey = encryptedKey;
+        this.encryptedSecondKey = encryptedSecondKey;
+    }
+
+    public int getKeyId() {
+        return keyId;
+    }
+
+    public String getTenantId() {
+        return tenantId;
+    }
+
+    public boolean isActive() {
+        return active;
+    }
+
+    /**
+     * @return the secret key of a symmetric key, the public key of an asymmetric key
+     */
+    public String getEncryptedKey() {
+        return encryptedKey;
+    }
+
+    /**
+     * @return the initial vector of a symmetric key, the private key of an asymmetric key
+     */
+    public String getEncryptedSecondKey() {
+        return encryptedSecondKey;
+    }
+}
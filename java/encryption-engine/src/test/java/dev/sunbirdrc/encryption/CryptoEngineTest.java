@@ -0,0 +1,173 @@
+package dev.sunbirdrc.encryption;
+
+import org.junit.Before;
+import org.junit.Test;
+
+import javax.crypto.Cipher;
+import javax.crypto.SecretKeyFactory;
+import javax.crypto.spec.GCMParameterSpec;
+import javax.crypto.spec.PBEKeySpec;
+import javax.crypto.spec.SecretKeySpec;
+import java.nio.charset.StandardCharsets;
+import java.security.KeyPair;
+import java.security.KeyPairGenerator;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Base64;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertTrue;
+import static org.junit.Assert.fail;
+
+public class CryptoEngineTest {
+    private static final String MASTER_PASSWORD = "asd@#$@$!132123";
+    private static final String MASTER_SALT = "qweasdzx";
+    private static final String MASTER_INITIAL_VECTOR = "qweasdzxqwea";
+    private static final byte[] SECRET_KEY = "0123456789abcdef0123456789abcdef".getBytes(StandardCharsets.UTF_8);
+    private static final byte[] INITIAL_VECTOR = "abcdefghijkl".getBytes(StandardCharsets.UTF_8);
+
+    private final List<StoredKey> symmetricKeys = new ArrayList<>();
+    private final List<StoredKey> asymmetricKeys = new ArrayList<>();
+    private int keyReads;
+    private CryptoEngine cryptoEngine;
+
+    @Before
+    public void setUp() throws Exception {
+        symmetricKeys.add(new StoredKey(123456, "default", true, encryptWithMaster(encode(SECRET_KEY)),
+                encryptWithMaster(encode(INITIAL_VECTOR))));
+        KeyPairGenerator keyPairGenerator = KeyPairGenerator.getInstance("RSA");
+        keyPairGenerator.initialize(1024);
+        KeyPair keyPair = keyPairGenerator.generateKeyPair();
+        asymmetricKeys.add(new StoredKey(654321, "default", true, encryptWithMaster(encode(keyPair.getPublic().getEncoded())),
+                encryptWithMaster(encode(keyPair.getPrivate().getEncoded()))));
+        KeyRepository keyRepository = new KeyRepository() {
+            @Override
+            public List<StoredKey> fetchSymmetricKeys() {
+                keyReads++;
+                return new ArrayList<>(symmetricKeys);
+            }
+
+            @Override
+            public List<StoredKey> fetchAsymmetricKeys() {
+                return new ArrayList<>(asymmetricKeys);
+            }
+
+            @Override
+            public void insertSymmetricKey(StoredKey key) {
+                symmetricKeys.add(key);
+            }
+
+            @Override
+            public void insertAsymmetricKey(StoredKey key) {
+                asymmetricKeys.add(key);
+            }
+        };
+        MasterKeyProvider masterKey = new SoftwareBasedMasterKey(MASTER_PASSWORD, MASTER_SALT, MASTER_INITIAL_VECTOR,
+                CryptoEngine.DEFAULT_SYMMETRIC_METHOD);
+        cryptoEngine = new CryptoEngine(new KeyStore(keyRepository, masterKey));
+    }
+
+    @Test
+    public void shouldWriteTheCiphertextOfTheEncryptionService() throws Exception {
+        String encrypted = (String) cryptoEngine.encrypt("secret", "default", Method.SYM);
+
+        assertEquals("123456|" + encode(aesGcm(Cipher.ENCRYPT_MODE, SECRET_KEY, INITIAL_VECTOR, "secret".getBytes(StandardCharsets.UTF_8))), encrypted);
+    }
+
+    @Test
+    public void shouldDecryptTheCiphertextOfTheEncryptionService() throws Exception {
+        String ciphertext = "123456|" + encode(aesGcm(Cipher.ENCRYPT_MODE, SECRET_KEY, INITIAL_VECTOR, "secret".getBytes(StandardCharsets.UTF_8)));
+
+        assertEquals("secret", cryptoEngine.decrypt(ciphertext));
+    }
+
+    @Test
+    public void shouldEncryptEveryValueOfMapsAndLists() throws Exception {
+        Map<String, Object> address = new HashMap<>();
+        address.put("pincode", 560001);
+        address.put("line2", null);
+        Map<String, Object> value = new HashMap<>();
+        value.put("email", "anita@example.com");
+        value.put("address", address);
+        value.put("phones", Arrays.asList("123", "456"));
+
+        Map<?, ?> encrypted = (Map<?, ?>) cryptoEngine.encrypt(value, "default", Method.SYM);
+        assertTrue(encrypted.get("email").toString().startsWith("123456|"));
+        assertNull(((Map<?, ?>) encrypted.get("address")).get("line2"));
+        assertTrue(((Map<?, ?>) encrypted.get("address")).containsKey("line2"));
+
+        Map<?, ?> decrypted = (Map<?, ?>) cryptoEngine.decrypt(encrypted);
+        assertEquals("anita@example.com", decrypted.get("email"));
+        assertEquals("560001", ((Map<?, ?>) decrypted.get("address")).get("pincode"));
+        assertEquals(Arrays.asList("123", "456"), decrypted.get("phones"));
+    }
+
+    @Test
+    public void shouldEncryptWithTheAsymmetricKey() throws Exception {
+        String encrypted = (String) cryptoEngine.encrypt("secret", "default", Method.ASY);
+
+        assertTrue(encrypted.startsWith("654321|"));
+        assertEquals("secret", cryptoEngine.decrypt(encrypted));
+    }
+
+    @Test
+    public void shouldReloadTheKeysForAnUnknownKey() throws Exception {
+        cryptoEngine.encrypt("secret", "default", Method.SYM);
+        byte[] newSecretKey = "abcdef0123456789abcdef0123456789".getBytes(StandardCharsets.UTF_8);
+        symmetricKeys.add(new StoredKey(111111, "other", true, encryptWithMaster(encode(newSecretKey)),
+                encryptWithMaster(encode(INITIAL_VECTOR))));
+        String ciphertext = "111111|" + encode(aesGcm(Cipher.ENCRYPT_MODE, newSecretKey, INITIAL_VECTOR, "secret".getBytes(StandardCharsets.UTF_8)));
+
+        assertEquals(Collections.singletonList("secret"), cryptoEngine.decrypt(Collections.singletonList(ciphertext)));
+        assertEquals(2, keyReads);
+        try {
+            cryptoEngine.decrypt("999999|" + encode(INITIAL_VECTOR));
+            fail("Decrypted with an unknown key");
+        } catch (CryptoException e) {
+            assertEquals(3, keyReads);
+        }
+    }
+
+    @Test
+    public void shouldGenerateTheKeysOfANewTenant() throws Exception {
+        String encrypted = (String) cryptoEngine.encrypt("secret", "other", Method.SYM);
+
+        assertEquals(2, symmetricKeys.size());
+        assertEquals(2, asymmetricKeys.size());
+        StoredKey symmetricKey = symmetricKeys.get(1);
+        assertEquals("other", symmetricKey.getTenantId());
+        assertTrue(symmetricKey.isActive());
+        assertTrue(encrypted.startsWith(symmetricKey.getKeyId() + "|"));
+        assertEquals("secret", cryptoEngine.decrypt(encrypted));
+        String asymmetricEncrypted = (String) cryptoEngine.encrypt("secret", "other", Method.ASY);
+        assertTrue(asymmetricEncrypted.startsWith(asymmetricKeys.get(1).getKeyId() + "|"));
+        assertEquals("secret", cryptoEngine.decrypt(asymmetricEncrypted));
+
+        // The keys are only generated once
+        cryptoEngine.encrypt("secret", "other", Method.SYM);
+        assertEquals(2, symmetricKeys.size());
+    }
+
+    private static String encryptWithMaster(String key) throws Exception {
+        SecretKeyFactory factory = SecretKeyFactory.getInstance("PBKDF2WithHmacSHA256");
+        byte[] masterKey = factory.generateSecret(new PBEKeySpec(MASTER_PASSWORD.toCharArray(),
+                MASTER_SALT.getBytes(StandardCharsets.UTF_8), 65536, 256)).getEncoded();
+        return encode(aesGcm(Cipher.ENCRYPT_MODE, masterKey, MASTER_INITIAL_VECTOR.getBytes(StandardCharsets.UTF_8),
+                key.getBytes(StandardCharsets.UTF_8)));
+    }
+
+    private static byte[] aesGcm(int mode, byte[] key, byte[] initialVector, byte[] input) throws Exception {
+        Cipher cipher = Cipher.getInstance("AES/GCM/NoPadding");
+        cipher.init(mode, new SecretKeySpec(key, "AES"), new GCMParameterSpec(128, initialVector));
+        return cipher.doFinal(input);
+    }
+
+    private static String encode(byte[] bytes) {
+        return Base64.getEncoder().encodeToString(bytes);
+    }
+}
@@ -0,0 +1,141 @@
+package dev.sunbirdrc.registry.middleware.service;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.node.ArrayNode;
+import com.jayway.jsonpath.Configuration;
+import com.jayway.jsonpath.JsonPath;
+import com.jayway.jsonpath.Option;
+import com.jayway.jsonpath.spi.json.JacksonJsonNodeJsonProvider;
+import com.jayway.jsonpath.spi.mapper.JacksonMappingProvider;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * A condition split once into its literal text and the json paths of a matcher, like
+ * MATCHER#$.path#. Resolving the condition reads the paths directly from the entity node and
+ * joins the values with the literal text.
+ *
+ * To be evaluated without resolving it first, the condition is turned into an expression with a
+ * variable per json path, #MATCHER_0, #MATCHER_1..., whose values are read from the entity node.
+ */
+class CompiledCondition {
+    private static final Configuration alwaysReturnListConfig = Configuration.builder()
+            .jsonProvider(new JacksonJsonNodeJsonProvider())
+            .mappingProvider(new JacksonMappingProvider())
+            .options(Option.ALWAYS_RETURN_LIST)
+            .build();
+
+    private final String matcher;
+    private final List<String> literals;
+    private final List<JsonPath> paths;
+
+    private CompiledCondition(String matcher, List<String> literals, List<JsonPath> paths) {
+        this.matcher = matcher;
+        this.literals = literals;
+        this.paths = paths;
+    }
+
+    /**
+     * @param matcher   either ATTESTOR or REQUESTER
+     * @param condition the condition with the attributes already replaced
+     */
+    static CompiledCondition compile(String matcher, String condition) {
+        List<String> literals = new ArrayList<>();
+        List<JsonPath> paths = new ArrayList<>();
+        int start = 0;
+        int index = condition.indexOf(matcher);
+        while (index != -1) {
+            int pathStart = condition.indexOf('#', index);
+            int pathEnd = pathStart == -1 ? -1 : condition.indexOf('#', pathStart + 1);
+            if (pathEnd == -1) {
+                throw new IllegalArgumentException("Json path of " + matcher + " is not closed with # in " + condition);
+            }
+            literals.add(condition.substring(start, index));
+            paths.add(JsonPath.compile(condition.substring(pathStart + 1, pathEnd)));
+            start = pathEnd + 1;
+            index = condition.indexOf(matcher, start);
+        }
+        literals.add(condition.substring(start));
+        return new CompiledCondition(matcher, Collections.unmodifiableList(literals), Collections.unmodifiableList(paths));
+    }
+
+    String resolve(JsonNode entityNode) {
+        if (paths.isEmpty()) {
+            return literals.get(0);
+        }
+        StringBuilder resolved = new StringBuilder(literals.get(0));
+        for (int i = 0; i < paths.size(); i++) {
+            ArrayNode read = paths.get(i).read(entityNode, alwaysReturnListConfig);
+            resolved.append(toConditionValue(read)).append(literals.get(i + 1));
+        }
+        return resolved.toString();
+    }
+
+    /**
+     * Returns the condition with the variable of each json path in place of the path
+     */
+    String toExpression() {
+        StringBuilder expression = new StringBuilder(literals.get(0));
+        for (int i = 0; i < paths.size(); i++) {
+            expression.append('#').append(getVariableName(i)).append(literals.get(i + 1));
+        }
+        return expression.toString();
+    }
+
+    /**
+     * Reads the values of the variables of toExpression from the entity node, as resolve writes them:
+     * a single value as a string and several values as a list
+     */
+    Map<String, Object> readVariables(JsonNode entityNode) {
+        Map<String, Object> variables = new HashMap<>();
+        for (int i = 0; i < paths.size(); i++) {
+            ArrayNode read = paths.get(i).read(entityNode, alwaysReturnListConfig);
+            Object value;
+            if (read.size() == 1) {
+                JsonNode node = read.get(0);
+                value = node.isValueNode() ? node.asText() : node.toString();
+            } else {
+                List<Object> values = new ArrayList<>();
+                read.forEach(node -> values.add(toListValue(node)));
+                value = values;
+            }
+            variables.put(getVariableName(i), value);
+        }
+        return variables;
+    }
+
+    private String getVariableName(int index) {
+        return matcher + "_" + index;
+    }
+
+    private static Object toListValue(JsonNode node) {
+        if (node.isTextual()) {
+            return node.asText();
+        } else if (node.isNumber()) {
+            return node.numberValue();
+        } else if (node.isBoolean()) {
+            return node.booleanValue();
+        } else if (node.isNull()) {
+            return null;
+        }
+        return node.toString();
+    }
+
+    /**
+     * A single value is quoted as a string, several values are written as an inline list
+     */
+    private static String toConditionValue(ArrayNode read) {
+        String s;
+        if (read.size() == 1) {
+            JsonNode value = read.get(0);
+            s = "'" + (value.isValueNode() ? value.asText() : value.toString()) + "'";
+        } else {
+            s = read.toString();
+        }
+        return s.replace("[", "{").replace("]", "}");
+    }
+}
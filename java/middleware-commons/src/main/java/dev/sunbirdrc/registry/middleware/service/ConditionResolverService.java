@@ -1,23 +1,31 @@
 package dev.sunbirdrc.registry.middleware.service;
 
 import com.fasterxml.jackson.databind.JsonNode;
-import com.jayway.jsonpath.Configuration;
-import com.jayway.jsonpath.JsonPath;
-import com.jayway.jsonpath.Option;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import org.springframework.expression.Expression;
 import org.springframework.expression.ExpressionParser;
+import org.springframework.expression.spel.SpelCompilerMode;
+import org.springframework.expression.spel.SpelParserConfiguration;
 import org.springframework.expression.spel.standard.SpelExpressionParser;
+import org.springframework.expression.spel.support.StandardEvaluationContext;
 import org.springframework.stereotype.Service;
 
-import java.util.ArrayList;
 import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
 
 @Service
 public class ConditionResolverService {
     private static final Logger logger = LoggerFactory.getLogger(ConditionResolverService.class);
 
+    private static final int MAX_CACHED = 1000;
+    private final ExpressionParser expressionParser = new SpelExpressionParser(
+            new SpelParserConfiguration(SpelCompilerMode.MIXED, ConditionResolverService.class.getClassLoader()));
+    private final Map<String, CompiledCondition> conditions = new ConcurrentHashMap<>();
+    private final Map<String, Expression> expressions = new ConcurrentHashMap<>();
+    private final Map<String, Expression> conditionExpressions = new ConcurrentHashMap<>();
+
     /**
      * @param entityNode subject node where we will apply the extract out the values for given json path
      * @param matcher it accepts either ATTESTOR or REQUESTER
@@ -28,85 +36,74 @@ public class ConditionResolverService {
         if(condition == null || condition.isEmpty()) {
             return "";
         }
-        String entity = entityNode.toString();
-        logger.info("Gonna resolve for the json {}", entity);
         condition = replaceMultipleEntries(condition, attributes);
-        List<Integer> matchersIndices = findWordIndices(matcher, condition);
-        List<String[]> matchersValuesPair = new ArrayList<>();
-        for (int index : matchersIndices) {
-            String[] expressions = generateExpressionAndJsonPathPair(index, condition);
-            expressions[1] = replaceOriginalValueForGivenJsonPath(entity, expressions[1]);
-            matchersValuesPair.add(expressions);
-        }
-        for(String[] pair: matchersValuesPair) {
-            condition = replace(condition, pair);
-        }
-        return condition;
+        String resolved = getCompiledCondition(matcher, condition).resolve(entityNode);
+        logger.debug("Resolved {} condition {}", matcher, resolved);
+        return resolved;
     }
-    private String replaceOriginalValueForGivenJsonPath(String entity, String path) {
-        Configuration alwaysReturnListConfig = Configuration.builder().options(Option.ALWAYS_RETURN_LIST).build();
-        List<String> read = JsonPath.using(alwaysReturnListConfig).parse(entity).read(path);
-        String s;
-        if(read.size() == 1) {
-            s = "'" + read.get(0) + "'";
-        } else {
-            s = read.toString();
+
+    /**
+     * Returns the condition split into its text and json paths, compiling it on first use
+     */
+    private CompiledCondition getCompiledCondition(String matcher, String condition) {
+        String key = matcher + ":" + condition;
+        CompiledCondition compiledCondition = conditions.get(key);
+        if (compiledCondition == null) {
+            compiledCondition = CompiledCondition.compile(matcher, condition);
+            cache(conditions, key, compiledCondition);
         }
-        return s.replace("[", "{").replace("]", "}");
+        return compiledCondition;
     }
 
-    private String[] generateExpressionAndJsonPathPair(int index, String condition) {
-        int hashCount = 0;
-        int indexAfterFirstHash = -1;
-        String[] ans = new String[2];
-        StringBuilder sb = new StringBuilder();
-        for (int i = index; i < condition.length(); i++) {
-            char val = condition.charAt(i);
-            sb.append(val);
-            if (val == '#') {
-                hashCount++;
-            }
-            if (hashCount == 1 && indexAfterFirstHash == -1) {
-                indexAfterFirstHash = i;
-            } else if(hashCount == 2){
-                ans[0] = sb.toString();
-                ans[1] = condition.substring(indexAfterFirstHash + 1, i);
-                break;
-            }
+    /**
+     * Evaluates the condition against the entity node, as evaluating the condition resolved for the
+     * matcher would. The condition is parsed once, with its json paths as variables read from each
+     * entity node, instead of once per resolved condition.
+     *
+     * @param entityNode subject node the values of the json paths are read from
+     * @param matcher it accepts either ATTESTOR or REQUESTER
+     * @param condition the condition to evaluate, with no json paths of other matchers
+     * @param attributes contains pair[key, val] where key will be replaced with its value in the condition
+     */
+    public boolean evaluate(JsonNode entityNode, String matcher, String condition, List<String[]> attributes) {
+        condition = replaceMultipleEntries(condition, attributes);
+        CompiledCondition compiledCondition = getCompiledCondition(matcher, condition);
+        String key = matcher + ":" + condition;
+        Expression expression = conditionExpressions.get(key);
+        if (expression == null) {
+            expression = expressionParser.parseExpression(compiledCondition.toExpression());
+            cache(conditionExpressions, key, expression);
         }
-        return ans;
+        StandardEvaluationContext context = new StandardEvaluationContext();
+        context.setVariables(compiledCondition.readVariables(entityNode));
+        return expression.getValue(context, Boolean.class);
     }
 
     private String replaceMultipleEntries(String condition, List<String[]> attributes) {
         for (String[] entry : attributes) {
-            condition = replace(condition, entry);
+            condition = condition.replace(entry[0], entry[1]);
         }
-        logger.info("Condition after replacing the entries {}", condition);
         return condition;
     }
 
-    private String replace(String condition, String[] pair) {
-        logger.info("Processing pairs condition {} -> pairs {}, {}", condition, pair[0], pair[1]);
-        return condition.replace(pair[0], pair[1]);
-    }
-
-    private List<Integer> findWordIndices(String matcher, String condition) {
-        int index = 0;
-        List<Integer> indices = new ArrayList<>();
-        while(index != -1) {
-            index = condition.indexOf(matcher, index);
-            if(index != -1) {
-                indices.add(index);
-                index++;
-            }
+    public boolean evaluate(String condition) {
+        logger.debug("Resolved conditions {}", condition);
+        Expression expression = expressions.get(condition);
+        if (expression == null) {
+            expression = expressionParser.parseExpression(condition);
+            cache(expressions, condition, expression);
         }
-        return indices;
+        return expression.getValue(Boolean.class);
     }
 
-    public boolean evaluate(String condition) {
-        logger.info("Resolved conditions {}", condition);
-        ExpressionParser expressionParser = new SpelExpressionParser();
-        Expression expression = expressionParser.parseExpression(condition);
-        return expression.getValue(Boolean.class);
+    /**
+     * The conditions carry the values of the entities, so the caches are cleared when they grow
+     * beyond MAX_CACHED entries
+     */
+    private static <T> void cache(Map<String, T> cache, String key, T value) {
+        if (cache.size() >= MAX_CACHED) {
+            cache.clear();
+        }
+        cache.put(key, value);
     }
 }
@@ -47,6 +47,11 @@ public class Constants {
 	public static final String PREV_PAGE="prevPage";
 	public static final String TOTAL_COUNT="totalCount";
 	public static final String ENTITY_LIST="data";
+	public static final String QUERY_COUNT="queryCount";
+	public static final String CURSOR="cursor";
+	public static final String NEXT_CURSOR="nextCursor";
+	public static final String CURSOR_AFTER="after";
+	public static final String FAILED_SHARDS="failedShards";
 
 	// JSON LD specific
 	public static final String CONTEXT_KEYWORD = "@context";
@@ -584,6 +584,47 @@ public class JSONUtil {
 		return result;
 	}
 
+	public static ObjectNode getSearchCursorPageUrls(JsonNode inputNode, String nextCursor, String url) throws IOException {
+		ObjectNode result = JsonNodeFactory.instance.objectNode();
+		if (nextCursor != null) {
+			JsonNode searchNode = objectMapper.readTree(inputNode.toString());
+			((ObjectNode) searchNode).put(CURSOR, nextCursor);
+			String nextPageToken = Base64.getEncoder().encodeToString(searchNode.toString().getBytes(StandardCharsets.UTF_8));
+			result.put(NEXT_PAGE, url + "?search=" + nextPageToken);
+		}
+		return result;
+	}
+
+	/**
+	 * Builds the opaque cursor pointing after the given sort key of each entity type
+	 */
+	public static String getSearchCursor(Map<String, String> after) {
+		ObjectNode cursorNode = JsonNodeFactory.instance.objectNode();
+		ObjectNode afterNode = cursorNode.putObject(CURSOR_AFTER);
+		after.forEach(afterNode::put);
+		return Base64.getEncoder().encodeToString(cursorNode.toString().getBytes(StandardCharsets.UTF_8));
+	}
+
+	/**
+	 * Returns the sort key the given cursor points after for each entity type, null if the cursor is not valid
+	 */
+	public static Map<String, String> parseSearchCursor(String cursor) {
+		ObjectNode cursorNode = parseSearchToken(cursor);
+		if (cursorNode == null || !cursorNode.path(CURSOR_AFTER).isObject()) {
+			return null;
+		}
+		Map<String, String> after = new LinkedHashMap<>();
+		Iterator<Map.Entry<String, JsonNode>> fields = cursorNode.get(CURSOR_AFTER).fields();
+		while (fields.hasNext()) {
+			Map.Entry<String, JsonNode> field = fields.next();
+			if (!field.getValue().isTextual()) {
+				return null;
+			}
+			after.put(field.getKey(), field.getValue().asText());
+		}
+		return after;
+	}
+
 	public static ObjectNode parseSearchToken(String endcodedValue) {
 		try {
 			byte[] decoded = Base64.getDecoder().decode(endcodedValue);
@@ -2,6 +2,7 @@ package dev.sunbirdrc.registry.middleware.service;
 
 import com.fasterxml.jackson.databind.JsonNode;
 import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.node.ObjectNode;
 import org.apache.commons.lang3.exception.ExceptionUtils;
 import org.junit.Test;
 import org.slf4j.Logger;
@@ -68,6 +69,54 @@ public class ConditionResolverServiceTest {
         resolve = conditionResolverService.resolve(getTeacherJsonNode(), attestor, resolve, attributes);
         assertFalse(conditionResolverService.evaluate(resolve));
     }
+    @Test
+    public void shouldResolveTheSameConditionForEachEntity() throws IOException {
+        String condition = "ATTESTOR#$.identityDetails.fullName#.equals('Omen') && ATTESTOR#$.experience[*].institute#.contains('Mary school')";
+        String attestor = "ATTESTOR";
+        String resolve = conditionResolverService.resolve(getTeacherJsonNode(), attestor, condition, new ArrayList<>());
+        assertEquals("'Omen'.equals('Omen') && {\"Mary school\",\"ABC institute of school\"}.contains('Mary school')", resolve);
+        assertTrue(conditionResolverService.evaluate(resolve));
+
+        JsonNode otherTeacher = getTeacherJsonNode();
+        ((ObjectNode) otherTeacher.get("identityDetails")).put("fullName", "Ravi");
+        resolve = conditionResolverService.resolve(otherTeacher, attestor, condition, new ArrayList<>());
+        assertEquals("'Ravi'.equals('Omen') && {\"Mary school\",\"ABC institute of school\"}.contains('Mary school')", resolve);
+        assertFalse(conditionResolverService.evaluate(resolve));
+    }
+
+    @Test
+    public void shouldEvaluateTheConditionAgainstEachEntity() throws IOException {
+        String condition = "ATTESTOR#$.identityDetails.fullName#.equals('Omen') && ATTESTOR#$.experience[*].institute#.contains('Mary school')";
+        String attestor = "ATTESTOR";
+        assertTrue(conditionResolverService.evaluate(getTeacherJsonNode(), attestor, condition, new ArrayList<>()));
+
+        JsonNode otherTeacher = getTeacherJsonNode();
+        ((ObjectNode) otherTeacher.get("identityDetails")).put("fullName", "Ravi");
+        assertFalse(conditionResolverService.evaluate(otherTeacher, attestor, condition, new ArrayList<>()));
+    }
+
+    @Test
+    public void shouldEvaluateAsTheResolvedCondition() throws IOException {
+        String condition = "(ATTESTOR#$.experience.[*].institute#.contains(REQUESTER#$.educationDetails[?(@.osid == 'REQUESTER_PROPERTY_ID')]['institute']#) && (ATTESTOR#$.experience[?(@.institute == REQUESTER#$.educationDetails[?(@.osid == 'REQUESTER_PROPERTY_ID')]['institute']#)]['role'][*]#.contains('bo') || ATTESTOR#$.experience[?(@.institute == REQUESTER#$.educationDetails[?(@.osid == 'REQUESTER_PROPERTY_ID')]['institute']#)]['role'][*]#.contains('hod')))";
+        List<String[]> attributes = new ArrayList<String[]>(){{
+            add(new String[]{"REQUESTER_PROPERTY_ID", "4"});
+        }};
+        String requesterResolved = conditionResolverService.resolve(getStudentJsonNode(), "REQUESTER", condition, attributes);
+        JsonNode teacher = getTeacherJsonNode();
+        JsonNode otherTeacher = getTeacherJsonNode();
+        ((ObjectNode) otherTeacher.get("experience").get(0)).putArray("role").add("bo");
+        JsonNode noExperienceTeacher = getTeacherJsonNode();
+        ((ObjectNode) noExperienceTeacher).putArray("experience");
+
+        for (JsonNode attestorNode : new JsonNode[]{teacher, otherTeacher, noExperienceTeacher}) {
+            boolean expected = conditionResolverService.evaluate(
+                    conditionResolverService.resolve(attestorNode, "ATTESTOR", requesterResolved, attributes));
+            assertEquals(expected, conditionResolverService.evaluate(attestorNode, "ATTESTOR", requesterResolved, attributes));
+        }
+        assertTrue(conditionResolverService.evaluate(teacher, "ATTESTOR", requesterResolved, attributes));
+        assertFalse(conditionResolverService.evaluate(noExperienceTeacher, "ATTESTOR", requesterResolved, attributes));
+    }
+
     private JsonNode getTeacherJsonNode() throws IOException {
         String nodeStr = "{\n" +
                 "   \"identityDetails\":{\n" +
@@ -1,29 +1,62 @@
 package dev.sunbirdrc.registry.authorization;
 
+import java.net.MalformedURLException;
+import java.net.URL;
 import java.util.Map;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
 
+import com.nimbusds.jose.JWSAlgorithm;
+import com.nimbusds.jose.proc.JWSVerificationKeySelector;
+import com.nimbusds.jose.proc.SecurityContext;
+import com.nimbusds.jwt.proc.DefaultJWTProcessor;
 import org.springframework.security.oauth2.core.OAuth2TokenValidator;
 import org.springframework.security.oauth2.jwt.*;
 import org.springframework.util.Assert;
 
-import static org.springframework.security.oauth2.jwt.NimbusJwtDecoder.withJwkSetUri;
-
 final class CustomJwtDecoders {
 
+    private static final ScheduledExecutorService jwkSetRefresher = Executors.newSingleThreadScheduledExecutor(runnable -> {
+        Thread thread = new Thread(runnable, "JwkSetRefresher");
+        thread.setDaemon(true);
+        return thread;
+    });
+
     public static TenantJwtDecoder fromOidcIssuerLocation(String oidcIssuerLocation) {
+        return fromOidcIssuerLocation(oidcIssuerLocation, 0, 300);
+    }
+
+    /**
+     * @param maxCachedTokens        the number of decoded tokens kept, 0 to not cache them
+     * @param jwkSetRefreshSeconds   the interval at which the keys of the issuer are fetched again
+     */
+    public static TenantJwtDecoder fromOidcIssuerLocation(String oidcIssuerLocation, int maxCachedTokens, long jwkSetRefreshSeconds) {
         Assert.hasText(oidcIssuerLocation, "oidcIssuerLocation cannot be empty");
         Map<String, Object> configuration = CustomJwtDecoderProviderConfigurationUtils.getConfigurationForOidcIssuerLocation(oidcIssuerLocation);
-        return withProviderConfiguration(configuration);
+        return withProviderConfiguration(configuration, maxCachedTokens, jwkSetRefreshSeconds);
     }
-    
-    private static TenantJwtDecoder withProviderConfiguration(Map<String, Object> configuration) {
+
+    private static TenantJwtDecoder withProviderConfiguration(Map<String, Object> configuration, int maxCachedTokens, long jwkSetRefreshSeconds) {
         String metadataIssuer = CustomJwtDecoderProviderConfigurationUtils.getIssuer(configuration);
         OAuth2TokenValidator<Jwt> jwtValidator = JwtValidators.createDefaultWithIssuer(metadataIssuer);
-        NimbusJwtDecoder jwtDecoder = withJwkSetUri(configuration.get("jwks_uri").toString()).build();
+        RefreshingJwkSource jwkSource = new RefreshingJwkSource(toURL(configuration.get("jwks_uri").toString()),
+                jwkSetRefreshSeconds, jwkSetRefresher);
+        DefaultJWTProcessor<SecurityContext> jwtProcessor = new DefaultJWTProcessor<>();
+        jwtProcessor.setJWSKeySelector(new JWSVerificationKeySelector<>(JWSAlgorithm.RS256, jwkSource));
+        // The claims are validated by the jwtValidator, as NimbusJwtDecoder.withJwkSetUri does
+        jwtProcessor.setJWTClaimsSetVerifier((claims, context) -> { });
+        NimbusJwtDecoder jwtDecoder = new NimbusJwtDecoder(jwtProcessor);
         jwtDecoder.setJwtValidator(jwtValidator);
-        return TenantJwtDecoder.from(jwtDecoder, metadataIssuer);
+        return TenantJwtDecoder.from(jwtDecoder, metadataIssuer, maxCachedTokens);
+    }
+
+    private static URL toURL(String url) {
+        try {
+            return new URL(url);
+        } catch (MalformedURLException e) {
+            throw new IllegalArgumentException("Invalid JWK Set URL \"" + url + "\" : " + e.getMessage(), e);
+        }
     }
 
     private CustomJwtDecoders() {}
 }
-
@@ -0,0 +1,107 @@
+package dev.sunbirdrc.registry.authorization;
+
+import com.nimbusds.jose.jwk.JWK;
+import com.nimbusds.jose.jwk.JWKSelector;
+import com.nimbusds.jose.jwk.JWKSet;
+import com.nimbusds.jose.jwk.source.JWKSource;
+import com.nimbusds.jose.proc.SecurityContext;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.io.IOException;
+import java.net.URL;
+import java.text.ParseException;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * JWK set of an issuer, fetched when created and refreshed in the background, so that the keys
+ * are never fetched on a request thread. A token signed with a key not in the set is rejected
+ * and has the set fetched again in the background, at most once every minRefreshMillis, to pick
+ * up a rotated key before the next scheduled refresh.
+ */
+class RefreshingJwkSource implements JWKSource<SecurityContext> {
+    private static final Logger logger = LoggerFactory.getLogger(RefreshingJwkSource.class);
+    private static final int CONNECT_TIMEOUT_MILLIS = 2000;
+    private static final int READ_TIMEOUT_MILLIS = 2000;
+    private static final int SIZE_LIMIT_BYTES = 50 * 1024;
+    private static final long MIN_REFRESH_MILLIS = 30000;
+
+    interface Loader {
+        JWKSet load() throws IOException, ParseException;
+    }
+
+    private final String name;
+    private final Loader loader;
+    private final ScheduledExecutorService scheduler;
+    private final long minRefreshMillis;
+    private volatile JWKSet jwkSet;
+    private long lastRefreshTime;
+    private boolean refreshPending;
+
+    RefreshingJwkSource(URL jwkSetUrl, long refreshIntervalSeconds, ScheduledExecutorService scheduler) {
+        this(jwkSetUrl.toString(), () -> JWKSet.load(jwkSetUrl, CONNECT_TIMEOUT_MILLIS, READ_TIMEOUT_MILLIS, SIZE_LIMIT_BYTES),
+                refreshIntervalSeconds, MIN_REFRESH_MILLIS, scheduler);
+    }
+
+    RefreshingJwkSource(String name, Loader loader, long refreshIntervalSeconds, long minRefreshMillis,
+                        ScheduledExecutorService scheduler) {
+        this.name = name;
+        this.loader = loader;
+        this.scheduler = scheduler;
+        this.minRefreshMillis = minRefreshMillis;
+        synchronized (this) {
+            lastRefreshTime = System.currentTimeMillis();
+        }
+        try {
+            jwkSet = loader.load();
+        } catch (IOException | ParseException e) {
+            logger.error("Unable to fetch the JWK set {}, fetching it again in the background: {}", name, e.getMessage());
+        }
+        scheduler.scheduleWithFixedDelay(this::refresh, refreshIntervalSeconds, refreshIntervalSeconds, TimeUnit.SECONDS);
+    }
+
+    @Override
+    public List<JWK> get(JWKSelector jwkSelector, SecurityContext context) {
+        JWKSet current = jwkSet;
+        List<JWK> matches = current == null ? Collections.emptyList() : jwkSelector.select(current);
+        if (matches.isEmpty()) {
+            requestRefresh();
+        }
+        return matches;
+    }
+
+    /**
+     * Schedules fetching the set, unless one is pending or was started less than minRefreshMillis ago
+     */
+    private void requestRefresh() {
+        synchronized (this) {
+            long now = System.currentTimeMillis();
+            if (refreshPending || now - lastRefreshTime < minRefreshMillis) {
+                return;
+            }
+            refreshPending = true;
+            lastRefreshTime = now;
+        }
+        scheduler.execute(this::refresh);
+    }
+
+    private void refresh() {
+        synchronized (this) {
+            lastRefreshTime = System.currentTimeMillis();
+        }
+        try {
+            jwkSet = loader.load();
+            logger.debug("Fetched {} keys from {}", jwkSet.getKeys().size(), name);
+        } catch (Exception e) {
+            // Keeps the keys fetched earlier
+            logger.error("Unable to refresh the JWK set {}: {}", name, e.getMessage());
+        } finally {
+            synchronized (this) {
+                refreshPending = false;
+            }
+        }
+    }
+}
@@ -1,25 +1,130 @@
 package dev.sunbirdrc.registry.authorization;
 
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.github.benmanes.caffeine.cache.Expiry;
 import lombok.Getter;
 import org.springframework.security.oauth2.jwt.Jwt;
 import org.springframework.security.oauth2.jwt.JwtDecoder;
 import org.springframework.security.oauth2.jwt.JwtException;
 
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.time.Clock;
+import java.util.Base64;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Decoder of the tokens of an issuer. The decoded tokens are cached by the hash of the token until
+ * they expire, so that a token sent again is not parsed and verified again. Tokens without an
+ * expiry and tokens failing verification are not cached. When the cache is full, the least
+ * recently used tokens make room for the new ones.
+ */
 public final class TenantJwtDecoder implements JwtDecoder {
+    private static final ThreadLocal<MessageDigest> digests = ThreadLocal.withInitial(TenantJwtDecoder::sha256);
+
     JwtDecoder jwtDecoder;
     @Getter
     String issuer;
-    private TenantJwtDecoder(JwtDecoder jwtDecoder, String issuer) {
+    private final Clock clock;
+    private final Cache<String, Jwt> decodedTokens;
+
+    private final AtomicLong hitCount = new AtomicLong();
+    private final AtomicLong missCount = new AtomicLong();
+    private final AtomicLong verificationNanos = new AtomicLong();
+
+    TenantJwtDecoder(JwtDecoder jwtDecoder, String issuer, int maxCachedTokens, Clock clock) {
         this.jwtDecoder = jwtDecoder;
         this.issuer = issuer;
+        this.clock = clock;
+        this.decodedTokens = maxCachedTokens <= 0 ? null : Caffeine.newBuilder()
+                .maximumSize(maxCachedTokens)
+                .expireAfter(new TokenExpiry())
+                .ticker(() -> TimeUnit.MILLISECONDS.toNanos(clock.millis()))
+                .build();
     }
 
     @Override
     public Jwt decode(String token) throws JwtException {
-        return this.jwtDecoder.decode(token);
+        if (decodedTokens == null) {
+            return this.jwtDecoder.decode(token);
+        }
+        String key = hash(token);
+        Jwt jwt = decodedTokens.getIfPresent(key);
+        if (jwt != null) {
+            hitCount.incrementAndGet();
+            return jwt;
+        }
+        missCount.incrementAndGet();
+        long startTime = System.nanoTime();
+        jwt = this.jwtDecoder.decode(token);
+        verificationNanos.addAndGet(System.nanoTime() - startTime);
+        if (jwt.getExpiresAt() != null && jwt.getExpiresAt().toEpochMilli() > clock.millis()) {
+            decodedTokens.put(key, jwt);
+        }
+        return jwt;
+    }
+
+    /**
+     * Keeps a decoded token until its exp
+     */
+    private class TokenExpiry implements Expiry<String, Jwt> {
+        @Override
+        public long expireAfterCreate(String key, Jwt jwt, long currentTime) {
+            return TimeUnit.MILLISECONDS.toNanos(Math.max(0, jwt.getExpiresAt().toEpochMilli() - clock.millis()));
+        }
+
+        @Override
+        public long expireAfterUpdate(String key, Jwt jwt, long currentTime, long currentDuration) {
+            return expireAfterCreate(key, jwt, currentTime);
+        }
+
+        @Override
+        public long expireAfterRead(String key, Jwt jwt, long currentTime, long currentDuration) {
+            return currentDuration;
+        }
+    }
+
+    private static String hash(String token) {
+        return Base64.getEncoder().encodeToString(digests.get().digest(token.getBytes(StandardCharsets.UTF_8)));
+    }
+
+    private static MessageDigest sha256() {
+        try {
+            return MessageDigest.getInstance("SHA-256");
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException(e);
+        }
+    }
+
+    public long getHitCount() {
+        return hitCount.get();
+    }
+
+    public long getMissCount() {
+        return missCount.get();
+    }
+
+    public double getAverageVerificationMillis() {
+        long misses = missCount.get();
+        return misses == 0 ? 0 : verificationNanos.get() / 1e6 / misses;
+    }
+
+    public int getCachedTokenCount() {
+        if (decodedTokens == null) {
+            return 0;
+        }
+        decodedTokens.cleanUp();
+        return (int) decodedTokens.estimatedSize();
     }
 
     public static TenantJwtDecoder from(JwtDecoder jwtDecoder, String issuer) {
-        return new TenantJwtDecoder(jwtDecoder, issuer);
+        return new TenantJwtDecoder(jwtDecoder, issuer, 0, Clock.systemUTC());
+    }
+
+    public static TenantJwtDecoder from(JwtDecoder jwtDecoder, String issuer, int maxCachedTokens) {
+        return new TenantJwtDecoder(jwtDecoder, issuer, maxCachedTokens, Clock.systemUTC());
     }
 }
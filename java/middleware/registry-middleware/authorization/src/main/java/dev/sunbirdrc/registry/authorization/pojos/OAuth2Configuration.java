@@ -15,5 +15,9 @@ import java.util.List;
 @Data
 public class OAuth2Configuration {
 	List<OAuth2Resources> resources;
+	/** Number of decoded tokens cached per issuer, 0 to decode every request */
+	int tokenCacheSize = 10000;
+	/** Interval at which the keys of the issuers are fetched again */
+	long jwkSetRefreshSeconds = 300;
 
 }
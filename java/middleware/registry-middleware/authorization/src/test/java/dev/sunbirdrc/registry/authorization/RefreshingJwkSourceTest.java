@@ -0,0 +1,114 @@
+package dev.sunbirdrc.registry.authorization;
+
+import com.nimbusds.jose.jwk.JWK;
+import com.nimbusds.jose.jwk.JWKMatcher;
+import com.nimbusds.jose.jwk.JWKSelector;
+import com.nimbusds.jose.jwk.JWKSet;
+import com.nimbusds.jose.jwk.OctetSequenceKey;
+import org.junit.After;
+import org.junit.Test;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.BooleanSupplier;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+public class RefreshingJwkSourceTest {
+    private static final long REFRESH_INTERVAL_SECONDS = 3600;
+
+    private final ScheduledExecutorService scheduler = Executors.newSingleThreadScheduledExecutor();
+    private final AtomicInteger loadCount = new AtomicInteger();
+
+    @After
+    public void tearDown() {
+        scheduler.shutdownNow();
+    }
+
+    private static JWKSet keys(String... kids) {
+        List<JWK> keys = new ArrayList<>();
+        for (String kid : kids) {
+            keys.add(new OctetSequenceKey.Builder(("secret-of-" + kid).getBytes(StandardCharsets.UTF_8)).keyID(kid).build());
+        }
+        return new JWKSet(keys);
+    }
+
+    private static JWKSelector selector(String kid) {
+        return new JWKSelector(new JWKMatcher.Builder().keyID(kid).build());
+    }
+
+    private static void waitFor(BooleanSupplier condition) throws InterruptedException {
+        long deadline = System.currentTimeMillis() + 10000;
+        while (!condition.getAsBoolean() && System.currentTimeMillis() < deadline) {
+            Thread.sleep(20);
+        }
+        assertTrue(condition.getAsBoolean());
+    }
+
+    @Test
+    public void shouldFetchTheRotatedKeyInTheBackground() throws Exception {
+        CountDownLatch release = new CountDownLatch(1);
+        RefreshingJwkSource jwkSource = new RefreshingJwkSource("jwks", () -> {
+            if (loadCount.incrementAndGet() == 1) {
+                return keys("k1");
+            }
+            try {
+                release.await(10, TimeUnit.SECONDS);
+            } catch (InterruptedException e) {
+                throw new IOException(e);
+            }
+            return keys("k1", "k2");
+        }, REFRESH_INTERVAL_SECONDS, 0, scheduler);
+
+        assertEquals(1, jwkSource.get(selector("k1"), null).size());
+        // The request with the unknown key fails at once, while the keys are being fetched
+        long startTime = System.currentTimeMillis();
+        assertTrue(jwkSource.get(selector("k2"), null).isEmpty());
+        assertTrue(System.currentTimeMillis() - startTime < 1000);
+        waitFor(() -> loadCount.get() == 2);
+
+        release.countDown();
+        waitFor(() -> !jwkSource.get(selector("k2"), null).isEmpty());
+    }
+
+    @Test
+    public void shouldFetchTheKeysAtMostOnceWithinTheMinimumInterval() throws Exception {
+        RefreshingJwkSource jwkSource = new RefreshingJwkSource("jwks", () -> {
+            loadCount.incrementAndGet();
+            return keys("k1");
+        }, REFRESH_INTERVAL_SECONDS, 300, scheduler);
+
+        // Within the interval of the first fetch
+        jwkSource.get(selector("unknown"), null);
+        Thread.sleep(400);
+        for (int i = 0; i < 10; i++) {
+            jwkSource.get(selector("unknown"), null);
+        }
+        waitFor(() -> loadCount.get() == 2);
+        Thread.sleep(100);
+
+        assertEquals(2, loadCount.get());
+    }
+
+    @Test
+    public void shouldFetchTheKeysInTheBackgroundWhenTheFirstFetchFailed() throws Exception {
+        RefreshingJwkSource jwkSource = new RefreshingJwkSource("jwks", () -> {
+            if (loadCount.incrementAndGet() == 1) {
+                throw new IOException("issuer unreachable");
+            }
+            return keys("k1");
+        }, REFRESH_INTERVAL_SECONDS, 0, scheduler);
+
+        assertTrue(jwkSource.get(selector("k1"), null).isEmpty());
+        waitFor(() -> !jwkSource.get(selector("k1"), null).isEmpty());
+        assertEquals(2, loadCount.get());
+    }
+}
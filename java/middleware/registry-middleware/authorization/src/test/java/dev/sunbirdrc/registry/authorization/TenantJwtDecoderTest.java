@@ -0,0 +1,108 @@
+package dev.sunbirdrc.registry.authorization;
+
+import org.junit.Before;
+import org.junit.Test;
+import org.springframework.security.oauth2.jwt.Jwt;
+import org.springframework.security.oauth2.jwt.JwtDecoder;
+import org.springframework.security.oauth2.jwt.JwtException;
+
+import java.time.Clock;
+import java.time.Duration;
+import java.time.Instant;
+import java.time.ZoneId;
+import java.time.ZoneOffset;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertSame;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.Mockito.*;
+
+public class TenantJwtDecoderTest {
+    private final MutableClock clock = new MutableClock();
+    private final JwtDecoder jwtDecoder = mock(JwtDecoder.class);
+
+    @Before
+    public void setUp() {
+        when(jwtDecoder.decode(anyString())).thenAnswer(invocation -> jwt(invocation.getArgument(0), Duration.ofMinutes(5)));
+    }
+
+    private Jwt jwt(String token, Duration validity) {
+        Jwt.Builder builder = Jwt.withTokenValue(token).header("alg", "RS256").subject("user").issuedAt(clock.instant());
+        if (validity != null) {
+            builder.expiresAt(clock.instant().plus(validity));
+        }
+        return builder.build();
+    }
+
+    @Test
+    public void shouldServeARepeatedTokenFromTheCache() {
+        TenantJwtDecoder decoder = new TenantJwtDecoder(jwtDecoder, "issuer", 10, clock);
+
+        Jwt first = decoder.decode("token");
+        Jwt second = decoder.decode("token");
+
+        assertSame(first, second);
+        verify(jwtDecoder, times(1)).decode("token");
+        assertEquals(1, decoder.getHitCount());
+        assertEquals(1, decoder.getMissCount());
+    }
+
+    @Test(expected = JwtException.class)
+    public void shouldVerifyATokenAgainOnceItExpired() {
+        TenantJwtDecoder decoder = new TenantJwtDecoder(jwtDecoder, "issuer", 10, clock);
+        decoder.decode("token");
+        doThrow(new JwtException("Jwt expired")).when(jwtDecoder).decode("token");
+
+        clock.advance(Duration.ofMinutes(4));
+        decoder.decode("token");
+        clock.advance(Duration.ofMinutes(2));
+        decoder.decode("token");
+    }
+
+    @Test
+    public void shouldNotCacheATokenWithoutExpiry() {
+        doAnswer(invocation -> jwt(invocation.getArgument(0), null)).when(jwtDecoder).decode(anyString());
+        TenantJwtDecoder decoder = new TenantJwtDecoder(jwtDecoder, "issuer", 10, clock);
+
+        decoder.decode("token");
+        decoder.decode("token");
+
+        verify(jwtDecoder, times(2)).decode("token");
+        assertEquals(0, decoder.getCachedTokenCount());
+    }
+
+    @Test
+    public void shouldKeepTheCacheFullWhenItOverflows() {
+        TenantJwtDecoder decoder = new TenantJwtDecoder(jwtDecoder, "issuer", 2, clock);
+
+        decoder.decode("token1");
+        decoder.decode("token2");
+        decoder.decode("token3");
+
+        // A full cache makes room for the new token, the others stay cached
+        assertEquals(2, decoder.getCachedTokenCount());
+    }
+
+    private static class MutableClock extends Clock {
+        private Instant now = Instant.parse("2024-01-01T00:00:00Z");
+
+        void advance(Duration duration) {
+            now = now.plus(duration);
+        }
+
+        @Override
+        public ZoneId getZone() {
+            return ZoneOffset.UTC;
+        }
+
+        @Override
+        public Clock withZone(ZoneId zone) {
+            return this;
+        }
+
+        @Override
+        public Instant instant() {
+            return now;
+        }
+    }
+}
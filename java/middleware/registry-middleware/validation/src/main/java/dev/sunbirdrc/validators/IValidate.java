@@ -9,6 +9,13 @@ public interface IValidate {
 
     void validate(String entityType, String payload, boolean ignoreRequiredFields) throws MiddlewareHaltException;
 
+    /**
+     * Validates the payload without serialising it, where the implementation supports it
+     */
+    default void validate(String entityType, JsonNode payload, boolean ignoreRequiredFields) throws MiddlewareHaltException {
+        validate(entityType, payload.toString(), ignoreRequiredFields);
+    }
+
     /**
      * Store all list of known definitions as definitionMap.
      * Must get populated before creating the schema.
@@ -99,6 +99,9 @@ public class Response {
 		DECRYPT(getApiName() + ".utils.decrypt"),
         SEND(getApiName() + ".registry.send"),
 		REVOKE(getApiName() + ".utils.revoke"),
+		REBALANCE(getApiName() + ".utils.rebalance"),
+		WEBHOOKS(getApiName() + ".utils.webhooks"),
+		REISSUE(getApiName() + ".utils.reissue"),
 		NONE("");
         private String id;
 
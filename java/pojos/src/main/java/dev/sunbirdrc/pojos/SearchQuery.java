@@ -1,6 +1,7 @@
 package dev.sunbirdrc.pojos;
 
 import java.util.List;
+import java.util.Map;
 
 public class SearchQuery {
 
@@ -10,6 +11,9 @@ public class SearchQuery {
 	private List<String> fields;
 	private String rootLabel;
 	private List<String> entityTypes;
+	private String orderBy;
+	private Map<String, String> after;
+	private boolean skipCount;
 
 	public SearchQuery(String rootLabel, int offset, int limit) {
 		this.rootLabel = rootLabel;
@@ -68,5 +72,33 @@ public class SearchQuery {
     public List<String> getEntityTypes() {
         return entityTypes;
     }
-	
+
+	public String getOrderBy() {
+		return orderBy;
+	}
+
+	// property to sort the results by, before applying the offset and limit
+	public void setOrderBy(String orderBy) {
+		this.orderBy = orderBy;
+	}
+
+	public Map<String, String> getAfter() {
+		return after;
+	}
+
+	// keyset pagination: only the results of each entity type sorting after its value of the orderBy
+	// property are returned, the entity types left out have no results left
+	public void setAfter(Map<String, String> after) {
+		this.after = after;
+	}
+
+	public boolean isSkipCount() {
+		return skipCount;
+	}
+
+	// when set, the total number of results is not counted
+	public void setSkipCount(boolean skipCount) {
+		this.skipCount = skipCount;
+	}
+
 }
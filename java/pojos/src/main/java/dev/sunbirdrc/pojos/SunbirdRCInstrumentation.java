@@ -21,4 +21,10 @@ public class SunbirdRCInstrumentation {
 			perf4jStopWatch.stop(tag);
 		}
 	}
+
+	public void stop(String tag, String message) {
+		if (performanceMonitoingEnabled) {
+			perf4jStopWatch.stop(tag, message);
+		}
+	}
 }
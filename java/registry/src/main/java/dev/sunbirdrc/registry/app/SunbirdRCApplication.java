@@ -7,6 +7,7 @@ import org.springframework.beans.factory.annotation.Value;
 import org.springframework.boot.SpringApplication;
 import org.springframework.boot.WebApplicationType;
 import org.springframework.boot.autoconfigure.SpringBootApplication;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnExpression;
 import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
 import org.springframework.boot.autoconfigure.security.servlet.SecurityAutoConfiguration;
 import org.springframework.boot.web.servlet.FilterRegistrationBean;
@@ -72,7 +73,7 @@ public class SunbirdRCApplication {
     }
 
     @Bean
-    @ConditionalOnProperty(value = "registry.manager.type", havingValue = "DistributedDefinitionsManager")
+    @ConditionalOnExpression("'${registry.manager.type}' == 'DistributedDefinitionsManager' or ${read.cache.redis.enabled:false}")
     public JedisPool jedisPool() {
         final JedisPoolConfig poolConfig = new JedisPoolConfig();
         JedisPool jedisPool = new JedisPool(poolConfig, redisHost, Integer.parseInt(redisPort));
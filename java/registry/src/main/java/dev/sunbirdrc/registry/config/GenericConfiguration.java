@@ -6,6 +6,7 @@ import com.google.gson.Gson;
 import com.typesafe.config.Config;
 import com.typesafe.config.ConfigFactory;
 import dev.sunbirdrc.actors.services.NotificationService;
+import dev.sunbirdrc.elastic.ElasticBulkIndexer;
 import dev.sunbirdrc.elastic.ElasticServiceImpl;
 import dev.sunbirdrc.elastic.IElasticService;
 import dev.sunbirdrc.pojos.AuditRecord;
@@ -132,6 +133,14 @@ public class GenericConfiguration implements WebMvcConfigurer {
 	private int auditMaxPoolSize;
 	@Value("${auditTaskExecutor.queueCapacity}")
 	private int auditQueueCapacity;
+	@Value("${searchTaskExecutor.threadPoolName:SearchThread-}")
+	private String searchThreadName;
+	@Value("${searchTaskExecutor.corePoolSize:4}")
+	private int searchCorePoolSize;
+	@Value("${searchTaskExecutor.maxPoolSize:8}")
+	private int searchMaxPoolSize;
+	@Value("${searchTaskExecutor.queueCapacity:100}")
+	private int searchQueueCapacity;
 	@Value("${elastic.search.connection_url}")
 	private String elasticConnInfo;
 	@Value("${elastic.search.auth_enabled}")
@@ -162,6 +171,27 @@ public class GenericConfiguration implements WebMvcConfigurer {
 	@Value("${registry.hard_delete_enabled}")
 	private boolean isHardDeleteEnabled;
 
+	@Value("${elastic.search.bulk.enabled:false}")
+	private boolean elasticBulkEnabled;
+	@Value("${elastic.search.bulk.actions:500}")
+	private int elasticBulkActions;
+	@Value("${elastic.search.bulk.sizeInMB:5}")
+	private long elasticBulkSizeInMB;
+	@Value("${elastic.search.bulk.flushInterval:1000}")
+	private long elasticBulkFlushInterval;
+	@Value("${elastic.search.bulk.concurrentRequests:1}")
+	private int elasticBulkConcurrentRequests;
+	@Value("${elastic.search.bulk.maxPending:10000}")
+	private int elasticBulkMaxPending;
+	@Value("${elastic.search.bulk.maxQueued:100000}")
+	private int elasticBulkMaxQueued;
+	@Value("${elastic.search.bulk.queueTimeout:100}")
+	private long elasticBulkQueueTimeout;
+	@Value("${elastic.search.bulk.maxRetries:3}")
+	private int elasticBulkMaxRetries;
+	@Value("${elastic.search.bulk.retryDelay:500}")
+	private long elasticBulkRetryDelay;
+
 	@Autowired
 	private DBConnectionInfoMgr dbConnectionInfoMgr;
 	@Autowired
@@ -254,11 +284,12 @@ public class GenericConfiguration implements WebMvcConfigurer {
 	public IValidate validationServiceImpl() throws IOException, CustomException {
 		// depends on input type,we need to implement validation
 		if (getValidationType() == SchemaType.JSON) {
-			IValidate validator = new JsonValidationServiceImpl(schemaUrl);
+			JsonValidationServiceImpl validator = new JsonValidationServiceImpl(schemaUrl);
 			iDefinitionsManager.getAllDefinitions().forEach(definition -> {
 				logger.debug("Definition: title-" + definition.getTitle() + " , content-" + definition.getContent());
 				validator.addDefinitions(definition.getTitle(), definition.getContent());
 			});
+			validator.compileSchemas();
 			logger.info(iDefinitionsManager.getAllDefinitions().size() + " definitions added to validator service ");
 			return validator;
 		} else {
@@ -435,6 +466,22 @@ public class GenericConfiguration implements WebMvcConfigurer {
 		return executor;
 	}
 
+	/**
+	 * This method creates ThreadPool task-executor for searching the shards in parallel
+	 *
+	 * @return - TaskExecutor
+	 */
+	@Bean(name = "searchExecutor")
+	public ThreadPoolTaskExecutor searchTaskExecutor() {
+		ThreadPoolTaskExecutor executor = new ThreadPoolTaskExecutor();
+		executor.setCorePoolSize(searchCorePoolSize);
+		executor.setMaxPoolSize(searchMaxPoolSize);
+		executor.setQueueCapacity(searchQueueCapacity);
+		executor.setThreadNamePrefix(searchThreadName);
+		executor.initialize();
+		return executor;
+	}
+
 	/**
 	 * creates elastic-service bean and instanstiates the indices
 	 *
@@ -462,6 +509,32 @@ public class GenericConfiguration implements WebMvcConfigurer {
 		return elasticService;
 	}
 
+	/**
+	 * creates the indexer used by the ElasticSearchActor to send the documents in bulk
+	 *
+	 * @return - ElasticBulkIndexer, started only when bulk indexing is enabled
+	 */
+	@ConditionalOnProperty(name = "search.providerName", havingValue = "dev.sunbirdrc.registry.service.ElasticSearchService")
+	@Bean(destroyMethod = "close")
+	public ElasticBulkIndexer elasticBulkIndexer(IElasticService elasticService) {
+		ElasticBulkIndexer bulkIndexer = new ElasticBulkIndexer();
+		bulkIndexer.setSearchType(Constants.ES_DOC_TYPE);
+		bulkIndexer.setHardDeleteEnabled(isHardDeleteEnabled);
+		bulkIndexer.setBulkActions(elasticBulkActions);
+		bulkIndexer.setBulkSizeInMB(elasticBulkSizeInMB);
+		bulkIndexer.setFlushIntervalMillis(elasticBulkFlushInterval);
+		bulkIndexer.setConcurrentRequests(elasticBulkConcurrentRequests);
+		bulkIndexer.setMaxPending(elasticBulkMaxPending);
+		bulkIndexer.setMaxQueued(elasticBulkMaxQueued);
+		bulkIndexer.setQueueTimeoutMillis(elasticBulkQueueTimeout);
+		bulkIndexer.setMaxRetries(elasticBulkMaxRetries);
+		bulkIndexer.setRetryDelayMillis(elasticBulkRetryDelay);
+		if (isElasticSearchEnabled() && elasticBulkEnabled) {
+			bulkIndexer.start();
+		}
+		return bulkIndexer;
+	}
+
 	@ConditionalOnProperty(name = "notification.service.enabled", havingValue = "true")
 	@Bean
 	public NotificationService notificationService() {
@@ -4,6 +4,7 @@ import dev.sunbirdrc.pojos.HealthIndicator;
 import org.apache.kafka.clients.admin.*;
 import org.apache.kafka.clients.consumer.ConsumerConfig;
 import org.apache.kafka.clients.producer.ProducerConfig;
+import org.apache.kafka.common.serialization.ByteArraySerializer;
 import org.apache.kafka.common.serialization.StringDeserializer;
 import org.apache.kafka.common.serialization.StringSerializer;
 import org.springframework.beans.factory.annotation.Autowired;
@@ -19,7 +20,9 @@ import org.springframework.kafka.config.ConcurrentKafkaListenerContainerFactory;
 import org.springframework.kafka.config.KafkaListenerEndpointRegistry;
 import org.springframework.kafka.core.*;
 import org.springframework.kafka.listener.ContainerProperties;
+import org.springframework.kafka.listener.DefaultErrorHandler;
 import org.springframework.kafka.listener.MessageListenerContainer;
+import org.springframework.util.backoff.FixedBackOff;
 
 import java.util.Collection;
 import java.util.HashMap;
@@ -43,6 +46,22 @@ public class KafkaConfiguration {
 	private String eventTopic;
 	@Value(value = "${notification.topic}")
 	private String notificationTopic;
+	@Value("${kafka.createEntityTopicPartitions:1}")
+	private int createEntityTopicPartitions;
+	@Value("${async.batch.size:100}")
+	private int asyncBatchSize;
+	@Value("${async.batch.concurrency:1}")
+	private int asyncBatchConcurrency;
+	@Value("${async.batch.retries:9}")
+	private long asyncBatchRetries;
+	@Value("${async.batch.retryInterval:1000}")
+	private long asyncBatchRetryInterval;
+	@Value("${event.producer.lingerMs:50}")
+	private int eventLingerMs;
+	@Value("${event.producer.batchSize:65536}")
+	private int eventBatchSize;
+	@Value("${event.producer.compressionType:lz4}")
+	private String eventCompressionType;
 
 	@Bean
 	public KafkaAdmin kafkaAdmin() {
@@ -72,7 +91,7 @@ public class KafkaConfiguration {
 	@Bean
 	@ConditionalOnProperty("async.enabled")
 	public NewTopic createEntityTopic() {
-		return new NewTopic(createEntityTopic, 1, (short) 1);
+		return new NewTopic(createEntityTopic, createEntityTopicPartitions, (short) 1);
 	}
 
 	@Bean
@@ -95,15 +114,36 @@ public class KafkaConfiguration {
 		return new KafkaTemplate<>(producerFactory());
 	}
 
+	/**
+	 * Producer of the telemetry events. The events are many and small, so they are held up to
+	 * event.producer.lingerMs to be sent in compressed batches.
+	 */
+	@Bean
+	@ConditionalOnProperty("event.enabled")
+	public KafkaTemplate<String, byte[]> eventKafkaTemplate() {
+		Map<String, Object> configProps = new HashMap<>();
+		configProps.put(ProducerConfig.BOOTSTRAP_SERVERS_CONFIG, bootstrapAddress);
+		configProps.put(ProducerConfig.KEY_SERIALIZER_CLASS_CONFIG, StringSerializer.class);
+		configProps.put(ProducerConfig.VALUE_SERIALIZER_CLASS_CONFIG, ByteArraySerializer.class);
+		configProps.put(ProducerConfig.LINGER_MS_CONFIG, eventLingerMs);
+		configProps.put(ProducerConfig.BATCH_SIZE_CONFIG, eventBatchSize);
+		configProps.put(ProducerConfig.COMPRESSION_TYPE_CONFIG, eventCompressionType);
+		return new KafkaTemplate<>(new DefaultKafkaProducerFactory<>(configProps));
+	}
+
 	@Bean
 	public ConsumerFactory<String, String> consumerFactory() {
+		return new DefaultKafkaConsumerFactory<>(getConsumerProps());
+	}
+
+	private Map<String, Object> getConsumerProps() {
 		Map<String, Object> props = new HashMap<>();
 		props.put(ConsumerConfig.BOOTSTRAP_SERVERS_CONFIG, bootstrapAddress);
 		props.put(ConsumerConfig.GROUP_ID_CONFIG, createEntityGroupId);
 		props.put(ConsumerConfig.KEY_DESERIALIZER_CLASS_CONFIG, StringDeserializer.class);
 		props.put(ConsumerConfig.VALUE_DESERIALIZER_CLASS_CONFIG, StringDeserializer.class);
 		props.put(ConsumerConfig.ENABLE_AUTO_COMMIT_CONFIG, false);
-		return new DefaultKafkaConsumerFactory<>(props);
+		return props;
 	}
 
 	@Bean
@@ -115,4 +155,23 @@ public class KafkaConfiguration {
 		return factory;
 	}
 
+	/**
+	 * Hands the records of a poll, up to async.batch.size, to the listener at once and commits their
+	 * offsets together. Each of the async.batch.concurrency consumers reads its own partitions. A poll
+	 * failing in the listener is handed to it again, async.batch.retryInterval ms apart.
+	 */
+	@Bean
+	@ConditionalOnExpression("${async.enabled} and ${async.batch.enabled:false}")
+	public ConcurrentKafkaListenerContainerFactory<String, String> batchKafkaListenerContainerFactory() {
+		Map<String, Object> props = getConsumerProps();
+		props.put(ConsumerConfig.MAX_POLL_RECORDS_CONFIG, asyncBatchSize);
+		ConcurrentKafkaListenerContainerFactory<String, String> factory = new ConcurrentKafkaListenerContainerFactory<>();
+		factory.setConsumerFactory(new DefaultKafkaConsumerFactory<>(props));
+		factory.setBatchListener(true);
+		factory.setConcurrency(asyncBatchConcurrency);
+		factory.getContainerProperties().setAckMode(ContainerProperties.AckMode.MANUAL);
+		factory.setCommonErrorHandler(new DefaultErrorHandler(new FixedBackOff(asyncBatchRetryInterval, asyncBatchRetries)));
+		return factory;
+	}
+
 }
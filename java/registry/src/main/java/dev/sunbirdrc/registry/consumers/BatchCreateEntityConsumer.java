@@ -0,0 +1,247 @@
+package dev.sunbirdrc.registry.consumers;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import dev.sunbirdrc.registry.helper.RegistryHelper;
+import dev.sunbirdrc.registry.model.dto.CreateEntityMessage;
+import dev.sunbirdrc.registry.model.dto.CreateEntityStatus;
+import dev.sunbirdrc.registry.model.dto.PostCreateEntityMessage;
+import dev.sunbirdrc.registry.model.dto.WebhookEvent;
+import dev.sunbirdrc.registry.service.RegistryService;
+import dev.sunbirdrc.registry.service.WebhookService;
+import dev.sunbirdrc.registry.sink.shard.Shard;
+import dev.sunbirdrc.registry.sink.shard.ShardManager;
+import org.apache.commons.lang3.StringUtils;
+import org.apache.commons.lang3.exception.ExceptionUtils;
+import org.apache.kafka.clients.consumer.ConsumerRecord;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnExpression;
+import org.springframework.kafka.KafkaException;
+import org.springframework.kafka.annotation.KafkaListener;
+import org.springframework.kafka.core.KafkaTemplate;
+import org.springframework.kafka.support.Acknowledgment;
+import org.springframework.kafka.support.SendResult;
+import org.springframework.stereotype.Component;
+import org.springframework.util.concurrent.ListenableFuture;
+
+import java.sql.Timestamp;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ExecutionException;
+
+import static dev.sunbirdrc.registry.Constants.SUNBIRD_RC;
+import static dev.sunbirdrc.registry.Constants.createEntityGroupId;
+
+/**
+ * Creates the entities of the create_entity topic a poll at a time. The records of a poll are
+ * grouped by shard, user and signing option, each group is added in one transaction. Every record
+ * gets one message on the post_create_entity topic, all of them are sent before the offsets of the
+ * poll are committed; a poll whose messages could not be sent is retried by the container.
+ */
+@Component
+@ConditionalOnExpression("${async.enabled} and ${async.batch.enabled:false}")
+public class BatchCreateEntityConsumer {
+    private static final Logger logger = LoggerFactory.getLogger(BatchCreateEntityConsumer.class);
+    private final ObjectMapper objectMapper;
+    private final ShardManager shardManager;
+    private final KafkaTemplate<String, String> kafkaTemplate;
+    private final RegistryService registryService;
+    private final RegistryHelper registryHelper;
+    private final WebhookService webhookService;
+    @Value("${kafka.postCreateEntityTopic:post_create_entity}")
+    String postCreateEntityTopic;
+
+    @Value("${webhook.url}")
+    private String webhookUrl;
+
+    /**
+     * Results of the last poll of the listener thread whose messages were not all sent. A poll handed
+     * again to the listener takes them over, the entities of its records were already created.
+     */
+    private final ThreadLocal<Map<String, PostCreateEntityMessage>> unsentResults = ThreadLocal.withInitial(HashMap::new);
+
+    private static class EntityGroup {
+        private final Shard shard;
+        private final String userId;
+        private final boolean skipSignature;
+        private final List<Integer> positions = new ArrayList<>();
+        private final List<CreateEntityMessage> messages = new ArrayList<>();
+
+        EntityGroup(Shard shard, String userId, boolean skipSignature) {
+            this.shard = shard;
+            this.userId = userId;
+            this.skipSignature = skipSignature;
+        }
+    }
+
+    @Autowired
+    public BatchCreateEntityConsumer(ObjectMapper objectMapper, ShardManager shardManager, KafkaTemplate<String, String> kafkaTemplate,
+                                     @Qualifier("sync") RegistryService registryService, RegistryHelper registryHelper, WebhookService webhookService) {
+        this.objectMapper = objectMapper;
+        this.shardManager = shardManager;
+        this.kafkaTemplate = kafkaTemplate;
+        this.registryService = registryService;
+        this.registryHelper = registryHelper;
+        this.webhookService = webhookService;
+    }
+
+    @KafkaListener(topics = "#{'${kafka.createEntityTopic}'}", groupId = createEntityGroupId,
+            containerFactory = "batchKafkaListenerContainerFactory", autoStartup = "${async.enabled}")
+    public void createEntitiesConsumer(List<ConsumerRecord<String, String>> records, Acknowledgment acknowledgment) {
+        logger.debug("Received {} messages", records.size());
+        PostCreateEntityMessage[] results = new PostCreateEntityMessage[records.size()];
+        String[] webhookUrls = new String[records.size()];
+        Map<String, PostCreateEntityMessage> previousResults = unsentResults.get();
+        Map<String, EntityGroup> groups = new LinkedHashMap<>();
+        for (int i = 0; i < records.size(); i++) {
+            ConsumerRecord<String, String> record = records.get(i);
+            webhookUrls[i] = webhookUrl;
+            try {
+                CreateEntityMessage createEntityMessage = objectMapper.readValue(record.value(), CreateEntityMessage.class);
+                if (!StringUtils.isEmpty(createEntityMessage.getWebhookUrl())) {
+                    webhookUrls[i] = createEntityMessage.getWebhookUrl();
+                }
+                results[i] = previousResults.get(getRecordId(record));
+                if (results[i] != null) {
+                    continue;
+                }
+                JsonNode inputJson = createEntityMessage.getInputJson();
+                String entityType = inputJson.fields().next().getKey();
+                Shard shard = shardManager.getShard(inputJson.get(entityType).get(shardManager.getShardProperty()));
+                String groupKey = String.join("|", shard.getShardId(), createEntityMessage.getUserId(),
+                        String.valueOf(createEntityMessage.isSkipSignature()));
+                EntityGroup group = groups.computeIfAbsent(groupKey, k ->
+                        new EntityGroup(shard, createEntityMessage.getUserId(), createEntityMessage.isSkipSignature()));
+                group.positions.add(i);
+                group.messages.add(createEntityMessage);
+            } catch (Exception e) {
+                logger.error("Reading create entity message failed: {}", ExceptionUtils.getStackTrace(e));
+                results[i] = getFailedMessage(record.key(), e);
+            }
+        }
+        for (EntityGroup group : groups.values()) {
+            addEntities(group, records, results);
+        }
+        Map<String, PostCreateEntityMessage> currentResults = new HashMap<>();
+        for (int i = 0; i < records.size(); i++) {
+            currentResults.put(getRecordId(records.get(i)), results[i]);
+        }
+        unsentResults.set(currentResults);
+        sendResults(records, results, webhookUrls);
+        acknowledgment.acknowledge();
+        unsentResults.remove();
+    }
+
+    /**
+     * Adds the entities of a group in one transaction. When that fails, the entities are added one by
+     * one, so that a single bad record doesn't fail the others.
+     */
+    private void addEntities(EntityGroup group, List<ConsumerRecord<String, String>> records, PostCreateEntityMessage[] results) {
+        List<JsonNode> inputJsons = new ArrayList<>(group.messages.size());
+        group.messages.forEach(message -> inputJsons.add(message.getInputJson()));
+        List<String> entityUuids;
+        try {
+            entityUuids = registryService.addEntities(group.shard, group.userId, inputJsons, group.skipSignature);
+        } catch (Exception e) {
+            logger.error("Creating {} entities failed: {}", inputJsons.size(), ExceptionUtils.getStackTrace(e));
+            if (inputJsons.size() == 1) {
+                results[group.positions.get(0)] = getFailedMessage(records.get(group.positions.get(0)).key(), e);
+                return;
+            }
+            for (int i = 0; i < group.positions.size(); i++) {
+                addEntity(group, i, records, results);
+            }
+            return;
+        }
+        for (int i = 0; i < group.positions.size(); i++) {
+            int position = group.positions.get(i);
+            results[position] = getCreatedMessage(records.get(position).key(), group.messages.get(i), entityUuids.get(i));
+        }
+    }
+
+    private void addEntity(EntityGroup group, int index, List<ConsumerRecord<String, String>> records, PostCreateEntityMessage[] results) {
+        int position = group.positions.get(index);
+        CreateEntityMessage createEntityMessage = group.messages.get(index);
+        String key = records.get(position).key();
+        String entityUuid;
+        try {
+            entityUuid = registryService.addEntity(group.shard, group.userId, createEntityMessage.getInputJson(), group.skipSignature);
+        } catch (Exception e) {
+            logger.error("Creating entity failed: {}", ExceptionUtils.getStackTrace(e));
+            results[position] = getFailedMessage(key, e);
+            return;
+        }
+        results[position] = getCreatedMessage(key, createEntityMessage, entityUuid);
+    }
+
+    private PostCreateEntityMessage getCreatedMessage(String key, CreateEntityMessage createEntityMessage, String entityUuid) {
+        JsonNode inputJson = createEntityMessage.getInputJson();
+        String entityType = inputJson.fields().next().getKey();
+        try {
+            registryHelper.autoRaiseClaim(entityType, entityUuid, createEntityMessage.getUserId(), null, inputJson, createEntityMessage.getEmailId());
+        } catch (Exception e) {
+            logger.error("Raising claim of entity {} failed: {}", entityUuid, ExceptionUtils.getStackTrace(e));
+            return getFailedMessage(key, e);
+        }
+        return PostCreateEntityMessage.builder().entityType(entityType).uuid(entityUuid)
+                .transactionId(key).userId(createEntityMessage.getUserId()).status(CreateEntityStatus.SUCCESSFUL).message("").build();
+    }
+
+    /**
+     * Sends the status of each record and waits for all of them to be acknowledged by kafka. When any
+     * of them fails, the offsets are not committed: the poll is handed to the listener again by the
+     * container, and the records take their status from the previous attempt instead of being added
+     * again. The webhooks are posted by the webhook dispatcher once all the statuses are sent.
+     */
+    private void sendResults(List<ConsumerRecord<String, String>> records, PostCreateEntityMessage[] results, String[] webhookUrls) {
+        List<ListenableFuture<SendResult<String, String>>> futures = new ArrayList<>(results.length);
+        for (int i = 0; i < results.length; i++) {
+            String key = records.get(i).key();
+            try {
+                futures.add(kafkaTemplate.send(postCreateEntityTopic, key, objectMapper.writeValueAsString(results[i])));
+            } catch (Exception e) {
+                throw new KafkaException("Sending message to " + postCreateEntityTopic + " topic failed", e);
+            }
+        }
+        kafkaTemplate.flush();
+        int failed = 0;
+        Exception failure = null;
+        for (ListenableFuture<SendResult<String, String>> future : futures) {
+            try {
+                future.get();
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                throw new KafkaException("Interrupted while sending to " + postCreateEntityTopic + " topic", e);
+            } catch (ExecutionException e) {
+                failed++;
+                failure = e;
+            }
+        }
+        if (failure != null) {
+            throw new KafkaException(String.format("Sending %d of %d messages to %s topic failed", failed, futures.size(),
+                    postCreateEntityTopic), failure.getCause());
+        }
+        for (int i = 0; i < results.length; i++) {
+            webhookService.dispatchEvent(WebhookEvent.builder().event(String.format("%s-create", SUNBIRD_RC))
+                    .data(results[i])
+                    .webhookUrl(webhookUrls[i])
+                    .timestamp(Timestamp.from(Instant.now())).build());
+        }
+    }
+
+    private static String getRecordId(ConsumerRecord<String, String> record) {
+        return record.topic() + "-" + record.partition() + "@" + record.offset();
+    }
+
+    private static PostCreateEntityMessage getFailedMessage(String key, Exception e) {
+        return PostCreateEntityMessage.builder().status(CreateEntityStatus.FAILED).transactionId(key).message(e.getMessage()).build();
+    }
+}
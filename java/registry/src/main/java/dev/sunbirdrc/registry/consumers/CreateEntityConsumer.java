@@ -34,7 +34,7 @@ import static dev.sunbirdrc.registry.Constants.SUNBIRD_RC;
 import static dev.sunbirdrc.registry.Constants.createEntityGroupId;
 
 @Component
-@ConditionalOnExpression("${async.enabled}")
+@ConditionalOnExpression("${async.enabled} and !${async.batch.enabled:false}")
 public class CreateEntityConsumer {
     private static final Logger logger = LoggerFactory.getLogger(CreateEntityConsumer.class);
     private final ObjectMapper objectMapper;
@@ -84,7 +84,7 @@ public class CreateEntityConsumer {
         } finally {
             try {
                 kafkaTemplate.send(postCreateEntityTopic, key, objectMapper.writeValueAsString(postCreateEntityMessage));
-                webhookService.postEvent(WebhookEvent.builder().event(String.format("%s-create", SUNBIRD_RC))
+                webhookService.dispatchEvent(WebhookEvent.builder().event(String.format("%s-create", SUNBIRD_RC))
                         .data(postCreateEntityMessage)
                         .webhookUrl(webhookUrl)
                         .timestamp(Timestamp.from(Instant.now())).build());
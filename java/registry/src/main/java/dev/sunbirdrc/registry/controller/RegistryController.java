@@ -4,6 +4,7 @@ import com.fasterxml.jackson.databind.JsonNode;
 import dev.sunbirdrc.pojos.APIMessage;
 import dev.sunbirdrc.pojos.Response;
 import dev.sunbirdrc.pojos.ResponseParams;
+import dev.sunbirdrc.registry.exception.InvalidSearchCursorException;
 import dev.sunbirdrc.registry.middleware.util.Constants;
 import dev.sunbirdrc.registry.service.RegistryService;
 import dev.sunbirdrc.registry.sink.shard.Shard;
@@ -61,6 +62,11 @@ public class RegistryController extends AbstractController {
             response.setResult(result);
             responseParams.setStatus(Response.Status.SUCCESSFUL);
             watch.stop("RegistryController.searchEntity");
+        } catch (InvalidSearchCursorException e) {
+            response.setResult("");
+            responseParams.setStatus(Response.Status.UNSUCCESSFUL);
+            responseParams.setErrmsg(e.getMessage());
+            return new ResponseEntity<>(response, HttpStatus.BAD_REQUEST);
         } catch (Exception e) {
             logger.error("Exception in controller while searching entities !, {}", ExceptionUtils.getStackTrace(e));
             response.setResult("");
@@ -78,8 +84,7 @@ public class RegistryController extends AbstractController {
             String entityType = apiMessage.getRequest().getEntityType();
             String entityId = apiMessage.getRequest().getRequestMapNode().get(entityType).get(dbConnectionInfoMgr.getUuidPropertyName()).asText();
             RecordIdentifier recordId = RecordIdentifier.parse(entityId);
-            String shardId = dbConnectionInfoMgr.getShardId(recordId.getShardLabel());
-            Shard shard = shardManager.activateShard(shardId);
+            Shard shard = shardManager.activateShard(recordId);
             registryService.deleteEntityById(shard, entityType, apiMessage.getUserID(), recordId.getUuid());
             responseParams.setErrmsg("");
             responseParams.setStatus(Response.Status.SUCCESSFUL);
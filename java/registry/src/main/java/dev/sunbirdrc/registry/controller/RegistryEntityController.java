@@ -14,6 +14,7 @@ import dev.sunbirdrc.registry.entities.AttestationPolicy;
 import dev.sunbirdrc.registry.authorization.pojos.UserToken;
 import dev.sunbirdrc.registry.exception.AttestationNotFoundException;
 import dev.sunbirdrc.registry.exception.ErrorMessages;
+import dev.sunbirdrc.registry.exception.InvalidSearchCursorException;
 import dev.sunbirdrc.registry.exception.RecordNotFoundException;
 import dev.sunbirdrc.registry.exception.UnAuthorizedException;
 import dev.sunbirdrc.registry.identity_providers.pojos.IdentityException;
@@ -22,6 +23,8 @@ import dev.sunbirdrc.registry.middleware.MiddlewareHaltException;
 import dev.sunbirdrc.registry.middleware.util.Constants;
 import dev.sunbirdrc.registry.middleware.util.JSONUtil;
 import dev.sunbirdrc.registry.middleware.util.OSSystemFields;
+import dev.sunbirdrc.registry.model.dto.BulkEntityResult;
+import dev.sunbirdrc.registry.model.dto.CreateEntityStatus;
 import dev.sunbirdrc.registry.service.FileStorageService;
 import dev.sunbirdrc.registry.service.ICertificateService;
 import dev.sunbirdrc.registry.service.impl.SignatureV2ServiceImpl;
@@ -30,6 +33,7 @@ import dev.sunbirdrc.registry.transform.Data;
 import dev.sunbirdrc.registry.transform.ITransformer;
 import dev.sunbirdrc.registry.util.ViewTemplateManager;
 import dev.sunbirdrc.validators.ValidationException;
+import dev.sunbirdrc.views.ViewTemplate;
 import org.agrona.Strings;
 import org.apache.commons.lang3.exception.ExceptionUtils;
 import org.apache.commons.lang3.StringUtils;
@@ -46,10 +50,13 @@ import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
 import org.springframework.security.core.context.SecurityContextHolder;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
 
 import javax.servlet.http.HttpServletRequest;
 import javax.ws.rs.BadRequestException;
+import java.io.*;
 import java.lang.reflect.InvocationTargetException;
+import java.nio.charset.StandardCharsets;
 import java.util.*;
 
 import static dev.sunbirdrc.registry.Constants.*;
@@ -60,6 +67,7 @@ import static dev.sunbirdrc.registry.middleware.util.Constants.*;
 public class RegistryEntityController extends AbstractController {
 
     private static final String TRANSACTION_ID = "transactionId";
+    private static final String NDJSON_CONTENT_TYPE = "application/x-ndjson";
     private static Logger logger = LoggerFactory.getLogger(RegistryEntityController.class);
 
     @Value("${signature.enabled}")
@@ -88,6 +96,8 @@ public class RegistryEntityController extends AbstractController {
     private int searchOffset;
     @Value("${search.limit:2000}")
     private int searchLimit;
+    @Value("${registry.bulk.chunkSize:500}")
+    private int bulkChunkSize;
 
     @RequestMapping(value = "/api/v1/{entityName}/invite", method = RequestMethod.POST)
     public ResponseEntity<Object> invite(
@@ -220,7 +230,12 @@ public class RegistryEntityController extends AbstractController {
             checkEntityNameInDefinitionManager(entityName);
             if (definitionsManager.getDefinition(entityName).getOsSchemaConfiguration().getEnableSearch()) {
                 JsonNode result = registryHelper.searchEntity(searchNode, null).get(entityName);
-                ObjectNode pageUrls = JSONUtil.getSearchPageUrls(searchNode, searchLimit, searchOffset, result.get(TOTAL_COUNT).asLong(), request.getRequestURL().toString());
+                ObjectNode pageUrls;
+                if (searchNode.has(CURSOR)) {
+                    pageUrls = JSONUtil.getSearchCursorPageUrls(searchNode, result.path(NEXT_CURSOR).asText(null), request.getRequestURL().toString());
+                } else {
+                    pageUrls = JSONUtil.getSearchPageUrls(searchNode, searchLimit, searchOffset, result.get(TOTAL_COUNT).asLong(), request.getRequestURL().toString());
+                }
                 ((ObjectNode) result).setAll(pageUrls);
                 watch.stop("RegistryController.searchEntity");
                 return new ResponseEntity<>(result, HttpStatus.OK);
@@ -235,6 +250,8 @@ public class RegistryEntityController extends AbstractController {
             createSchemaNotFoundResponse(e.getMessage(), responseParams);
             response = new Response(Response.API_ID.SEARCH, "ERROR", responseParams);
             return new ResponseEntity<>(response, HttpStatus.NOT_FOUND);
+        } catch (InvalidSearchCursorException e) {
+            return badRequestException(responseParams, response, e.getMessage());
         } catch (Exception e) {
             logger.error("Exception in controller while searching entities !, {}", ExceptionUtils.getStackTrace(e));
             response.setResult("");
@@ -354,6 +371,106 @@ public class RegistryEntityController extends AbstractController {
     }
 
 
+    /**
+     * Creates the entities given as newline delimited json, one entity per line. The lines are written in chunks,
+     * each chunk in one transaction, and the result of every line is streamed back once its chunk is processed.
+     * In async mode, the entities are published to the create entity topic and the result of a line carries its
+     * transaction id.
+     */
+    @RequestMapping(value = "/api/v1/{entityName}/_bulk", method = RequestMethod.POST)
+    public ResponseEntity<StreamingResponseBody> postEntities(
+            @PathVariable String entityName,
+            HttpServletRequest request
+    ) {
+        ResponseParams responseParams = new ResponseParams();
+        Response response = new Response(Response.API_ID.POST, "OK", responseParams);
+
+        try {
+            checkEntityNameInDefinitionManager(entityName);
+            String userId = registryHelper.authorizeManageEntity(request, entityName);
+            String emailId = registryHelper.fetchEmailIdFromToken(request, entityName);
+            InputStream inputStream = request.getInputStream();
+            StreamingResponseBody results = outputStream -> addEntities(entityName, userId, emailId, inputStream, outputStream);
+            return ResponseEntity.ok().contentType(MediaType.parseMediaType(NDJSON_CONTENT_TYPE)).body(results);
+        } catch (RecordNotFoundException e) {
+            createSchemaNotFoundResponse(e.getMessage(), responseParams);
+            response = new Response(Response.API_ID.POST, "ERROR", responseParams);
+            return errorResponse(response, HttpStatus.NOT_FOUND);
+        } catch (Exception e) {
+            logger.error("Exception in controller while adding entities !, {}", ExceptionUtils.getStackTrace(e));
+            responseParams.setStatus(Response.Status.UNSUCCESSFUL);
+            responseParams.setErrmsg(e.getMessage());
+            return errorResponse(response, HttpStatus.INTERNAL_SERVER_ERROR);
+        }
+    }
+
+    private ResponseEntity<StreamingResponseBody> errorResponse(Response response, HttpStatus status) {
+        return ResponseEntity.status(status).contentType(MediaType.APPLICATION_JSON)
+                .body(outputStream -> objectMapper.writeValue(outputStream, response));
+    }
+
+    private void addEntities(String entityName, String userId, String emailId, InputStream inputStream, OutputStream outputStream) throws IOException {
+        BufferedReader reader = new BufferedReader(new InputStreamReader(inputStream, StandardCharsets.UTF_8));
+        Map<Long, JsonNode> chunk = new LinkedHashMap<>();
+        List<BulkEntityResult> invalidLines = new ArrayList<>();
+        long lineNumber = 0;
+        String line;
+        while ((line = reader.readLine()) != null) {
+            lineNumber++;
+            if (line.trim().isEmpty()) {
+                continue;
+            }
+            try {
+                JsonNode rootNode = objectMapper.readTree(line);
+                if (!rootNode.isObject()) {
+                    throw new IOException("Expected a json object");
+                }
+                ObjectNode newRootNode = objectMapper.createObjectNode();
+                newRootNode.set(entityName, rootNode);
+                chunk.put(lineNumber, newRootNode);
+            } catch (IOException e) {
+                invalidLines.add(BulkEntityResult.builder().line(lineNumber).status(CreateEntityStatus.FAILED).message(e.getMessage()).build());
+            }
+            // The invalid lines count too, so that their results are streamed back as the valid ones are
+            if (chunk.size() + invalidLines.size() >= bulkChunkSize) {
+                writeBulkResults(entityName, userId, emailId, chunk, invalidLines, outputStream);
+                chunk.clear();
+                invalidLines.clear();
+            }
+        }
+        writeBulkResults(entityName, userId, emailId, chunk, invalidLines, outputStream);
+        logger.info("Processed {} lines of {} in bulk", lineNumber, entityName);
+    }
+
+    private void writeBulkResults(String entityName, String userId, String emailId, Map<Long, JsonNode> chunk,
+                                  List<BulkEntityResult> invalidLines, OutputStream outputStream) throws IOException {
+        List<BulkEntityResult> results = new ArrayList<>(invalidLines);
+        if (!chunk.isEmpty()) {
+            results.addAll(registryHelper.addEntities(chunk, userId));
+        }
+        results.sort(Comparator.comparingLong(BulkEntityResult::getLine));
+        for (BulkEntityResult result : results) {
+            ObjectNode resultNode = objectMapper.createObjectNode();
+            resultNode.put("line", result.getLine());
+            resultNode.put("status", result.getStatus().name());
+            if (result.getStatus() == CreateEntityStatus.SUCCESSFUL && asyncRequest.isEnabled()) {
+                resultNode.put(TRANSACTION_ID, result.getEntityId());
+            } else if (result.getStatus() == CreateEntityStatus.SUCCESSFUL) {
+                resultNode.put(dbConnectionInfoMgr.getUuidPropertyName(), result.getEntityId());
+                try {
+                    registryHelper.autoRaiseClaim(entityName, result.getEntityId(), userId, null, chunk.get(result.getLine()), emailId);
+                } catch (Exception e) {
+                    logger.error("Exception while raising claim for {} !, {}", result.getEntityId(), ExceptionUtils.getStackTrace(e));
+                }
+            } else {
+                resultNode.put("message", result.getMessage());
+            }
+            outputStream.write(objectMapper.writeValueAsBytes(resultNode));
+            outputStream.write('\n');
+        }
+        outputStream.flush();
+    }
+
     @RequestMapping(value = "/api/v1/{entityName}/{entityId}/**", method = RequestMethod.PUT)
     public ResponseEntity<Object> updatePropertyOfTheEntity(
             HttpServletRequest request,
@@ -557,7 +674,7 @@ public class RegistryEntityController extends AbstractController {
         }
         try {
             String readerUserId = getUserId(entityName, request);
-            JsonNode node = registryHelper.readEntity(readerUserId, entityName, entityId, false,
+            JsonNode node = registryHelper.readCachedEntity(readerUserId, entityName, entityId, false,
                             viewTemplateManager.getViewTemplateById(viewTemplateId), false)
                     .get(entityName);
             JsonNode credentialData = OSSystemFields.credentials.getCredential(GenericConfiguration.getSignatureProvider(), node);
@@ -636,7 +753,7 @@ public class RegistryEntityController extends AbstractController {
         try {
             checkEntityNameInDefinitionManager(entityName);
             String readerUserId = getUserId(entityName, request);
-            JsonNode node = getEntityJsonNode(entityName, entityId, requireLDResponse, readerUserId, viewTemplateId);
+            JsonNode node = getEntityJsonNode(entityName, entityId, requireLDResponse, readerUserId, viewTemplateId, true);
             if (requireLDResponse) {
                 addJsonLDSpec(node);
             } else if (requireVCResponse) {
@@ -668,9 +785,12 @@ public class RegistryEntityController extends AbstractController {
     }
 
     private JsonNode getEntityJsonNode(@PathVariable String entityName, @PathVariable String entityId,
-                                       boolean requireLDResponse, String userId, String viewTemplateId) throws Exception {
-        JsonNode resultNode = registryHelper.readEntity(userId, entityName, entityId, false,
-                viewTemplateManager.getViewTemplateById(viewTemplateId), false);
+                                       boolean requireLDResponse, String userId, String viewTemplateId,
+                                       boolean useCache) throws Exception {
+        ViewTemplate viewTemplate = viewTemplateManager.getViewTemplateById(viewTemplateId);
+        JsonNode resultNode = useCache
+                ? registryHelper.readCachedEntity(userId, entityName, entityId, false, viewTemplate, false)
+                : registryHelper.readEntity(userId, entityName, entityId, false, viewTemplate, false);
         Data<Object> data = new Data<>(resultNode);
         Configuration config = configurationHelper.getResponseConfiguration(requireLDResponse);
         ITransformer<Object> responseTransformer = transformer.getInstance(config);
@@ -938,7 +1058,7 @@ public class RegistryEntityController extends AbstractController {
         try {
             String tag = "RegistryController.revokeAnExistingCredential " + entityName;
             watch.start(tag);
-            JsonNode existingEntityNode = getEntityJsonNode(entityName, entityId,false, userId, null);
+            JsonNode existingEntityNode = getEntityJsonNode(entityName, entityId,false, userId, null, false);
             String signedData = OSSystemFields.credentials.getCredential(GenericConfiguration.getSignatureProvider(), existingEntityNode).asText();
             if (signedData.equals(new String()) || signedData.equals(null)) {
                 throw new RecordNotFoundException("Credential is already revoked");
@@ -14,14 +14,20 @@ import dev.sunbirdrc.pojos.HealthCheckResponse;
 import dev.sunbirdrc.pojos.SunbirdRCInstrumentation;
 import dev.sunbirdrc.pojos.Response;
 import dev.sunbirdrc.pojos.ResponseParams;
+import dev.sunbirdrc.registry.exception.UnAuthorizedException;
 import dev.sunbirdrc.registry.exception.UnreachableException;
 import dev.sunbirdrc.registry.helper.RegistryHelper;
 import dev.sunbirdrc.registry.helper.SignatureHelper;
 import dev.sunbirdrc.registry.middleware.util.Constants;
 import dev.sunbirdrc.registry.middleware.util.JSONUtil;
 import dev.sunbirdrc.registry.service.HealthCheckService;
+import dev.sunbirdrc.registry.service.WebhookService;
+import dev.sunbirdrc.registry.service.impl.CredentialReissuer;
+import dev.sunbirdrc.registry.service.impl.WebhookDispatcher;
 import dev.sunbirdrc.registry.sink.shard.Shard;
 import dev.sunbirdrc.registry.sink.shard.ShardManager;
+import dev.sunbirdrc.registry.sink.shard.ShardRebalancer;
+import dev.sunbirdrc.registry.sink.shard.ShardRecordJob;
 import org.apache.commons.lang3.exception.ExceptionUtils;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
@@ -46,6 +52,8 @@ import static dev.sunbirdrc.registry.middleware.util.Constants.TOTAL_COUNT;
 @RestController
 public class RegistryUtilsController {
 
+	private static final String REBALANCING = "Shard rebalancing";
+	private static final String REISSUING = "Credential reissuing";
 	private static final String ID_REGEX = "\"@id\"\\s*:\\s*\"[a-z]+:[0-9a-f]{8}-[0-9a-f]{4}-[0-9a-f]{4}-[0-9a-f]{4}-[0-9a-f]{12}\",";
 
 	private static Logger logger = LoggerFactory.getLogger(RegistryUtilsController.class);
@@ -68,12 +76,21 @@ public class RegistryUtilsController {
 	@Autowired
 	private ShardManager shardManager;
 
+	@Autowired(required = false)
+	private ShardRebalancer shardRebalancer;
+
+	@Autowired(required = false)
+	private CredentialReissuer credentialReissuer;
+
 	@Autowired
 	RegistryHelper registryHelper;
 
 	@Autowired
 	private HealthCheckService healthCheckService;
 
+	@Autowired
+	private WebhookService webhookService;
+
 	@Value("${frame.file}")
 	private String frameFile;
 
@@ -93,7 +110,7 @@ public class RegistryUtilsController {
 		ResponseParams responseParams = new ResponseParams();
 		Response response = new Response(Response.API_ID.SIGN, "OK", responseParams);
 		if (!signatureEnabled) {
-			return getSignatureNotEnabledResponse(response, responseParams);
+			return getNotEnabledResponse(response, responseParams, "Signature service");
 		}
 		try {
 			watch.start("RegistryUtilsController.generateSignature");
@@ -126,7 +143,7 @@ public class RegistryUtilsController {
 		ResponseParams responseParams = new ResponseParams();
 		Response response = new Response(Response.API_ID.VERIFY, "OK", responseParams);
 		if (!signatureEnabled) {
-			return getSignatureNotEnabledResponse(response, responseParams);
+			return getNotEnabledResponse(response, responseParams, "Signature service");
 		}
 		try {
 			watch.start("RegistryUtilsController.verifySignature");
@@ -198,7 +215,7 @@ public class RegistryUtilsController {
 		ResponseParams responseParams = new ResponseParams();
 		Response response = new Response(Response.API_ID.KEYS, "OK", responseParams);
 		if (!signatureEnabled) {
-			return getSignatureNotEnabledResponse(response, responseParams);
+			return getNotEnabledResponse(response, responseParams, "Signature service");
 		}
 		try {
 			watch.start("RegistryUtilsController.getKey");
@@ -312,8 +329,168 @@ public class RegistryUtilsController {
 		return new ResponseEntity<>(response, HttpStatus.OK);
 	}
 
-	private ResponseEntity<Response> getSignatureNotEnabledResponse(Response response, ResponseParams responseParams) {
-		responseParams.setErrmsg("Signature service not enabled!");
+	/**
+	 * Starts moving the records of the entity type to the shards the shard advisor picks for them,
+	 * for the users managing the entity type
+	 */
+	@RequestMapping(value = "/utils/shards/rebalance/{entityName}", method = RequestMethod.POST)
+	public ResponseEntity<Response> rebalanceShards(@PathVariable String entityName, HttpServletRequest request) {
+		ResponseEntity<Response> unauthorized = authorizeJob(Response.API_ID.REBALANCE, request, entityName);
+		if (unauthorized != null) {
+			return unauthorized;
+		}
+		return startJob(Response.API_ID.REBALANCE, shardRebalancer, REBALANCING, entityName);
+	}
+
+	@RequestMapping(value = "/utils/shards/rebalance", method = RequestMethod.GET)
+	public ResponseEntity<Response> getRebalanceProgress(HttpServletRequest request) {
+		ResponseEntity<Response> unauthorized = authorizeJob(Response.API_ID.REBALANCE, request, getJobEntityType(shardRebalancer));
+		if (unauthorized != null) {
+			return unauthorized;
+		}
+		return getJobProgress(Response.API_ID.REBALANCE, shardRebalancer, REBALANCING);
+	}
+
+	/**
+	 * Stops the rebalancing in progress, the next one resumes where it stopped
+	 */
+	@RequestMapping(value = "/utils/shards/rebalance", method = RequestMethod.DELETE)
+	public ResponseEntity<Response> stopRebalancing(HttpServletRequest request) {
+		ResponseEntity<Response> unauthorized = authorizeJob(Response.API_ID.REBALANCE, request, getJobEntityType(shardRebalancer));
+		if (unauthorized != null) {
+			return unauthorized;
+		}
+		return stopJob(Response.API_ID.REBALANCE, shardRebalancer, REBALANCING);
+	}
+
+	/**
+	 * Starts issuing the credentials of all the records of the entity type again, for the users
+	 * managing the entity type
+	 */
+	@RequestMapping(value = "/utils/credentials/reissue/{entityName}", method = RequestMethod.POST)
+	public ResponseEntity<Response> reissueCredentials(@PathVariable String entityName, HttpServletRequest request) {
+		ResponseEntity<Response> unauthorized = authorizeJob(Response.API_ID.REISSUE, request, entityName);
+		if (unauthorized != null) {
+			return unauthorized;
+		}
+		return startJob(Response.API_ID.REISSUE, credentialReissuer, REISSUING, entityName);
+	}
+
+	@RequestMapping(value = "/utils/credentials/reissue", method = RequestMethod.GET)
+	public ResponseEntity<Response> getReissueProgress(HttpServletRequest request) {
+		ResponseEntity<Response> unauthorized = authorizeJob(Response.API_ID.REISSUE, request, getJobEntityType(credentialReissuer));
+		if (unauthorized != null) {
+			return unauthorized;
+		}
+		return getJobProgress(Response.API_ID.REISSUE, credentialReissuer, REISSUING);
+	}
+
+	/**
+	 * Stops the reissuing in progress, the next one resumes where it stopped
+	 */
+	@RequestMapping(value = "/utils/credentials/reissue", method = RequestMethod.DELETE)
+	public ResponseEntity<Response> stopReissuing(HttpServletRequest request) {
+		ResponseEntity<Response> unauthorized = authorizeJob(Response.API_ID.REISSUE, request, getJobEntityType(credentialReissuer));
+		if (unauthorized != null) {
+			return unauthorized;
+		}
+		return stopJob(Response.API_ID.REISSUE, credentialReissuer, REISSUING);
+	}
+
+	/**
+	 * Returns the delivery lag and failure counts of the webhook dispatcher
+	 */
+	@RequestMapping(value = "/utils/webhooks/metrics", method = RequestMethod.GET)
+	public ResponseEntity<Response> getWebhookMetrics() {
+		ResponseParams responseParams = new ResponseParams();
+		Response response = new Response(Response.API_ID.WEBHOOKS, "OK", responseParams);
+		WebhookDispatcher dispatcher = webhookService.getDispatcher();
+		if (dispatcher == null) {
+			return getNotEnabledResponse(response, responseParams, "Webhook service");
+		}
+		response.setResult(dispatcher.getMetrics());
+		responseParams.setErrmsg("");
+		responseParams.setStatus(Response.Status.SUCCESSFUL);
+		return new ResponseEntity<>(response, HttpStatus.OK);
+	}
+
+	/**
+	 * Returns the response to a user not allowed to manage the entity type, null if the user is
+	 * allowed or there is no entity type to check
+	 */
+	private ResponseEntity<Response> authorizeJob(Response.API_ID apiId, HttpServletRequest request, String entityName) {
+		if (entityName == null) {
+			return null;
+		}
+		ResponseParams responseParams = new ResponseParams();
+		Response response = new Response(apiId, "OK", responseParams);
+		try {
+			registryHelper.authorizeManageEntity(request, entityName);
+			return null;
+		} catch (UnAuthorizedException e) {
+			responseParams.setErrmsg(e.getMessage());
+			responseParams.setStatus(Response.Status.UNSUCCESSFUL);
+			return new ResponseEntity<>(response, HttpStatus.UNAUTHORIZED);
+		} catch (Exception e) {
+			logger.error("Failed to authorize the user managing {}: {}", entityName, ExceptionUtils.getStackTrace(e));
+			responseParams.setErrmsg(e.getMessage());
+			responseParams.setStatus(Response.Status.UNSUCCESSFUL);
+			return new ResponseEntity<>(response, HttpStatus.INTERNAL_SERVER_ERROR);
+		}
+	}
+
+	/**
+	 * The entity type of the last run of the job, the progress and stop requests are checked against
+	 */
+	private static String getJobEntityType(ShardRecordJob<?> job) {
+		ShardRecordJob.Progress progress = job == null ? null : job.getProgress();
+		return progress == null ? null : progress.getEntityType();
+	}
+
+	private ResponseEntity<Response> startJob(Response.API_ID apiId, ShardRecordJob<?> job, String jobName, String entityName) {
+		ResponseParams responseParams = new ResponseParams();
+		Response response = new Response(apiId, "OK", responseParams);
+		if (job == null) {
+			return getNotEnabledResponse(response, responseParams, jobName);
+		}
+		if (job.start(entityName)) {
+			responseParams.setErrmsg("");
+			responseParams.setStatus(Response.Status.SUCCESSFUL);
+		} else {
+			responseParams.setErrmsg(jobName + " is in progress already");
+			responseParams.setStatus(Response.Status.UNSUCCESSFUL);
+		}
+		response.setResult(job.getProgress());
+		return new ResponseEntity<>(response, HttpStatus.OK);
+	}
+
+	private ResponseEntity<Response> getJobProgress(Response.API_ID apiId, ShardRecordJob<?> job, String jobName) {
+		ResponseParams responseParams = new ResponseParams();
+		Response response = new Response(apiId, "OK", responseParams);
+		if (job == null) {
+			return getNotEnabledResponse(response, responseParams, jobName);
+		}
+		response.setResult(job.getProgress());
+		responseParams.setErrmsg("");
+		responseParams.setStatus(Response.Status.SUCCESSFUL);
+		return new ResponseEntity<>(response, HttpStatus.OK);
+	}
+
+	private ResponseEntity<Response> stopJob(Response.API_ID apiId, ShardRecordJob<?> job, String jobName) {
+		ResponseParams responseParams = new ResponseParams();
+		Response response = new Response(apiId, "OK", responseParams);
+		if (job == null) {
+			return getNotEnabledResponse(response, responseParams, jobName);
+		}
+		job.stop();
+		response.setResult(job.getProgress());
+		responseParams.setErrmsg("");
+		responseParams.setStatus(Response.Status.SUCCESSFUL);
+		return new ResponseEntity<>(response, HttpStatus.OK);
+	}
+
+	private ResponseEntity<Response> getNotEnabledResponse(Response response, ResponseParams responseParams, String feature) {
+		responseParams.setErrmsg(feature + " not enabled!");
 		responseParams.setStatus(Response.Status.UNSUCCESSFUL);
 		response.setResponseCode("SERVICE_UNAVAILABLE");
 		return new ResponseEntity<>(response, HttpStatus.SERVICE_UNAVAILABLE);
@@ -0,0 +1,175 @@
+package dev.sunbirdrc.registry.dao;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import dev.sunbirdrc.registry.middleware.util.Constants;
+import dev.sunbirdrc.registry.sink.DatabaseProvider;
+import dev.sunbirdrc.registry.util.IDefinitionsManager;
+import dev.sunbirdrc.registry.util.ReadConfigurator;
+import dev.sunbirdrc.registry.util.RefLabelHelper;
+import org.apache.tinkerpop.gremlin.process.traversal.P;
+import org.apache.tinkerpop.gremlin.structure.Direction;
+import org.apache.tinkerpop.gremlin.structure.Edge;
+import org.apache.tinkerpop.gremlin.structure.Graph;
+import org.apache.tinkerpop.gremlin.structure.Vertex;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * Reads an entity the same way as VertexReader, but loads the whole subtree of the
+ * root vertex upfront with a few bulk queries instead of one query per vertex.
+ *
+ * The children are located using the root identifier (_osroot) that VertexWriter stamps
+ * on every child. Children which are reachable from the root but carry some other root
+ * identifier (for example, written by an update in older versions) are loaded level by level.
+ * Several entities, like a page of search results, can be loaded together with preload.
+ */
+public class BatchedVertexReader extends VertexReader {
+    private static Logger logger = LoggerFactory.getLogger(BatchedVertexReader.class);
+
+    private Map<Object, Vertex> loadedVertices = new HashMap<>();
+    private Map<Object, List<Edge>> outEdges = new HashMap<>();
+    private Map<Object, List<Edge>> inEdges = new HashMap<>();
+
+    public BatchedVertexReader(DatabaseProvider databaseProvider, Graph graph, ReadConfigurator configurator, String uuidPropertyName,
+                               IDefinitionsManager definitionsManager, boolean expandReferenceObj) {
+        super(databaseProvider, graph, configurator, uuidPropertyName, definitionsManager, expandReferenceObj);
+    }
+
+    @Override
+    public JsonNode readInternal(Vertex rootVertex) throws Exception {
+        if (null != rootVertex && !outEdges.containsKey(rootVertex.id())) {
+            loadSubtrees(Collections.singletonList(rootVertex));
+        }
+        return super.readInternal(rootVertex);
+    }
+
+    @Override
+    public void preload(List<Vertex> rootVertices) {
+        List<Vertex> pending = new ArrayList<>();
+        for (Vertex rootVertex : rootVertices) {
+            if (!outEdges.containsKey(rootVertex.id())) {
+                pending.add(rootVertex);
+            }
+        }
+        if (!pending.isEmpty()) {
+            loadSubtrees(pending);
+        }
+    }
+
+    /**
+     * Loads all the vertices under the given roots and the edges between them
+     * @param rootVertices
+     */
+    private void loadSubtrees(List<Vertex> rootVertices) {
+        List<Vertex> frontier = new ArrayList<>();
+        List<String> rootIds = new ArrayList<>();
+        for (Vertex rootVertex : rootVertices) {
+            if (loadedVertices.putIfAbsent(rootVertex.id(), rootVertex) == null) {
+                frontier.add(rootVertex);
+            }
+            rootIds.add(databaseProvider.getId(rootVertex));
+        }
+
+        List<Vertex> children = rootIds.size() == 1
+                ? graph.traversal().clone().V().has(Constants.ROOT_KEYWORD, rootIds.get(0)).toList()
+                : graph.traversal().clone().V().has(Constants.ROOT_KEYWORD, P.within(rootIds)).toList();
+        addQueryCount(1);
+        for (Vertex child : children) {
+            if (loadedVertices.putIfAbsent(child.id(), child) == null) {
+                frontier.add(child);
+            }
+        }
+
+        while (!frontier.isEmpty()) {
+            Object[] frontierIds = new Object[frontier.size()];
+            for (int i = 0; i < frontier.size(); i++) {
+                frontierIds[i] = frontier.get(i).id();
+                outEdges.put(frontierIds[i], new ArrayList<>());
+            }
+
+            List<Edge> edges = graph.traversal().clone().V(frontierIds).outE().toList();
+            addQueryCount(1);
+
+            Set<Object> missingIds = new LinkedHashSet<>();
+            for (Edge edge : edges) {
+                Object inVertexId = edge.inVertex().id();
+                outEdges.get(edge.outVertex().id()).add(edge);
+                inEdges.computeIfAbsent(inVertexId, k -> new ArrayList<>()).add(edge);
+                if (!loadedVertices.containsKey(inVertexId)) {
+                    missingIds.add(inVertexId);
+                }
+            }
+
+            frontier = new ArrayList<>();
+            if (!missingIds.isEmpty()) {
+                logger.debug("{} vertices under {} are not stamped with the root", missingIds.size(), rootIds);
+                Iterator<Vertex> missingVertices = graph.vertices(missingIds.toArray());
+                addQueryCount(1);
+                while (missingVertices.hasNext()) {
+                    Vertex missing = missingVertices.next();
+                    loadedVertices.put(missing.id(), missing);
+                    frontier.add(missing);
+                }
+            }
+        }
+        logger.debug("Loaded {} vertices under {} roots", loadedVertices.size(), rootIds.size());
+    }
+
+    @Override
+    protected Iterator<Vertex> getOutVertices(Vertex vertex, String... edgeLabels) {
+        List<Edge> edges = outEdges.get(vertex.id());
+        if (null == edges) {
+            return super.getOutVertices(vertex, edgeLabels);
+        }
+        return getVertices(edges, Direction.IN, edgeLabels).iterator();
+    }
+
+    @Override
+    protected Iterator<Vertex> getInVertices(Vertex vertex, String... edgeLabels) {
+        List<Vertex> vertices = getVertices(inEdges.getOrDefault(vertex.id(), Collections.emptyList()), Direction.OUT, edgeLabels);
+        // Only the edges starting from the loaded vertices are known. Go to the database,
+        // if the vertex refers to something we haven't seen.
+        if (vertices.isEmpty() && (!outEdges.containsKey(vertex.id()) || hasArrayReference(vertex, edgeLabels))) {
+            return super.getInVertices(vertex, edgeLabels);
+        }
+        return vertices.iterator();
+    }
+
+    private boolean hasArrayReference(Vertex vertex, String... edgeLabels) {
+        for (String edgeLabel : edgeLabels) {
+            if (vertex.property(RefLabelHelper.getArrayLabel(edgeLabel, uuidPropertyName)).isPresent()) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    /**
+     * Returns the loaded vertices on the given side of the edges
+     * @param edges
+     * @param direction - IN for the target vertices, OUT for the source vertices
+     * @param edgeLabels
+     * @return
+     */
+    private List<Vertex> getVertices(List<Edge> edges, Direction direction, String... edgeLabels) {
+        List<String> labels = Arrays.asList(edgeLabels);
+        List<Vertex> vertices = new ArrayList<>();
+        for (Edge edge : edges) {
+            if (labels.isEmpty() || labels.contains(edge.label())) {
+                Vertex vertex = direction == Direction.IN ? edge.inVertex() : edge.outVertex();
+                vertices.add(loadedVertices.getOrDefault(vertex.id(), vertex));
+            }
+        }
+        return vertices;
+    }
+}
@@ -9,6 +9,8 @@ public interface IRegistryDao {
 	String addEntity(Graph graph, JsonNode rootNode);
 	JsonNode getEntity(Graph graph, String entityType, String uuid, ReadConfigurator readConfigurator) throws Exception;
 	JsonNode getEntity(Graph graph, Vertex vertex, ReadConfigurator readConfigurator, boolean expandInternal) throws Exception;
+	JsonNode getEntity(VertexReader vertexReader, Vertex vertex, boolean expandInternal) throws Exception;
+	VertexReader getVertexReader(Graph graph, ReadConfigurator readConfigurator);
 	void updateVertex(Graph graph, Vertex rootVertex, JsonNode inputJsonNode, String parentName) throws Exception;
     void deleteEntity(Vertex uuid);
 
@@ -19,6 +19,7 @@ import java.util.List;
 public class RegistryDaoImpl implements IRegistryDao {
     public String uuidPropertyName;
     private final boolean expandReferenceObj;
+    private final boolean batchedRead;
     private IDefinitionsManager definitionsManager;
     private DatabaseProvider databaseProvider;
     private List<String> privatePropertyList;
@@ -36,10 +37,20 @@ public class RegistryDaoImpl implements IRegistryDao {
     }
 
     public RegistryDaoImpl(DatabaseProvider dbProvider, IDefinitionsManager defnManager, String uuidPropName, boolean expandReferenceObj) {
+        this(dbProvider, defnManager, uuidPropName, expandReferenceObj, false);
+    }
+
+    /**
+     * @param batchedRead - when true, entities are read with the BatchedVertexReader, which loads
+     *                    the whole entity in a few queries. Otherwise, each vertex is read one by one.
+     */
+    public RegistryDaoImpl(DatabaseProvider dbProvider, IDefinitionsManager defnManager, String uuidPropName, boolean expandReferenceObj,
+                           boolean batchedRead) {
         databaseProvider = dbProvider;
         definitionsManager = defnManager;
         uuidPropertyName = uuidPropName;
         this.expandReferenceObj = expandReferenceObj;
+        this.batchedRead = batchedRead;
     }
 
     public DatabaseProvider getDatabaseProvider() {
@@ -66,26 +77,44 @@ public class RegistryDaoImpl implements IRegistryDao {
      * @return
      */
     public JsonNode getEntity(Graph graph, String entityType, String uuid, ReadConfigurator readConfigurator) throws Exception {
-
-        VertexReader vr = new VertexReader(getDatabaseProvider(), graph, readConfigurator, uuidPropertyName, definitionsManager, expandReferenceObj);
+        String tag = "RegistryDaoImpl.getEntity " + entityType;
+        watch.start(tag);
+        VertexReader vr = getVertexReader(graph, readConfigurator);
         JsonNode result = vr.read(entityType, uuid);
+        // The number of queries of the read goes with its timing to the perf4j log
+        watch.stop(tag, "queries=" + vr.getQueryCount());
 
         return result;
     }
 
 
     public JsonNode getEntity(Graph graph, Vertex vertex, ReadConfigurator readConfigurator, boolean expandInternal) throws Exception {
+        return getEntity(getVertexReader(graph, readConfigurator), vertex, expandInternal);
+    }
 
-        VertexReader vr = new VertexReader(getDatabaseProvider(), graph, readConfigurator, uuidPropertyName, definitionsManager, expandReferenceObj);
+    /**
+     * Reads the entity of the given vertex with the given reader. Reusing the reader across
+     * vertices lets it serve them from what it has already loaded.
+     */
+    public JsonNode getEntity(VertexReader vr, Vertex vertex, boolean expandInternal) throws Exception {
         ObjectNode constructObject = vr.constructObject(vertex);
         if (expandInternal) {
             String entityType = (String) ValueType.getValue(constructObject.get(TypePropertyHelper.getTypeName()));
-            return vr.readInternal(vertex).get(entityType);
+            JsonNode result = vr.readInternal(vertex).get(entityType);
+            logger.debug("Read {} {} with {} queries", entityType, databaseProvider.getId(vertex), vr.getQueryCount());
+            return result;
         } else {
             return constructObject;
         }
     }
 
+    public VertexReader getVertexReader(Graph graph, ReadConfigurator readConfigurator) {
+        if (batchedRead) {
+            return new BatchedVertexReader(getDatabaseProvider(), graph, readConfigurator, uuidPropertyName, definitionsManager, expandReferenceObj);
+        }
+        return new VertexReader(getDatabaseProvider(), graph, readConfigurator, uuidPropertyName, definitionsManager, expandReferenceObj);
+    }
+
 
     /**
      * This method update the inputJsonNode related vertices in the database
@@ -7,6 +7,7 @@ import com.fasterxml.jackson.databind.node.ObjectNode;
 import dev.sunbirdrc.pojos.Filter;
 import dev.sunbirdrc.pojos.FilterOperators;
 import dev.sunbirdrc.pojos.SearchQuery;
+import dev.sunbirdrc.pojos.SunbirdRCInstrumentation;
 import dev.sunbirdrc.registry.middleware.util.Constants;
 import dev.sunbirdrc.registry.util.ReadConfigurator;
 import java.util.ArrayList;
@@ -25,6 +26,7 @@ import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
 import static dev.sunbirdrc.registry.middleware.util.Constants.ENTITY_LIST;
+import static dev.sunbirdrc.registry.middleware.util.Constants.QUERY_COUNT;
 import static dev.sunbirdrc.registry.middleware.util.Constants.TOTAL_COUNT;
 import static org.apache.tinkerpop.gremlin.process.traversal.dsl.graph.__.has;
 import static org.apache.tinkerpop.gremlin.process.traversal.dsl.graph.__.hasNot;
@@ -32,9 +34,20 @@ import static org.apache.tinkerpop.gremlin.process.traversal.dsl.graph.__.hasNot
 public class SearchDaoImpl implements SearchDao {
     private static final Logger logger = LoggerFactory.getLogger(SearchDaoImpl.class);
     private IRegistryDao registryDao;
+    private final boolean reportQueryCount;
+    private SunbirdRCInstrumentation watch = new SunbirdRCInstrumentation(true);
 
     public SearchDaoImpl(IRegistryDao registryDaoImpl) {
+        this(registryDaoImpl, false);
+    }
+
+    /**
+     * @param reportQueryCount - when true, the number of database round trips made for each entity type
+     *                         is set in the results, to help debugging slow searches
+     */
+    public SearchDaoImpl(IRegistryDao registryDaoImpl, boolean reportQueryCount) {
         registryDao = registryDaoImpl;
+        this.reportQueryCount = reportQueryCount;
     }
 
     public JsonNode search(Graph graphFromStore, SearchQuery searchQuery, boolean expandInternal) {
@@ -46,17 +59,40 @@ public class SearchDaoImpl implements SearchDao {
         for (String entity : searchQuery.getEntityTypes()) {
             GraphTraversal<Vertex, Vertex> resultGraphTraversal = dbGraphTraversalSource.V().hasLabel(entity);
 
-            GraphTraversal<Vertex, Vertex> parentTraversal = resultGraphTraversal.asAdmin();
-
             resultGraphTraversal = getFilteredResultTraversal(resultGraphTraversal, filterList)
                     .or(hasNot(Constants.STATUS_KEYWORD), has(Constants.STATUS_KEYWORD, Constants.STATUS_ACTIVE));
             GraphTraversal<Vertex, Vertex> resultGraphTraversalCount = resultGraphTraversal.asAdmin().clone();
-            resultGraphTraversal.range(offset, offset + searchQuery.getLimit());
-            JsonNode result = getResult(graphFromStore, resultGraphTraversal, parentTraversal, expandInternal);
+            int limit = searchQuery.getLimit();
+            if (searchQuery.getAfter() != null) {
+                String after = searchQuery.getAfter().get(entity);
+                if (after != null) {
+                    // Seek past the previous page using the sort key, instead of skipping over it
+                    resultGraphTraversal.has(searchQuery.getOrderBy(), P.gt(after));
+                } else {
+                    // The previous page was the last one of the entity type
+                    limit = 0;
+                }
+            }
+            if (searchQuery.getOrderBy() != null) {
+                resultGraphTraversal.order().by(searchQuery.getOrderBy());
+            }
+            resultGraphTraversal.range(offset, offset + limit);
+            ArrayNode result = JsonNodeFactory.instance.arrayNode();
+            String tag = "SearchDaoImpl.search " + entity;
+            watch.start(tag);
+            // One query for the page, the rest is for reading the entities
+            int queryCount = 1 + getResult(graphFromStore, resultGraphTraversal, expandInternal, result);
+            watch.stop(tag, "queries=" + queryCount + ",results=" + result.size());
             ObjectNode response = JsonNodeFactory.instance.objectNode();
             response.set(ENTITY_LIST, result);
-            long count = resultGraphTraversalCount.count().next();
-            response.set(TOTAL_COUNT, JsonNodeFactory.instance.numberNode(count));
+            if (!searchQuery.isSkipCount()) {
+                long count = resultGraphTraversalCount.count().next();
+                queryCount++;
+                response.set(TOTAL_COUNT, JsonNodeFactory.instance.numberNode(count));
+            }
+            if (reportQueryCount) {
+                response.set(QUERY_COUNT, JsonNodeFactory.instance.numberNode(queryCount));
+            }
             resultNode.set(entity, response);
         }
 
@@ -174,30 +210,39 @@ public class SearchDaoImpl implements SearchDao {
 		return valueList;
 	}
 
-	private JsonNode getResult(Graph graph, GraphTraversal resultTraversal, GraphTraversal parentTraversal, boolean expandInternal) {
-		ArrayNode result = JsonNodeFactory.instance.arrayNode();
-		if (resultTraversal != null) {
-            //parentTraversal.map(resultTraversal);
-			while (resultTraversal.hasNext()) {
-				Vertex v = (Vertex) resultTraversal.next();
-				if ((!v.property(Constants.STATUS_KEYWORD).isPresent() ||
-					Constants.STATUS_ACTIVE.equals(v.value(Constants.STATUS_KEYWORD)))) {
-
-					ReadConfigurator configurator = new ReadConfigurator();
-					configurator.setIncludeSignatures(false);
-					configurator.setIncludeTypeAttributes(false);
-
-					JsonNode answer = null;
-					try {
-						answer = registryDao.getEntity(graph, v, configurator, expandInternal);
-					} catch (Exception e) {
-                        logger.error("Exception occurred while searching entity: {}", ExceptionUtils.getStackTrace(e));
-					}
-					result.add(answer);
-				}
+	/**
+	 * Reads the entities of the page in one go, so that the reader can load all of them together
+	 * instead of going to the database for every entity.
+	 * @return the number of queries made to read the entities
+	 */
+	private int getResult(Graph graph, GraphTraversal<Vertex, Vertex> resultTraversal, boolean expandInternal, ArrayNode result) {
+		List<Vertex> vertices = new ArrayList<>();
+		while (resultTraversal.hasNext()) {
+			Vertex v = resultTraversal.next();
+			if ((!v.property(Constants.STATUS_KEYWORD).isPresent() ||
+				Constants.STATUS_ACTIVE.equals(v.value(Constants.STATUS_KEYWORD)))) {
+				vertices.add(v);
+			}
+		}
+
+		ReadConfigurator configurator = new ReadConfigurator();
+		configurator.setIncludeSignatures(false);
+		configurator.setIncludeTypeAttributes(false);
+
+		VertexReader vertexReader = registryDao.getVertexReader(graph, configurator);
+		if (expandInternal && !vertices.isEmpty()) {
+			vertexReader.preload(vertices);
+		}
+		for (Vertex v : vertices) {
+			JsonNode answer = null;
+			try {
+				answer = registryDao.getEntity(vertexReader, v, expandInternal);
+			} catch (Exception e) {
+				logger.error("Exception occurred while searching entity: {}", ExceptionUtils.getStackTrace(e));
 			}
+			result.add(answer);
 		}
-		return result;
+		return vertexReader.getQueryCount();
 	}
 
 }
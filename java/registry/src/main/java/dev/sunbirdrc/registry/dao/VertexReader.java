@@ -33,10 +33,10 @@ import static dev.sunbirdrc.registry.middleware.util.Constants.DID_TYPE;
  * Given a vertex from the graph, constructs a json out it
  */
 public class VertexReader {
-    private DatabaseProvider databaseProvider;
-    private Graph graph;
+    protected DatabaseProvider databaseProvider;
+    protected Graph graph;
     private ReadConfigurator configurator;
-    private String uuidPropertyName;
+    protected String uuidPropertyName;
     private LinkedHashMap<String, ObjectNode> uuidNodeMap = new LinkedHashMap<>();
     private String entityType;
     private IDefinitionsManager definitionsManager;
@@ -44,6 +44,7 @@ public class VertexReader {
     private LinkedHashMap<String, Vertex> uuidVertexMap = new LinkedHashMap<>();
 
     private boolean expandReferenceObj;
+    private int queryCount = 0;
     private Logger logger = LoggerFactory.getLogger(VertexReader.class);
 
 
@@ -158,9 +159,9 @@ public class VertexReader {
         ArrayNode signatures = null;
         if (configurator.isIncludeSignatures()) {
             try {
-                Iterator<Vertex> signatureArrayIter = currVertex.vertices(Direction.IN, Constants.SIGNATURES_STR);
+                Iterator<Vertex> signatureArrayIter = getInVertices(currVertex, Constants.SIGNATURES_STR);
                 Vertex signatureArrayV = signatureArrayIter.next();
-                Iterator<Vertex> signatureVertices = signatureArrayV.vertices(Direction.OUT, Constants.SIGNATURE_FOR+Constants.ARRAY_ITEM);
+                Iterator<Vertex> signatureVertices = getOutVertices(signatureArrayV, Constants.SIGNATURE_FOR+Constants.ARRAY_ITEM);
 
                 signatures = JsonNodeFactory.instance.arrayNode();
                 while (signatureVertices.hasNext()) {
@@ -218,7 +219,7 @@ public class VertexReader {
         // NOTE: We can load selective vertices, but we don't know the labels
         // here.
         // So in the process, we will have loaded signature nodes as well here
-        Iterator<Vertex> otherVertices = vertex.vertices(Direction.OUT);
+        Iterator<Vertex> otherVertices = getOutVertices(vertex);
 
         int tempCurrLevel = currLevel;
         while (otherVertices.hasNext()) {
@@ -261,6 +262,57 @@ public class VertexReader {
         }
     }
 
+    /**
+     * Returns the vertices at the end of the OUT edges of the given vertex.
+     * Every call is a round trip to the database.
+     *
+     * @param vertex
+     * @param edgeLabels - optional, restricts the edges followed
+     * @return
+     */
+    protected Iterator<Vertex> getOutVertices(Vertex vertex, String... edgeLabels) {
+        queryCount++;
+        return vertex.vertices(Direction.OUT, edgeLabels);
+    }
+
+    /**
+     * Returns the vertices at the start of the IN edges of the given vertex.
+     * Every call is a round trip to the database.
+     *
+     * @param vertex
+     * @param edgeLabels - optional, restricts the edges followed
+     * @return
+     */
+    protected Iterator<Vertex> getInVertices(Vertex vertex, String... edgeLabels) {
+        queryCount++;
+        return vertex.vertices(Direction.IN, edgeLabels);
+    }
+
+    /**
+     * Gives the reader a chance to load the given entities upfront, before they are read one by one.
+     * This reader reads vertex by vertex and does nothing here.
+     *
+     * @param rootVertices
+     */
+    public void preload(List<Vertex> rootVertices) {
+    }
+
+    /**
+     * Records queries fired by the extending readers
+     * @param count
+     */
+    protected void addQueryCount(int count) {
+        queryCount += count;
+    }
+
+    /**
+     * Returns the number of queries fired against the database so far by this reader
+     * @return
+     */
+    public int getQueryCount() {
+        return queryCount;
+    }
+
     private void printUuidNodeMap() {
         uuidNodeMap.keySet().forEach(entry -> {
             logger.debug(entry.toString() + " -> " + uuidNodeMap.get(entry).get(Constants.TYPE_STR_JSON_LD));
@@ -381,6 +433,7 @@ public class VertexReader {
     public Vertex getVertex(String entityType, String uuidPropertyValue) {
         Vertex vertex = null;
         Iterator<Vertex> itrV = null;
+        queryCount++;
         switch (databaseProvider.getProvider()) {
             case NEO4J:
                 itrV = graph.vertices(uuidPropertyValue);
@@ -455,6 +508,8 @@ public class VertexReader {
         }
 
         int currLevel = 0;
+        // The nodes of the entities read before by a reader shared across them are not looked up again
+        uuidNodeMap = new LinkedHashMap<>();
         if (rootVertex.property(Constants.STATUS_KEYWORD).isPresent()
                 && rootVertex.property(Constants.STATUS_KEYWORD).value().equals(Constants.STATUS_INACTIVE)) {
             throw new RecordNotFoundException("entity status is inactive");
@@ -476,7 +531,9 @@ public class VertexReader {
             loadOtherVertices(rootVertex, currLevel);
         }
 
-        printUuidNodeMap();
+        if (logger.isDebugEnabled()) {
+            printUuidNodeMap();
+        }
 
         logger.debug("Finished loading information. Start creating the response");
 
@@ -502,6 +559,7 @@ public class VertexReader {
             if(entry.getValue().isValueNode() && entry.getValue().asText().matches(pattern)) {
                 String[] dids = entry.getValue().asText().split(":");
                 String uuidPropertyValue = RecordIdentifier.parse(dids[2]).getUuid();
+                queryCount++;
                 Iterator<Vertex> vertexIterator = graph.traversal().clone().V().hasLabel(dids[1]).has(uuidPropertyName, uuidPropertyValue);
                 while (vertexIterator.hasNext()) {
                     Vertex dependent = vertexIterator.next();
@@ -184,6 +184,7 @@ public class VertexWriter {
     }
 
     public Vertex writeSingleNode(Vertex parentVertex, String label, JsonNode entryValue) {
+        identifyParentUuid(parentVertex);
     	Vertex v = processNode(label, entryValue);
         ObjectNode object = (ObjectNode) entryValue;
         addEdge(label, parentVertex, v);
@@ -203,7 +204,13 @@ public class VertexWriter {
     private void identifyParentUuid(Vertex vertex) {
         // This attribute will help identify the root from any child
         if (parentUUIDPropertyValue == null || parentUUIDPropertyValue.isEmpty()) {
-            parentUUIDPropertyValue = databaseProvider.getId(vertex);
+            // When adding to an existing record, the vertex could be a child already stamped with the root
+            VertexProperty<Object> rootProperty = vertex.property(Constants.ROOT_KEYWORD);
+            if (rootProperty.isPresent()) {
+                parentUUIDPropertyValue = rootProperty.value().toString();
+            } else {
+                parentUUIDPropertyValue = databaseProvider.getId(vertex);
+            }
         }
     }
 
@@ -0,0 +1,13 @@
+package dev.sunbirdrc.registry.exception;
+
+/**
+ * The search cursor of the request was not issued by the registry, it is a bad request
+ */
+public class InvalidSearchCursorException extends IllegalArgumentException {
+
+	private static final long serialVersionUID = -3154279420186732841L;
+
+	public InvalidSearchCursorException(String message) {
+		super(message);
+	}
+}
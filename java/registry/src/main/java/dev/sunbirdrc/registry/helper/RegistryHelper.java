@@ -31,6 +31,8 @@ import dev.sunbirdrc.registry.model.DBConnectionInfoMgr;
 import dev.sunbirdrc.registry.model.EventType;
 import dev.sunbirdrc.registry.model.attestation.EntityPropertyURI;
 import dev.sunbirdrc.registry.model.dto.AttestationRequest;
+import dev.sunbirdrc.registry.model.dto.BulkEntityResult;
+import dev.sunbirdrc.registry.model.dto.CreateEntityStatus;
 import dev.sunbirdrc.registry.service.*;
 import dev.sunbirdrc.registry.service.impl.SignatureV2ServiceImpl;
 import dev.sunbirdrc.registry.sink.shard.Shard;
@@ -113,6 +115,12 @@ public class RegistryHelper {
     @Autowired
     IReadService readService;
 
+    @Autowired(required = false)
+    private EntityCache entityCache;
+
+    @Autowired
+    private IAuditService auditService;
+
     @Autowired
     IValidate validationService;
 
@@ -180,6 +188,9 @@ public class RegistryHelper {
     @Value("${registry.hard_delete_enabled}")
     private boolean isHardDeleteEnabled;
 
+    @Value("${registry.expandReference}")
+    private boolean expandReference;
+
     @Autowired
     private EntityTypeHandler entityTypeHandler;
 
@@ -232,7 +243,13 @@ public class RegistryHelper {
 
     private String addEntityHandler(JsonNode inputJson, String userId, boolean skipRequiredValidation, boolean skipSignature, boolean checkAsync) throws Exception {
         String entityType = inputJson.fields().next().getKey();
-        validationService.validate(entityType, objectMapper.writeValueAsString(inputJson), skipRequiredValidation);
+        inputJson = validateAndPrepareEntity(inputJson, userId, skipRequiredValidation);
+        return addEntity(inputJson, userId, entityType, skipSignature, checkAsync);
+    }
+
+    private JsonNode validateAndPrepareEntity(JsonNode inputJson, String userId, boolean skipRequiredValidation) throws Exception {
+        String entityType = inputJson.fields().next().getKey();
+        validationService.validate(entityType, inputJson, skipRequiredValidation);
         String entityName = inputJson.fields().next().getKey();
         if (workflowEnabled) {
             List<AttestationPolicy> attestationPolicies = getAttestationPolicies(entityName);
@@ -246,7 +263,73 @@ public class RegistryHelper {
             }
             jsonNode.add(userId);
         }
-        return addEntity(inputJson, userId, entityType, skipSignature, checkAsync);
+        return inputJson;
+    }
+
+    /**
+     * Validates and persists a chunk of records. Records failing the validation are reported as failed,
+     * the rest are written in one transaction per shard. In async mode, each record is published to the
+     * create entity topic instead, and its result carries the transaction id in place of the entity id.
+     *
+     * @param inputJsons - records wrapped under the entity type, keyed by their line number
+     * @return the result of each record
+     */
+    public List<BulkEntityResult> addEntities(Map<Long, JsonNode> inputJsons, String userId) {
+        List<BulkEntityResult> results = new ArrayList<>();
+        Map<String, Shard> shards = new HashMap<>();
+        Map<String, Map<Long, JsonNode>> shardEntities = new LinkedHashMap<>();
+        for (Map.Entry<Long, JsonNode> entry : inputJsons.entrySet()) {
+            try {
+                JsonNode inputJson = validateAndPrepareEntity(entry.getValue(), userId, false);
+                String entityType = inputJson.fields().next().getKey();
+                Shard shard = shardManager.getShard(inputJson.get(entityType).get(shardManager.getShardProperty()));
+                shards.putIfAbsent(shard.getShardId(), shard);
+                shardEntities.computeIfAbsent(shard.getShardId(), k -> new LinkedHashMap<>()).put(entry.getKey(), inputJson);
+            } catch (Exception e) {
+                logger.info("Invalid record at line {}: {}", entry.getKey(), e.getMessage());
+                results.add(BulkEntityResult.builder().line(entry.getKey()).status(CreateEntityStatus.FAILED).message(e.getMessage()).build());
+            }
+        }
+        for (Map.Entry<String, Map<Long, JsonNode>> entry : shardEntities.entrySet()) {
+            Shard shard = shards.get(entry.getKey());
+            Map<Long, JsonNode> entities = entry.getValue();
+            if (asyncRequest.isEnabled()) {
+                results.addAll(publishEntities(shard, entities, userId));
+                continue;
+            }
+            try {
+                watch.start("RegistryHelper.addEntities");
+                List<String> entityIds = registryService.addEntities(shard, userId, new ArrayList<>(entities.values()), false);
+                watch.stop("RegistryHelper.addEntities");
+                Iterator<String> entityIdIterator = entityIds.iterator();
+                for (Map.Entry<Long, JsonNode> entity : entities.entrySet()) {
+                    String recordId = new RecordIdentifier(shard.getShardLabel(), entityIdIterator.next()).toString();
+                    results.add(BulkEntityResult.builder().line(entity.getKey()).status(CreateEntityStatus.SUCCESSFUL).entityId(recordId).build());
+                    if (notificationEnabled) notificationHelper.sendNotification(entity.getValue(), CREATE);
+                }
+            } catch (Exception e) {
+                logger.error("Exception while adding {} entities !, {}", entities.size(), ExceptionUtils.getStackTrace(e));
+                for (Long line : entities.keySet()) {
+                    results.add(BulkEntityResult.builder().line(line).status(CreateEntityStatus.FAILED).message(e.getMessage()).build());
+                }
+            }
+        }
+        return results;
+    }
+
+    private List<BulkEntityResult> publishEntities(Shard shard, Map<Long, JsonNode> entities, String userId) {
+        List<BulkEntityResult> results = new ArrayList<>();
+        for (Map.Entry<Long, JsonNode> entity : entities.entrySet()) {
+            try {
+                String transactionId = registryAsyncService.addEntity(shard, userId, entity.getValue(), false);
+                results.add(BulkEntityResult.builder().line(entity.getKey()).status(CreateEntityStatus.SUCCESSFUL).entityId(transactionId).build());
+                if (notificationEnabled) notificationHelper.sendNotification(entity.getValue(), CREATE);
+            } catch (Exception e) {
+                logger.error("Exception while publishing the entity at line {} !, {}", entity.getKey(), ExceptionUtils.getStackTrace(e));
+                results.add(BulkEntityResult.builder().line(entity.getKey()).status(CreateEntityStatus.FAILED).message(e.getMessage()).build());
+            }
+        }
+        return results;
     }
 
     private String addEntity(JsonNode inputJson, String userId, String entityType, boolean skipSignature, boolean checkAsync) throws Exception {
@@ -291,17 +374,46 @@ public class RegistryHelper {
 
     public JsonNode readEntity(String userId, String entityType, String label, boolean includeSignatures,
                                ViewTemplate viewTemplate, boolean requireLDResponse) throws Exception {
+        return readEntity(userId, entityType, label, includeSignatures, viewTemplate, requireLDResponse, false);
+    }
+
+    /**
+     * Reads the entity like readEntity, from the entity cache when it is enabled. For the read
+     * APIs only, the entities to be modified are to be read with readEntity.
+     */
+    public JsonNode readCachedEntity(String userId, String entityType, String label, boolean includeSignatures,
+                                     ViewTemplate viewTemplate, boolean requireLDResponse) throws Exception {
+        // Referenced entities are expanded into the entity, their writes would not invalidate it
+        boolean useCache = entityCache != null && !expandReference && (viewTemplate == null || viewTemplate.getId() != null);
+        return readEntity(userId, entityType, label, includeSignatures, viewTemplate, requireLDResponse, useCache);
+    }
+
+    private JsonNode readEntity(String userId, String entityType, String label, boolean includeSignatures,
+                                ViewTemplate viewTemplate, boolean requireLDResponse, boolean useCache) throws Exception {
         boolean includePrivateFields = false;
         JsonNode resultNode = null;
         RecordIdentifier recordId = RecordIdentifier.parse(label);
-        String shardId = dbConnectionInfoMgr.getShardId(recordId.getShardLabel());
-        Shard shard = shardManager.activateShard(shardId);
+        Shard shard = shardManager.activateShard(recordId);
         logger.info("Read Api: shard id: " + recordId.getShardLabel() + " for label: " + label);
-        ReadConfigurator configurator = ReadConfiguratorFactory.getOne(includeSignatures);
-        configurator.setIncludeTypeAttributes(requireLDResponse);
         if (viewTemplate != null) {
             includePrivateFields = viewTemplateManager.isPrivateFieldEnabled(viewTemplate, entityType);
         }
+        String readKey = null;
+        long version = EntityCache.UNKNOWN_VERSION;
+        if (useCache) {
+            readKey = EntityCache.getReadKey(entityType, includeSignatures, requireLDResponse, viewTemplate, includePrivateFields);
+            version = entityCache.getVersion(shard.getShardId(), recordId.getUuid());
+            resultNode = entityCache.get(entityType, shard.getShardId(), recordId.getUuid(), readKey, version);
+            if (resultNode != null) {
+                auditService.auditRead(auditService.createAuditRecord(userId, recordId.getUuid(), entityType), shard);
+                if (isEventsEnabled) {
+                    registryService.maskAndEmitEvent(resultNode.get(entityType), entityType, EventType.READ, userId, label);
+                }
+                return resultNode;
+            }
+        }
+        ReadConfigurator configurator = ReadConfiguratorFactory.getOne(includeSignatures);
+        configurator.setIncludeTypeAttributes(requireLDResponse);
         configurator.setIncludeEncryptedProp(includePrivateFields);
         resultNode = readService.getEntity(shard, userId, recordId.getUuid(), entityType, configurator);
         if (!isOwner(resultNode.get(entityType), userId)) {
@@ -320,6 +432,10 @@ public class RegistryHelper {
         } else if (encryptionEnabled) {
             resultNode = decryptionHelper.getDecryptedJson(resultNode);
         }
+        if (useCache) {
+            // The decrypted private fields are not kept in redis
+            entityCache.put(shard.getShardId(), recordId.getUuid(), readKey, version, resultNode, !includePrivateFields);
+        }
         logger.debug("readEntity ends");
         if(isEventsEnabled) {
             registryService.maskAndEmitEvent(resultNode.get(entityType), entityType, EventType.READ, userId, label);
@@ -389,8 +505,8 @@ public class RegistryHelper {
     private void updateEntity(JsonNode inputJson, String userId, boolean skipSignature) throws Exception {
         logger.debug("updateEntity starts");
         String entityType = inputJson.fields().next().getKey();
+        validationService.validate(entityType, inputJson, true);
         String jsonString = objectMapper.writeValueAsString(inputJson);
-        validationService.validate(entityType, jsonString, true);
         Shard shard = shardManager.getShard(inputJson.get(entityType).get(shardManager.getShardProperty()));
         String label = inputJson.get(entityType).get(dbConnectionInfoMgr.getUuidPropertyName()).asText();
         RecordIdentifier recordId = RecordIdentifier.parse(label);
@@ -525,7 +641,7 @@ public class RegistryHelper {
         ArrayNode newPropertyNode = objectMapper.createArrayNode().add(inputJson);
         parentNode.set(propertyName, newPropertyNode);
         try {
-            validationService.validate(entityName, objectMapper.writeValueAsString(updateNode), false);
+            validationService.validate(entityName, updateNode, false);
         } catch (MiddlewareHaltException me) {
             // try a field node since array validation failed
             parentNode.set(propertyName, inputJson);
@@ -940,6 +1056,8 @@ public class RegistryHelper {
             if(searchTokenNode.has(LIMIT)) searchQuery.set(LIMIT, searchTokenNode.get(LIMIT));
             if(searchTokenNode.has(OFFSET)) searchQuery.set(OFFSET, searchTokenNode.get(OFFSET));
             if(searchTokenNode.has(VIEW_TEMPLATE_ID)) searchQuery.set(VIEW_TEMPLATE_ID, searchTokenNode.get(VIEW_TEMPLATE_ID));
+            if(searchTokenNode.has(CURSOR)) searchQuery.set(CURSOR, searchTokenNode.get(CURSOR));
+            if(searchTokenNode.has(TOTAL_COUNT)) searchQuery.set(TOTAL_COUNT, searchTokenNode.get(TOTAL_COUNT));
         }
     }
     public JsonNode searchQueryByUserId(String entityName, String userId, String searchToken, String viewTemplateId) throws Exception {
@@ -1150,8 +1268,7 @@ public class RegistryHelper {
 
     public Vertex deleteEntity(String entityName, String entityId, String userId) throws Exception {
         RecordIdentifier recordId = RecordIdentifier.parse(entityId);
-        String shardId = dbConnectionInfoMgr.getShardId(recordId.getShardLabel());
-        Shard shard = shardManager.activateShard(shardId);
+        Shard shard = shardManager.activateShard(recordId);
         ReadConfigurator configurator = ReadConfiguratorFactory.getOne(false);
         JsonNode deletedNode = null;
         if(isHardDeleteEnabled) {
@@ -1168,8 +1285,7 @@ public class RegistryHelper {
 
     public JsonNode revokeAnEntity (String entityName, String entityId, String userId, JsonNode currentJsonNode) throws Exception {
         RecordIdentifier recordId = RecordIdentifier.parse(entityId);
-        String shardId = dbConnectionInfoMgr.getShardId(recordId.getShardLabel());
-        Shard shard = shardManager.activateShard(shardId);
+        Shard shard = shardManager.activateShard(recordId);
         OSSystemFields.credentials.removeCredential(GenericConfiguration.getSignatureProvider(), currentJsonNode);
         ObjectNode newRootNode = objectMapper.createObjectNode();
         newRootNode.set(entityName, JSONUtil.convertObjectJsonNode(currentJsonNode));
@@ -42,6 +42,11 @@ public class DBConnectionInfoMgr {
 	 * advisor allowed
 	 */
 	private String shardAdvisorClassName;
+	/**
+	 * The number of points each shard has on the ring of the consistent hash
+	 * shard advisor
+	 */
+	private int virtualNodesPerShard = 160;
 	private Map<String, String> shardLabelIdMap = new HashMap<>();
 
 	@PostConstruct
@@ -105,6 +110,14 @@ public class DBConnectionInfoMgr {
 		this.shardAdvisorClassName = shardAdvisorClassName;
 	}
 
+	public int getVirtualNodesPerShard() {
+		return virtualNodesPerShard;
+	}
+
+	public void setVirtualNodesPerShard(int virtualNodesPerShard) {
+		this.virtualNodesPerShard = virtualNodesPerShard;
+	}
+
 	public String getShardId(String shardLabel) {
 		return shardLabelIdMap.getOrDefault(shardLabel, null);
 	}
@@ -0,0 +1,17 @@
+package dev.sunbirdrc.registry.model.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+@Builder
+@Data
+@AllArgsConstructor
+@NoArgsConstructor
+public class BulkEntityResult {
+    private long line;
+    private CreateEntityStatus status;
+    private String entityId;
+    private String message;
+}
@@ -1,12 +1,15 @@
 package dev.sunbirdrc.registry.model.event;
 
+import com.fasterxml.jackson.annotation.JsonInclude;
 import com.fasterxml.jackson.annotation.JsonProperty;
 import com.fasterxml.jackson.databind.JsonNode;
 import com.fasterxml.jackson.databind.annotation.JsonSerialize;
 import lombok.Builder;
+import lombok.Getter;
 
 @JsonSerialize
-@Builder
+@Builder(toBuilder = true)
+@Getter
 public class Event {
     @JsonProperty("eid")
     private final String eid;
@@ -22,8 +25,10 @@ public class Event {
     private final TelemetryObject object;
     @JsonProperty("edata")
     private final JsonNode edata;
-
-    public TelemetryObject getObject() {
-        return object;
-    }
+    /**
+     * Fraction of the events of this kind that are emitted, set only on sampled events
+     */
+    @JsonProperty("sampleRate")
+    @JsonInclude(JsonInclude.Include.NON_NULL)
+    private final Double sampleRate;
 }
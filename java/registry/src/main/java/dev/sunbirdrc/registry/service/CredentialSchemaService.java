@@ -1,6 +1,8 @@
 package dev.sunbirdrc.registry.service;
 
 import com.fasterxml.jackson.databind.JsonNode;
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
 import com.fasterxml.jackson.databind.node.ArrayNode;
 import com.fasterxml.jackson.databind.node.JsonNodeFactory;
 import com.fasterxml.jackson.databind.node.ObjectNode;
@@ -22,9 +24,12 @@ import org.springframework.http.ResponseEntity;
 import org.springframework.stereotype.Component;
 import org.springframework.util.StringUtils;
 
+import javax.annotation.PostConstruct;
 import java.io.IOException;
+import java.io.UncheckedIOException;
 import java.time.Instant;
 import java.util.*;
+import java.util.concurrent.TimeUnit;
 import java.util.concurrent.atomic.AtomicBoolean;
 import java.util.concurrent.atomic.AtomicReference;
 import java.util.stream.Stream;
@@ -59,6 +64,21 @@ public class CredentialSchemaService implements HealthIndicator {
     @Autowired
     private RetryRestTemplate retryRestTemplate;
 
+    @Value("${signature.v2.schema.cache.maximumSize:1000}")
+    private long cacheMaximumSize;
+    @Value("${signature.v2.schema.cache.ttlSeconds:600}")
+    private long cacheTtlSeconds;
+
+    private Cache<String, JsonNode> latestSchemas;
+
+    @PostConstruct
+    public void init() {
+        latestSchemas = Caffeine.newBuilder()
+                .maximumSize(cacheMaximumSize)
+                .expireAfterWrite(cacheTtlSeconds, TimeUnit.SECONDS)
+                .build();
+    }
+
     public JsonNode convertCredentialTemplateToSchema(String title, Object credTemplate) throws IOException {
         logger.debug("Converting credential template to credential schema for {}", title);
         String name = "Proof of " + title + " Credential";
@@ -134,8 +154,14 @@ public class CredentialSchemaService implements HealthIndicator {
                 if(status == null) status = prevSchema.get("status").asText();
                 updateSchema(did, version, schema, status);
                 logger.debug("Updated credential schema for {}", title);
+            } else if (latestSchemas != null) {
+                latestSchemas.put(title, prevSchema);
+                return;
             }
         }
+        if (latestSchemas != null) {
+            latestSchemas.invalidate(title);
+        }
     }
 
     public JsonNode createSchema(String title, JsonNode credentialSchema, String status) throws IOException {
@@ -183,6 +209,28 @@ public class CredentialSchemaService implements HealthIndicator {
         return latestSchema.get();
     }
 
+    /**
+     * Returns the latest credential schema tagged with the title, as getLatestSchemaByTags. The schema
+     * is cached until ensureCredentialSchema changes it, or for cacheTtlSeconds at most as another
+     * node may change it. Concurrent misses of a title wait for a single fetch.
+     */
+    public JsonNode getLatestSchemaByTitle(String title) throws IOException {
+        if (latestSchemas == null) {
+            return getLatestSchemaByTags(Collections.singletonList(title));
+        }
+        try {
+            return latestSchemas.get(title, key -> {
+                try {
+                    return getLatestSchemaByTags(Collections.singletonList(key));
+                } catch (IOException e) {
+                    throw new UncheckedIOException(e);
+                }
+            });
+        } catch (UncheckedIOException e) {
+            throw e.getCause();
+        }
+    }
+
     public JsonNode getSchemaByIdAndVersion(String did, String version) throws IOException {
         ResponseEntity<String> response = retryRestTemplate.getForEntity(getByIdAndVersionUrl, did, version);
         if (response.getStatusCode().is2xxSuccessful()) {
@@ -4,6 +4,8 @@ import com.fasterxml.jackson.databind.JsonNode;
 import com.fasterxml.jackson.databind.ObjectMapper;
 import com.fasterxml.jackson.databind.node.JsonNodeFactory;
 import com.fasterxml.jackson.databind.node.ObjectNode;
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
 import com.google.gson.Gson;
 import dev.sunbirdrc.pojos.ComponentHealthInfo;
 import dev.sunbirdrc.pojos.HealthIndicator;
@@ -24,8 +26,11 @@ import org.springframework.stereotype.Component;
 import org.springframework.util.StringUtils;
 import org.springframework.web.client.RestClientException;
 
+import javax.annotation.PostConstruct;
 import java.io.IOException;
 import java.util.*;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.TimeUnit;
 import java.util.stream.Stream;
 
 import static dev.sunbirdrc.registry.middleware.util.Constants.*;
@@ -55,6 +60,21 @@ public class DIDService implements HealthIndicator {
     @Autowired
     private Gson gson;
 
+    @Value("${did.cache.maximumSize:1000}")
+    private long cacheMaximumSize;
+    @Value("${did.cache.ttlSeconds:600}")
+    private long cacheTtlSeconds;
+
+    private Cache<String, String> didsByName;
+
+    @PostConstruct
+    public void init() {
+        didsByName = Caffeine.newBuilder()
+                .maximumSize(cacheMaximumSize)
+                .expireAfterWrite(cacheTtlSeconds, TimeUnit.SECONDS)
+                .build();
+    }
+
     public String getDid(String name) throws Exception {
         try {
             return findDidForProperty("name", name);
@@ -76,7 +96,28 @@ public class DIDService implements HealthIndicator {
         return results.get(authorSchemaName).get(ENTITY_LIST).get(0).get(didPropertyName).asText();
     }
 
+    /**
+     * Returns the did of the issuer with the name, adding the issuer when there is none. The did is
+     * cached, concurrent misses of a name wait for a single lookup, so that an issuer is added once.
+     */
     public String ensureDidForName(String name, String method) throws Exception {
+        if (didsByName == null) {
+            return findOrAddDidForName(name, method);
+        }
+        try {
+            return didsByName.get(name, key -> {
+                try {
+                    return findOrAddDidForName(key, method);
+                } catch (Exception e) {
+                    throw new CompletionException(e);
+                }
+            });
+        } catch (CompletionException e) {
+            throw (Exception) e.getCause();
+        }
+    }
+
+    private String findOrAddDidForName(String name, String method) throws Exception {
         String did;
         try {
             did = this.getDid(name);
@@ -0,0 +1,234 @@
+package dev.sunbirdrc.registry.service;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import dev.sunbirdrc.views.ViewTemplate;
+import org.apache.commons.lang3.exception.ExceptionUtils;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.stereotype.Component;
+import redis.clients.jedis.Jedis;
+import redis.clients.jedis.JedisPool;
+
+import javax.annotation.PostConstruct;
+import java.io.IOException;
+import java.util.Collections;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLongArray;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Caches the entities returned by the read APIs, after they are decrypted and transformed by the
+ * view template. The entries are kept in process, and in redis too when the redis tier is enabled.
+ *
+ * Every entity has a version, moved by each write of the entity. A read takes the version before
+ * reading the entity and the entry is stored with it, so an entry read before a write and stored
+ * after it is never served. With the redis tier the versions are kept in redis, so that a write on
+ * one node invalidates the entries of all the nodes. Without it, a node serves its entries until
+ * they expire even if the entity was written on another node.
+ */
+@Component
+@ConditionalOnProperty(name = "read.cache.enabled", havingValue = "true")
+public class EntityCache {
+    private static final Logger logger = LoggerFactory.getLogger(EntityCache.class);
+
+    private static final String ENTITY = "ENTITY_";
+    private static final String ENTITY_VERSION = "ENTITY_VERSION_";
+    // The local versions are kept per stripe, the entities of a stripe are invalidated together
+    private static final int VERSION_STRIPES = 1 << 16;
+    public static final long UNKNOWN_VERSION = -1L;
+
+    @Value("${read.cache.size:10000}")
+    private long maximumSize;
+    @Value("${read.cache.ttlSeconds:300}")
+    private long ttlSeconds;
+    @Value("${read.cache.redis.enabled:false}")
+    private boolean redisEnabled;
+    @Autowired(required = false)
+    private JedisPool jedisPool;
+    @Autowired
+    private ObjectMapper objectMapper;
+
+    private Cache<String, CachedEntity> entities;
+    private final AtomicLongArray localVersions = new AtomicLongArray(VERSION_STRIPES);
+    private final Map<String, EntityTypeStats> stats = new ConcurrentHashMap<>();
+
+    private static class CachedEntity {
+        private final long version;
+        private final JsonNode entity;
+
+        CachedEntity(long version, JsonNode entity) {
+            this.version = version;
+            this.entity = entity;
+        }
+    }
+
+    private static class EntityTypeStats {
+        private final LongAdder hits = new LongAdder();
+        private final LongAdder misses = new LongAdder();
+    }
+
+    @PostConstruct
+    public void init() {
+        if (redisEnabled && jedisPool == null) {
+            throw new IllegalStateException("read.cache.redis.enabled requires redis to be configured");
+        }
+        entities = Caffeine.newBuilder()
+                .maximumSize(maximumSize)
+                .expireAfterWrite(ttlSeconds, TimeUnit.SECONDS)
+                .build();
+    }
+
+    /**
+     * Returns the key of the read options the entity is transformed with
+     */
+    public static String getReadKey(String entityType, boolean includeSignatures, boolean requireLDResponse,
+                                    ViewTemplate viewTemplate, boolean includePrivateFields) {
+        return String.join(":", entityType, String.valueOf(includeSignatures), String.valueOf(requireLDResponse),
+                viewTemplate == null ? "" : viewTemplate.getId(), String.valueOf(includePrivateFields));
+    }
+
+    /**
+     * Returns the current version of the entity, UNKNOWN_VERSION if redis could not be reached
+     */
+    public long getVersion(String shardId, String uuid) {
+        String entityKey = getEntityKey(shardId, uuid);
+        if (!redisEnabled) {
+            return localVersions.get(getStripe(entityKey));
+        }
+        try (Jedis jedis = jedisPool.getResource()) {
+            String version = jedis.get(ENTITY_VERSION + entityKey);
+            return version == null ? 0L : Long.parseLong(version);
+        } catch (Exception e) {
+            logger.error("Failed to read the version of entity {}: {}", entityKey, ExceptionUtils.getStackTrace(e));
+            return UNKNOWN_VERSION;
+        }
+    }
+
+    /**
+     * Returns a copy of the cached entity if it was cached at the given version, null otherwise
+     */
+    public JsonNode get(String entityType, String shardId, String uuid, String readKey, long version) {
+        if (version == UNKNOWN_VERSION) {
+            return null;
+        }
+        String key = getEntityKey(shardId, uuid) + ":" + readKey;
+        CachedEntity cached = entities.getIfPresent(key);
+        if ((cached == null || cached.version != version) && redisEnabled) {
+            cached = getShared(key);
+            if (cached != null && cached.version == version) {
+                entities.put(key, cached);
+            }
+        }
+        EntityTypeStats entityTypeStats = stats.computeIfAbsent(entityType, type -> new EntityTypeStats());
+        if (cached == null || cached.version != version) {
+            entityTypeStats.misses.increment();
+            return null;
+        }
+        entityTypeStats.hits.increment();
+        return cached.entity.deepCopy();
+    }
+
+    /**
+     * Caches a copy of the entity read at the given version
+     *
+     * @param shared whether the entity can be kept in redis, entities with decrypted private
+     *               fields are kept in process only
+     */
+    public void put(String shardId, String uuid, String readKey, long version, JsonNode entity, boolean shared) {
+        if (version == UNKNOWN_VERSION) {
+            return;
+        }
+        String key = getEntityKey(shardId, uuid) + ":" + readKey;
+        CachedEntity cached = new CachedEntity(version, entity.deepCopy());
+        entities.put(key, cached);
+        if (redisEnabled && shared) {
+            try (Jedis jedis = jedisPool.getResource()) {
+                jedis.setex(ENTITY + key, (int) ttlSeconds, version + "|" + objectMapper.writeValueAsString(entity));
+            } catch (Exception e) {
+                logger.error("Failed to cache entity {} in redis: {}", key, ExceptionUtils.getStackTrace(e));
+            }
+        }
+    }
+
+    /**
+     * Moves the version of the entity, so that the entries cached before are not served any more.
+     * To be called once the write is committed.
+     */
+    public void invalidate(String shardId, String uuid) {
+        String entityKey = getEntityKey(shardId, uuid);
+        if (!redisEnabled) {
+            localVersions.incrementAndGet(getStripe(entityKey));
+            return;
+        }
+        try (Jedis jedis = jedisPool.getResource()) {
+            jedis.incr(ENTITY_VERSION + entityKey);
+            // Outlives the entries cached at the previous versions
+            jedis.expire(ENTITY_VERSION + entityKey, (int) (2 * ttlSeconds));
+        } catch (Exception e) {
+            logger.error("Failed to invalidate entity {}, its entries expire in {} seconds: {}",
+                    entityKey, ttlSeconds, ExceptionUtils.getStackTrace(e));
+        }
+    }
+
+    private CachedEntity getShared(String key) {
+        try (Jedis jedis = jedisPool.getResource()) {
+            String value = jedis.get(ENTITY + key);
+            if (value == null) {
+                return null;
+            }
+            int separator = value.indexOf('|');
+            return new CachedEntity(Long.parseLong(value.substring(0, separator)),
+                    objectMapper.readTree(value.substring(separator + 1)));
+        } catch (IOException | RuntimeException e) {
+            logger.error("Failed to read entity {} from redis: {}", key, ExceptionUtils.getStackTrace(e));
+            return null;
+        }
+    }
+
+    private static String getEntityKey(String shardId, String uuid) {
+        return (shardId == null ? "" : shardId) + ":" + uuid;
+    }
+
+    private static int getStripe(String entityKey) {
+        int hash = entityKey.hashCode();
+        return (hash ^ (hash >>> 16)) & (VERSION_STRIPES - 1);
+    }
+
+    public long getHitCount(String entityType) {
+        EntityTypeStats entityTypeStats = stats.get(entityType);
+        return entityTypeStats == null ? 0 : entityTypeStats.hits.sum();
+    }
+
+    public long getMissCount(String entityType) {
+        EntityTypeStats entityTypeStats = stats.get(entityType);
+        return entityTypeStats == null ? 0 : entityTypeStats.misses.sum();
+    }
+
+    public double getHitRatio(String entityType) {
+        long hits = getHitCount(entityType);
+        long total = hits + getMissCount(entityType);
+        return total == 0 ? 0 : (double) hits / total;
+    }
+
+    /**
+     * Returns the hit ratio of each entity type read so far
+     */
+    public Map<String, Double> getHitRatios() {
+        Map<String, Double> hitRatios = new TreeMap<>();
+        stats.keySet().forEach(entityType -> hitRatios.put(entityType, getHitRatio(entityType)));
+        return Collections.unmodifiableMap(hitRatios);
+    }
+
+    public long getCachedEntityCount() {
+        return entities.estimatedSize();
+    }
+}
@@ -1,5 +1,6 @@
 package dev.sunbirdrc.registry.service;
 
+import java.util.ArrayList;
 import java.util.Arrays;
 import java.util.LinkedList;
 import java.util.List;
@@ -25,6 +26,16 @@ public interface IAuditService {
      * 
      */
     void doAudit(AuditRecord auditRecord, JsonNode inputNode, Shard shard) throws AuditFailedException;
+
+    /**
+     * Audits a batch of records. Providers which can store the whole batch at once override this,
+     * otherwise the records are audited one by one.
+     */
+    default void doAudit(List<AuditRecord> auditRecords, List<JsonNode> inputNodes, Shard shard) throws AuditFailedException {
+        for (int i = 0; i < auditRecords.size(); i++) {
+            doAudit(auditRecords.get(i), inputNodes.get(i), shard);
+        }
+    }
     
 	boolean shouldAudit(String entityType);
 	String isAuditAction(String entityType);
@@ -74,6 +85,24 @@ public interface IAuditService {
 		}
 	}
 	
+	default void auditAdd(List<AuditRecord> auditRecords, Shard shard, List<JsonNode> mergedNodes) throws AuditFailedException {
+		List<AuditRecord> addRecords = new ArrayList<>();
+		List<JsonNode> addNodes = new ArrayList<>();
+		for (int i = 0; i < auditRecords.size(); i++) {
+			AuditRecord auditRecord = auditRecords.get(i);
+			if (shouldAudit(auditRecord.getEntityType())) {
+				auditRecord.setAction(Constants.AUDIT_ACTION_ADD);
+				JsonNode inputNode = JSONUtil.diffJsonNode(null, mergedNodes.get(i));
+				auditRecord.setAuditInfo(createAuditInfoWithJson(auditRecord.getAction(), inputNode, auditRecord.getEntityType()));
+				addRecords.add(auditRecord);
+				addNodes.add(mergedNodes.get(i));
+			}
+		}
+		if (!addRecords.isEmpty()) {
+			doAudit(addRecords, addNodes, shard);
+		}
+	}
+
 	default void auditUpdate(AuditRecord auditRecord, Shard shard, JsonNode mergedNode, JsonNode readNode) throws AuditFailedException {
 		if(shouldAudit(auditRecord.getEntityType())) {
 			auditRecord.setAction(Constants.AUDIT_ACTION_UPDATE);
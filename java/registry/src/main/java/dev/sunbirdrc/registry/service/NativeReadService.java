@@ -50,6 +50,9 @@ public class NativeReadService implements IReadService {
 	@Value("${registry.expandReference}")
 	private boolean expandReferenceObj;
 
+	@Value("${read.batched:true}")
+	private boolean batchedRead;
+
 	/**
 	 * This method interacts with the native db and reads the record
 	 *
@@ -62,7 +65,7 @@ public class NativeReadService implements IReadService {
 	@Override
 	public JsonNode getEntity(Shard shard, String userId, String id, String entityType, ReadConfigurator configurator) throws Exception {
 		DatabaseProvider dbProvider = shard.getDatabaseProvider();
-		IRegistryDao registryDao = new RegistryDaoImpl(dbProvider, definitionsManager, uuidPropertyName, expandReferenceObj);
+		IRegistryDao registryDao = new RegistryDaoImpl(dbProvider, definitionsManager, uuidPropertyName, expandReferenceObj, batchedRead);
 		try (OSGraph osGraph = dbProvider.getOSGraph()) {
 			Graph graph = osGraph.getGraphStore();
 			try (Transaction tx = dbProvider.startTransaction(graph)) {
@@ -2,6 +2,7 @@ package dev.sunbirdrc.registry.service;
 
 import java.io.IOException;
 import java.util.*;
+import java.util.concurrent.*;
 import java.util.concurrent.atomic.AtomicLong;
 
 import com.fasterxml.jackson.databind.node.*;
@@ -11,7 +12,10 @@ import org.apache.tinkerpop.gremlin.structure.Transaction;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Qualifier;
 import org.springframework.beans.factory.annotation.Value;
+import org.springframework.core.task.AsyncTaskExecutor;
+import org.springframework.core.task.TaskRejectedException;
 import org.springframework.stereotype.Component;
 
 import com.fasterxml.jackson.databind.JsonNode;
@@ -24,6 +28,7 @@ import dev.sunbirdrc.pojos.SearchQuery;
 import dev.sunbirdrc.registry.dao.IRegistryDao;
 import dev.sunbirdrc.registry.dao.RegistryDaoImpl;
 import dev.sunbirdrc.registry.dao.SearchDaoImpl;
+import dev.sunbirdrc.registry.exception.InvalidSearchCursorException;
 import dev.sunbirdrc.registry.middleware.util.JSONUtil;
 import dev.sunbirdrc.registry.model.DBConnectionInfo;
 import dev.sunbirdrc.registry.model.DBConnectionInfoMgr;
@@ -33,7 +38,11 @@ import dev.sunbirdrc.registry.sink.shard.ShardManager;
 import dev.sunbirdrc.registry.util.IDefinitionsManager;
 import dev.sunbirdrc.registry.util.RecordIdentifier;
 
+import static dev.sunbirdrc.registry.middleware.util.Constants.CURSOR;
 import static dev.sunbirdrc.registry.middleware.util.Constants.ENTITY_LIST;
+import static dev.sunbirdrc.registry.middleware.util.Constants.FAILED_SHARDS;
+import static dev.sunbirdrc.registry.middleware.util.Constants.NEXT_CURSOR;
+import static dev.sunbirdrc.registry.middleware.util.Constants.QUERY_COUNT;
 import static dev.sunbirdrc.registry.middleware.util.Constants.TOTAL_COUNT;
 
 /**
@@ -81,6 +90,19 @@ public class NativeSearchService implements ISearchService {
 	@Value("${registry.expandReference}")
 	private boolean expandReferenceObj;
 
+	@Value("${read.batched:true}")
+	private boolean batchedRead;
+
+	@Value("${search.shardTimeout:10000}")
+	private long shardTimeout;
+
+	@Value("${search.debug:false}")
+	private boolean searchDebug;
+
+	@Autowired(required = false)
+	@Qualifier("searchExecutor")
+	private AsyncTaskExecutor searchExecutor;
+
 	@Value("${search.removeNonPublicFieldsForNativeSearch:true}")
 	private boolean removeNonPublicFieldsForNativeSearch;
 
@@ -97,7 +119,6 @@ public class NativeSearchService implements ISearchService {
 
 	public JsonNode search(JsonNode inputQueryNode, String userId, boolean skipRemoveNonPublicFields) throws IOException {
 
-		ArrayNode result = JsonNodeFactory.instance.arrayNode();
 		SearchQuery searchQuery = getSearchQuery(inputQueryNode, offset, limit);
 
 		if(searchQuery.getFilters().size() == 1 && searchQuery.getFilters().get(0).getOperator() == FilterOperators.queryString)
@@ -106,59 +127,177 @@ public class NativeSearchService implements ISearchService {
 		Filter uuidFilter = getUUIDFilter(searchQuery, uuidPropertyName);
 		boolean isSpecificSearch = (uuidFilter != null);
 
-		boolean continueSearch = true;
-		// Now, search across all shards and return the results.
-		for (DBConnectionInfo dbConnection : dbConnectionInfoMgr.getConnectionInfo()) {
+		List<DBConnectionInfo> dbConnections = dbConnectionInfoMgr.getConnectionInfo();
+		if (isSpecificSearch) {
+			RecordIdentifier recordIdentifier = RecordIdentifier.parse(uuidFilter.getValue().toString());
 
-			if (continueSearch) {
-				if (isSpecificSearch) {
-					RecordIdentifier recordIdentifier = RecordIdentifier.parse(uuidFilter.getValue().toString());
+			if (!uuidFilter.getValue().equals(recordIdentifier.getUuid())) {
+				// value is not just uuid and so trim out
+				uuidFilter.setValue(recordIdentifier.getUuid());
+			}
+			dbConnections = dbConnections.subList(0, 1);
+		}
+		boolean cursorSearch = inputQueryNode.has(CURSOR);
+		if (cursorSearch) {
+			applyCursor(searchQuery, inputQueryNode);
+		}
+		// With more than one shard, the page can only be cut after merging the results of all the shards
+		boolean mergeShards = dbConnections.size() > 1;
+		SearchQuery shardQuery = mergeShards ? getShardQuery(searchQuery) : searchQuery;
+
+		// Now, search across all shards in parallel and return the results.
+		List<Shard> shards = new ArrayList<>();
+		List<List<Object>> transactions = new ArrayList<>();
+		List<Future<ObjectNode>> shardSearches = new ArrayList<>();
+		for (DBConnectionInfo dbConnection : dbConnections) {
+			Shard shard = shardManager.activateShard(dbConnection.getShardId());
+			List<Object> transaction = Collections.synchronizedList(new LinkedList<>());
+			Callable<ObjectNode> shardSearch = () -> searchShard(shard, shardQuery, transaction, skipRemoveNonPublicFields);
+			shards.add(shard);
+			transactions.add(transaction);
+			shardSearches.add(submitShardSearch(shardSearch, mergeShards));
+		}
 
-					if (!uuidFilter.getValue().equals(recordIdentifier.getUuid())) {
-						// value is not just uuid and so trim out
-						uuidFilter.setValue(recordIdentifier.getUuid());
-					}
-				}
+		List<ObjectNode> shardResults = new ArrayList<>();
+		List<String> failedShards = new ArrayList<>();
+		long deadline = System.currentTimeMillis() + shardTimeout;
+		for (int i = 0; i < shards.size(); i++) {
+			Shard shard = shards.get(i);
+			Future<ObjectNode> shardSearch = shardSearches.get(i);
+			try {
+				shardResults.add(shardSearch.get(Math.max(0, deadline - System.currentTimeMillis()), TimeUnit.MILLISECONDS));
+			} catch (TimeoutException e) {
+				shardSearch.cancel(true);
+				failedShards.add(shard.getShardId());
+				logger.error("search operation timed out on shard {}, leaving out its results", shard.getShardId());
+			} catch (InterruptedException e) {
+				Thread.currentThread().interrupt();
+				shardSearch.cancel(true);
+				failedShards.add(shard.getShardId());
+				logger.error("search operation interrupted on shard {}", shard.getShardId());
+			} catch (ExecutionException e) {
+				failedShards.add(shard.getShardId());
+				logger.error("search operation failed on shard {}: {}", shard.getShardId(), ExceptionUtils.getStackTrace(e.getCause()));
+			}
+			try {
+				if(userId == null) userId = apiMessage.getUserID();
+				auditService.auditNativeSearch(
+						new AuditRecord()
+								.setUserId(userId)
+								.setTransactionId(new LinkedList<>(transactions.get(i))),
+						shard, searchQuery.getEntityTypes(), inputQueryNode);
+			} catch (Exception e) {
+				logger.error("Exception while auditing: {}", ExceptionUtils.getStackTrace(e));
+			}
+		}
+
+		JsonNode resultNode = mergeShards ? mergeResultNode(searchQuery, shardResults) : buildResultNode(searchQuery, shardResults);
+		if (cursorSearch) {
+			addNextCursors(searchQuery, (ObjectNode) resultNode);
+		}
+		if (!failedShards.isEmpty()) {
+			addFailedShards(searchQuery, (ObjectNode) resultNode, failedShards);
+		}
+		return resultNode;
+	}
 
-				// TODO: parallel search.
-				List<Object> transaction = new LinkedList<>();
-
-				Shard shard = shardManager.activateShard(dbConnection.getShardId());
-				IRegistryDao registryDao = new RegistryDaoImpl(shard.getDatabaseProvider(), definitionsManager, uuidPropertyName, expandReferenceObj);
-				SearchDaoImpl searchDao = new SearchDaoImpl(registryDao);
-				try (OSGraph osGraph = shard.getDatabaseProvider().getOSGraph()) {
-					Graph graph = osGraph.getGraphStore();
-					try (Transaction tx = shard.getDatabaseProvider().startTransaction(graph)) {
-						ObjectNode shardResult = (ObjectNode) searchDao.search(graph, searchQuery, expandInternal);
-						if (!shard.getShardLabel().isEmpty()) {
-							// Replace uuidPropertyValue with shard details
-							String prefix = shard.getShardLabel() + RecordIdentifier.getSeparator();
-							JSONUtil.addPrefix((ObjectNode) shardResult, prefix, new ArrayList<>(Arrays.asList(uuidPropertyName)));
-						}
-						result.add(removeNonPublicFields(searchQuery, shardResult, skipRemoveNonPublicFields));
-						if (tx != null) {
-							transaction.add(tx.hashCode());
-						}
-					}
-				} catch (Exception e) {
-					logger.error("search operation failed: {}", ExceptionUtils.getStackTrace(e));
-				} finally {
-					continueSearch = !isSpecificSearch;
+	/**
+	 * Marks the results as partial, listing the shards which timed out or failed. Their records are
+	 * missing from the results and the counts.
+	 */
+	private void addFailedShards(SearchQuery searchQuery, ObjectNode resultNode, List<String> failedShards) {
+		for (String entity : searchQuery.getEntityTypes()) {
+			ArrayNode shardIds = ((ObjectNode) resultNode.get(entity)).putArray(FAILED_SHARDS);
+			failedShards.forEach(shardIds::add);
+		}
+	}
+
+	/**
+	 * Switches the query to keyset pagination: the results are sorted by the uuid and the page of
+	 * each entity type starts after the uuid the cursor points to for it. An empty cursor asks for
+	 * the first page. The total count is skipped, unless the request asks for it.
+	 */
+	private void applyCursor(SearchQuery searchQuery, JsonNode inputQueryNode) {
+		String cursor = inputQueryNode.get(CURSOR).asText("");
+		if (!cursor.isEmpty()) {
+			Map<String, String> after = JSONUtil.parseSearchCursor(cursor);
+			if (after == null) {
+				throw new InvalidSearchCursorException("Invalid search cursor");
+			}
+			searchQuery.setAfter(after);
+		}
+		searchQuery.setOffset(0);
+		searchQuery.setOrderBy(uuidPropertyName);
+		searchQuery.setSkipCount(!inputQueryNode.path(TOTAL_COUNT).asBoolean(false));
+	}
+
+	/**
+	 * Sets the cursor to the next page for the entity types which filled up the page. The cursor
+	 * points after the last uuid of each of them, the other entity types have no next page.
+	 */
+	private void addNextCursors(SearchQuery searchQuery, ObjectNode resultNode) {
+		Map<String, String> after = new LinkedHashMap<>();
+		for (String entity : searchQuery.getEntityTypes()) {
+			ArrayNode data = (ArrayNode) resultNode.get(entity).get(ENTITY_LIST);
+			if (data.size() > 0 && data.size() >= searchQuery.getLimit()) {
+				after.put(entity, RecordIdentifier.getUUID(data.get(data.size() - 1).path(uuidPropertyName).asText()));
+			}
+		}
+		if (!after.isEmpty()) {
+			String nextCursor = JSONUtil.getSearchCursor(after);
+			after.keySet().forEach(entity -> ((ObjectNode) resultNode.get(entity)).put(NEXT_CURSOR, nextCursor));
+		}
+	}
+
+	/**
+	 * Runs the shard search on the search executor, if configured. Otherwise, or when the executor
+	 * is saturated, the search runs on the calling thread.
+	 */
+	private Future<ObjectNode> submitShardSearch(Callable<ObjectNode> shardSearch, boolean parallel) {
+		if (parallel && searchExecutor != null) {
+			try {
+				return searchExecutor.submit(shardSearch);
+			} catch (TaskRejectedException e) {
+				logger.warn("search executor is busy, searching the shard on the calling thread");
+			}
+		}
+		FutureTask<ObjectNode> task = new FutureTask<>(shardSearch);
+		task.run();
+		return task;
+	}
+
+	private ObjectNode searchShard(Shard shard, SearchQuery searchQuery, List<Object> transaction, boolean skipRemoveNonPublicFields) throws Exception {
+		IRegistryDao registryDao = new RegistryDaoImpl(shard.getDatabaseProvider(), definitionsManager, uuidPropertyName, expandReferenceObj, batchedRead);
+		SearchDaoImpl searchDao = new SearchDaoImpl(registryDao, searchDebug);
+		try (OSGraph osGraph = shard.getDatabaseProvider().getOSGraph()) {
+			Graph graph = osGraph.getGraphStore();
+			try (Transaction tx = shard.getDatabaseProvider().startTransaction(graph)) {
+				ObjectNode shardResult = (ObjectNode) searchDao.search(graph, searchQuery, expandInternal);
+				if (!shard.getShardLabel().isEmpty()) {
+					// Replace uuidPropertyValue with shard details
+					String prefix = shard.getShardLabel() + RecordIdentifier.getSeparator();
+					JSONUtil.addPrefix((ObjectNode) shardResult, prefix, new ArrayList<>(Arrays.asList(uuidPropertyName)));
 				}
-				try {
-					if(userId == null) userId = apiMessage.getUserID();
-					auditService.auditNativeSearch(
-							new AuditRecord()
-									.setUserId(userId)
-									.setTransactionId(transaction),
-							shard, searchQuery.getEntityTypes(), inputQueryNode);
-				} catch (Exception e) {
-					logger.error("Exception while auditing: {}", ExceptionUtils.getStackTrace(e));
+				if (tx != null) {
+					transaction.add(tx.hashCode());
 				}
+				return removeNonPublicFields(searchQuery, shardResult, skipRemoveNonPublicFields);
 			}
 		}
+	}
 
-		return buildResultNode(searchQuery, result);
+	/**
+	 * Each shard returns its first offset + limit records sorted by the uuid, so that the requested
+	 * page can be picked after merging.
+	 */
+	private SearchQuery getShardQuery(SearchQuery searchQuery) {
+		SearchQuery shardQuery = new SearchQuery(searchQuery.getEntityTypes(), 0, searchQuery.getOffset() + searchQuery.getLimit());
+		shardQuery.setFilters(searchQuery.getFilters());
+		shardQuery.setFields(searchQuery.getFields());
+		shardQuery.setOrderBy(uuidPropertyName);
+		shardQuery.setAfter(searchQuery.getAfter());
+		shardQuery.setSkipCount(searchQuery.isSkipCount());
+		return shardQuery;
 	}
 
 	private ObjectNode removeNonPublicFields(SearchQuery searchQuery, ObjectNode shardResult, boolean skipRemoveNonPublicFields) throws Exception {
@@ -180,8 +319,13 @@ public class NativeSearchService implements ISearchService {
 			} else {
 				data = arrayNode;
 			}
-			result.set(TOTAL_COUNT, count);
+			if (count != null) {
+				result.set(TOTAL_COUNT, count);
+			}
 			result.set(ENTITY_LIST, data);
+			if (shardResult.get(entityType).has(QUERY_COUNT)) {
+				result.set(QUERY_COUNT, shardResult.get(entityType).get(QUERY_COUNT));
+			}
 			response.set(entityType, result);
 		}
 
@@ -189,24 +333,93 @@ public class NativeSearchService implements ISearchService {
 	}
 
 	/**
-	 * Builds result node from given array of shard nodes
+	 * Builds result node from given shard nodes
 	 * @param searchQuery
 	 * @param allShardResult
 	 * @return
 	 */
-	private JsonNode buildResultNode(SearchQuery searchQuery, ArrayNode allShardResult) throws IOException {
+	private JsonNode buildResultNode(SearchQuery searchQuery, List<ObjectNode> allShardResult) throws IOException {
 		ObjectNode resultNode = JsonNodeFactory.instance.objectNode();
 		for (String entity : searchQuery.getEntityTypes()) {
-			List<JsonNode> entityResults = allShardResult.findValues(entity);
 			ArrayNode data = JsonNodeFactory.instance.arrayNode();
 			AtomicLong count = new AtomicLong(0L);
+			AtomicLong queryCount = new AtomicLong(0L);
 			ObjectNode entityResultsAggregate = JsonNodeFactory.instance.objectNode();
-			entityResults.forEach(shardData -> {
+			allShardResult.forEach(shardResult -> {
+				JsonNode shardData = shardResult.get(entity);
 				data.addAll((ArrayNode) shardData.get(ENTITY_LIST));
-				count.addAndGet(shardData.get(TOTAL_COUNT).asLong());
+				count.addAndGet(shardData.path(TOTAL_COUNT).asLong());
+				queryCount.addAndGet(shardData.path(QUERY_COUNT).asLong());
 			});
-			entityResultsAggregate.set(TOTAL_COUNT, JsonNodeFactory.instance.numberNode(count.get()));
+			if (!searchQuery.isSkipCount()) {
+				entityResultsAggregate.set(TOTAL_COUNT, JsonNodeFactory.instance.numberNode(count.get()));
+			}
+			entityResultsAggregate.set(ENTITY_LIST, data);
+			if (searchDebug) {
+				entityResultsAggregate.set(QUERY_COUNT, JsonNodeFactory.instance.numberNode(queryCount.get()));
+			}
+			resultNode.set(entity, entityResultsAggregate);
+		}
+		return resultNode;
+	}
+
+	/**
+	 * Merges the shard results, each sorted by the uuid, and picks the requested page out of them
+	 * @param searchQuery
+	 * @param allShardResult
+	 * @return
+	 */
+	private JsonNode mergeResultNode(SearchQuery searchQuery, List<ObjectNode> allShardResult) {
+		ObjectNode resultNode = JsonNodeFactory.instance.objectNode();
+		for (String entity : searchQuery.getEntityTypes()) {
+			ArrayNode data = JsonNodeFactory.instance.arrayNode();
+			long count = 0L;
+			long queryCount = 0L;
+			List<ArrayNode> shardEntities = new ArrayList<>();
+			List<String[]> shardUuids = new ArrayList<>();
+			for (ObjectNode shardResult : allShardResult) {
+				JsonNode shardData = shardResult.get(entity);
+				ArrayNode entities = (ArrayNode) shardData.get(ENTITY_LIST);
+				String[] uuids = new String[entities.size()];
+				for (int i = 0; i < uuids.length; i++) {
+					// The shard label prefixed to the uuid is left out, as the shards sort on the uuid alone
+					uuids[i] = RecordIdentifier.getUUID(entities.get(i).path(uuidPropertyName).asText());
+				}
+				shardEntities.add(entities);
+				shardUuids.add(uuids);
+				count += shardData.path(TOTAL_COUNT).asLong();
+				queryCount += shardData.path(QUERY_COUNT).asLong();
+			}
+
+			// Holds the position of the next entity of each shard, smallest uuid first
+			PriorityQueue<int[]> heads = new PriorityQueue<>(Comparator.comparing((int[] head) -> shardUuids.get(head[0])[head[1]]));
+			for (int i = 0; i < shardEntities.size(); i++) {
+				if (shardEntities.get(i).size() > 0) {
+					heads.add(new int[]{i, 0});
+				}
+			}
+			int skip = searchQuery.getOffset();
+			while (!heads.isEmpty() && data.size() < searchQuery.getLimit()) {
+				int[] head = heads.poll();
+				ArrayNode entities = shardEntities.get(head[0]);
+				if (skip > 0) {
+					skip--;
+				} else {
+					data.add(entities.get(head[1]));
+				}
+				if (++head[1] < entities.size()) {
+					heads.add(head);
+				}
+			}
+
+			ObjectNode entityResultsAggregate = JsonNodeFactory.instance.objectNode();
+			if (!searchQuery.isSkipCount()) {
+				entityResultsAggregate.set(TOTAL_COUNT, JsonNodeFactory.instance.numberNode(count));
+			}
 			entityResultsAggregate.set(ENTITY_LIST, data);
+			if (searchDebug) {
+				entityResultsAggregate.set(QUERY_COUNT, JsonNodeFactory.instance.numberNode(queryCount));
+			}
 			resultNode.set(entity, entityResultsAggregate);
 		}
 		return resultNode;
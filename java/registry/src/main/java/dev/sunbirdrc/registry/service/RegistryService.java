@@ -8,12 +8,16 @@ import dev.sunbirdrc.registry.sink.shard.Shard;
 import org.apache.tinkerpop.gremlin.structure.Transaction;
 import org.apache.tinkerpop.gremlin.structure.Vertex;
 
+import java.util.List;
+
 public interface RegistryService {
 
 	Vertex deleteEntityById(Shard shard, String entityName, String userId, String id) throws Exception;
 
 	String addEntity(Shard shard, String userId, JsonNode inputJson, boolean skipSignature) throws Exception;
 
+	List<String> addEntities(Shard shard, String userId, List<JsonNode> inputJsons, boolean skipSignature) throws Exception;
+
 	void updateEntity(Shard shard, String userId, String id, String jsonString, boolean skipSignature) throws Exception;
 
 	void callESActors(JsonNode rootNode, String operation, String parentEntityType, String entityRootId, Transaction tx) throws Exception;
@@ -4,6 +4,7 @@ import com.fasterxml.jackson.core.JsonProcessingException;
 import com.fasterxml.jackson.databind.ObjectMapper;
 import dev.sunbirdrc.registry.model.dto.WebhookEvent;
 import dev.sunbirdrc.registry.service.impl.RetryRestTemplate;
+import dev.sunbirdrc.registry.service.impl.WebhookDispatcher;
 import org.apache.commons.lang3.exception.ExceptionUtils;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
@@ -14,6 +15,14 @@ import org.springframework.http.HttpHeaders;
 import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
 import org.springframework.stereotype.Service;
+import org.springframework.web.client.RestTemplate;
+
+import javax.annotation.PostConstruct;
+import javax.annotation.PreDestroy;
+import java.io.IOException;
+import java.nio.file.Paths;
+import java.util.Arrays;
+import java.util.stream.Collectors;
 
 @Service
 public class WebhookService {
@@ -24,6 +33,98 @@ public class WebhookService {
     private RetryRestTemplate retryRestTemplate;
     @Autowired
     private ObjectMapper objectMapper;
+    @Autowired
+    private RestTemplate restTemplate;
+    @Value("${webhook.dispatcher.threads:2}")
+    private int dispatcherThreads;
+    @Value("${webhook.dispatcher.queueSize:10000}")
+    private int dispatcherQueueSize;
+    @Value("${webhook.dispatcher.durable:true}")
+    private boolean dispatcherDurable;
+    @Value("${webhook.dispatcher.dir:webhook-queue}")
+    private String dispatcherDir;
+    @Value("${webhook.dispatcher.fsync:false}")
+    private boolean dispatcherFsync;
+    @Value("${webhook.dispatcher.maxConcurrencyPerUrl:2}")
+    private int maxConcurrencyPerUrl;
+    @Value("${webhook.dispatcher.maxAttempts:5}")
+    private int maxAttempts;
+    @Value("${webhook.dispatcher.retryDelayMillis:1000}")
+    private long retryDelayMillis;
+    @Value("${webhook.dispatcher.circuitBreaker.failureThreshold:5}")
+    private int failureThreshold;
+    @Value("${webhook.dispatcher.circuitBreaker.openMillis:30000}")
+    private long openMillis;
+    @Value("${webhook.dispatcher.batch.urls:}")
+    private String batchUrls;
+    @Value("${webhook.dispatcher.batch.maxSize:50}")
+    private int maxBatchSize;
+
+    private WebhookDispatcher dispatcher;
+
+    /**
+     * Starts the webhook dispatcher when webhooks are enabled, delivering the events left by the last run first
+     */
+    @PostConstruct
+    public void init() throws IOException {
+        if (!webhookEnabled) {
+            return;
+        }
+        WebhookDispatcher.Settings settings = WebhookDispatcher.Settings.builder()
+                .directory(dispatcherDurable ? Paths.get(dispatcherDir) : null)
+                .fsync(dispatcherFsync)
+                .threads(dispatcherThreads)
+                .maxPending(dispatcherQueueSize)
+                .maxConcurrencyPerUrl(maxConcurrencyPerUrl)
+                .maxAttempts(maxAttempts)
+                .retryDelayMillis(retryDelayMillis)
+                .failureThreshold(failureThreshold)
+                .openMillis(openMillis)
+                .batchUrls(Arrays.stream(batchUrls.split(",")).map(String::trim).filter(url -> !url.isEmpty()).collect(Collectors.toSet()))
+                .maxBatchSize(maxBatchSize)
+                .build();
+        dispatcher = new WebhookDispatcher(settings, this::send);
+        dispatcher.start();
+    }
+
+    @PreDestroy
+    public void destroy() throws IOException {
+        if (dispatcher != null) {
+            dispatcher.close();
+        }
+    }
+
+    /**
+     * Returns the webhook dispatcher, null when webhooks are disabled
+     */
+    public WebhookDispatcher getDispatcher() {
+        return dispatcher;
+    }
+
+    /**
+     * Queues the event for the webhook dispatcher, so that the caller does not wait on the webhook.
+     * The event is dropped when the dispatcher queue is full.
+     */
+    public void dispatchEvent(WebhookEvent event) {
+        if (dispatcher == null) {
+            logger.debug("Webhook service is disabled");
+            return;
+        }
+        try {
+            dispatcher.dispatch(event.getWebhookUrl(), objectMapper.writeValueAsString(event));
+        } catch (JsonProcessingException e) {
+            logger.error("Failed calling webhook event: {}", ExceptionUtils.getStackTrace(e));
+        }
+    }
+
+    /**
+     * Posts without retrying, the dispatcher retries the failed deliveries itself
+     */
+    private void send(String url, String body) {
+        HttpHeaders headers = new HttpHeaders();
+        headers.setContentType(MediaType.APPLICATION_JSON);
+        restTemplate.postForEntity(url, new HttpEntity<>(body, headers), String.class);
+    }
 
     public void postEvent(WebhookEvent event) {
         if (webhookEnabled) {
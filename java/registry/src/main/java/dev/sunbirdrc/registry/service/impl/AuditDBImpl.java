@@ -1,7 +1,16 @@
 package dev.sunbirdrc.registry.service.impl;
 
 import java.io.IOException;
+import java.nio.file.Paths;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
 
+import javax.annotation.PostConstruct;
+import javax.annotation.PreDestroy;
+
+import org.apache.commons.lang3.StringUtils;
 import org.apache.commons.lang3.exception.ExceptionUtils;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
@@ -40,6 +49,52 @@ public class AuditDBImpl extends AuditServiceImpl {
     
     @Autowired
 	private ShardManager shardManager;
+
+    @Value("${audit.journal.enabled:false}")
+    private boolean journalEnabled;
+
+    @Value("${audit.journal.dir:audit-journal}")
+    private String journalDir;
+
+    @Value("${audit.journal.batchSize:500}")
+    private int journalBatchSize;
+
+    @Value("${audit.journal.maxPending:10000}")
+    private int journalMaxPending;
+
+    @Value("${audit.journal.maxRetries:3}")
+    private int journalMaxRetries;
+
+    @Value("${audit.journal.fsync:false}")
+    private boolean journalFsync;
+
+    private AuditJournal auditJournal;
+
+    /**
+     * Starts the audit journal when enabled, writing the records left by the last run first
+     */
+    @PostConstruct
+    public void init() throws IOException, InterruptedException {
+        if (journalEnabled) {
+            auditJournal = new AuditJournal(Paths.get(journalDir), this::writeAudits,
+                    journalBatchSize, journalMaxPending, journalMaxRetries, journalFsync);
+            auditJournal.start(shardId -> StringUtils.isEmpty(shardId) ? null : shardManager.getShardInstance(shardId));
+        }
+    }
+
+    @PreDestroy
+    public void destroy() throws IOException {
+        if (auditJournal != null) {
+            auditJournal.close();
+        }
+    }
+
+    /**
+     * Returns the audit journal, null when it is not enabled
+     */
+    public AuditJournal getAuditJournal() {
+        return auditJournal;
+    }
     
     
     /**
@@ -58,7 +113,11 @@ public class AuditDBImpl extends AuditServiceImpl {
       		
         	JsonNode rootNode = convertAuditRecordToJson(auditRecord, entityType);
             signAudit(entityType, rootNode);
-            auditToDB(rootNode, entityType, shard);
+            if (auditJournal != null) {
+                auditJournal.append(shard, entityType, rootNode);
+            } else {
+                auditToDB(rootNode, entityType, shard);
+            }
 
         } catch (AuditFailedException e) {
             logger.error("Error in saving audit info: {}", ExceptionUtils.getStackTrace(e));
@@ -68,6 +127,35 @@ public class AuditDBImpl extends AuditServiceImpl {
         logger.debug("doAudit ends");
     }
     
+    /**
+     * Audits a batch of records, writing the records of each entity type in one transaction
+     */
+    @Override
+    public void doAudit(List<AuditRecord> auditRecords, List<JsonNode> inputNodes, Shard shard) {
+        logger.debug("doAudit started for {} records", auditRecords.size());
+        try {
+            Map<String, List<JsonNode>> entityTypeNodes = new LinkedHashMap<>();
+            for (AuditRecord auditRecord : auditRecords) {
+                String entityType = getAuditDefinitionName(auditRecord.getEntityType(), auditSuffixSeparator, auditSuffix);
+                JsonNode rootNode = convertAuditRecordToJson(auditRecord, entityType);
+                signAudit(entityType, rootNode);
+                if (auditJournal != null) {
+                    auditJournal.append(shard, entityType, rootNode);
+                } else {
+                    entityTypeNodes.computeIfAbsent(entityType, k -> new ArrayList<>()).add(rootNode);
+                }
+            }
+            for (Map.Entry<String, List<JsonNode>> entry : entityTypeNodes.entrySet()) {
+                auditToDB(entry.getValue(), entry.getKey(), shard);
+            }
+        } catch (AuditFailedException e) {
+            logger.error("Error in saving audit info: {}", ExceptionUtils.getStackTrace(e));
+        } catch (Exception e) {
+            logger.error("Generic error in saving audit info : {}", ExceptionUtils.getStackTrace(e));
+        }
+        logger.debug("doAudit ends");
+    }
+
     @Async("auditExecutor")
     public void auditToDB(JsonNode rootNode, String entityType, Shard shard) throws IOException, AuditFailedException {
     	
@@ -79,6 +167,23 @@ public class AuditDBImpl extends AuditServiceImpl {
 
     }
 
+    @Async("auditExecutor")
+    public void auditToDB(List<JsonNode> rootNodes, String entityType, Shard shard) throws IOException, AuditFailedException {
+        writeAudits(shard, entityType, rootNodes);
+    }
+
+    /**
+     * Writes the batch in the calling thread, as the audit journal does
+     */
+    private void writeAudits(Shard shard, String entityType, List<JsonNode> rootNodes) throws IOException, AuditFailedException {
+
+        if(null == shard) {
+            shard = shardManager.getDefaultShard();
+        }
+        List<String> entityIds = auditWriter.auditToDB(shard, rootNodes, entityType);
+        sendAuditsToESActor(rootNodes, entityType, entityIds);
+    }
+
 	@Override
 	public String getAuditProvider() {
 		
@@ -12,6 +12,11 @@ import org.springframework.stereotype.Component;
 
 import com.fasterxml.jackson.databind.JsonNode;
 
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+
 import dev.sunbirdrc.registry.dao.IRegistryDao;
 import dev.sunbirdrc.registry.dao.RegistryDaoImpl;
 import dev.sunbirdrc.registry.exception.AuditFailedException;
@@ -45,6 +50,8 @@ public class AuditDBWriter {
     @Value("${registry.expandReference}")
     private boolean expandReferenceObj;
 
+    private final Set<String> indexedEntityTypes = ConcurrentHashMap.newKeySet();
+
     public String auditToDB(Shard shard, JsonNode rootNode, String entityType) throws AuditFailedException {
 
     	String entityId = "auditPlaceholderId";
@@ -68,11 +75,53 @@ public class AuditDBWriter {
                 tx.close();
             }
         }
-        // Add indices: executes only once.
+        ensureIndexExists(shard, dbProvider, entityType);
+        return entityId;
+	}
+
+    /**
+     * Saves the audit records of an entity type in a single transaction
+     */
+    public List<String> auditToDB(Shard shard, List<JsonNode> rootNodes, String entityType) throws AuditFailedException {
+        List<String> entityIds = new ArrayList<>();
+        Transaction tx = null;
+        DatabaseProvider dbProvider = shard.getDatabaseProvider();
+        IRegistryDao registryDao = new RegistryDaoImpl(dbProvider, definitionsManager, uuidPropertyName, expandReferenceObj);
+        try (OSGraph osGraph = dbProvider.getOSGraph()) {
+            Graph graph = osGraph.getGraphStore();
+            tx = dbProvider.startTransaction(graph);
+            dbProvider.enableBatchMode(graph);
+            for (JsonNode rootNode : rootNodes) {
+                entityIds.add(registryDao.addEntity(graph, rootNode));
+            }
+            if (commitEnabled) {
+                dbProvider.commitTransaction(graph, tx);
+            }
+
+            logger.debug("Audits added : {}", entityIds.size());
+        } catch (Exception e) {
+            logger.error("Audit failed : {}", ExceptionUtils.getStackTrace(e));
+            throw new AuditFailedException("Audit failed : " + e.getMessage());
+        } finally {
+            if (tx != null) {
+                tx.close();
+            }
+        }
+        ensureIndexExists(shard, dbProvider, entityType);
+        return entityIds;
+    }
+
+    /**
+     * Adds the indices of the audit entity type the first time it is written to a shard
+     */
+    private void ensureIndexExists(Shard shard, DatabaseProvider dbProvider, String entityType) {
         String shardId = shard.getShardId();
+        if (indexedEntityTypes.contains(shardId + "/" + entityType)) {
+            return;
+        }
         Vertex parentVertex = entityParenter.getKnownParentVertex(entityType, shardId);
         Definition definition = definitionsManager.getDefinition(entityType);
         entityParenter.ensureIndexExists(dbProvider, parentVertex, definition, shardId);
-        return entityId;
-	}
+        indexedEntityTypes.add(shardId + "/" + entityType);
+    }
 }
@@ -0,0 +1,460 @@
+package dev.sunbirdrc.registry.service.impl;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.node.JsonNodeFactory;
+import com.fasterxml.jackson.databind.node.ObjectNode;
+import dev.sunbirdrc.registry.sink.shard.Shard;
+import org.apache.commons.lang3.exception.ExceptionUtils;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.io.BufferedReader;
+import java.io.Closeable;
+import java.io.IOException;
+import java.io.InputStreamReader;
+import java.nio.ByteBuffer;
+import java.nio.channels.Channels;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.Function;
+
+/**
+ * Write-ahead journal of the audit records. The records are appended to a local file and queued;
+ * a single thread drains the queue and writes the records in batches, one transaction per shard
+ * and audit entity type. The offset of the last written record is kept in a checkpoint file, so
+ * that the records not written yet are written again after a restart. The journal is truncated
+ * whenever all its records are written.
+ *
+ * A group that still fails after maxRetries attempts is kept and retried with a growing delay. The
+ * checkpoint does not move past it meanwhile, so the records written after it are written again if
+ * the registry restarts before it is written.
+ *
+ * At most maxPending records wait to be written; beyond that, appending blocks the caller.
+ */
+public class AuditJournal implements Closeable {
+    private static final Logger logger = LoggerFactory.getLogger(AuditJournal.class);
+    private static final String JOURNAL_FILE = "audit.journal";
+    private static final String CHECKPOINT_FILE = "audit.checkpoint";
+    private static final String SHARD_ID = "shardId";
+    private static final String ENTITY_TYPE = "entityType";
+    private static final String RECORD = "record";
+    private static final long POLL_MILLIS = 1000;
+    private static final long CLOSE_WAIT_MILLIS = 10000;
+    private static final long MAX_RETRY_DELAY_MILLIS = 60000;
+    private static final int READ_CHUNK_SIZE = 4096;
+
+    /**
+     * Writes the audit records of an entity type to a shard, in one transaction
+     */
+    public interface BatchWriter {
+        void write(Shard shard, String entityType, List<JsonNode> rootNodes) throws Exception;
+    }
+
+    private final ObjectMapper objectMapper = new ObjectMapper();
+    private final Path journalPath;
+    private final Path checkpointPath;
+    private final BatchWriter batchWriter;
+    private final int batchSize;
+    private final int maxRetries;
+    private final boolean fsync;
+    private final Semaphore pendingPermits;
+    private final BlockingQueue<Entry> queue = new LinkedBlockingQueue<>();
+    private final Object appendLock = new Object();
+
+    private FileChannel channel;
+    private long appendedOffset;
+    private volatile long committedOffset;
+    private volatile boolean running;
+    private Thread drainer;
+    // The groups that failed after the retries, in journal order, touched only by the drainer
+    private final List<List<Entry>> failedGroups = new ArrayList<>();
+    private long processedOffset;
+    private long nextRetryAt;
+    private int retryRound;
+
+    private final AtomicLong appendedCount = new AtomicLong();
+    private final AtomicLong committedCount = new AtomicLong();
+    private final AtomicLong batchCount = new AtomicLong();
+    private final AtomicLong failedCount = new AtomicLong();
+    private volatile int lastBatchSize;
+
+    public AuditJournal(Path directory, BatchWriter batchWriter, int batchSize, int maxPending, int maxRetries, boolean fsync) {
+        this.journalPath = directory.resolve(JOURNAL_FILE);
+        this.checkpointPath = directory.resolve(CHECKPOINT_FILE);
+        this.batchWriter = batchWriter;
+        this.batchSize = batchSize;
+        this.maxRetries = maxRetries;
+        this.fsync = fsync;
+        this.pendingPermits = new Semaphore(maxPending);
+    }
+
+    /**
+     * Opens the journal and starts writing the records, beginning with those left from the last run
+     *
+     * @param shardResolver returns the shard of a shard id read from the journal
+     */
+    public synchronized void start(Function<String, Shard> shardResolver) throws IOException, InterruptedException {
+        Files.createDirectories(journalPath.getParent());
+        channel = FileChannel.open(journalPath, StandardOpenOption.CREATE, StandardOpenOption.READ, StandardOpenOption.WRITE);
+        appendedOffset = getCompleteLength();
+        if (appendedOffset < channel.size()) {
+            // The last record was not written completely, new records are appended in its place
+            logger.warn("Removing {} bytes of a partly written audit record from the journal", channel.size() - appendedOffset);
+            channel.truncate(appendedOffset);
+        }
+        committedOffset = Math.min(readCheckpoint(), appendedOffset);
+        processedOffset = committedOffset;
+        running = true;
+        drainer = new Thread(this::drain, "AuditJournal");
+        drainer.setDaemon(true);
+        drainer.start();
+        replay(shardResolver);
+    }
+
+    /**
+     * Returns the length of the journal up to the end of its last complete record
+     */
+    private long getCompleteLength() throws IOException {
+        ByteBuffer buffer = ByteBuffer.allocate(READ_CHUNK_SIZE);
+        long end = channel.size();
+        while (end > 0) {
+            long start = Math.max(0, end - READ_CHUNK_SIZE);
+            buffer.clear();
+            buffer.limit((int) (end - start));
+            while (buffer.hasRemaining() && channel.read(buffer, start + buffer.position()) >= 0) {
+                // Reads the whole chunk
+            }
+            for (int i = buffer.position() - 1; i >= 0; i--) {
+                if (buffer.get(i) == '\n') {
+                    return start + i + 1;
+                }
+            }
+            end = start;
+        }
+        return 0;
+    }
+
+    private void replay(Function<String, Shard> shardResolver) throws IOException, InterruptedException {
+        long offset = committedOffset;
+        int replayed = 0;
+        // Reads through a separate channel, as the journal channel is positioned for appending
+        try (FileChannel readChannel = FileChannel.open(journalPath, StandardOpenOption.READ)) {
+            readChannel.position(offset);
+            BufferedReader reader = new BufferedReader(new InputStreamReader(Channels.newInputStream(readChannel), StandardCharsets.UTF_8));
+            String line;
+            while ((line = reader.readLine()) != null) {
+                long startOffset = offset;
+                offset += line.getBytes(StandardCharsets.UTF_8).length + 1;
+                if (offset > appendedOffset) {
+                    break;
+                }
+                JsonNode entry;
+                try {
+                    entry = objectMapper.readTree(line);
+                } catch (IOException e) {
+                    logger.error("Skipping an unreadable audit record at offset {} of the journal: {}", startOffset, e.getMessage());
+                    continue;
+                }
+                String shardId = entry.path(SHARD_ID).isTextual() ? entry.get(SHARD_ID).asText() : null;
+                pendingPermits.acquire();
+                queue.add(new Entry(shardResolver.apply(shardId), shardId, entry.get(ENTITY_TYPE).asText(), entry.get(RECORD),
+                        startOffset, offset));
+                appendedCount.incrementAndGet();
+                replayed++;
+            }
+        }
+        if (replayed > 0) {
+            logger.info("Replaying {} audit records from the journal", replayed);
+        }
+    }
+
+    /**
+     * Appends the audit record to the journal and queues it for writing. Blocks while maxPending
+     * records are waiting to be written.
+     */
+    public void append(Shard shard, String entityType, JsonNode rootNode) throws IOException, InterruptedException {
+        String shardId = shard == null ? null : shard.getShardId();
+        ObjectNode entry = JsonNodeFactory.instance.objectNode();
+        entry.put(SHARD_ID, shardId);
+        entry.put(ENTITY_TYPE, entityType);
+        entry.set(RECORD, rootNode);
+        byte[] line = (objectMapper.writeValueAsString(entry) + "\n").getBytes(StandardCharsets.UTF_8);
+
+        pendingPermits.acquire();
+        try {
+            synchronized (appendLock) {
+                if (!running) {
+                    throw new IOException("Audit journal is closed");
+                }
+                ByteBuffer buffer = ByteBuffer.wrap(line);
+                while (buffer.hasRemaining()) {
+                    channel.write(buffer, appendedOffset + buffer.position());
+                }
+                if (fsync) {
+                    channel.force(false);
+                }
+                long startOffset = appendedOffset;
+                appendedOffset += line.length;
+                queue.add(new Entry(shard, shardId, entityType, rootNode, startOffset, appendedOffset));
+                appendedCount.incrementAndGet();
+            }
+        } catch (IOException | RuntimeException e) {
+            pendingPermits.release();
+            throw e;
+        }
+    }
+
+    private void drain() {
+        List<Entry> batch = new ArrayList<>(batchSize);
+        while (running || !queue.isEmpty()) {
+            try {
+                retryFailedGroups();
+                Entry first = queue.poll(POLL_MILLIS, TimeUnit.MILLISECONDS);
+                if (first == null) {
+                    truncateIfWritten();
+                    continue;
+                }
+                batch.add(first);
+                queue.drainTo(batch, batchSize - 1);
+                writeBatch(batch);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                return;
+            } catch (Exception e) {
+                logger.error("Audit journal failed to write a batch: {}", ExceptionUtils.getStackTrace(e));
+            } finally {
+                batch.clear();
+            }
+        }
+    }
+
+    /**
+     * Writes the batch grouped by shard and entity type, then moves the checkpoint past it, up to
+     * the first group that failed
+     */
+    private void writeBatch(List<Entry> batch) throws IOException, InterruptedException {
+        long startTime = System.currentTimeMillis();
+        Map<String, List<Entry>> groups = new LinkedHashMap<>();
+        for (Entry entry : batch) {
+            groups.computeIfAbsent(entry.shardId + "/" + entry.entityType, k -> new ArrayList<>()).add(entry);
+        }
+        int written = 0;
+        try {
+            for (List<Entry> group : groups.values()) {
+                if (writeWithRetries(group)) {
+                    written += group.size();
+                } else {
+                    failedCount.addAndGet(group.size());
+                    failedGroups.add(group);
+                }
+            }
+            failedGroups.sort(Comparator.comparingLong((List<Entry> group) -> group.get(0).startOffset));
+            processedOffset = batch.get(batch.size() - 1).endOffset;
+            moveCheckpoint();
+        } finally {
+            committedCount.addAndGet(written);
+            pendingPermits.release(written);
+        }
+        batchCount.incrementAndGet();
+        lastBatchSize = batch.size();
+        logger.debug("Audit journal wrote {} records in {} ms, {} pending", written, System.currentTimeMillis() - startTime, getLag());
+    }
+
+    /**
+     * Writes the groups that failed earlier again, once their retry delay is over
+     */
+    private void retryFailedGroups() throws IOException {
+        if (failedGroups.isEmpty() || System.currentTimeMillis() < nextRetryAt) {
+            return;
+        }
+        int written = 0;
+        try {
+            for (Iterator<List<Entry>> groups = failedGroups.iterator(); groups.hasNext(); ) {
+                List<Entry> group = groups.next();
+                if (write(group, 0)) {
+                    groups.remove();
+                    written += group.size();
+                }
+            }
+            moveCheckpoint();
+        } finally {
+            committedCount.addAndGet(written);
+            pendingPermits.release(written);
+        }
+        if (failedGroups.isEmpty()) {
+            retryRound = 0;
+        } else {
+            retryRound++;
+            long delay = Math.min(MAX_RETRY_DELAY_MILLIS, POLL_MILLIS << Math.min(retryRound, 16));
+            nextRetryAt = System.currentTimeMillis() + delay;
+            logger.warn("{} groups of audit records are still not written, retrying in {} ms", failedGroups.size(), delay);
+        }
+    }
+
+    /**
+     * Keeps the start of the first group not written yet as the checkpoint, or the end of the
+     * records processed when all were written
+     */
+    private void moveCheckpoint() throws IOException {
+        long offset = failedGroups.isEmpty() ? processedOffset : failedGroups.get(0).get(0).startOffset;
+        if (offset != committedOffset) {
+            committedOffset = offset;
+            writeCheckpoint(offset);
+        }
+    }
+
+    private boolean writeWithRetries(List<Entry> group) throws InterruptedException {
+        for (int attempt = 1; ; attempt++) {
+            if (write(group, attempt)) {
+                return true;
+            }
+            if (attempt > maxRetries) {
+                if (failedGroups.isEmpty()) {
+                    nextRetryAt = System.currentTimeMillis() + POLL_MILLIS;
+                }
+                return false;
+            }
+            Thread.sleep(POLL_MILLIS * attempt);
+        }
+    }
+
+    private boolean write(List<Entry> group, int attempt) {
+        Entry first = group.get(0);
+        List<JsonNode> rootNodes = new ArrayList<>(group.size());
+        group.forEach(entry -> rootNodes.add(entry.rootNode));
+        try {
+            batchWriter.write(first.shard, first.entityType, rootNodes);
+            return true;
+        } catch (Exception e) {
+            logger.warn("Writing {} {} audit records failed, attempt {}: {}", rootNodes.size(), first.entityType, attempt, e.getMessage());
+            return false;
+        }
+    }
+
+    /**
+     * Empties the journal once all its records are written, so that it does not keep growing
+     */
+    private void truncateIfWritten() throws IOException {
+        synchronized (appendLock) {
+            if (appendedOffset > 0 && committedOffset == appendedOffset && queue.isEmpty() && failedGroups.isEmpty()) {
+                channel.truncate(0);
+                appendedOffset = 0;
+                committedOffset = 0;
+                processedOffset = 0;
+                writeCheckpoint(0);
+            }
+        }
+    }
+
+    private long readCheckpoint() {
+        try {
+            if (Files.exists(checkpointPath)) {
+                return Long.parseLong(new String(Files.readAllBytes(checkpointPath), StandardCharsets.UTF_8).trim());
+            }
+        } catch (IOException | NumberFormatException e) {
+            logger.error("Audit journal checkpoint could not be read, replaying the whole journal: {}", e.getMessage());
+        }
+        return 0;
+    }
+
+    private void writeCheckpoint(long offset) throws IOException {
+        Path tempPath = checkpointPath.resolveSibling(CHECKPOINT_FILE + ".tmp");
+        Files.write(tempPath, Long.toString(offset).getBytes(StandardCharsets.UTF_8));
+        Files.move(tempPath, checkpointPath, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+    }
+
+    /**
+     * Returns the number of records appended but not written yet
+     */
+    public long getLag() {
+        return appendedCount.get() - committedCount.get();
+    }
+
+    /**
+     * Returns how long the oldest record not written yet has been waiting, 0 when there is none
+     */
+    public long getLagMillis() {
+        Entry oldest = queue.peek();
+        return oldest == null ? 0 : System.currentTimeMillis() - oldest.appendedAt;
+    }
+
+    public long getCommittedCount() {
+        return committedCount.get();
+    }
+
+    /**
+     * Returns the number of records that failed to be written after the retries, they are retried
+     * until they are written
+     */
+    public long getFailedCount() {
+        return failedCount.get();
+    }
+
+    public int getLastBatchSize() {
+        return lastBatchSize;
+    }
+
+    public double getAverageBatchSize() {
+        long batches = batchCount.get();
+        return batches == 0 ? 0 : (double) committedCount.get() / batches;
+    }
+
+    /**
+     * Stops accepting records and waits a while for the queued ones to be written. The records
+     * left are written on the next start.
+     */
+    @Override
+    public synchronized void close() throws IOException {
+        if (!running) {
+            return;
+        }
+        synchronized (appendLock) {
+            running = false;
+        }
+        try {
+            drainer.join(CLOSE_WAIT_MILLIS);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+        drainer.interrupt();
+        logger.info("Audit journal closed with {} records written, {} pending", getCommittedCount(), getLag());
+        synchronized (appendLock) {
+            channel.close();
+        }
+    }
+
+    private static class Entry {
+        private final Shard shard;
+        private final String shardId;
+        private final String entityType;
+        private final JsonNode rootNode;
+        private final long startOffset;
+        private final long endOffset;
+        private final long appendedAt = System.currentTimeMillis();
+
+        Entry(Shard shard, String shardId, String entityType, JsonNode rootNode, long startOffset, long endOffset) {
+            this.shard = shard;
+            this.shardId = shardId;
+            this.entityType = entityType;
+            this.rootNode = rootNode;
+            this.startOffset = startOffset;
+            this.endOffset = endOffset;
+        }
+    }
+}
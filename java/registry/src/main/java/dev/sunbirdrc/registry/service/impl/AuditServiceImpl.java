@@ -27,6 +27,7 @@ import com.fasterxml.jackson.databind.node.JsonNodeFactory;
 import com.fasterxml.jackson.databind.node.ObjectNode;
 
 import dev.sunbirdrc.actors.factory.MessageFactory;
+import dev.sunbirdrc.elastic.ESMessage;
 import dev.sunbirdrc.pojos.AuditInfo;
 import dev.sunbirdrc.pojos.AuditRecord;
 import dev.sunbirdrc.registry.middleware.util.Constants;
@@ -124,6 +125,11 @@ public class AuditServiceImpl implements IAuditService {
     	auditProviderFactory.getAuditService(auditFrameStore).doAudit(auditRecord, inputNode, shard);
     }
     
+    @Override
+    public void doAudit(List<AuditRecord> auditRecords, List<JsonNode> inputNodes, Shard shard) throws AuditFailedException {
+        auditProviderFactory.getAuditService(auditFrameStore).doAudit(auditRecords, inputNodes, shard);
+    }
+
     public void sendAuditToESActor(JsonNode inputNode, String entityType, String entityId) throws JsonProcessingException{
     	boolean elasticSearchEnabled = ("dev.sunbirdrc.registry.service.ElasticSearchService".equals(searchProvider));
 		
@@ -132,6 +138,21 @@ public class AuditServiceImpl implements IAuditService {
         ActorCache.instance().get(Router.ROUTER_NAME).tell(message, null);
     }
 
+    public void sendAuditsToESActor(List<JsonNode> inputNodes, String entityType, List<String> entityIds) throws JsonProcessingException {
+        if ("dev.sunbirdrc.registry.service.ElasticSearchService".equals(searchProvider)) {
+            List<ESMessage> esMessages = new ArrayList<>();
+            for (int i = 0; i < inputNodes.size(); i++) {
+                ESMessage esMessage = new ESMessage();
+                esMessage.setIndexName(entityType.toLowerCase());
+                esMessage.setUuidPropertyValue(entityIds.get(i));
+                esMessage.setInput(inputNodes.get(i).get(entityType));
+                esMessages.add(esMessage);
+            }
+            MessageProtos.Message message = MessageFactory.instance().createElasticSearchBulkMessage("BULK_ADD", esMessages);
+            ActorCache.instance().get(Router.ROUTER_NAME).tell(message, null);
+        }
+    }
+
     public JsonNode convertAuditRecordToJson(AuditRecord auditRecord, String vertexLabel) throws IOException {
     	JsonNode jsonN = JSONUtil.convertObjectJsonNode(auditRecord);
 
@@ -0,0 +1,420 @@
+package dev.sunbirdrc.registry.service.impl;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.node.JsonNodeFactory;
+import com.fasterxml.jackson.databind.node.ObjectNode;
+import com.google.common.util.concurrent.RateLimiter;
+import dev.sunbirdrc.registry.config.GenericConfiguration;
+import dev.sunbirdrc.registry.dao.IRegistryDao;
+import dev.sunbirdrc.registry.dao.RegistryDaoImpl;
+import dev.sunbirdrc.registry.helper.SignatureHelper;
+import dev.sunbirdrc.registry.middleware.util.Constants;
+import dev.sunbirdrc.registry.middleware.util.JSONUtil;
+import dev.sunbirdrc.registry.middleware.util.OSSystemFields;
+import dev.sunbirdrc.registry.service.DecryptionHelper;
+import dev.sunbirdrc.registry.service.EntityCache;
+import dev.sunbirdrc.registry.service.RegistryService;
+import dev.sunbirdrc.registry.sink.DatabaseProvider;
+import dev.sunbirdrc.registry.sink.OSGraph;
+import dev.sunbirdrc.registry.sink.shard.Shard;
+import dev.sunbirdrc.registry.sink.shard.ShardRecordJob;
+import dev.sunbirdrc.registry.util.IDefinitionsManager;
+import dev.sunbirdrc.registry.util.ReadConfiguratorFactory;
+import org.apache.commons.lang3.exception.ExceptionUtils;
+import org.apache.tinkerpop.gremlin.structure.Graph;
+import org.apache.tinkerpop.gremlin.structure.Transaction;
+import org.apache.tinkerpop.gremlin.structure.Vertex;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnExpression;
+import org.springframework.stereotype.Component;
+
+import javax.annotation.PostConstruct;
+import javax.annotation.PreDestroy;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Issues the credentials of all the records of an entity type again, e.g. after its credential
+ * template changed. The records are read from the shards a page of signature.reissue.batchSize at
+ * a time, in uuid order. The records of a page are signed by signature.reissue.concurrency threads
+ * and their credentials written back in one transaction per page.
+ *
+ * A credential is only written if the root of the record is as it was read, its osUpdatedAt and
+ * credential included: a record changed in between keeps its own state and the credential issued
+ * here is revoked. The credential a record had is revoked once the new one is written.
+ *
+ * The records that could not be signed are signed again once the other records of their shard are
+ * done. The records failing again are listed in the progress, the run ends PARTIAL and the
+ * checkpoint of the shard is kept before the first of them, so that the next run goes over them.
+ */
+@Component
+@ConditionalOnExpression("${signature.enabled:false} and ${signature.reissue.enabled:false}")
+public class CredentialReissuer extends ShardRecordJob<CredentialReissuer.ReissueProgress> {
+    private static final Logger logger = LoggerFactory.getLogger(CredentialReissuer.class);
+
+    private static final String ELASTIC_SEARCH_PROVIDER = "dev.sunbirdrc.registry.service.ElasticSearchService";
+
+    @Autowired
+    private IDefinitionsManager definitionsManager;
+    @Autowired
+    private SignatureHelper signatureHelper;
+    @Autowired
+    private RegistryService registryService;
+    @Autowired(required = false)
+    private DecryptionHelper decryptionHelper;
+    @Autowired(required = false)
+    private EntityCache entityCache;
+
+    @Value("${registry.expandReference}")
+    private boolean expandReference;
+    @Value("${search.providerName}")
+    private String searchProvider;
+    @Value("${signature.reissue.batchSize:100}")
+    private int batchSize;
+    @Value("${signature.reissue.concurrency:4}")
+    private int concurrency;
+    // The signature service issues the credentials of the live requests too, this keeps the load of a run bounded
+    @Value("${signature.reissue.recordsPerSecond:50}")
+    private double recordsPerSecond;
+
+    private ExecutorService signers;
+    private Object credentialTemplate;
+    private RateLimiter rateLimiter;
+
+    public static class ReissueProgress extends ShardRecordJob.Progress {
+        private final AtomicLong scanned = new AtomicLong();
+        private final AtomicLong signed = new AtomicLong();
+        private final AtomicLong written = new AtomicLong();
+        private final AtomicLong changed = new AtomicLong();
+        private final List<String> failedUuids = new CopyOnWriteArrayList<>();
+        // The records of the current shard left to sign again, with the record read before each of them
+        private final Map<String, String> unsigned = new LinkedHashMap<>();
+
+        ReissueProgress(String entityType) {
+            super(entityType);
+        }
+
+        @Override
+        public long getScanned() {
+            return scanned.get();
+        }
+
+        public long getSigned() {
+            return signed.get();
+        }
+
+        public long getWritten() {
+            return written.get();
+        }
+
+        /**
+         * The records changed while their credential was issued, they keep the credential of the change
+         */
+        public long getChanged() {
+            return changed.get();
+        }
+
+        @Override
+        public long getFailed() {
+            return failedUuids.size();
+        }
+
+        /**
+         * The records that could not be signed, even when signed again
+         */
+        public List<String> getFailedUuids() {
+            return failedUuids;
+        }
+
+        @Override
+        public String toString() {
+            return String.format("%d scanned, %d signed, %d written, %d changed, %d failed", getScanned(), getSigned(),
+                    getWritten(), getChanged(), getFailed());
+        }
+    }
+
+    public CredentialReissuer() {
+        super("Reissuing the credentials", "credential-reissue", "_osCredentialReissue");
+    }
+
+    @PostConstruct
+    @Override
+    public void init() {
+        super.init();
+        AtomicInteger signerCount = new AtomicInteger();
+        signers = Executors.newFixedThreadPool(concurrency, runnable -> {
+            Thread thread = new Thread(runnable, "credential-reissue-signer-" + signerCount.incrementAndGet());
+            thread.setDaemon(true);
+            return thread;
+        });
+    }
+
+    @PreDestroy
+    @Override
+    public void destroy() {
+        super.destroy();
+        signers.shutdownNow();
+    }
+
+    /**
+     * Issues the credentials of the entity type again in the calling thread
+     *
+     * @throws IllegalStateException if a run is in progress already
+     */
+    public ReissueProgress reissue(String entityType) {
+        return runNow(entityType);
+    }
+
+    @Override
+    protected ReissueProgress createProgress(String entityType) {
+        return new ReissueProgress(entityType);
+    }
+
+    @Override
+    protected int getBatchSize() {
+        return batchSize;
+    }
+
+    @Override
+    protected void check(ReissueProgress runProgress) {
+        String entityType = runProgress.getEntityType();
+        if (!definitionsManager.isValidEntityName(entityType)) {
+            throw new IllegalArgumentException("Unknown entity type " + entityType);
+        }
+        credentialTemplate = definitionsManager.getCredentialTemplate(entityType);
+        if (credentialTemplate == null || credentialTemplate.toString().isEmpty()) {
+            throw new IllegalArgumentException(entityType + " has no credential template");
+        }
+        rateLimiter = recordsPerSecond > 0 ? RateLimiter.create(recordsPerSecond) : null;
+    }
+
+    @Override
+    protected void startShard(Shard shard, ReissueProgress runProgress) {
+        runProgress.unsigned.clear();
+    }
+
+    @Override
+    protected int process(Shard shard, String after, List<String> uuids, ReissueProgress runProgress) {
+        Map<String, RecordRead> records = readRecords(shard, runProgress.getEntityType(), uuids);
+        runProgress.scanned.addAndGet(records.size());
+        Map<String, Object> credentials = sign(runProgress.getEntityType(), records, runProgress);
+        String previous = after;
+        for (String uuid : records.keySet()) {
+            if (!credentials.containsKey(uuid)) {
+                runProgress.unsigned.put(uuid, previous);
+            }
+            previous = uuid;
+        }
+        write(shard, runProgress.getEntityType(), records, credentials, runProgress);
+        return uuids.size();
+    }
+
+    /**
+     * Keeps the checkpoint before the first record of the shard left to sign again
+     */
+    @Override
+    protected String getCheckpoint(String lastHandled, ReissueProgress runProgress) {
+        return runProgress.unsigned.isEmpty() ? lastHandled : runProgress.unsigned.values().iterator().next();
+    }
+
+    /**
+     * Signs the records of the shard that could not be signed again, the shard is done unless some
+     * of them fail again
+     */
+    @Override
+    protected boolean finishShard(Shard shard, ReissueProgress runProgress) {
+        if (runProgress.unsigned.isEmpty()) {
+            return true;
+        }
+        String entityType = runProgress.getEntityType();
+        logger.info("Signing {} {} records of shard {} again", runProgress.unsigned.size(), entityType, shard.getShardId());
+        Map<String, RecordRead> records = readRecords(shard, entityType, new ArrayList<>(runProgress.unsigned.keySet()));
+        Map<String, Object> credentials = sign(entityType, records, runProgress);
+        write(shard, entityType, records, credentials, runProgress);
+        // The records removed in between are done, the checkpoint is kept before the first one left
+        runProgress.unsigned.keySet().removeIf(uuid -> !records.containsKey(uuid) || credentials.containsKey(uuid));
+        runProgress.failedUuids.addAll(runProgress.unsigned.keySet());
+        return runProgress.unsigned.isEmpty();
+    }
+
+    /**
+     * Signs the records on the signer threads, the records that could not be signed are left out
+     */
+    private Map<String, Object> sign(String entityType, Map<String, RecordRead> records, ReissueProgress runProgress) {
+        Map<String, CompletableFuture<Object>> futures = new LinkedHashMap<>();
+        records.forEach((uuid, record) -> futures.put(uuid, CompletableFuture.supplyAsync(() -> {
+            if (rateLimiter != null) {
+                rateLimiter.acquire();
+            }
+            Map<String, Object> requestBodyMap = new HashMap<>();
+            requestBodyMap.put("title", entityType);
+            requestBodyMap.put("data", record.entity);
+            requestBodyMap.put("credentialTemplate", credentialTemplate);
+            try {
+                return signatureHelper.sign(requestBodyMap);
+            } catch (Exception e) {
+                throw new IllegalStateException(e.getMessage(), e);
+            }
+        }, signers)));
+        Map<String, Object> credentials = new LinkedHashMap<>();
+        futures.forEach((uuid, future) -> {
+            try {
+                credentials.put(uuid, future.join());
+                runProgress.signed.incrementAndGet();
+            } catch (Exception e) {
+                logger.error("Failed to sign {} record {}: {}", entityType, uuid, ExceptionUtils.getStackTrace(e));
+            }
+        });
+        return credentials;
+    }
+
+    private void write(Shard shard, String entityType, Map<String, RecordRead> records, Map<String, Object> credentials,
+                       ReissueProgress runProgress) {
+        if (credentials.isEmpty()) {
+            return;
+        }
+        String signatureProvider = GenericConfiguration.getSignatureProvider();
+        Map<String, ObjectNode> credentialNodes = new LinkedHashMap<>();
+        credentials.forEach((uuid, credential) -> {
+            ObjectNode credentialNode = JsonNodeFactory.instance.objectNode();
+            OSSystemFields.credentials.setCredential(signatureProvider, credentialNode, credential);
+            credentialNodes.put(uuid, credentialNode);
+        });
+        List<String> writtenUuids = new ArrayList<>();
+        List<String> changedUuids = new ArrayList<>();
+        DatabaseProvider databaseProvider = shard.getDatabaseProvider();
+        try (OSGraph osGraph = databaseProvider.getOSGraph()) {
+            Graph graph = osGraph.getGraphStore();
+            try (Transaction tx = databaseProvider.startTransaction(graph)) {
+                for (Map.Entry<String, ObjectNode> entry : credentialNodes.entrySet()) {
+                    String uuid = entry.getKey();
+                    Map.Entry<String, JsonNode> credentialProperty = entry.getValue().fields().next();
+                    Vertex root = getRoot(graph, databaseProvider.getUuidPropertyName(), entityType, uuid);
+                    // An update without a new credential, e.g. with skipSignature, keeps the credential but not osUpdatedAt
+                    if (root == null || !records.get(uuid).rootProperties.equals(getProperties(root))) {
+                        changedUuids.add(uuid);
+                        continue;
+                    }
+                    root.property(credentialProperty.getKey(), credentialProperty.getValue().asText());
+                    writtenUuids.add(uuid);
+                }
+                databaseProvider.commitTransaction(graph, tx);
+            }
+        } catch (Exception e) {
+            throw new IllegalStateException("Failed to write the credentials of shard " + shard.getShardId(), e);
+        }
+
+        for (String uuid : changedUuids) {
+            logger.info("{} record {} changed while its credential was issued, revoking the credential", entityType, uuid);
+            revoke(entityType, getCredential(signatureProvider, credentialNodes.get(uuid)));
+            runProgress.changed.incrementAndGet();
+        }
+        boolean elasticSearchEnabled = ELASTIC_SEARCH_PROVIDER.equals(searchProvider);
+        for (String uuid : writtenUuids) {
+            if (entityCache != null) {
+                entityCache.invalidate(shard.getShardId(), uuid);
+            }
+            revoke(entityType, getCredential(signatureProvider, records.get(uuid).entity));
+            if (elasticSearchEnabled) {
+                updateIndex(entityType, uuid, credentialNodes.get(uuid));
+            }
+            runProgress.written.incrementAndGet();
+        }
+    }
+
+    private static String getCredential(String signatureProvider, JsonNode node) {
+        JsonNode credential = OSSystemFields.credentials.getCredential(signatureProvider, node);
+        return credential == null || credential.isNull() ? "" : credential.asText();
+    }
+
+    private void revoke(String entityType, String credential) {
+        if (credential.isEmpty()) {
+            return;
+        }
+        try {
+            signatureHelper.revoke(entityType, null, credential);
+        } catch (Exception e) {
+            logger.error("Failed to revoke a credential of {}: {}", entityType, ExceptionUtils.getStackTrace(e));
+        }
+    }
+
+    /**
+     * Updates the credential in the indexed document, unless it is excluded from the index
+     */
+    private void updateIndex(String entityType, String uuid, ObjectNode credentialNode) {
+        try {
+            JsonNode publicNode = JSONUtil.removeNodesByPath(credentialNode, definitionsManager.getExcludingFieldsForEntity(entityType));
+            if (publicNode.size() > 0) {
+                registryService.callESActors(JsonNodeFactory.instance.objectNode().set(entityType, publicNode), "UPDATE", entityType, uuid, null);
+            }
+        } catch (Exception e) {
+            logger.error("Failed to index the credential of {} record {}: {}", entityType, uuid, ExceptionUtils.getStackTrace(e));
+        }
+    }
+
+    private static Vertex getRoot(Graph graph, String uuidPropertyName, String entityType, String uuid) {
+        Iterator<Vertex> roots = graph.traversal().clone().V().hasLabel(entityType).has(uuidPropertyName, uuid).hasNot(Constants.ROOT_KEYWORD);
+        return roots.hasNext() ? roots.next() : null;
+    }
+
+    private static Map<String, Object> getProperties(Vertex vertex) {
+        Map<String, Object> properties = new HashMap<>();
+        vertex.properties().forEachRemaining(property -> properties.put(property.key(), property.value()));
+        return properties;
+    }
+
+    /**
+     * Reads the records, as they are signed when added, with the properties of their root. The
+     * records removed since their uuid was read are left out.
+     */
+    private Map<String, RecordRead> readRecords(Shard shard, String entityType, List<String> uuids) {
+        DatabaseProvider databaseProvider = shard.getDatabaseProvider();
+        String uuidPropertyName = databaseProvider.getUuidPropertyName();
+        IRegistryDao registryDao = new RegistryDaoImpl(databaseProvider, definitionsManager, uuidPropertyName, expandReference);
+        try (OSGraph osGraph = databaseProvider.getOSGraph()) {
+            Graph graph = osGraph.getGraphStore();
+            try (Transaction tx = databaseProvider.startTransaction(graph)) {
+                Map<String, RecordRead> records = new LinkedHashMap<>();
+                for (String uuid : uuids) {
+                    Vertex root = getRoot(graph, uuidPropertyName, entityType, uuid);
+                    if (root == null) {
+                        continue;
+                    }
+                    Map<String, Object> rootProperties = getProperties(root);
+                    JsonNode entity = registryDao.getEntity(graph, entityType, uuid, ReadConfiguratorFactory.getOne(false));
+                    if (decryptionHelper != null) {
+                        entity = decryptionHelper.getDecryptedJson(entity);
+                    }
+                    records.put(uuid, new RecordRead(entity.get(entityType), rootProperties));
+                }
+                databaseProvider.commitTransaction(graph, tx);
+                return records;
+            }
+        } catch (Exception e) {
+            throw new IllegalStateException("Failed to read the records of shard " + shard.getShardId(), e);
+        }
+    }
+
+    private static class RecordRead {
+        private final JsonNode entity;
+        private final Map<String, Object> rootProperties;
+
+        RecordRead(JsonNode entity, Map<String, Object> rootProperties) {
+            this.entity = entity;
+            this.rootProperties = rootProperties;
+        }
+    }
+}
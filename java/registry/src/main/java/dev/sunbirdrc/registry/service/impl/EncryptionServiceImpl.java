@@ -12,7 +12,7 @@ import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.beans.factory.annotation.Value;
-import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnExpression;
 import org.springframework.http.HttpEntity;
 import org.springframework.http.HttpHeaders;
 import org.springframework.http.MediaType;
@@ -31,7 +31,7 @@ import static dev.sunbirdrc.registry.middleware.util.Constants.CONNECTION_FAILUR
 import static dev.sunbirdrc.registry.middleware.util.Constants.SUNBIRD_ENCRYPTION_SERVICE_NAME;
 
 @Component
-@ConditionalOnProperty(name = "encryption.enabled", havingValue = "true")
+@ConditionalOnExpression("${encryption.enabled:false} and '${encryption.provider:remote}' == 'remote'")
 public class EncryptionServiceImpl implements EncryptionService {
 
 	private static Logger logger = LoggerFactory.getLogger(EncryptionServiceImpl.class);
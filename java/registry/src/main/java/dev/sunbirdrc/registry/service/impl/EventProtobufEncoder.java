@@ -0,0 +1,102 @@
+package dev.sunbirdrc.registry.service.impl;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectWriter;
+import com.google.protobuf.CodedOutputStream;
+import com.google.protobuf.WireFormat;
+import dev.sunbirdrc.registry.model.event.Actor;
+import dev.sunbirdrc.registry.model.event.Event;
+import dev.sunbirdrc.registry.model.event.TelemetryObject;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+
+/**
+ * Writes an event in the protobuf wire format of the Event message of event.proto. The fields are
+ * written directly, the edata is kept as compact JSON since its shape follows the entity schema.
+ */
+public class EventProtobufEncoder {
+    private static final int EID = 1;
+    private static final int ETS = 2;
+    private static final int VER = 3;
+    private static final int MID = 4;
+    private static final int ACTOR = 5;
+    private static final int OBJECT = 6;
+    private static final int EDATA = 7;
+    private static final int SAMPLE_RATE = 8;
+    private static final int ID = 1;
+    private static final int TYPE = 2;
+
+    private final ObjectWriter edataWriter;
+
+    public EventProtobufEncoder(ObjectWriter edataWriter) {
+        this.edataWriter = edataWriter;
+    }
+
+    public byte[] encode(Event event) throws JsonProcessingException {
+        String edata = event.getEdata() == null ? null : edataWriter.writeValueAsString(event.getEdata());
+        int actorSize = getSize(event.getActor());
+        int objectSize = getSize(event.getObject());
+        int size = getStringSize(EID, event.getEid()) + getStringSize(VER, event.getVer())
+                + getStringSize(MID, event.getMid()) + getStringSize(EDATA, edata)
+                + getMessageSize(ACTOR, actorSize) + getMessageSize(OBJECT, objectSize);
+        if (event.getEts() != null) {
+            size += CodedOutputStream.computeInt64Size(ETS, event.getEts());
+        }
+        if (event.getSampleRate() != null) {
+            size += CodedOutputStream.computeDoubleSize(SAMPLE_RATE, event.getSampleRate());
+        }
+        byte[] bytes = new byte[size];
+        CodedOutputStream output = CodedOutputStream.newInstance(bytes);
+        try {
+            writeString(output, EID, event.getEid());
+            if (event.getEts() != null) {
+                output.writeInt64(ETS, event.getEts());
+            }
+            writeString(output, VER, event.getVer());
+            writeString(output, MID, event.getMid());
+            if (event.getActor() != null) {
+                output.writeTag(ACTOR, WireFormat.WIRETYPE_LENGTH_DELIMITED);
+                output.writeUInt32NoTag(actorSize);
+                writeString(output, ID, event.getActor().getId());
+                writeString(output, TYPE, event.getActor().getType());
+            }
+            if (event.getObject() != null) {
+                output.writeTag(OBJECT, WireFormat.WIRETYPE_LENGTH_DELIMITED);
+                output.writeUInt32NoTag(objectSize);
+                writeString(output, ID, event.getObject().getId());
+                writeString(output, TYPE, event.getObject().getType());
+            }
+            writeString(output, EDATA, edata);
+            if (event.getSampleRate() != null) {
+                output.writeDouble(SAMPLE_RATE, event.getSampleRate());
+            }
+            output.checkNoSpaceLeft();
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+        return bytes;
+    }
+
+    private static int getSize(Actor actor) {
+        return actor == null ? -1 : getStringSize(ID, actor.getId()) + getStringSize(TYPE, actor.getType());
+    }
+
+    private static int getSize(TelemetryObject object) {
+        return object == null ? -1 : getStringSize(ID, object.getId()) + getStringSize(TYPE, object.getType());
+    }
+
+    private static int getMessageSize(int field, int size) {
+        return size < 0 ? 0 : CodedOutputStream.computeTagSize(field) + CodedOutputStream.computeUInt32SizeNoTag(size) + size;
+    }
+
+    private static int getStringSize(int field, String value) {
+        return value == null ? 0 : CodedOutputStream.computeStringSize(field, value);
+    }
+
+    private static void writeString(CodedOutputStream output, int field, String value) throws IOException {
+        if (value != null) {
+            output.writeString(field, value);
+        }
+    }
+}
@@ -5,20 +5,138 @@ import com.fasterxml.jackson.databind.ObjectMapper;
 import com.fasterxml.jackson.databind.ObjectWriter;
 import dev.sunbirdrc.registry.model.event.Event;
 import dev.sunbirdrc.registry.service.IEventService;
+import org.apache.commons.lang3.exception.ExceptionUtils;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
 import org.springframework.stereotype.Service;
 
+import javax.annotation.PostConstruct;
+import javax.annotation.PreDestroy;
+import java.io.BufferedOutputStream;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.List;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
+
+/**
+ * Writes the events as JSON lines to event.file.directory for offline analytics. The lines are
+ * buffered and flushed every event.file.flushIntervalMillis, so the events of the last interval are
+ * lost on a crash. The file is rolled over at event.file.maxFileSizeKB, keeping event.file.maxFiles
+ * files in all.
+ */
 @Service
 @ConditionalOnProperty(name = "event.providerName", havingValue = "dev.sunbirdrc.registry.service.impl.FileEventService")
 public class FileEventService implements IEventService {
 
     private static Logger logger = LoggerFactory.getLogger(FileEventService.class);
+    private static final ObjectWriter objectWriter = new ObjectMapper().writer();
+    private static final byte[] NEW_LINE = "\n".getBytes();
+    private static final String EXTENSION = ".log";
+
+    @Value("${event.file.directory:events}")
+    private String directory;
+    @Value("${event.file.name:events}")
+    private String fileName;
+    @Value("${event.file.maxFileSizeKB:102400}")
+    private long maxFileSizeKB;
+    @Value("${event.file.maxFiles:10}")
+    private int maxFiles;
+    @Value("${event.file.bufferSizeKB:64}")
+    private int bufferSizeKB;
+    @Value("${event.file.flushIntervalMillis:1000}")
+    private long flushIntervalMillis;
+
+    private Path file;
+    private OutputStream outputStream;
+    private long fileSize;
+    private ScheduledExecutorService flusher;
+
+    @PostConstruct
+    public void init() throws IOException {
+        Files.createDirectories(Paths.get(directory));
+        file = Paths.get(directory, fileName + EXTENSION);
+        open();
+        flusher = Executors.newSingleThreadScheduledExecutor(runnable -> {
+            Thread thread = new Thread(runnable, "event-file-flusher");
+            thread.setDaemon(true);
+            return thread;
+        });
+        flusher.scheduleWithFixedDelay(this::flush, flushIntervalMillis, flushIntervalMillis, TimeUnit.MILLISECONDS);
+    }
+
+    @PreDestroy
+    public void destroy() {
+        flusher.shutdown();
+        synchronized (this) {
+            try {
+                outputStream.close();
+            } catch (IOException e) {
+                logger.error("Failed to close the event file {}: {}", file, ExceptionUtils.getStackTrace(e));
+            }
+        }
+    }
+
     @Override
     public void pushEvents(Event event) throws JsonProcessingException {
-        ObjectWriter objectWriter = new ObjectMapper().writer();
-        String message = objectWriter.writeValueAsString(event);
-        logger.info("{}", message);
+        byte[] message = objectWriter.writeValueAsBytes(event);
+        synchronized (this) {
+            try {
+                if (fileSize > 0 && fileSize + message.length + NEW_LINE.length > maxFileSizeKB * 1024) {
+                    roll();
+                }
+                outputStream.write(message);
+                outputStream.write(NEW_LINE);
+                fileSize += message.length + NEW_LINE.length;
+            } catch (IOException e) {
+                logger.error("Failed to write event {} to {}: {}", event.getMid(), file, ExceptionUtils.getStackTrace(e));
+            }
+        }
+    }
+
+    public synchronized void flush() {
+        try {
+            outputStream.flush();
+        } catch (IOException e) {
+            logger.error("Failed to flush the event file {}: {}", file, ExceptionUtils.getStackTrace(e));
+        }
+    }
+
+    private void open() throws IOException {
+        outputStream = new BufferedOutputStream(new FileOutputStream(file.toFile(), true), bufferSizeKB * 1024);
+        fileSize = Files.size(file);
+    }
+
+    /**
+     * Renames the current file after the time it was rolled at and removes the oldest rolled files
+     */
+    private void roll() throws IOException {
+        outputStream.close();
+        Path rolled = Paths.get(directory, fileName + "-" + System.currentTimeMillis() + EXTENSION);
+        for (int i = 1; Files.exists(rolled); i++) {
+            rolled = Paths.get(directory, fileName + "-" + System.currentTimeMillis() + "." + i + EXTENSION);
+        }
+        Files.move(file, rolled);
+        open();
+        List<Path> rolledFiles;
+        try (Stream<Path> files = Files.list(Paths.get(directory))) {
+            rolledFiles = files.filter(path -> {
+                String name = path.getFileName().toString();
+                return name.startsWith(fileName + "-") && name.endsWith(EXTENSION);
+            }).sorted().collect(Collectors.toList());
+        }
+        for (int i = 0; i < rolledFiles.size() - (maxFiles - 1); i++) {
+            Files.delete(rolledFiles.get(i));
+        }
+        logger.info("Rolled the event file over to {}", rolled);
     }
 }
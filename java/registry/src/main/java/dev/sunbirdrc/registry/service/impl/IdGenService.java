@@ -27,8 +27,16 @@ import org.springframework.util.StringUtils;
 import org.springframework.web.client.ResourceAccessException;
 import org.springframework.web.client.RestClientException;
 
+import javax.annotation.PostConstruct;
+import javax.annotation.PreDestroy;
 import java.io.IOException;
 import java.util.*;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.RejectedExecutionException;
 import java.util.stream.Collectors;
 
 import static dev.sunbirdrc.registry.middleware.util.Constants.CONNECTION_FAILURE;
@@ -49,6 +57,9 @@ public class IdGenService implements IIdGenService {
     private String tenantId;
     @Value("${idgen.enabled:false}")
     private boolean enabled;
+    // Ids fetched ahead per id name and format, 0 to fetch them when the entity is created
+    @Value("${idgen.prefetch.size:0}")
+    private int prefetchSize;
 
     @Autowired
     private Gson gson;
@@ -57,9 +68,53 @@ public class IdGenService implements IIdGenService {
     @Autowired
     private RetryRestTemplate retryRestTemplate;
 
+    private final Map<String, BlockingQueue<String>> prefetchedIds = new ConcurrentHashMap<>();
+    private final Set<String> prefetching = ConcurrentHashMap.newKeySet();
+    private ExecutorService prefetchExecutor;
+
+    @PostConstruct
+    public void init() {
+        if (prefetchSize > 0) {
+            prefetchExecutor = Executors.newSingleThreadExecutor(runnable -> {
+                Thread thread = new Thread(runnable, "idgen-prefetch");
+                thread.setDaemon(true);
+                return thread;
+            });
+        }
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        if (prefetchExecutor != null) {
+            prefetchExecutor.shutdownNow();
+        }
+    }
+
     @Override
     public Map<String, String> generateId(List<UniqueIdentifierField> uniqueIdentifierFields) throws CustomException {
         if(!enabled) throw new UnreachableException("IDGEN service not enabled");
+        if (prefetchSize <= 0) {
+            return fetchIds(uniqueIdentifierFields);
+        }
+
+        Map<String, String> resultMap = new HashMap<>();
+        List<UniqueIdentifierField> missingFields = new ArrayList<>();
+        for (UniqueIdentifierField field : uniqueIdentifierFields) {
+            String id = getPrefetchedIds(field).poll();
+            if (id != null) {
+                resultMap.put(field.getField(), id);
+            } else {
+                missingFields.add(field);
+            }
+        }
+        if (!missingFields.isEmpty()) {
+            resultMap.putAll(fetchIds(missingFields));
+        }
+        prefetchIfLow(uniqueIdentifierFields);
+        return resultMap;
+    }
+
+    private Map<String, String> fetchIds(List<UniqueIdentifierField> uniqueIdentifierFields) throws CustomException {
         HttpEntity<String> entity = getIdgenRequest(uniqueIdentifierFields);
 
         try {
@@ -117,14 +172,74 @@ public class IdGenService implements IIdGenService {
         }
     }
 
+    /**
+     * Fetches ids in the background for the fields having at most half of the prefetch size
+     * left. The ids are generated when they are fetched, so the date parts of a format are those
+     * of the day they were fetched on.
+     */
+    private void prefetchIfLow(List<UniqueIdentifierField> uniqueIdentifierFields) {
+        List<UniqueIdentifierField> lowFields = uniqueIdentifierFields.stream()
+                .filter(field -> getPrefetchedIds(field).size() <= prefetchSize / 2)
+                .filter(field -> prefetching.add(getPrefetchKey(field)))
+                .collect(Collectors.toList());
+        if (lowFields.isEmpty()) {
+            return;
+        }
+        try {
+            prefetchExecutor.execute(() -> prefetch(lowFields));
+        } catch (RejectedExecutionException e) {
+            lowFields.forEach(field -> prefetching.remove(getPrefetchKey(field)));
+        }
+    }
+
+    private void prefetch(List<UniqueIdentifierField> uniqueIdentifierFields) {
+        try {
+            watch.start("IdGenServiceImpl.prefetchIds");
+            ResponseEntity<String> response = retryRestTemplate.postForEntity(generateUrl, getIdgenRequest(uniqueIdentifierFields, prefetchSize));
+            watch.stop("IdGenServiceImpl.prefetchIds");
+            JsonNode results = JSONUtil.convertStringJsonNode(response.getBody());
+            if ("SUCCESSFUL".equals(results.at("/responseInfo/status").asText())) {
+                // The ids of each request follow those of the previous one
+                Iterator<JsonNode> iterator = ((ArrayNode) results.at("/idResponses")).elements();
+                int i = 0;
+                while (iterator.hasNext() && i / prefetchSize < uniqueIdentifierFields.size()) {
+                    getPrefetchedIds(uniqueIdentifierFields.get(i / prefetchSize)).add(iterator.next().at("/id").asText());
+                    i++;
+                }
+                logger.debug("Prefetched {} ids", i);
+            } else {
+                logger.error("Failed to prefetch ids: {}", results.at("/idResponses").asText());
+            }
+        } catch (Exception e) {
+            logger.error("Exception while prefetching ids from {}: {}", getServiceName(), ExceptionUtils.getStackTrace(e));
+        } finally {
+            uniqueIdentifierFields.forEach(field -> prefetching.remove(getPrefetchKey(field)));
+        }
+    }
+
+    private BlockingQueue<String> getPrefetchedIds(UniqueIdentifierField field) {
+        return prefetchedIds.computeIfAbsent(getPrefetchKey(field), key -> new LinkedBlockingQueue<>());
+    }
+
+    private String getPrefetchKey(UniqueIdentifierField field) {
+        return field.getIdName() + "|" + field.getFormat();
+    }
+
     private HttpEntity<String> getIdgenRequest(List<UniqueIdentifierField> uniqueIdentifierFields) {
+        return getIdgenRequest(uniqueIdentifierFields, 1);
+    }
+
+    private HttpEntity<String> getIdgenRequest(List<UniqueIdentifierField> uniqueIdentifierFields, int count) {
         Map<String, Object> map = new HashMap<>();
         map.put("RequestInfo", new HashMap<>());
-        List<Map<String, String>> idRequests = uniqueIdentifierFields.stream().map(field -> {
-            Map<String, String> idRequest = new HashMap<>();
+        List<Map<String, Object>> idRequests = uniqueIdentifierFields.stream().map(field -> {
+            Map<String, Object> idRequest = new HashMap<>();
             idRequest.put("idName", field.getIdName());
             idRequest.put("tenantId", tenantId);
             idRequest.put("format", field.getFormat());
+            if (count > 1) {
+                idRequest.put("count", count);
+            }
             return idRequest;
         }).collect(Collectors.toList());
 
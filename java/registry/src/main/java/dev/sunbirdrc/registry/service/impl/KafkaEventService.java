@@ -5,24 +5,43 @@ import com.fasterxml.jackson.databind.ObjectMapper;
 import com.fasterxml.jackson.databind.ObjectWriter;
 import dev.sunbirdrc.registry.model.event.Event;
 import dev.sunbirdrc.registry.service.IEventService;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Qualifier;
 import org.springframework.beans.factory.annotation.Value;
 import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
 import org.springframework.kafka.core.KafkaTemplate;
 import org.springframework.stereotype.Service;
 
+/**
+ * Publishes the events on the event topic, as compact JSON or, with event.encoding set to protobuf,
+ * as the Event message of event.proto.
+ */
 @Service
 @ConditionalOnProperty(name = "event.providerName", havingValue = "dev.sunbirdrc.registry.service.impl.KafkaEventService", matchIfMissing = true)
 public class KafkaEventService implements IEventService {
+    private static final Logger logger = LoggerFactory.getLogger(KafkaEventService.class);
+    static final String PROTOBUF_ENCODING = "protobuf";
+    private static final ObjectWriter objectWriter = new ObjectMapper().writer();
 
     @Value("${event.topic:events}")
     String metricsTopic;
-    @Autowired
-    private KafkaTemplate<String, String> kafkaTemplate;
+    @Value("${event.encoding:json}")
+    private String encoding;
+    @Autowired(required = false)
+    @Qualifier("eventKafkaTemplate")
+    private KafkaTemplate<String, byte[]> kafkaTemplate;
+
+    private final EventProtobufEncoder protobufEncoder = new EventProtobufEncoder(objectWriter);
+
     @Override
     public void pushEvents(Event event) throws JsonProcessingException {
-        ObjectWriter objectMapper = new ObjectMapper().writer().withDefaultPrettyPrinter();
-        String message = objectMapper.writeValueAsString(event);
+        if (kafkaTemplate == null) {
+            logger.debug("Events are disabled, dropped event {}", event.getMid());
+            return;
+        }
+        byte[] message = PROTOBUF_ENCODING.equalsIgnoreCase(encoding) ? protobufEncoder.encode(event) : objectWriter.writeValueAsBytes(event);
         kafkaTemplate.send(metricsTopic, event.getObject().getId(), message);
     }
 }
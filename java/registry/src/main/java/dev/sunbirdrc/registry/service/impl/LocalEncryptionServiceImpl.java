@@ -0,0 +1,144 @@
+package dev.sunbirdrc.registry.service.impl;
+
+import dev.sunbirdrc.encryption.CryptoEngine;
+import dev.sunbirdrc.encryption.CryptoException;
+import dev.sunbirdrc.encryption.JdbcKeyRepository;
+import dev.sunbirdrc.encryption.KeyStore;
+import dev.sunbirdrc.encryption.Method;
+import dev.sunbirdrc.encryption.SoftwareBasedMasterKey;
+import dev.sunbirdrc.pojos.ComponentHealthInfo;
+import dev.sunbirdrc.pojos.SunbirdRCInstrumentation;
+import dev.sunbirdrc.registry.exception.EncryptionException;
+import dev.sunbirdrc.registry.service.EncryptionService;
+import org.apache.commons.lang3.exception.ExceptionUtils;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnExpression;
+import org.springframework.stereotype.Component;
+
+import javax.annotation.PostConstruct;
+import java.util.Map;
+
+import static dev.sunbirdrc.registry.middleware.util.Constants.SUNBIRD_ENCRYPTION_SERVICE_NAME;
+
+/**
+ * Encrypts and decrypts in process with the keys of the encryption service, read from its key
+ * tables. The ciphertexts are the same as those of the encryption service, so values written in
+ * one mode can be read in the other.
+ */
+@Component
+@ConditionalOnExpression("${encryption.enabled:false} and '${encryption.provider:remote}' == 'local'")
+public class LocalEncryptionServiceImpl implements EncryptionService {
+
+	private static Logger logger = LoggerFactory.getLogger(LocalEncryptionServiceImpl.class);
+	@Value("${encryption.tenant.id}")
+	private String encryptionTenantId;
+	@Value("${encryption.method}")
+	private String encryptionMethod;
+	@Value("${encryption.local.database.url}")
+	private String databaseUrl;
+	@Value("${encryption.local.database.username}")
+	private String databaseUsername;
+	@Value("${encryption.local.database.password}")
+	private String databasePassword;
+	@Value("${encryption.local.master.password}")
+	private String masterPassword;
+	@Value("${encryption.local.master.salt}")
+	private String masterSalt;
+	@Value("${encryption.local.master.initialVector}")
+	private String masterInitialVector;
+	@Value("${encryption.local.method.symmetric:AES/GCM/NoPadding}")
+	private String symmetricMethod;
+	@Value("${encryption.local.method.asymmetric:RSA/NONE/OAEPWithSHA3-256AndMGF1Padding}")
+	private String asymmetricMethod;
+	@Autowired
+	private SunbirdRCInstrumentation watch;
+
+	private KeyStore keyStore;
+	private CryptoEngine cryptoEngine;
+	private Method method;
+
+	@PostConstruct
+	public void init() throws CryptoException {
+		method = Method.fromType(encryptionMethod);
+		keyStore = new KeyStore(new JdbcKeyRepository(databaseUrl, databaseUsername, databasePassword),
+				new SoftwareBasedMasterKey(masterPassword, masterSalt, masterInitialVector, symmetricMethod));
+		cryptoEngine = new CryptoEngine(keyStore, symmetricMethod, asymmetricMethod);
+		try {
+			// Like the encryption service at startup, the keys of the tenant are generated if it has none
+			keyStore.generateKeys(encryptionTenantId);
+		} catch (CryptoException e) {
+			// The keys are loaded, or generated, again on the first encryption
+			logger.error("Failed to load the encryption keys: {}", ExceptionUtils.getStackTrace(e));
+		}
+	}
+
+	@Override
+	public String encrypt(Object propertyValue) throws EncryptionException {
+		return this.doEncrypt(propertyValue).toString();
+	}
+
+	@Override
+	public String decrypt(Object propertyValue) throws EncryptionException {
+		return this.doDecrypt(propertyValue).toString();
+	}
+
+	@Override
+	public Map<String, Object> encrypt(Map<String, Object> propertyValue) throws EncryptionException {
+		return this.doEncrypt(propertyValue);
+	}
+
+	@Override
+	public Map<String, Object> decrypt(Map<String, Object> propertyValue) throws EncryptionException {
+		return this.doDecrypt(propertyValue);
+	}
+
+	@SuppressWarnings("unchecked")
+	private <T> T doEncrypt(T propertyValue) throws EncryptionException {
+		try {
+			watch.start("LocalEncryptionServiceImpl.encryptBatch");
+			T result = (T) cryptoEngine.encrypt(propertyValue, encryptionTenantId, method);
+			watch.stop("LocalEncryptionServiceImpl.encryptBatch");
+			return result;
+		} catch (CryptoException e) {
+			logger.error("Exception in encryption: {}", ExceptionUtils.getStackTrace(e));
+			throw new EncryptionException("Exception in encryption service.");
+		}
+	}
+
+	@SuppressWarnings("unchecked")
+	private <T> T doDecrypt(T propertyValue) throws EncryptionException {
+		try {
+			watch.start("LocalEncryptionServiceImpl.decryptBatch");
+			T result = (T) cryptoEngine.decrypt(propertyValue);
+			watch.stop("LocalEncryptionServiceImpl.decryptBatch");
+			return result;
+		} catch (CryptoException e) {
+			logger.error("Exception in decryption: {}", ExceptionUtils.getStackTrace(e));
+			throw new EncryptionException("Exception in encryption service ! ");
+		}
+	}
+
+	@Override
+	public String getServiceName() {
+		return SUNBIRD_ENCRYPTION_SERVICE_NAME;
+	}
+
+	@Override
+	public ComponentHealthInfo getHealthInfo() {
+		if (keyStore.hasActiveKey(encryptionTenantId, method)) {
+			return new ComponentHealthInfo(getServiceName(), true);
+		}
+		try {
+			keyStore.refreshKeys();
+		} catch (CryptoException e) {
+			return new ComponentHealthInfo(getServiceName(), false, "KEY_STORE_FAILURE", e.getMessage());
+		}
+		if (keyStore.hasActiveKey(encryptionTenantId, method)) {
+			return new ComponentHealthInfo(getServiceName(), true);
+		}
+		return new ComponentHealthInfo(getServiceName(), false, "KEY_NOT_FOUND", encryptionTenantId);
+	}
+}
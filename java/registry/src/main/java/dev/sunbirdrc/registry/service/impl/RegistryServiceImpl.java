@@ -10,6 +10,8 @@ import com.fasterxml.jackson.databind.node.ObjectNode;
 import com.jayway.jsonpath.DocumentContext;
 import com.jayway.jsonpath.JsonPath;
 import dev.sunbirdrc.actors.factory.MessageFactory;
+import dev.sunbirdrc.elastic.ESMessage;
+import dev.sunbirdrc.pojos.AuditRecord;
 import dev.sunbirdrc.pojos.UniqueIdentifierField;
 import dev.sunbirdrc.pojos.attestation.States;
 import dev.sunbirdrc.registry.config.GenericConfiguration;
@@ -46,7 +48,9 @@ import org.sunbird.akka.core.ActorCache;
 import org.sunbird.akka.core.MessageProtos;
 import org.sunbird.akka.core.Router;
 
+import java.io.IOException;
 import java.util.*;
+import java.util.concurrent.ThreadLocalRandom;
 import java.util.concurrent.atomic.AtomicBoolean;
 
 import static dev.sunbirdrc.registry.Constants.*;
@@ -63,6 +67,8 @@ public class RegistryServiceImpl implements RegistryService {
     private EntityTypeHandler entityTypeHandler;
     @Autowired(required = false)
     private SignatureHelper signatureHelper;
+    @Autowired(required = false)
+    private EntityCache entityCache;
     @Autowired
     private IDefinitionsManager definitionsManager;
 
@@ -81,6 +87,9 @@ public class RegistryServiceImpl implements RegistryService {
     @Value("${event.enabled}")
     private boolean isEventsEnabled;
 
+    @Value("${event.read.sampleRate:1.0}")
+    private double readEventSampleRate = 1.0;
+
     @Value("${database.uuidPropertyName}")
     public String uuidPropertyName;
 
@@ -172,6 +181,12 @@ public class RegistryServiceImpl implements RegistryService {
                         registryDao.deleteEntity(vertex);
                     }
                     databaseProvider.commitTransaction(graph, tx);
+                    if (entityCache != null) {
+                        entityCache.invalidate(shard.getShardId(), uuid);
+                        if (vertex.property(Constants.ROOT_KEYWORD).isPresent()) {
+                            entityCache.invalidate(shard.getShardId(), (String) vertex.property(Constants.ROOT_KEYWORD).value());
+                        }
+                    }
                     auditService.auditDelete(
                             auditService.createAuditRecord(userId, uuid, tx, index),
                             shard);
@@ -188,11 +203,19 @@ public class RegistryServiceImpl implements RegistryService {
         }
     }
     public void maskAndEmitEvent(JsonNode deletedNode, String index, EventType delete, String userId, String uuid) throws JsonProcessingException {
+        boolean sampled = delete == EventType.READ && readEventSampleRate < 1;
+        if (sampled && ThreadLocalRandom.current().nextDouble() >= readEventSampleRate) {
+            return;
+        }
         JsonNode maskedNode = entityTransformer.updatePrivateAndInternalFields(
                 deletedNode,
                 definitionsManager.getDefinition(index).getOsSchemaConfiguration()
         );
         Event event = eventService.createTelemetryObject(delete.name(), userId, "USER", uuid, index, maskedNode);
+        if (sampled) {
+            // The consumers scale the counts of the sampled events by the rate
+            event = event.toBuilder().sampleRate(readEventSampleRate).build();
+        }
         eventService.pushEvents(event);
     }
 
@@ -209,31 +232,8 @@ public class RegistryServiceImpl implements RegistryService {
         String entityId = "entityPlaceholderId";
         String vertexLabel = rootNode.fieldNames().next();
         Definition definition = null;
-        List<UniqueIdentifierField> uniqueIdentifierFields = definitionsManager.getUniqueIdentifierFields(vertexLabel);
-
-        if(idGenEnabled && uniqueIdentifierFields != null && !uniqueIdentifierFields.isEmpty()) {
-            try {
-                Map<String, String> uid = idGenService.generateId(uniqueIdentifierFields);
-                DocumentContext doc = JsonPath.parse(JSONUtil.convertObjectJsonString(rootNode.get(vertexLabel)));
-                for(Map.Entry<String, String> entry: uid.entrySet()) {
-                    String path = String.format("$%s", entry.getKey().replaceAll("/", "."));
-                    int fieldStartIndex = path.lastIndexOf(".");
-                    doc.put(path.substring(0, fieldStartIndex), path.substring(fieldStartIndex + 1), entry.getValue());
-                }
-                ((ObjectNode) rootNode).set(vertexLabel, JSONUtil.convertStringJsonNode(doc.jsonString()));
-            } catch (CustomException e) {
-                throw new UniqueIdentifierException(e);
-            }
-        }
-
-        systemFieldsHelper.ensureCreateAuditFields(vertexLabel, rootNode.get(vertexLabel), userId);
 
-        if (!skipSignature) {
-            generateCredentials(rootNode, null, vertexLabel);
-        }
-        if (encryptionEnabled) {
-            rootNode = encryptionHelper.getEncryptedJson(rootNode);
-        }
+        rootNode = prepareEntity(userId, rootNode, vertexLabel, skipSignature);
         if (vertexLabel.equals(Schema)) {
             schemaService.validateNewSchema(rootNode);
         }
@@ -266,14 +266,7 @@ public class RegistryServiceImpl implements RegistryService {
             }
 
             if (isElasticSearchEnabled()) {
-                if (addShardPrefixForESRecord && !shard.getShardLabel().isEmpty()) {
-                    // Replace uuid property value with shard details
-                    String prefix = shard.getShardLabel() + RecordIdentifier.getSeparator();
-                    JSONUtil.addPrefix((ObjectNode) rootNode, prefix, new ArrayList<>(Collections.singletonList(uuidPropertyName)));
-                }
-                JsonNode nodeWithPublicData = JsonNodeFactory.instance.objectNode().set(vertexLabel,
-                        JSONUtil.removeNodesByPath(rootNode.get(vertexLabel), definitionsManager.getExcludingFieldsForEntity(vertexLabel)));
-                callESActors(nodeWithPublicData, "ADD", vertexLabel, entityId, tx);
+                callESActors(getPublicDataForES(shard, rootNode, vertexLabel), "ADD", vertexLabel, entityId, tx);
             }
             auditService.auditAdd(
                     auditService.createAuditRecord(userId, entityId, tx, vertexLabel),
@@ -289,6 +282,133 @@ public class RegistryServiceImpl implements RegistryService {
     }
 
 
+    /**
+     * Generates the ids, system fields and credentials of a new entity and encrypts it
+     *
+     * @return the entity to be persisted
+     */
+    private JsonNode prepareEntity(String userId, JsonNode rootNode, String vertexLabel, boolean skipSignature) throws Exception {
+        List<UniqueIdentifierField> uniqueIdentifierFields = definitionsManager.getUniqueIdentifierFields(vertexLabel);
+
+        if(idGenEnabled && uniqueIdentifierFields != null && !uniqueIdentifierFields.isEmpty()) {
+            try {
+                Map<String, String> uid = idGenService.generateId(uniqueIdentifierFields);
+                DocumentContext doc = JsonPath.parse(JSONUtil.convertObjectJsonString(rootNode.get(vertexLabel)));
+                for(Map.Entry<String, String> entry: uid.entrySet()) {
+                    String path = String.format("$%s", entry.getKey().replaceAll("/", "."));
+                    int fieldStartIndex = path.lastIndexOf(".");
+                    doc.put(path.substring(0, fieldStartIndex), path.substring(fieldStartIndex + 1), entry.getValue());
+                }
+                ((ObjectNode) rootNode).set(vertexLabel, JSONUtil.convertStringJsonNode(doc.jsonString()));
+            } catch (CustomException e) {
+                throw new UniqueIdentifierException(e);
+            }
+        }
+
+        systemFieldsHelper.ensureCreateAuditFields(vertexLabel, rootNode.get(vertexLabel), userId);
+
+        if (!skipSignature) {
+            generateCredentials(rootNode, null, vertexLabel);
+        }
+        if (encryptionEnabled) {
+            rootNode = encryptionHelper.getEncryptedJson(rootNode);
+        }
+        return rootNode;
+    }
+
+    private JsonNode getPublicDataForES(Shard shard, JsonNode rootNode, String vertexLabel) throws IOException {
+        if (addShardPrefixForESRecord && !shard.getShardLabel().isEmpty()) {
+            // Replace uuid property value with shard details
+            String prefix = shard.getShardLabel() + RecordIdentifier.getSeparator();
+            JSONUtil.addPrefix((ObjectNode) rootNode, prefix, new ArrayList<>(Collections.singletonList(uuidPropertyName)));
+        }
+        return JsonNodeFactory.instance.objectNode().set(vertexLabel,
+                JSONUtil.removeNodesByPath(rootNode.get(vertexLabel), definitionsManager.getExcludingFieldsForEntity(vertexLabel)));
+    }
+
+    /**
+     * Adds a chunk of entities into db in a single transaction, writing the vertices in the batch mode
+     * where the database supports it. Elastic search and audit are called once for the whole chunk.
+     *
+     * @param rootNodes - input values, each wrapped under its entity type
+     * @return the entity ids, in the order of the input
+     * @throws Exception when any of the entities can't be added; none of them are persisted then
+     */
+    @Override
+    public List<String> addEntities(Shard shard, String userId, List<JsonNode> rootNodes, boolean skipSignature) throws Exception {
+        List<String> entityIds = new ArrayList<>();
+        if (!persistenceEnabled || rootNodes.stream().anyMatch(rootNode -> rootNode.has(Schema))) {
+            // Schemas change the known definitions as they get added, so are added one by one
+            for (JsonNode rootNode : rootNodes) {
+                entityIds.add(addEntity(shard, userId, rootNode, skipSignature));
+            }
+            return entityIds;
+        }
+
+        List<JsonNode> preparedNodes = new ArrayList<>();
+        for (JsonNode rootNode : rootNodes) {
+            preparedNodes.add(prepareEntity(userId, rootNode, rootNode.fieldNames().next(), skipSignature));
+        }
+
+        Transaction tx = null;
+        DatabaseProvider dbProvider = shard.getDatabaseProvider();
+        IRegistryDao registryDao = new RegistryDaoImpl(dbProvider, definitionsManager, uuidPropertyName, expandReferenceObj);
+        try (OSGraph osGraph = dbProvider.getOSGraph()) {
+            Graph graph = osGraph.getGraphStore();
+            tx = dbProvider.startTransaction(graph);
+            dbProvider.enableBatchMode(graph);
+            for (JsonNode rootNode : preparedNodes) {
+                entityIds.add(registryDao.addEntity(graph, rootNode));
+            }
+            if (commitEnabled) {
+                dbProvider.commitTransaction(graph, tx);
+            }
+        } finally {
+            if (tx != null) {
+                tx.close();
+            }
+        }
+        logger.info("Added {} entities in one transaction", entityIds.size());
+
+        boolean elasticSearchEnabled = isElasticSearchEnabled();
+        Set<String> vertexLabels = new LinkedHashSet<>();
+        List<AuditRecord> auditRecords = new ArrayList<>();
+        List<ESMessage> esMessages = new ArrayList<>();
+        for (int i = 0; i < preparedNodes.size(); i++) {
+            JsonNode rootNode = preparedNodes.get(i);
+            String vertexLabel = rootNode.fieldNames().next();
+            String entityId = entityIds.get(i);
+            vertexLabels.add(vertexLabel);
+            auditRecords.add(auditService.createAuditRecord(userId, entityId, tx, vertexLabel));
+            if (elasticSearchEnabled) {
+                ESMessage esMessage = new ESMessage();
+                esMessage.setIndexName(vertexLabel.toLowerCase());
+                esMessage.setUuidPropertyValue(entityId);
+                esMessage.setInput(getPublicDataForES(shard, rootNode, vertexLabel).get(vertexLabel));
+                esMessages.add(esMessage);
+            }
+        }
+        // Add indices: executes only once.
+        if (perRequestIndexCreation) {
+            String shardId = shard.getShardId();
+            for (String vertexLabel : vertexLabels) {
+                Vertex parentVertex = entityParenter.getKnownParentVertex(vertexLabel, shardId);
+                entityParenter.ensureIndexExists(dbProvider, parentVertex, definitionsManager.getDefinition(vertexLabel), shardId);
+            }
+        }
+        if (!esMessages.isEmpty()) {
+            callESActors(esMessages);
+        }
+        auditService.auditAdd(auditRecords, shard, preparedNodes);
+        if (isEventsEnabled) {
+            for (int i = 0; i < preparedNodes.size(); i++) {
+                String vertexLabel = preparedNodes.get(i).fieldNames().next();
+                maskAndEmitEvent(preparedNodes.get(i).get(vertexLabel), vertexLabel, EventType.ADD, userId, entityIds.get(i));
+            }
+        }
+        return entityIds;
+    }
+
     private void generateCredentials(JsonNode rootNode, JsonNode inputNode, String vertexLabel) throws SignatureException.UnreachableException, SignatureException.CreationException {
         Object credentialTemplate = definitionsManager.getCredentialTemplate(vertexLabel);
         if (signatureEnabled && credentialTemplate != null) {
@@ -381,6 +501,13 @@ public class RegistryServiceImpl implements RegistryService {
                 }
 
                 databaseProvider.commitTransaction(graph, tx);
+                if (entityCache != null) {
+                    // The entity read includes the nested entities, which can be read on their own too
+                    entityCache.invalidate(shard.getShardId(), rootId);
+                    for (String uuid : uuidVertexMap.keySet()) {
+                        entityCache.invalidate(shard.getShardId(), uuid);
+                    }
+                }
 
                 if (isInternalRegistry(entityType) && isElasticSearchEnabled()) {
                     if (addShardPrefixForESRecord && !shard.getShardLabel().isEmpty()) {
@@ -418,6 +545,13 @@ public class RegistryServiceImpl implements RegistryService {
         logger.debug("callESActors ends");
     }
 
+    private void callESActors(List<ESMessage> esMessages) throws JsonProcessingException {
+        logger.debug("callESActors started for {} entities", esMessages.size());
+        MessageProtos.Message message = MessageFactory.instance().createElasticSearchBulkMessage("BULK_ADD", esMessages);
+        ActorCache.instance().get(Router.ROUTER_NAME).tell(message, null);
+        logger.debug("callESActors ends");
+    }
+
     private boolean isElasticSearchEnabled() {
         return (searchProvider.equals("dev.sunbirdrc.registry.service.ElasticSearchService"));
     }
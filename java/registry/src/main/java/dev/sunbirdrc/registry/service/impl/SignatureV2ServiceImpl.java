@@ -178,7 +178,7 @@ public class SignatureV2ServiceImpl implements SignatureService, ICertificateSer
         ObjectNode credential = (ObjectNode) objectMapper.readTree(credString);
 
         // Fetch the credentials schema to get credential schema id and version
-        JsonNode credSchema = credentialSchemaService.getLatestSchemaByTags(Collections.singletonList(title));
+        JsonNode credSchema = credentialSchemaService.getLatestSchemaByTitle(title);
         if (credSchema == null) throw new NotFoundException("CredentialSchema", title);
         JsonNode credSchemaDid = credSchema.get("schema").get("id");
         JsonNode credSchemaVersion = credSchema.get("schema").get("version");
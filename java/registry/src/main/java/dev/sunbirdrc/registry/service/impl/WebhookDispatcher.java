@@ -0,0 +1,568 @@
+package dev.sunbirdrc.registry.service.impl;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.node.JsonNodeFactory;
+import com.fasterxml.jackson.databind.node.ObjectNode;
+import lombok.Builder;
+import lombok.Getter;
+import org.apache.commons.lang3.exception.ExceptionUtils;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.io.BufferedReader;
+import java.io.Closeable;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Deque;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentSkipListMap;
+import java.util.concurrent.Executors;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.stream.Collectors;
+
+/**
+ * Delivers the webhook events from its own threads, so that the callers never wait on a webhook.
+ *
+ * The events are appended to a local journal before they are queued, and the sequence number of each
+ * event delivered or given up is appended to an acknowledgement file; the events not acknowledged are
+ * delivered again after a restart. Both files are emptied whenever no event is pending, and the
+ * journal is rewritten with just the pending events every compactAfter acknowledgements.
+ *
+ * Each webhook url has its own queue, with at most maxConcurrencyPerUrl deliveries in flight. A
+ * failed delivery is retried with an exponential backoff up to maxAttempts times. After
+ * failureThreshold failures in a row the circuit of the url opens for openMillis, then a single
+ * delivery is let through to probe it. The events queued for a url listed in batchUrls are posted
+ * together, up to maxBatchSize at a time, as a JSON array. A url is forgotten, its circuit included,
+ * once it has nothing queued or in flight and no retry waiting.
+ */
+public class WebhookDispatcher implements Closeable {
+    private static final Logger logger = LoggerFactory.getLogger(WebhookDispatcher.class);
+    private static final String JOURNAL_FILE = "webhook.journal";
+    private static final String ACK_FILE = "webhook.acks";
+    private static final String SEQ = "seq";
+    private static final String URL = "url";
+    private static final String BODY = "body";
+    private static final String CREATED_AT = "createdAt";
+    private static final long CLOSE_WAIT_MILLIS = 10000;
+    private static final int MAX_BACKOFF_SHIFT = 10;
+
+    /**
+     * Posts the body to the url, throwing when the receiver does not accept it
+     */
+    public interface Sender {
+        void send(String url, String body) throws Exception;
+    }
+
+    @Builder
+    @Getter
+    public static class Settings {
+        /**
+         * Directory of the journal, the events are kept only in memory when null
+         */
+        private final Path directory;
+        @Builder.Default
+        private final boolean fsync = false;
+        @Builder.Default
+        private final int threads = 2;
+        @Builder.Default
+        private final int maxPending = 10000;
+        @Builder.Default
+        private final int maxConcurrencyPerUrl = 2;
+        @Builder.Default
+        private final int maxAttempts = 5;
+        @Builder.Default
+        private final long retryDelayMillis = 1000;
+        @Builder.Default
+        private final int failureThreshold = 5;
+        @Builder.Default
+        private final long openMillis = 30000;
+        @Builder.Default
+        private final Set<String> batchUrls = Collections.emptySet();
+        @Builder.Default
+        private final int maxBatchSize = 50;
+        @Builder.Default
+        private final int compactAfter = 10000;
+    }
+
+    private final ObjectMapper objectMapper = new ObjectMapper();
+    private final Settings settings;
+    private final Sender sender;
+    private final Map<String, Endpoint> endpoints = new HashMap<>();
+    private final ConcurrentSkipListMap<Long, Entry> pending = new ConcurrentSkipListMap<>();
+    private final Object journalLock = new Object();
+
+    private ThreadPoolExecutor pool;
+    private ScheduledExecutorService timer;
+    private FileChannel journal;
+    private FileChannel acks;
+    private long nextSeq;
+    private int ackedSinceCompaction;
+    private volatile boolean running;
+
+    private final AtomicLong dispatchedCount = new AtomicLong();
+    private final AtomicLong deliveredCount = new AtomicLong();
+    private final AtomicLong failedAttemptCount = new AtomicLong();
+    private final AtomicLong droppedCount = new AtomicLong();
+    private final AtomicLong circuitOpenCount = new AtomicLong();
+    private final AtomicLong deliveryLagMillis = new AtomicLong();
+
+    public WebhookDispatcher(Settings settings, Sender sender) {
+        this.settings = settings;
+        this.sender = sender;
+    }
+
+    /**
+     * Starts the delivery threads, beginning with the events left pending by the last run
+     */
+    public synchronized void start() throws IOException {
+        AtomicInteger threadCount = new AtomicInteger();
+        pool = new ThreadPoolExecutor(settings.threads, settings.threads, 0L, TimeUnit.MILLISECONDS,
+                new LinkedBlockingQueue<>(), runnable -> {
+            Thread thread = new Thread(runnable, "webhook-dispatcher-" + threadCount.incrementAndGet());
+            thread.setDaemon(true);
+            return thread;
+        });
+        timer = Executors.newSingleThreadScheduledExecutor(runnable -> {
+            Thread thread = new Thread(runnable, "webhook-dispatcher-timer");
+            thread.setDaemon(true);
+            return thread;
+        });
+        if (settings.directory != null) {
+            Files.createDirectories(settings.directory);
+            replay();
+            journal = FileChannel.open(getJournalPath(), StandardOpenOption.CREATE, StandardOpenOption.WRITE, StandardOpenOption.APPEND);
+            acks = FileChannel.open(getAckPath(), StandardOpenOption.CREATE, StandardOpenOption.WRITE, StandardOpenOption.APPEND);
+        }
+        running = true;
+        synchronized (endpoints) {
+            for (Entry entry : pending.values()) {
+                getEndpoint(entry.url).queue.add(entry);
+            }
+            endpoints.values().forEach(this::schedule);
+        }
+    }
+
+    /**
+     * Reads the events not acknowledged from the journal, then rewrites the journal with just them
+     */
+    private void replay() throws IOException {
+        Set<Long> acknowledged = new HashSet<>();
+        if (Files.exists(getAckPath())) {
+            for (String line : Files.readAllLines(getAckPath(), StandardCharsets.UTF_8)) {
+                try {
+                    acknowledged.add(Long.parseLong(line.trim()));
+                } catch (NumberFormatException e) {
+                    // The last acknowledgement was not written completely
+                }
+            }
+        }
+        if (Files.exists(getJournalPath())) {
+            try (BufferedReader reader = Files.newBufferedReader(getJournalPath(), StandardCharsets.UTF_8)) {
+                String line;
+                while ((line = reader.readLine()) != null) {
+                    JsonNode node;
+                    try {
+                        node = objectMapper.readTree(line);
+                    } catch (IOException e) {
+                        logger.warn("Skipping an incomplete webhook journal entry");
+                        continue;
+                    }
+                    long seq = node.get(SEQ).asLong();
+                    nextSeq = Math.max(nextSeq, seq + 1);
+                    if (!acknowledged.contains(seq)) {
+                        pending.put(seq, new Entry(seq, node.get(URL).asText(), node.get(BODY).asText(), node.get(CREATED_AT).asLong()));
+                    }
+                }
+            }
+        }
+        rewriteJournal();
+        if (!pending.isEmpty()) {
+            logger.info("Delivering {} webhook events left from the last run", pending.size());
+        }
+    }
+
+    /**
+     * Queues the event for delivery to the url. Returns false when the event is dropped, as the
+     * dispatcher is closed or maxPending events are waiting already.
+     */
+    public boolean dispatch(String url, String body) {
+        if (!running) {
+            droppedCount.incrementAndGet();
+            logger.error("Webhook dispatcher is closed, dropped an event for {}", url);
+            return false;
+        }
+        if (pending.size() >= settings.maxPending) {
+            droppedCount.incrementAndGet();
+            logger.error("{} webhook events are pending, dropped an event for {}", pending.size(), url);
+            return false;
+        }
+        Entry entry;
+        try {
+            entry = append(url, body);
+        } catch (IOException e) {
+            droppedCount.incrementAndGet();
+            logger.error("Failed to journal a webhook event for {}: {}", url, ExceptionUtils.getStackTrace(e));
+            return false;
+        }
+        dispatchedCount.incrementAndGet();
+        synchronized (endpoints) {
+            Endpoint endpoint = getEndpoint(url);
+            endpoint.queue.add(entry);
+            schedule(endpoint);
+        }
+        return true;
+    }
+
+    private Entry append(String url, String body) throws IOException {
+        synchronized (journalLock) {
+            Entry entry = new Entry(nextSeq++, url, body, System.currentTimeMillis());
+            if (journal != null) {
+                write(journal, toJournalLine(entry));
+                if (settings.fsync) {
+                    journal.force(false);
+                }
+            }
+            pending.put(entry.seq, entry);
+            return entry;
+        }
+    }
+
+    /**
+     * Removes the events delivered or given up from the pending ones
+     */
+    private void acknowledge(List<Entry> entries) {
+        synchronized (journalLock) {
+            StringBuilder lines = new StringBuilder();
+            for (Entry entry : entries) {
+                pending.remove(entry.seq);
+                lines.append(entry.seq).append('\n');
+            }
+            if (journal == null) {
+                return;
+            }
+            try {
+                ackedSinceCompaction += entries.size();
+                if (pending.isEmpty() || ackedSinceCompaction >= settings.compactAfter) {
+                    compact();
+                } else {
+                    write(acks, lines.toString().getBytes(StandardCharsets.UTF_8));
+                }
+            } catch (IOException e) {
+                logger.error("Failed to acknowledge webhook events, they may be delivered again: {}", ExceptionUtils.getStackTrace(e));
+            }
+        }
+    }
+
+    private void compact() throws IOException {
+        journal.close();
+        acks.close();
+        rewriteJournal();
+        journal = FileChannel.open(getJournalPath(), StandardOpenOption.CREATE, StandardOpenOption.WRITE, StandardOpenOption.APPEND);
+        acks = FileChannel.open(getAckPath(), StandardOpenOption.CREATE, StandardOpenOption.WRITE, StandardOpenOption.APPEND);
+        ackedSinceCompaction = 0;
+    }
+
+    private void rewriteJournal() throws IOException {
+        Path tempPath = getJournalPath().resolveSibling(JOURNAL_FILE + ".tmp");
+        try (FileChannel channel = FileChannel.open(tempPath, StandardOpenOption.CREATE, StandardOpenOption.WRITE,
+                StandardOpenOption.TRUNCATE_EXISTING)) {
+            for (Entry entry : pending.values()) {
+                write(channel, toJournalLine(entry));
+            }
+            if (settings.fsync) {
+                channel.force(false);
+            }
+        }
+        Files.move(tempPath, getJournalPath(), StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+        Files.write(getAckPath(), new byte[0]);
+    }
+
+    private void write(FileChannel channel, byte[] bytes) throws IOException {
+        ByteBuffer buffer = ByteBuffer.wrap(bytes);
+        while (buffer.hasRemaining()) {
+            channel.write(buffer);
+        }
+    }
+
+    private byte[] toJournalLine(Entry entry) throws IOException {
+        ObjectNode node = JsonNodeFactory.instance.objectNode();
+        node.put(SEQ, entry.seq);
+        node.put(URL, entry.url);
+        node.put(BODY, entry.body);
+        node.put(CREATED_AT, entry.createdAt);
+        return (objectMapper.writeValueAsString(node) + "\n").getBytes(StandardCharsets.UTF_8);
+    }
+
+    private Endpoint getEndpoint(String url) {
+        return endpoints.computeIfAbsent(url, k -> new Endpoint(url, settings.batchUrls.contains(url)));
+    }
+
+    /**
+     * Starts as many deliveries to the url as its limit allows. To be called holding the endpoints lock.
+     */
+    private void schedule(Endpoint endpoint) {
+        if (!running) {
+            return;
+        }
+        long now = System.currentTimeMillis();
+        if (endpoint.blockedUntil > now) {
+            if (!endpoint.timerSet) {
+                endpoint.timerSet = true;
+                timer.schedule(() -> {
+                    synchronized (endpoints) {
+                        endpoint.timerSet = false;
+                        schedule(endpoint);
+                        evictIfIdle(endpoint);
+                    }
+                }, endpoint.blockedUntil - now, TimeUnit.MILLISECONDS);
+            }
+            return;
+        }
+        // A url with its circuit open gets a single delivery to probe it
+        int limit = endpoint.consecutiveFailures >= settings.failureThreshold ? 1 : settings.maxConcurrencyPerUrl;
+        while (endpoint.inFlight < limit && !endpoint.queue.isEmpty()) {
+            int size = endpoint.batching ? Math.min(settings.maxBatchSize, endpoint.queue.size()) : 1;
+            List<Entry> batch = new ArrayList<>(size);
+            for (int i = 0; i < size; i++) {
+                batch.add(endpoint.queue.poll());
+            }
+            endpoint.inFlight++;
+            pool.execute(() -> deliver(endpoint, batch));
+        }
+    }
+
+    private void deliver(Endpoint endpoint, List<Entry> batch) {
+        String body = endpoint.batching
+                ? batch.stream().map(entry -> entry.body).collect(Collectors.joining(",", "[", "]"))
+                : batch.get(0).body;
+        boolean delivered;
+        try {
+            sender.send(endpoint.url, body);
+            delivered = true;
+        } catch (Exception e) {
+            delivered = false;
+            failedAttemptCount.incrementAndGet();
+            logger.warn("Webhook delivery of {} events to {} failed: {}", batch.size(), endpoint.url, e.getMessage());
+        }
+        List<Entry> finished = new ArrayList<>(batch.size());
+        synchronized (endpoints) {
+            endpoint.inFlight--;
+            if (delivered) {
+                endpoint.consecutiveFailures = 0;
+                long now = System.currentTimeMillis();
+                batch.forEach(entry -> deliveryLagMillis.addAndGet(now - entry.createdAt));
+                deliveredCount.addAndGet(batch.size());
+                finished.addAll(batch);
+            } else {
+                onFailure(endpoint, batch, finished);
+            }
+            schedule(endpoint);
+            evictIfIdle(endpoint);
+        }
+        if (!finished.isEmpty()) {
+            acknowledge(finished);
+        }
+    }
+
+    /**
+     * Forgets the url once it has nothing queued or in flight and no retry waiting, so that the urls
+     * seen once do not pile up. To be called holding the endpoints lock.
+     */
+    private void evictIfIdle(Endpoint endpoint) {
+        if (endpoint.queue.isEmpty() && endpoint.inFlight == 0 && !endpoint.timerSet) {
+            endpoints.remove(endpoint.url, endpoint);
+        }
+    }
+
+    private void onFailure(Endpoint endpoint, List<Entry> batch, List<Entry> givenUp) {
+        endpoint.consecutiveFailures++;
+        long now = System.currentTimeMillis();
+        if (endpoint.consecutiveFailures >= settings.failureThreshold) {
+            if (endpoint.consecutiveFailures == settings.failureThreshold) {
+                circuitOpenCount.incrementAndGet();
+                logger.warn("Webhook circuit of {} opened for {} ms", endpoint.url, settings.openMillis);
+            }
+            endpoint.blockedUntil = now + settings.openMillis;
+        } else {
+            int shift = Math.min(endpoint.consecutiveFailures - 1, MAX_BACKOFF_SHIFT);
+            endpoint.blockedUntil = now + (settings.retryDelayMillis << shift);
+        }
+        // Put back at the head of the queue, in their order
+        for (int i = batch.size() - 1; i >= 0; i--) {
+            Entry entry = batch.get(i);
+            if (++entry.attempts >= settings.maxAttempts) {
+                droppedCount.incrementAndGet();
+                givenUp.add(entry);
+                logger.error("Dropping a webhook event for {} after {} attempts", endpoint.url, entry.attempts);
+            } else {
+                endpoint.queue.addFirst(entry);
+            }
+        }
+    }
+
+    private Path getJournalPath() {
+        return settings.directory.resolve(JOURNAL_FILE);
+    }
+
+    private Path getAckPath() {
+        return settings.directory.resolve(ACK_FILE);
+    }
+
+    /**
+     * Returns the number of events queued or in flight
+     */
+    public int getPendingCount() {
+        return pending.size();
+    }
+
+    /**
+     * Returns how long the oldest pending event has been waiting, 0 when there is none
+     */
+    public long getLagMillis() {
+        Map.Entry<Long, Entry> oldest = pending.firstEntry();
+        return oldest == null ? 0 : System.currentTimeMillis() - oldest.getValue().createdAt;
+    }
+
+    /**
+     * Returns the number of urls with events queued, in flight or waiting for a retry
+     */
+    public int getEndpointCount() {
+        synchronized (endpoints) {
+            return endpoints.size();
+        }
+    }
+
+    public long getDispatchedCount() {
+        return dispatchedCount.get();
+    }
+
+    public long getDeliveredCount() {
+        return deliveredCount.get();
+    }
+
+    public long getFailedAttemptCount() {
+        return failedAttemptCount.get();
+    }
+
+    public long getDroppedCount() {
+        return droppedCount.get();
+    }
+
+    public long getCircuitOpenCount() {
+        return circuitOpenCount.get();
+    }
+
+    /**
+     * Returns the average time from dispatching an event to delivering it
+     */
+    public double getAverageDeliveryLagMillis() {
+        long delivered = deliveredCount.get();
+        return delivered == 0 ? 0 : (double) deliveryLagMillis.get() / delivered;
+    }
+
+    /**
+     * Returns the urls whose circuit is open, failing its probes
+     */
+    public List<String> getOpenCircuits() {
+        synchronized (endpoints) {
+            return endpoints.values().stream()
+                    .filter(endpoint -> endpoint.consecutiveFailures >= settings.failureThreshold)
+                    .map(endpoint -> endpoint.url)
+                    .collect(Collectors.toList());
+        }
+    }
+
+    public Map<String, Object> getMetrics() {
+        Map<String, Object> metrics = new LinkedHashMap<>();
+        metrics.put("pending", getPendingCount());
+        metrics.put("lagMillis", getLagMillis());
+        metrics.put("endpoints", getEndpointCount());
+        metrics.put("dispatched", getDispatchedCount());
+        metrics.put("delivered", getDeliveredCount());
+        metrics.put("failedAttempts", getFailedAttemptCount());
+        metrics.put("dropped", getDroppedCount());
+        metrics.put("averageDeliveryLagMillis", getAverageDeliveryLagMillis());
+        metrics.put("circuitOpenings", getCircuitOpenCount());
+        metrics.put("openCircuits", getOpenCircuits());
+        return metrics;
+    }
+
+    /**
+     * Stops accepting events and waits a while for the deliveries in flight. The events still
+     * pending are delivered on the next start.
+     */
+    @Override
+    public synchronized void close() throws IOException {
+        if (!running) {
+            return;
+        }
+        synchronized (endpoints) {
+            running = false;
+        }
+        timer.shutdownNow();
+        pool.shutdown();
+        try {
+            pool.awaitTermination(CLOSE_WAIT_MILLIS, TimeUnit.MILLISECONDS);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+        pool.shutdownNow();
+        logger.info("Webhook dispatcher closed with {} events delivered, {} pending", getDeliveredCount(), getPendingCount());
+        synchronized (journalLock) {
+            if (journal != null) {
+                journal.close();
+                acks.close();
+            }
+        }
+    }
+
+    private static class Endpoint {
+        private final String url;
+        private final boolean batching;
+        private final Deque<Entry> queue = new ArrayDeque<>();
+        private int inFlight;
+        private int consecutiveFailures;
+        private long blockedUntil;
+        private boolean timerSet;
+
+        Endpoint(String url, boolean batching) {
+            this.url = url;
+            this.batching = batching;
+        }
+    }
+
+    private static class Entry {
+        private final long seq;
+        private final String url;
+        private final String body;
+        private final long createdAt;
+        private int attempts;
+
+        Entry(long seq, String url, String body, long createdAt) {
+            this.seq = seq;
+            this.url = url;
+            this.body = body;
+            this.createdAt = createdAt;
+        }
+    }
+}
@@ -77,6 +77,14 @@ public abstract class DatabaseProvider implements HealthIndicator {
         return tx;
     }
 
+    /**
+     * Switches the transaction to write the changes in batches, where the database supports it.
+     * The batched changes are flushed on commit.
+     */
+    public void enableBatchMode(Graph graph) {
+        logger.debug("Batch mode is not supported by {}", getProvider());
+    }
+
     /**
      * option to close a graph while commiting
      */
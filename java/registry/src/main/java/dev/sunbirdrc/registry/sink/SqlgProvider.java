@@ -60,6 +60,16 @@ public class SqlgProvider extends DatabaseProvider {
         return (String) vertex.property(getUuidPropertyName()).value();
     }
 
+    @Override
+    public void enableBatchMode(Graph graph) {
+        SqlgGraph sqlgGraph = (SqlgGraph) graph;
+        if (sqlgGraph.getSqlDialect().supportsBatchMode()) {
+            sqlgGraph.tx().normalBatchModeOn();
+        } else {
+            super.enableBatchMode(graph);
+        }
+    }
+
     @Override
     public void createIndex(Graph graph, String label, List<String> propertyNames) throws IndexException.LabelNotFoundException {
 		if (!propertyNames.isEmpty()) {
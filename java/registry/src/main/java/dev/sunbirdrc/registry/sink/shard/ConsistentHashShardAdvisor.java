@@ -0,0 +1,165 @@
+package dev.sunbirdrc.registry.sink.shard;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import dev.sunbirdrc.registry.model.DBConnectionInfo;
+import dev.sunbirdrc.registry.model.DBConnectionInfoMgr;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.stereotype.Component;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+/**
+ * This advisor spreads the records over any number of shards by consistent hashing of the shard
+ * property value. Each shard is given virtualNodesPerShard points on a ring of hashes, and a value
+ * goes to the shard owning the first point at or after its hash. Adding a shard only moves the
+ * values falling before its points, about 1/n of them.
+ * Records without a shard property value go to the first shard, as with the default advisor.
+ */
+@Component
+public class ConsistentHashShardAdvisor implements IShardAdvisor {
+
+	@Autowired
+	public DBConnectionInfoMgr dBConnectionInfoMgr;
+
+	private volatile Ring ring;
+
+	/**
+	 * The points of the shards, sorted by hash. Built once per list of connections.
+	 */
+	static class Ring {
+		private final List<DBConnectionInfo> connectionInfo;
+		private final long[] hashes;
+		private final DBConnectionInfo[] owners;
+
+		Ring(List<DBConnectionInfo> connectionInfo, int virtualNodesPerShard) {
+			if (connectionInfo == null || connectionInfo.isEmpty()) {
+				throw new IllegalStateException("At least one database connection must be configured");
+			}
+			int nodes = Math.max(1, virtualNodesPerShard);
+			List<long[]> points = new ArrayList<>(connectionInfo.size() * nodes);
+			for (int shard = 0; shard < connectionInfo.size(); shard++) {
+				String shardId = connectionInfo.get(shard).getShardId();
+				for (int node = 0; node < nodes; node++) {
+					points.add(new long[]{hash(shardId + "#" + node), shard});
+				}
+			}
+			// Ties are broken by the shard position, so that all the nodes build the same ring
+			points.sort((a, b) -> a[0] != b[0] ? Long.compare(a[0], b[0]) : Long.compare(a[1], b[1]));
+			this.connectionInfo = connectionInfo;
+			this.hashes = new long[points.size()];
+			this.owners = new DBConnectionInfo[points.size()];
+			for (int i = 0; i < points.size(); i++) {
+				hashes[i] = points.get(i)[0];
+				owners[i] = connectionInfo.get((int) points.get(i)[1]);
+			}
+		}
+
+		DBConnectionInfo getOwner(long hash) {
+			int index = Arrays.binarySearch(hashes, hash);
+			if (index < 0) {
+				index = -index - 1;
+			}
+			return owners[index == hashes.length ? 0 : index];
+		}
+	}
+
+	@Override
+	public DBConnectionInfo getShard(Object attributeValue) {
+		Ring current = getRing();
+		if (attributeValue == null || (attributeValue instanceof JsonNode && ((JsonNode) attributeValue).isNull())) {
+			return current.connectionInfo.get(0);
+		}
+		return current.getOwner(hashValue(attributeValue));
+	}
+
+	private Ring getRing() {
+		Ring current = ring;
+		List<DBConnectionInfo> connectionInfo = dBConnectionInfoMgr.getConnectionInfo();
+		if (current == null || current.connectionInfo != connectionInfo) {
+			current = new Ring(connectionInfo, dBConnectionInfoMgr.getVirtualNodesPerShard());
+			ring = current;
+		}
+		return current;
+	}
+
+	/**
+	 * Hashes the value without allocating for the common text and integral values. A number hashes
+	 * the same as its text, so "12" and 12 go to the same shard.
+	 */
+	static long hashValue(Object value) {
+		if (value instanceof JsonNode) {
+			JsonNode node = (JsonNode) value;
+			if (node.isTextual()) {
+				return hash(node.textValue());
+			}
+			if (node.canConvertToLong() && node.isIntegralNumber()) {
+				return hash(node.longValue());
+			}
+			return hash(node.asText());
+		}
+		if (value instanceof Integer || value instanceof Long || value instanceof Short) {
+			return hash(((Number) value).longValue());
+		}
+		return hash(value.toString());
+	}
+
+	/**
+	 * 64 bit FNV-1a over the UTF-8 bytes of the text, with a final mix so that close values spread
+	 * over the whole ring
+	 */
+	static long hash(CharSequence text) {
+		long hash = 0xcbf29ce484222325L;
+		for (int i = 0; i < text.length(); i++) {
+			int codePoint = Character.codePointAt(text, i);
+			if (codePoint < 0x80) {
+				hash = fnv(hash, codePoint);
+			} else if (codePoint < 0x800) {
+				hash = fnv(hash, 0xc0 | (codePoint >> 6));
+				hash = fnv(hash, 0x80 | (codePoint & 0x3f));
+			} else if (codePoint < 0x10000) {
+				hash = fnv(hash, 0xe0 | (codePoint >> 12));
+				hash = fnv(hash, 0x80 | ((codePoint >> 6) & 0x3f));
+				hash = fnv(hash, 0x80 | (codePoint & 0x3f));
+			} else {
+				hash = fnv(hash, 0xf0 | (codePoint >> 18));
+				hash = fnv(hash, 0x80 | ((codePoint >> 12) & 0x3f));
+				hash = fnv(hash, 0x80 | ((codePoint >> 6) & 0x3f));
+				hash = fnv(hash, 0x80 | (codePoint & 0x3f));
+				i++;
+			}
+		}
+		return mix(hash);
+	}
+
+	static long hash(long number) {
+		long hash = 0xcbf29ce484222325L;
+		if (number < 0) {
+			hash = fnv(hash, '-');
+		}
+		// Hashes the decimal digits from the most significant one, as hash(CharSequence) would
+		long divisor = 1;
+		long abs = number;
+		while (abs / divisor <= -10 || abs / divisor >= 10) {
+			divisor *= 10;
+		}
+		for (; divisor > 0; divisor /= 10) {
+			hash = fnv(hash, '0' + (int) Math.abs((abs / divisor) % 10));
+		}
+		return mix(hash);
+	}
+
+	private static long fnv(long hash, int b) {
+		return (hash ^ b) * 0x100000001b3L;
+	}
+
+	private static long mix(long hash) {
+		hash ^= hash >>> 33;
+		hash *= 0xff51afd7ed558ccdL;
+		hash ^= hash >>> 33;
+		hash *= 0xc4ceb9a53fe4ec85L;
+		hash ^= hash >>> 33;
+		return hash;
+	}
+}
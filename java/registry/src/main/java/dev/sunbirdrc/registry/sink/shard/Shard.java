@@ -1,20 +1,24 @@
 package dev.sunbirdrc.registry.sink.shard;
 
 import dev.sunbirdrc.registry.sink.DatabaseProvider;
-import org.springframework.context.annotation.Scope;
-import org.springframework.context.annotation.ScopedProxyMode;
-import org.springframework.stereotype.Component;
-import org.springframework.web.context.WebApplicationContext;
-/*@Component("shard")
-@Scope(value = WebApplicationContext.SCOPE_REQUEST,
-        proxyMode = ScopedProxyMode.TARGET_CLASS)*/
+
+/**
+ * A shard and its database provider. The shards are built once by the ShardManager and shared by
+ * all the requests, so a shard is never changed once built.
+ */
 public class Shard {
 
-	private String shardId;
-	private String shardLabel;
-	private DatabaseProvider databaseProvider;
+	private final String shardId;
+	private final String shardLabel;
+	private final DatabaseProvider databaseProvider;
+
+	public Shard() {
+		this(null, null, null);
+	}
 
-	public void setDatabaseProvider(DatabaseProvider databaseProvider) {
+	public Shard(String shardId, String shardLabel, DatabaseProvider databaseProvider) {
+		this.shardId = shardId;
+		this.shardLabel = shardLabel;
 		this.databaseProvider = databaseProvider;
 	}
 
@@ -26,16 +30,8 @@ public class Shard {
 		return shardId;
 	}
 
-	public void setShardId(String shardId) {
-		this.shardId = shardId;
-	}
-
 	public String getShardLabel() {
 		return shardLabel;
 	}
 
-	public void setShardLabel(String shardLabel) {
-		this.shardLabel = shardLabel;
-	}
-
 }
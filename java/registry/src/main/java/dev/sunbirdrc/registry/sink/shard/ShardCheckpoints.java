@@ -0,0 +1,157 @@
+package dev.sunbirdrc.registry.sink.shard;
+
+import dev.sunbirdrc.registry.sink.DatabaseProvider;
+import dev.sunbirdrc.registry.sink.OSGraph;
+import org.apache.tinkerpop.gremlin.structure.Graph;
+import org.apache.tinkerpop.gremlin.structure.Transaction;
+import org.apache.tinkerpop.gremlin.structure.Vertex;
+
+import java.util.Iterator;
+import java.util.function.Consumer;
+
+/**
+ * Keeps, in each shard, where a run of a job got to per entity type, so that a stopped run resumes
+ * from there: the last record it visited in the shard, or that it is done with the shard. The
+ * checkpoints of a job are vertices of its own label, each with the id of the run it belongs to.
+ */
+public class ShardCheckpoints {
+	private static final String CHECKPOINT_ENTITY_TYPE = "entityType";
+	private static final String CHECKPOINT = "checkpoint";
+	private static final String RUN_ID = "runId";
+	private static final String COMPLETED = "completed";
+
+	private final String label;
+
+	public static class Checkpoint {
+		private final String runId;
+		private final String lastUuid;
+		private final boolean completed;
+
+		Checkpoint(String runId, String lastUuid, boolean completed) {
+			this.runId = runId;
+			this.lastUuid = lastUuid;
+			this.completed = completed;
+		}
+
+		/**
+		 * The run the checkpoint belongs to, null for a checkpoint kept before the runs had ids
+		 */
+		public String getRunId() {
+			return runId;
+		}
+
+		/**
+		 * The last record visited in the shard, null if the run is to start from the first one
+		 */
+		public String getLastUuid() {
+			return lastUuid;
+		}
+
+		/**
+		 * Whether the run is done with the shard
+		 */
+		public boolean isCompleted() {
+			return completed;
+		}
+
+		public boolean belongsTo(String runId) {
+			return this.runId == null || this.runId.equals(runId);
+		}
+	}
+
+	public ShardCheckpoints(String label) {
+		this.label = label;
+	}
+
+	/**
+	 * Returns the checkpoint of the shard, null if there is none
+	 */
+	public Checkpoint read(Shard shard, String entityType) {
+		DatabaseProvider databaseProvider = shard.getDatabaseProvider();
+		try (OSGraph osGraph = databaseProvider.getOSGraph()) {
+			Graph graph = osGraph.getGraphStore();
+			try (Transaction tx = databaseProvider.startTransaction(graph)) {
+				Vertex vertex = getCheckpoint(graph, entityType);
+				Checkpoint checkpoint = vertex == null ? null : new Checkpoint(getValue(vertex, RUN_ID),
+						getValue(vertex, CHECKPOINT), Boolean.TRUE.equals(getValue(vertex, COMPLETED)));
+				databaseProvider.commitTransaction(graph, tx);
+				return checkpoint;
+			}
+		} catch (Exception e) {
+			throw new IllegalStateException("Failed to read the checkpoint of shard " + shard.getShardId(), e);
+		}
+	}
+
+	/**
+	 * Keeps the last record the run visited in the shard, null to start from the first one
+	 */
+	public void write(Shard shard, String entityType, String runId, String lastUuid) {
+		update(shard, entityType, checkpoint -> {
+			checkpoint.property(RUN_ID, runId);
+			checkpoint.property(COMPLETED, false);
+			if (lastUuid == null) {
+				checkpoint.property(CHECKPOINT).remove();
+			} else {
+				checkpoint.property(CHECKPOINT, lastUuid);
+			}
+		});
+	}
+
+	/**
+	 * Keeps that the run is done with the shard
+	 */
+	public void complete(Shard shard, String entityType, String runId) {
+		update(shard, entityType, checkpoint -> {
+			checkpoint.property(RUN_ID, runId);
+			checkpoint.property(COMPLETED, true);
+			checkpoint.property(CHECKPOINT).remove();
+		});
+	}
+
+	/**
+	 * Removes the checkpoint of the shard, the next run starts over
+	 */
+	public void remove(Shard shard, String entityType) {
+		DatabaseProvider databaseProvider = shard.getDatabaseProvider();
+		try (OSGraph osGraph = databaseProvider.getOSGraph()) {
+			Graph graph = osGraph.getGraphStore();
+			try (Transaction tx = databaseProvider.startTransaction(graph)) {
+				Vertex checkpoint = getCheckpoint(graph, entityType);
+				if (checkpoint != null) {
+					checkpoint.remove();
+				}
+				databaseProvider.commitTransaction(graph, tx);
+			}
+		} catch (Exception e) {
+			throw new IllegalStateException("Failed to remove the checkpoint of shard " + shard.getShardId(), e);
+		}
+	}
+
+	private void update(Shard shard, String entityType, Consumer<Vertex> update) {
+		DatabaseProvider databaseProvider = shard.getDatabaseProvider();
+		try (OSGraph osGraph = databaseProvider.getOSGraph()) {
+			Graph graph = osGraph.getGraphStore();
+			try (Transaction tx = databaseProvider.startTransaction(graph)) {
+				Vertex checkpoint = getCheckpoint(graph, entityType);
+				if (checkpoint == null) {
+					checkpoint = graph.addVertex(label);
+					checkpoint.property(CHECKPOINT_ENTITY_TYPE, entityType);
+				}
+				update.accept(checkpoint);
+				databaseProvider.commitTransaction(graph, tx);
+			}
+		} catch (Exception e) {
+			throw new IllegalStateException("Failed to write the checkpoint of shard " + shard.getShardId(), e);
+		}
+	}
+
+	private Vertex getCheckpoint(Graph graph, String entityType) {
+		Iterator<Vertex> checkpoints = graph.traversal().clone().V().hasLabel(label).has(CHECKPOINT_ENTITY_TYPE, entityType);
+		return checkpoints.hasNext() ? checkpoints.next() : null;
+	}
+
+	@SuppressWarnings("unchecked")
+	private static <V> V getValue(Vertex vertex, String key) {
+		return vertex.property(key).isPresent() ? (V) vertex.value(key) : null;
+	}
+}
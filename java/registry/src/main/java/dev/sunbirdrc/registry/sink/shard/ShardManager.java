@@ -4,13 +4,13 @@ import dev.sunbirdrc.registry.exception.CustomException;
 import dev.sunbirdrc.registry.model.DBConnectionInfo;
 import dev.sunbirdrc.registry.model.DBConnectionInfoMgr;
 import dev.sunbirdrc.registry.sink.DBProviderFactory;
-import dev.sunbirdrc.registry.sink.DatabaseProvider;
+import dev.sunbirdrc.registry.util.RecordIdentifier;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.stereotype.Component;
 
-import java.io.IOException;
+import java.util.List;
 
 @Component("shardManager")
 public class ShardManager {
@@ -22,25 +22,50 @@ public class ShardManager {
 	private DBProviderFactory dbProviderFactory;
 	@Autowired
 	private IShardAdvisor shardAdvisor;
+	@Autowired(required = false)
+	private ShardRedirects shardRedirects;
 
-	private Shard shard;
+	// A record moved back and forth between shards leaves a chain of redirects
+	private static final int MAX_REDIRECTS = 8;
 
+	/**
+	 * The shards are shared by all the calls and never changed, the registry is only replaced when
+	 * the configured connections are.
+	 */
+	private volatile ShardRegistry shardRegistry;
+
+	/**
+	 * Returns the registry of the configured shards, building it on the first call
+	 */
+	public ShardRegistry getShardRegistry() {
+		ShardRegistry registry = shardRegistry;
+		List<DBConnectionInfo> connectionInfo = dbConnectionInfoMgr.getConnectionInfo();
+		if (registry == null || !registry.isBuiltFrom(connectionInfo)) {
+			synchronized (this) {
+				registry = shardRegistry;
+				if (registry == null || !registry.isBuiltFrom(connectionInfo)) {
+					registry = new ShardRegistry(connectionInfo, dbProviderFactory);
+					shardRegistry = registry;
+					logger.info("Built the registry of {} shards", connectionInfo.size());
+				}
+			}
+		}
+		return registry;
+	}
 
 	/**
-	 * intiatiate a DBShard and ensure activating a databaseProvider. used for
+	 * Returns the shard the advisor picks for the attribute value. used for
 	 * add end point.
 	 *
 	 * @param attributeValue
-	 * @throws IOException
 	 */
 	private Shard activateDbShard(Object attributeValue) {
 		DBConnectionInfo connectionInfo = shardAdvisor.getShard(attributeValue);
-		DatabaseProvider databaseProvider = dbProviderFactory.getInstance(connectionInfo);
-		shard = new Shard();
-		shard.setShardId(connectionInfo.getShardId());
-		shard.setShardLabel(connectionInfo.getShardLabel());
-		shard.setDatabaseProvider(databaseProvider);
-		logger.info("Activated shard "+connectionInfo.getShardId()+" for attribute value "+attributeValue);
+		Shard shard = getShardRegistry().getShard(connectionInfo);
+		if (shard == null) {
+			throw new IllegalStateException("Shard advisor picked an unknown shard " + connectionInfo.getShardId());
+		}
+		logger.debug("Activated shard {} for attribute value {}", shard.getShardId(), attributeValue);
 		return shard;
 	}
 
@@ -54,13 +79,7 @@ public class ShardManager {
 	 * @throws CustomException
 	 */
 	public Shard getShard(Object attributeValue) {
-
-		if(attributeValue != null){
-			activateDbShard(attributeValue);
-		}else{
-			activateDbShard(null);
-		}
-		return shard;
+		return activateDbShard(attributeValue);
 	}
 	/**
 	 * Default shard return first shard.
@@ -69,8 +88,7 @@ public class ShardManager {
 	 * @throws CustomException
 	 */
 	public Shard getDefaultShard() {
-		activateDbShard(null);
-		return shard;
+		return activateDbShard(null);
 	}
 
 	/**
@@ -81,31 +99,48 @@ public class ShardManager {
 	 * @throws CustomException
 	 */
 	public Shard activateShard(String shardId) {
-		if (shardId != null) {
-			DBConnectionInfo connectionInfo = dbConnectionInfoMgr.getDBConnectionInfo(shardId);
-			DatabaseProvider databaseProvider = dbProviderFactory.getInstance(connectionInfo);
-			shard = new Shard();
-			shard.setShardId(shardId);
-			shard.setShardLabel(connectionInfo.getShardLabel());
-			shard.setDatabaseProvider(databaseProvider);
-		} else {
-			logger.info("Default shard is activated");
-			shard = activateDbShard(null);
+		if (shardId == null) {
+			logger.debug("Default shard is activated");
+			return activateDbShard(null);
+		}
+		return getKnownShard(shardId);
+	}
 
+	/**
+	 * activate the shard holding the record, following the redirects left by the
+	 * rebalancing when the record was moved away from the shard of its label
+	 * use this for read operation
+	 * @param recordId
+	 * @return
+	 */
+	public Shard activateShard(RecordIdentifier recordId) {
+		Shard shard = activateShard(dbConnectionInfoMgr.getShardId(recordId.getShardLabel()));
+		if (shardRedirects == null) {
+			return shard;
 		}
-		return shard;
+		for (int redirects = 0; redirects < MAX_REDIRECTS; redirects++) {
+			String targetShardId = shardRedirects.getTargetShardId(shard, recordId.getUuid());
+			if (targetShardId == null) {
+				return shard;
+			}
+			shard = getKnownShard(targetShardId);
+		}
+		throw new IllegalStateException("Too many redirects for record " + recordId);
 	}
 
 	public Shard getShardInstance(String shardId) {
-		Shard thisShard = new Shard();
-		if (shardId != null) {
-			DBConnectionInfo connectionInfo = dbConnectionInfoMgr.getDBConnectionInfo(shardId);
-			DatabaseProvider databaseProvider = dbProviderFactory.getInstance(connectionInfo);
-			thisShard.setShardId(connectionInfo.getShardId());
-			thisShard.setDatabaseProvider(databaseProvider);
+		if (shardId == null) {
+			return new Shard();
 		}
+		return getKnownShard(shardId);
+	}
 
-		return thisShard;
+	private Shard getKnownShard(String shardId) {
+		Shard shard = getShardRegistry().getShard(shardId);
+		if (shard == null) {
+			throw new IllegalArgumentException("No shard is configured with id " + shardId);
+		}
+		return shard;
 	}
 
 }
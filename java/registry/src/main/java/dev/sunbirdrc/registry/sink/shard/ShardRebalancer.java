@@ -0,0 +1,453 @@
+package dev.sunbirdrc.registry.sink.shard;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.node.BooleanNode;
+import com.fasterxml.jackson.databind.node.DoubleNode;
+import com.fasterxml.jackson.databind.node.IntNode;
+import com.fasterxml.jackson.databind.node.LongNode;
+import com.fasterxml.jackson.databind.node.TextNode;
+import com.google.common.util.concurrent.RateLimiter;
+import dev.sunbirdrc.registry.middleware.util.Constants;
+import dev.sunbirdrc.registry.model.DBConnectionInfoMgr;
+import dev.sunbirdrc.registry.service.EntityCache;
+import dev.sunbirdrc.registry.sink.DatabaseProvider;
+import dev.sunbirdrc.registry.sink.OSGraph;
+import org.apache.commons.lang3.exception.ExceptionUtils;
+import org.apache.tinkerpop.gremlin.structure.Direction;
+import org.apache.tinkerpop.gremlin.structure.Edge;
+import org.apache.tinkerpop.gremlin.structure.Graph;
+import org.apache.tinkerpop.gremlin.structure.Transaction;
+import org.apache.tinkerpop.gremlin.structure.Vertex;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.stereotype.Component;
+
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.Deque;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.TreeMap;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Moves the records of an entity type to the shards the shard advisor picks for them now, e.g.
+ * after a shard is added. A record is moved with all its vertices, the root and the vertices
+ * stamped with its uuid in _osroot, and keeps its uuid. The shard it leaves gets a redirect, so
+ * that its identifier, which carries the label of that shard, still resolves.
+ *
+ * A record is copied to its target shard first, then removed from its source shard in the
+ * transaction adding the redirect. That transaction writes the root of the record first, which
+ * locks it against an update in progress, and then compares the record with the copy. If it was
+ * changed in between, the copy is removed and the record is left for the next run. The records are visited in uuid order, the last one visited in each
+ * shard is kept in that shard so that a stopped run resumes from it.
+ */
+@Component
+@ConditionalOnProperty(name = "database.rebalance.enabled", havingValue = "true")
+public class ShardRebalancer extends ShardRecordJob<ShardRebalancer.RebalanceProgress> {
+	private static final Logger logger = LoggerFactory.getLogger(ShardRebalancer.class);
+
+	private static final String NONE_STR = "none";
+	// Written on the root of a record before it is compared and removed, it is not copied
+	private static final String MOVING = "_osMoving";
+
+	@Autowired
+	private DBConnectionInfoMgr dbConnectionInfoMgr;
+	@Autowired
+	private ShardRedirects shardRedirects;
+	@Autowired(required = false)
+	private EntityCache entityCache;
+
+	@Value("${database.rebalance.batchSize:100}")
+	private int batchSize;
+	// Moving a record takes a few transactions on both shards, this keeps the load of a run bounded
+	@Value("${database.rebalance.recordsPerSecond:20}")
+	private double recordsPerSecond;
+
+	private RateLimiter rateLimiter;
+
+	public static class RebalanceProgress extends ShardRecordJob.Progress {
+		private final AtomicLong scanned = new AtomicLong();
+		private final AtomicLong moved = new AtomicLong();
+		private final AtomicLong changed = new AtomicLong();
+		private final AtomicLong failed = new AtomicLong();
+
+		RebalanceProgress(String entityType) {
+			super(entityType);
+		}
+
+		@Override
+		public long getScanned() {
+			return scanned.get();
+		}
+
+		public long getMoved() {
+			return moved.get();
+		}
+
+		/**
+		 * The records changed while being moved, left for the next run
+		 */
+		public long getChanged() {
+			return changed.get();
+		}
+
+		@Override
+		public long getFailed() {
+			return failed.get();
+		}
+
+		@Override
+		public String toString() {
+			return String.format("%d scanned, %d moved, %d changed, %d failed", getScanned(), getMoved(), getChanged(), getFailed());
+		}
+	}
+
+	public ShardRebalancer() {
+		super("Rebalancing", "shard-rebalance", "_osShardRebalance");
+	}
+
+	/**
+	 * Rebalances the records of the entity type in the calling thread
+	 */
+	public RebalanceProgress rebalance(String entityType) {
+		return runNow(entityType);
+	}
+
+	@Override
+	protected RebalanceProgress createProgress(String entityType) {
+		return new RebalanceProgress(entityType);
+	}
+
+	@Override
+	protected int getBatchSize() {
+		return batchSize;
+	}
+
+	@Override
+	protected void check(RebalanceProgress runProgress) {
+		String shardProperty = dbConnectionInfoMgr.getShardProperty();
+		if (shardProperty == null || shardProperty.equals(NONE_STR)) {
+			throw new IllegalStateException("Records can only be rebalanced when a shard property is configured");
+		}
+		shardManager.getShardRegistry().getShards().forEach(ShardRebalancer::checkProvider);
+		rateLimiter = recordsPerSecond > 0 ? RateLimiter.create(recordsPerSecond) : null;
+	}
+
+	@Override
+	protected int process(Shard source, String after, List<String> uuids, RebalanceProgress runProgress) {
+		String entityType = runProgress.getEntityType();
+		String shardProperty = dbConnectionInfoMgr.getShardProperty();
+		int handled = 0;
+		for (String uuid : uuids) {
+			if (isStopRequested()) {
+				break;
+			}
+			if (rateLimiter != null) {
+				rateLimiter.acquire();
+			}
+			runProgress.scanned.incrementAndGet();
+			try {
+				moveIfMisplaced(source, entityType, uuid, shardProperty, runProgress);
+			} catch (Exception e) {
+				logger.error("Failed to move {} record {}: {}", entityType, uuid, ExceptionUtils.getStackTrace(e));
+				runProgress.failed.incrementAndGet();
+			}
+			handled++;
+		}
+		return handled;
+	}
+
+	private static void checkProvider(Shard shard) {
+		switch (shard.getDatabaseProvider().getProvider()) {
+			case SQLG:
+			case CASSANDRA:
+			case TINKERGRAPH:
+				return;
+			default:
+				// The other providers take the uuid as the vertex id, which can't be kept across graphs
+				throw new IllegalStateException("Records can't be rebalanced across " + shard.getDatabaseProvider().getProvider() + " shards");
+		}
+	}
+
+	private void moveIfMisplaced(Shard source, String entityType, String uuid, String shardProperty,
+								 RebalanceProgress runProgress) throws Exception {
+		RecordSnapshot record = read(source, entityType, uuid, shardProperty);
+		if (record == null) {
+			return;
+		}
+		Shard target = shardManager.getShard(toJsonValue(record.shardPropertyValue));
+		if (target.getShardId().equalsIgnoreCase(source.getShardId())) {
+			return;
+		}
+		copy(target, entityType, uuid, record);
+		if (!removeMoved(source, entityType, uuid, shardProperty, record, target.getShardId())) {
+			logger.info("{} record {} changed while being moved, left in shard {}", entityType, uuid, source.getShardId());
+			removeCopy(target, entityType, uuid);
+			runProgress.changed.incrementAndGet();
+			return;
+		}
+		shardRedirects.invalidate(source.getShardId(), uuid);
+		shardRedirects.invalidate(target.getShardId(), uuid);
+		if (entityCache != null) {
+			entityCache.invalidate(source.getShardId(), uuid);
+			entityCache.invalidate(target.getShardId(), uuid);
+		}
+		logger.debug("Moved {} record {} from shard {} to shard {}", entityType, uuid, source.getShardId(), target.getShardId());
+		runProgress.moved.incrementAndGet();
+	}
+
+	/**
+	 * Returns the stored value as the advisor gets it from the payload of an add request, numbers
+	 * are stored as longs but parsed as ints when they fit
+	 */
+	static JsonNode toJsonValue(Object value) {
+		if (value == null) {
+			return null;
+		}
+		if (value instanceof Long) {
+			long number = (Long) value;
+			return number == (int) number ? IntNode.valueOf((int) number) : LongNode.valueOf(number);
+		}
+		if (value instanceof Double) {
+			return DoubleNode.valueOf((Double) value);
+		}
+		if (value instanceof Boolean) {
+			return BooleanNode.valueOf((Boolean) value);
+		}
+		return TextNode.valueOf(value.toString());
+	}
+
+	private RecordSnapshot read(Shard shard, String entityType, String uuid, String shardProperty) throws Exception {
+		DatabaseProvider databaseProvider = shard.getDatabaseProvider();
+		try (OSGraph osGraph = databaseProvider.getOSGraph()) {
+			Graph graph = osGraph.getGraphStore();
+			try (Transaction tx = databaseProvider.startTransaction(graph)) {
+				RecordSnapshot record = snapshot(graph, databaseProvider.getUuidPropertyName(), entityType, uuid, shardProperty);
+				databaseProvider.commitTransaction(graph, tx);
+				return record;
+			}
+		}
+	}
+
+	/**
+	 * Writes the record in the target shard, replacing what a failed run could have left there
+	 */
+	private void copy(Shard target, String entityType, String uuid, RecordSnapshot record) throws Exception {
+		DatabaseProvider databaseProvider = target.getDatabaseProvider();
+		String uuidPropertyName = databaseProvider.getUuidPropertyName();
+		try (OSGraph osGraph = databaseProvider.getOSGraph()) {
+			Graph graph = osGraph.getGraphStore();
+			try (Transaction tx = databaseProvider.startTransaction(graph)) {
+				getRecordVertices(graph, uuidPropertyName, entityType, uuid).forEach(Vertex::remove);
+				shardRedirects.removeRedirect(graph, uuidPropertyName, uuid);
+				List<Vertex> vertices = new ArrayList<>(record.vertices.size());
+				for (VertexCopy vertexCopy : record.vertices) {
+					Vertex vertex = graph.addVertex(vertexCopy.label);
+					vertexCopy.properties.forEach(vertex::property);
+					vertices.add(vertex);
+				}
+				for (EdgeCopy edgeCopy : record.edges) {
+					Edge edge = vertices.get(edgeCopy.from).addEdge(edgeCopy.label, vertices.get(edgeCopy.to));
+					edgeCopy.properties.forEach(edge::property);
+				}
+				databaseProvider.commitTransaction(graph, tx);
+			}
+		}
+	}
+
+	/**
+	 * Removes the record from the source shard and leaves the redirect in its place, unless the
+	 * record was changed since it was read
+	 */
+	private boolean removeMoved(Shard source, String entityType, String uuid, String shardProperty,
+								RecordSnapshot record, String targetShardId) throws Exception {
+		DatabaseProvider databaseProvider = source.getDatabaseProvider();
+		String uuidPropertyName = databaseProvider.getUuidPropertyName();
+		try (OSGraph osGraph = databaseProvider.getOSGraph()) {
+			Graph graph = osGraph.getGraphStore();
+			try (Transaction tx = databaseProvider.startTransaction(graph)) {
+				List<Vertex> vertices = getRecordVertices(graph, uuidPropertyName, entityType, uuid);
+				if (vertices.isEmpty()) {
+					return false;
+				}
+				// The updates write the root too, e.g. its osUpdatedAt: one in progress commits before this write
+				// returns, and is then read, or waits for the record to be removed
+				Vertex root = vertices.get(0);
+				root.property(MOVING, System.currentTimeMillis());
+				if (!record.equals(snapshot(graph, uuidPropertyName, entityType, uuid, shardProperty))) {
+					root.property(MOVING).remove();
+					return false;
+				}
+				getRecordVertices(graph, uuidPropertyName, entityType, uuid).forEach(Vertex::remove);
+				shardRedirects.addRedirect(graph, uuidPropertyName, uuid, targetShardId);
+				databaseProvider.commitTransaction(graph, tx);
+				return true;
+			}
+		}
+	}
+
+	private void removeCopy(Shard target, String entityType, String uuid) throws Exception {
+		DatabaseProvider databaseProvider = target.getDatabaseProvider();
+		try (OSGraph osGraph = databaseProvider.getOSGraph()) {
+			Graph graph = osGraph.getGraphStore();
+			try (Transaction tx = databaseProvider.startTransaction(graph)) {
+				getRecordVertices(graph, databaseProvider.getUuidPropertyName(), entityType, uuid).forEach(Vertex::remove);
+				databaseProvider.commitTransaction(graph, tx);
+			}
+		}
+	}
+
+	/**
+	 * Returns the vertices of the record, the root first, the others in the order of their ids
+	 */
+	private static List<Vertex> getRecordVertices(Graph graph, String uuidPropertyName, String entityType, String uuid) {
+		Iterator<Vertex> roots = graph.traversal().clone().V().hasLabel(entityType).has(uuidPropertyName, uuid).hasNot(Constants.ROOT_KEYWORD);
+		if (!roots.hasNext()) {
+			return new ArrayList<>();
+		}
+		Vertex root = roots.next();
+		Map<Object, Vertex> vertices = new LinkedHashMap<>();
+		vertices.put(root.id(), root);
+		// The vertices reached from the root, as the hard delete removes them, and the ones stamped with the root
+		Deque<Vertex> pending = new ArrayDeque<>();
+		pending.add(root);
+		while (!pending.isEmpty()) {
+			pending.poll().vertices(Direction.OUT).forEachRemaining(child -> {
+				if (vertices.putIfAbsent(child.id(), child) == null) {
+					pending.add(child);
+				}
+			});
+		}
+		graph.traversal().clone().V().has(Constants.ROOT_KEYWORD, uuid)
+				.forEachRemaining(child -> vertices.putIfAbsent(child.id(), child));
+		List<Vertex> children = new ArrayList<>(vertices.values());
+		children.remove(0);
+		children.sort(Comparator.comparing(vertex -> vertex.id().toString()));
+		List<Vertex> recordVertices = new ArrayList<>(vertices.size());
+		recordVertices.add(root);
+		recordVertices.addAll(children);
+		return recordVertices;
+	}
+
+	private static RecordSnapshot snapshot(Graph graph, String uuidPropertyName, String entityType, String uuid,
+										   String shardProperty) {
+		List<Vertex> vertices = getRecordVertices(graph, uuidPropertyName, entityType, uuid);
+		if (vertices.isEmpty()) {
+			return null;
+		}
+		Map<Object, Integer> positions = new HashMap<>();
+		List<VertexCopy> vertexCopies = new ArrayList<>(vertices.size());
+		for (Vertex vertex : vertices) {
+			positions.put(vertex.id(), vertexCopies.size());
+			Map<String, Object> properties = new TreeMap<>();
+			vertex.properties().forEachRemaining(property -> {
+				if (!MOVING.equals(property.key())) {
+					properties.put(property.key(), property.value());
+				}
+			});
+			vertexCopies.add(new VertexCopy(vertex.label(), properties));
+		}
+		List<EdgeCopy> edgeCopies = new ArrayList<>();
+		for (Vertex vertex : vertices) {
+			vertex.edges(Direction.OUT).forEachRemaining(edge -> {
+				Integer to = positions.get(edge.inVertex().id());
+				if (to == null) {
+					logger.warn("Edge {} of record {} leaves the record, it is not moved", edge.label(), uuid);
+					return;
+				}
+				Map<String, Object> properties = new TreeMap<>();
+				edge.properties().forEachRemaining(property -> properties.put(property.key(), property.value()));
+				edgeCopies.add(new EdgeCopy(edge.label(), positions.get(vertex.id()), to, properties));
+			});
+		}
+		// The edges of a vertex are not listed in a set order
+		edgeCopies.sort(Comparator.<EdgeCopy>comparingInt(edge -> edge.from).thenComparingInt(edge -> edge.to)
+				.thenComparing(edge -> edge.label).thenComparing(edge -> edge.properties.toString()));
+		Object shardPropertyValue = vertexCopies.get(0).properties.get(shardProperty);
+		return new RecordSnapshot(shardPropertyValue, vertexCopies, edgeCopies);
+	}
+
+	private static class RecordSnapshot {
+		private final Object shardPropertyValue;
+		private final List<VertexCopy> vertices;
+		private final List<EdgeCopy> edges;
+
+		RecordSnapshot(Object shardPropertyValue, List<VertexCopy> vertices, List<EdgeCopy> edges) {
+			this.shardPropertyValue = shardPropertyValue;
+			this.vertices = vertices;
+			this.edges = edges;
+		}
+
+		@Override
+		public boolean equals(Object o) {
+			if (this == o) return true;
+			if (!(o instanceof RecordSnapshot)) return false;
+			RecordSnapshot that = (RecordSnapshot) o;
+			return vertices.equals(that.vertices) && edges.equals(that.edges);
+		}
+
+		@Override
+		public int hashCode() {
+			return Objects.hash(vertices, edges);
+		}
+	}
+
+	private static class VertexCopy {
+		private final String label;
+		private final Map<String, Object> properties;
+
+		VertexCopy(String label, Map<String, Object> properties) {
+			this.label = label;
+			this.properties = properties;
+		}
+
+		@Override
+		public boolean equals(Object o) {
+			if (this == o) return true;
+			if (!(o instanceof VertexCopy)) return false;
+			VertexCopy that = (VertexCopy) o;
+			return label.equals(that.label) && properties.equals(that.properties);
+		}
+
+		@Override
+		public int hashCode() {
+			return Objects.hash(label, properties);
+		}
+	}
+
+	private static class EdgeCopy {
+		private final String label;
+		private final int from;
+		private final int to;
+		private final Map<String, Object> properties;
+
+		EdgeCopy(String label, int from, int to, Map<String, Object> properties) {
+			this.label = label;
+			this.from = from;
+			this.to = to;
+			this.properties = properties;
+		}
+
+		@Override
+		public boolean equals(Object o) {
+			if (this == o) return true;
+			if (!(o instanceof EdgeCopy)) return false;
+			EdgeCopy that = (EdgeCopy) o;
+			return from == that.from && to == that.to && label.equals(that.label) && properties.equals(that.properties);
+		}
+
+		@Override
+		public int hashCode() {
+			return Objects.hash(label, from, to, properties);
+		}
+	}
+}
@@ -0,0 +1,309 @@
+package dev.sunbirdrc.registry.sink.shard;
+
+import dev.sunbirdrc.registry.middleware.util.Constants;
+import dev.sunbirdrc.registry.sink.DatabaseProvider;
+import dev.sunbirdrc.registry.sink.OSGraph;
+import org.apache.commons.lang3.exception.ExceptionUtils;
+import org.apache.tinkerpop.gremlin.process.traversal.P;
+import org.apache.tinkerpop.gremlin.process.traversal.dsl.graph.GraphTraversal;
+import org.apache.tinkerpop.gremlin.structure.Graph;
+import org.apache.tinkerpop.gremlin.structure.Transaction;
+import org.apache.tinkerpop.gremlin.structure.Vertex;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+
+import javax.annotation.PostConstruct;
+import javax.annotation.PreDestroy;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+
+/**
+ * Runs a job over the records of an entity type in all the shards, one run at a time, in the
+ * background or in the calling thread. The root records of each shard are handed to the job a page
+ * at a time in uuid order. The last record handled in each shard is kept as the checkpoint of that
+ * shard, and once the shard is done, that it is, so that a stopped run resumes from there rather
+ * than going over the shards it was done with. A run resumes the run of the checkpoints, and the
+ * checkpoints are removed once a run is COMPLETED.
+ *
+ * A run that could not handle some of the records ends PARTIAL rather than COMPLETED, the next run
+ * resumes it.
+ */
+public abstract class ShardRecordJob<R extends ShardRecordJob.Progress> {
+	private static final Logger logger = LoggerFactory.getLogger(ShardRecordJob.class);
+
+	@Autowired
+	protected ShardManager shardManager;
+
+	private final String name;
+	private final String threadName;
+	private final ShardCheckpoints checkpoints;
+	private ExecutorService executor;
+	private volatile R progress;
+	private volatile boolean stopRequested;
+
+	public enum Status {
+		RUNNING, STOPPED, COMPLETED, PARTIAL, FAILED
+	}
+
+	public abstract static class Progress {
+		private final String entityType;
+		private volatile String runId;
+		private volatile Status status = Status.RUNNING;
+		private volatile String error;
+
+		protected Progress(String entityType) {
+			this.entityType = entityType;
+		}
+
+		public String getEntityType() {
+			return entityType;
+		}
+
+		/**
+		 * The id of the run, the same for a run and the runs resuming it
+		 */
+		public String getRunId() {
+			return runId;
+		}
+
+		public Status getStatus() {
+			return status;
+		}
+
+		public String getError() {
+			return error;
+		}
+
+		public abstract long getScanned();
+
+		/**
+		 * The records the run could not handle
+		 */
+		public abstract long getFailed();
+	}
+
+	/**
+	 * @param name            of the job in the logs
+	 * @param threadName      of the thread of the background runs
+	 * @param checkpointLabel of the vertices keeping the checkpoints of the job
+	 */
+	protected ShardRecordJob(String name, String threadName, String checkpointLabel) {
+		this.name = name;
+		this.threadName = threadName;
+		this.checkpoints = new ShardCheckpoints(checkpointLabel);
+	}
+
+	@PostConstruct
+	public void init() {
+		executor = Executors.newSingleThreadExecutor(runnable -> {
+			Thread thread = new Thread(runnable, threadName);
+			thread.setDaemon(true);
+			return thread;
+		});
+	}
+
+	@PreDestroy
+	public void destroy() {
+		stopRequested = true;
+		executor.shutdownNow();
+	}
+
+	/**
+	 * Starts a run over the records of the entity type in the background
+	 *
+	 * @return false if a run is in progress already
+	 */
+	public synchronized boolean start(String entityType) {
+		if (progress != null && progress.getStatus() == Status.RUNNING) {
+			return false;
+		}
+		R runProgress = createProgress(entityType);
+		progress = runProgress;
+		stopRequested = false;
+		executor.submit(() -> run(runProgress));
+		return true;
+	}
+
+	/**
+	 * Stops the run in progress after the records being handled, the next run resumes from there
+	 */
+	public void stop() {
+		stopRequested = true;
+	}
+
+	/**
+	 * The progress of the last run, null if there was none
+	 */
+	public R getProgress() {
+		return progress;
+	}
+
+	/**
+	 * Runs over the records of the entity type in the calling thread
+	 *
+	 * @throws IllegalStateException if a run is in progress already
+	 */
+	protected R runNow(String entityType) {
+		R runProgress;
+		synchronized (this) {
+			if (progress != null && progress.getStatus() == Status.RUNNING) {
+				throw new IllegalStateException(name + " of " + progress.getEntityType() + " is in progress already");
+			}
+			runProgress = createProgress(entityType);
+			progress = runProgress;
+			stopRequested = false;
+		}
+		run(runProgress);
+		return runProgress;
+	}
+
+	protected boolean isStopRequested() {
+		return stopRequested;
+	}
+
+	protected abstract R createProgress(String entityType);
+
+	/**
+	 * The number of records read from a shard at a time
+	 */
+	protected abstract int getBatchSize();
+
+	/**
+	 * Checks the job can run, before any record is read
+	 */
+	protected void check(R runProgress) {
+	}
+
+	/**
+	 * Called before the records of the shard are read
+	 */
+	protected void startShard(Shard shard, R runProgress) {
+	}
+
+	/**
+	 * Handles a page of records of the shard
+	 *
+	 * @param after the record the page was read after, null for the first page of the shard
+	 * @return the number of records handled from the start of the page, fewer than all of them only
+	 * when the run is stopped
+	 */
+	protected abstract int process(Shard shard, String after, List<String> uuids, R runProgress) throws Exception;
+
+	/**
+	 * Returns the checkpoint to keep in the shard once the records up to the given one are handled
+	 */
+	protected String getCheckpoint(String lastHandled, R runProgress) {
+		return lastHandled;
+	}
+
+	/**
+	 * Called once all the records of the shard are read
+	 *
+	 * @return true if the shard is done, false to keep the checkpoint of getCheckpoint in the shard,
+	 * so that the next run goes over the records left
+	 */
+	protected boolean finishShard(Shard shard, R runProgress) throws Exception {
+		return true;
+	}
+
+	private void run(R runProgress) {
+		try {
+			runShards(runProgress);
+		} catch (Exception e) {
+			logger.error("{} of {} failed: {}", name, runProgress.getEntityType(), ExceptionUtils.getStackTrace(e));
+			end(runProgress, Status.FAILED, e.getMessage());
+		}
+	}
+
+	private void runShards(R runProgress) throws Exception {
+		String entityType = runProgress.getEntityType();
+		check(runProgress);
+		List<Shard> shards = shardManager.getShardRegistry().getShards();
+		Map<String, ShardCheckpoints.Checkpoint> shardCheckpoints = new HashMap<>();
+		String runId = null;
+		for (Shard shard : shards) {
+			ShardCheckpoints.Checkpoint checkpoint = checkpoints.read(shard, entityType);
+			shardCheckpoints.put(shard.getShardId(), checkpoint);
+			if (runId == null && checkpoint != null) {
+				runId = checkpoint.getRunId();
+			}
+		}
+		if (runId == null) {
+			runId = UUID.randomUUID().toString();
+		}
+		setRunId(runProgress, runId);
+		for (Shard shard : shards) {
+			ShardCheckpoints.Checkpoint checkpoint = shardCheckpoints.get(shard.getShardId());
+			boolean resumed = checkpoint != null && checkpoint.belongsTo(runId);
+			if (resumed && checkpoint.isCompleted()) {
+				logger.info("{} of {} records of shard {} is done already", name, entityType, shard.getShardId());
+				continue;
+			}
+			String lastHandled = resumed ? checkpoint.getLastUuid() : null;
+			logger.info("{} of {} records of shard {} from {}", name, entityType, shard.getShardId(), lastHandled);
+			startShard(shard, runProgress);
+			List<String> uuids;
+			while (!stopRequested && !(uuids = readRootIds(shard, entityType, lastHandled)).isEmpty()) {
+				int handled = process(shard, lastHandled, uuids, runProgress);
+				if (handled > 0) {
+					lastHandled = uuids.get(handled - 1);
+				}
+				checkpoints.write(shard, entityType, runId, getCheckpoint(lastHandled, runProgress));
+			}
+			if (stopRequested) {
+				logger.info("{} of {} stopped at {} in shard {}", name, entityType, lastHandled, shard.getShardId());
+				end(runProgress, Status.STOPPED, null);
+				return;
+			}
+			if (finishShard(shard, runProgress)) {
+				checkpoints.complete(shard, entityType, runId);
+			} else {
+				checkpoints.write(shard, entityType, runId, getCheckpoint(lastHandled, runProgress));
+			}
+		}
+		Status status = runProgress.getFailed() > 0 ? Status.PARTIAL : Status.COMPLETED;
+		if (status == Status.COMPLETED) {
+			for (Shard shard : shards) {
+				checkpoints.remove(shard, entityType);
+			}
+		}
+		end(runProgress, status, null);
+		logger.info("{} of {} ended {}: {}", name, entityType, runProgress.getStatus(), runProgress);
+	}
+
+	private static void setRunId(Progress runProgress, String runId) {
+		runProgress.runId = runId;
+	}
+
+	private static void end(Progress runProgress, Status status, String error) {
+		runProgress.error = error;
+		runProgress.status = status;
+	}
+
+	private List<String> readRootIds(Shard shard, String entityType, String after) {
+		DatabaseProvider databaseProvider = shard.getDatabaseProvider();
+		String uuidPropertyName = databaseProvider.getUuidPropertyName();
+		try (OSGraph osGraph = databaseProvider.getOSGraph()) {
+			Graph graph = osGraph.getGraphStore();
+			try (Transaction tx = databaseProvider.startTransaction(graph)) {
+				GraphTraversal<Vertex, Vertex> roots = graph.traversal().clone().V().hasLabel(entityType).hasNot(Constants.ROOT_KEYWORD);
+				if (after != null) {
+					roots = roots.has(uuidPropertyName, P.gt(after));
+				}
+				List<String> uuids = new ArrayList<>();
+				roots.order().by(uuidPropertyName).limit(getBatchSize()).values(uuidPropertyName)
+						.forEachRemaining(uuid -> uuids.add(uuid.toString()));
+				databaseProvider.commitTransaction(graph, tx);
+				return uuids;
+			}
+		} catch (Exception e) {
+			throw new IllegalStateException("Failed to read the records of shard " + shard.getShardId(), e);
+		}
+	}
+}
@@ -0,0 +1,125 @@
+package dev.sunbirdrc.registry.sink.shard;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import dev.sunbirdrc.registry.sink.DatabaseProvider;
+import dev.sunbirdrc.registry.sink.OSGraph;
+import org.apache.commons.lang3.exception.ExceptionUtils;
+import org.apache.tinkerpop.gremlin.structure.Graph;
+import org.apache.tinkerpop.gremlin.structure.Transaction;
+import org.apache.tinkerpop.gremlin.structure.Vertex;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.stereotype.Component;
+
+import javax.annotation.PostConstruct;
+import java.util.Iterator;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * The redirects left by the shard rebalancing. The identifier of a record carries the label of the
+ * shard it was added to, a record moved away leaves a redirect vertex in that shard naming the shard
+ * it was moved to. The redirect is written in the transaction removing the record, so a shard always
+ * has either the record or its redirect.
+ *
+ * The lookups are cached for a few seconds, so for that long another node may still look for a
+ * record in the shard it has just left.
+ */
+@Component
+@ConditionalOnProperty(name = "database.rebalance.enabled", havingValue = "true")
+public class ShardRedirects {
+	private static final Logger logger = LoggerFactory.getLogger(ShardRedirects.class);
+
+	public static final String REDIRECT_LABEL = "_osShardRedirect";
+	public static final String TARGET_SHARD_ID = "targetShardId";
+	private static final String NO_REDIRECT = "";
+
+	@Value("${database.rebalance.redirectCacheSize:100000}")
+	private long cacheSize;
+	@Value("${database.rebalance.redirectCacheTtlSeconds:5}")
+	private long cacheTtlSeconds;
+
+	private Cache<String, String> redirects;
+
+	@PostConstruct
+	public void init() {
+		redirects = Caffeine.newBuilder()
+				.maximumSize(cacheSize)
+				.expireAfterWrite(cacheTtlSeconds, TimeUnit.SECONDS)
+				.build();
+	}
+
+	/**
+	 * Returns the id of the shard the record was moved to, null if it was not moved away from the shard
+	 */
+	public String getTargetShardId(Shard shard, String uuid) {
+		String key = getKey(shard.getShardId(), uuid);
+		String targetShardId = redirects.getIfPresent(key);
+		if (targetShardId == null) {
+			targetShardId = readTargetShardId(shard.getDatabaseProvider(), uuid);
+			if (targetShardId == null) {
+				// Not cached, the lookup is retried on the next read
+				return null;
+			}
+			redirects.put(key, targetShardId);
+		}
+		return NO_REDIRECT.equals(targetShardId) ? null : targetShardId;
+	}
+
+	private String readTargetShardId(DatabaseProvider databaseProvider, String uuid) {
+		try (OSGraph osGraph = databaseProvider.getOSGraph()) {
+			Graph graph = osGraph.getGraphStore();
+			try (Transaction tx = databaseProvider.startTransaction(graph)) {
+				Vertex redirect = getRedirect(graph, databaseProvider.getUuidPropertyName(), uuid);
+				String targetShardId = redirect == null ? NO_REDIRECT : (String) redirect.value(TARGET_SHARD_ID);
+				databaseProvider.commitTransaction(graph, tx);
+				return targetShardId;
+			}
+		} catch (Exception e) {
+			logger.error("Failed to read the redirect of record {}: {}", uuid, ExceptionUtils.getStackTrace(e));
+			return null;
+		}
+	}
+
+	/**
+	 * Records in the graph of the source shard that the record was moved to the target shard. To be
+	 * called in the transaction removing the record from the source shard.
+	 */
+	public void addRedirect(Graph graph, String uuidPropertyName, String uuid, String targetShardId) {
+		Vertex redirect = getRedirect(graph, uuidPropertyName, uuid);
+		if (redirect == null) {
+			redirect = graph.addVertex(REDIRECT_LABEL);
+			redirect.property(uuidPropertyName, uuid);
+		}
+		redirect.property(TARGET_SHARD_ID, targetShardId);
+	}
+
+	/**
+	 * Removes the redirect of a record moved back to the shard. To be called in the transaction
+	 * adding the record to the shard.
+	 */
+	public void removeRedirect(Graph graph, String uuidPropertyName, String uuid) {
+		Vertex redirect = getRedirect(graph, uuidPropertyName, uuid);
+		if (redirect != null) {
+			redirect.remove();
+		}
+	}
+
+	/**
+	 * Drops the cached lookup of the record, to be called once the record is moved
+	 */
+	public void invalidate(String shardId, String uuid) {
+		redirects.invalidate(getKey(shardId, uuid));
+	}
+
+	private static Vertex getRedirect(Graph graph, String uuidPropertyName, String uuid) {
+		Iterator<Vertex> redirects = graph.traversal().clone().V().hasLabel(REDIRECT_LABEL).has(uuidPropertyName, uuid);
+		return redirects.hasNext() ? redirects.next() : null;
+	}
+
+	private static String getKey(String shardId, String uuid) {
+		return shardId + ":" + uuid;
+	}
+}
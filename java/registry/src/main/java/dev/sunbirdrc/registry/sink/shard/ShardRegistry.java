@@ -0,0 +1,80 @@
+package dev.sunbirdrc.registry.sink.shard;
+
+import dev.sunbirdrc.registry.model.DBConnectionInfo;
+import dev.sunbirdrc.registry.sink.DBProviderFactory;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.IdentityHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+
+/**
+ * The shards of the configured connections, built once and never changed after. The lookups do
+ * not allocate, so they can be made on every request.
+ */
+public class ShardRegistry {
+
+	private final List<DBConnectionInfo> connectionInfo;
+	private final List<Shard> shards;
+	// Shard ids are matched ignoring the case, as DBConnectionInfoMgr does
+	private final Map<String, Shard> shardsById;
+	private final Map<DBConnectionInfo, Shard> shardsByConnection;
+
+	public ShardRegistry(List<DBConnectionInfo> connectionInfo, DBProviderFactory dbProviderFactory) {
+		if (connectionInfo == null || connectionInfo.isEmpty()) {
+			throw new IllegalStateException("At least one database connection must be configured");
+		}
+		List<Shard> shardList = new ArrayList<>(connectionInfo.size());
+		Map<String, Shard> byId = new TreeMap<>(String.CASE_INSENSITIVE_ORDER);
+		Map<DBConnectionInfo, Shard> byConnection = new IdentityHashMap<>();
+		for (DBConnectionInfo connection : connectionInfo) {
+			Shard shard = new Shard(connection.getShardId(), connection.getShardLabel(),
+					dbProviderFactory.getInstance(connection));
+			shardList.add(shard);
+			byId.putIfAbsent(connection.getShardId(), shard);
+			byConnection.put(connection, shard);
+		}
+		this.connectionInfo = connectionInfo;
+		this.shards = Collections.unmodifiableList(shardList);
+		this.shardsById = Collections.unmodifiableMap(byId);
+		this.shardsByConnection = Collections.unmodifiableMap(byConnection);
+	}
+
+	/**
+	 * Whether the registry was built from this list of connections
+	 */
+	public boolean isBuiltFrom(List<DBConnectionInfo> connectionInfo) {
+		return this.connectionInfo == connectionInfo;
+	}
+
+	/**
+	 * Returns the shard of the connection, null if the connection is not one of the registry
+	 */
+	public Shard getShard(DBConnectionInfo connection) {
+		Shard shard = shardsByConnection.get(connection);
+		if (shard == null && connection != null && connection.getShardId() != null) {
+			shard = shardsById.get(connection.getShardId());
+		}
+		return shard;
+	}
+
+	/**
+	 * Returns the shard with the id, null if there is none
+	 */
+	public Shard getShard(String shardId) {
+		return shardId == null ? null : shardsById.get(shardId);
+	}
+
+	/**
+	 * The first configured shard
+	 */
+	public Shard getDefaultShard() {
+		return shards.get(0);
+	}
+
+	public List<Shard> getShards() {
+		return shards;
+	}
+}
@@ -8,20 +8,35 @@ import dev.sunbirdrc.registry.middleware.util.Constants;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.core.io.ResourceLoader;
 import redis.clients.jedis.Jedis;
 import redis.clients.jedis.JedisPool;
+import redis.clients.jedis.ScanParams;
+import redis.clients.jedis.ScanResult;
 
 import javax.annotation.PostConstruct;
 import java.util.*;
-import java.util.stream.Collectors;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.LongAdder;
 
 import static dev.sunbirdrc.registry.Constants.TITLE;
 
+/**
+ * Keeps the definitions in redis, so that all the registry nodes share them.
+ *
+ * The parsed definitions are cached locally. Every change of the definitions bumps a version key in
+ * redis; the nodes check it at most once every versionCheckInterval milliseconds and drop their cache
+ * when it has moved. The names of the definitions are kept in a redis set, instead of looking up the
+ * SCHEMA_* keys.
+ */
 public class DistributedDefinitionsManager implements IDefinitionsManager {
 
     private static final String SCHEMA = "SCHEMA_";
     private static final String SCHEMA_WILDCARD = SCHEMA + "*";
+    // Not prefixed with SCHEMA_, as everything under it is expected to be a definition
+    private static final String SCHEMA_NAMES = "SCHEMAS";
+    private static final String SCHEMA_VERSION = "SCHEMAS_VERSION";
 
     private Set<String> internalSchemas = new HashSet<>();
     @Autowired
@@ -32,11 +47,34 @@ public class DistributedDefinitionsManager implements IDefinitionsManager {
     @Autowired
     private ResourceLoader resourceLoader;
 
+    @Value("${registry.manager.versionCheckInterval:1000}")
+    private long versionCheckInterval;
+
+    private volatile DefinitionsCache cache = new DefinitionsCache(null);
+    private volatile long lastVersionCheck = 0L;
+    private final LongAdder cacheHits = new LongAdder();
+    private final LongAdder cacheMisses = new LongAdder();
+
+    /**
+     * Definitions read for one version of the definitions in redis
+     */
+    private static class DefinitionsCache {
+        private final String version;
+        private final Map<String, Definition> definitions = new ConcurrentHashMap<>();
+        private volatile Set<String> names;
+
+        DefinitionsCache(String version) {
+            this.version = version;
+        }
+    }
+
     @PostConstruct
     @Override
     public void loadDefinition() throws Exception {
         loadResourcesFromPath(Constants.RESOURCE_LOCATION);
         loadResourcesFromPath(Constants.INTERNAL_RESOURCE_LOCATION);
+        syncDefinitionNames();
+        definitionsChanged();
         logger.info("loaded schema resource(s): ");
     }
 
@@ -53,6 +91,7 @@ public class DistributedDefinitionsManager implements IDefinitionsManager {
             try(Jedis jedis = jedisPool.getResource()) {
                 jedis.set(SCHEMA + definition.getTitle(), schemaAsText);
                 jedis.set(SCHEMA + filenameWithoutExtn, schemaAsText);
+                jedis.sadd(SCHEMA_NAMES, definition.getTitle(), filenameWithoutExtn);
             }
 
             logger.info("loading resource:" + entry.getKey() + " with private field size:"
@@ -63,42 +102,148 @@ public class DistributedDefinitionsManager implements IDefinitionsManager {
         }
     }
 
+    /**
+     * Adds the definitions stored by older versions, which did not maintain the set of names.
+     * SCAN walks the keys in small steps, without blocking redis like KEYS.
+     */
+    private void syncDefinitionNames() {
+        try(Jedis jedis = jedisPool.getResource()) {
+            ScanParams scanParams = new ScanParams().match(SCHEMA_WILDCARD).count(1000);
+            String cursor = ScanParams.SCAN_POINTER_START;
+            do {
+                ScanResult<String> scanResult = jedis.scan(cursor, scanParams);
+                for (String key : scanResult.getResult()) {
+                    jedis.sadd(SCHEMA_NAMES, key.substring(SCHEMA.length()));
+                }
+                cursor = scanResult.getCursor();
+            } while (!ScanParams.SCAN_POINTER_START.equals(cursor));
+        }
+    }
+
+    /**
+     * Bumps the version, so that all the nodes drop their cached definitions
+     */
+    private void definitionsChanged() {
+        try(Jedis jedis = jedisPool.getResource()) {
+            Long version = jedis.incr(SCHEMA_VERSION);
+            cache = new DefinitionsCache(String.valueOf(version));
+            lastVersionCheck = System.currentTimeMillis();
+        }
+    }
+
+    /**
+     * Returns the cache for the current version of the definitions
+     */
+    private DefinitionsCache getCache() {
+        DefinitionsCache current = cache;
+        long now = System.currentTimeMillis();
+        if (now - lastVersionCheck < versionCheckInterval) {
+            return current;
+        }
+        lastVersionCheck = now;
+        String version;
+        try(Jedis jedis = jedisPool.getResource()) {
+            version = jedis.get(SCHEMA_VERSION);
+        }
+        if (!Objects.equals(version, current.version)) {
+            logger.info("Definitions changed to version {}, clearing the cache. Cache hits: {}, misses: {}, hit ratio: {}",
+                    version, getCacheHits(), getCacheMisses(), getCacheHitRatio());
+            current = new DefinitionsCache(version);
+            cache = current;
+        }
+        return current;
+    }
+
+    public long getCacheHits() {
+        return cacheHits.sum();
+    }
+
+    public long getCacheMisses() {
+        return cacheMisses.sum();
+    }
+
+    public double getCacheHitRatio() {
+        long hits = cacheHits.sum();
+        long total = hits + cacheMisses.sum();
+        return total == 0 ? 0 : (double) hits / total;
+    }
+
+    private Definition parseDefinition(String schemaAsText) throws JsonProcessingException {
+        JsonNode schemaNode = objectMapper.readTree(schemaAsText);
+        return new Definition(schemaNode);
+    }
+
     @Override
     public Set<String> getAllKnownDefinitions() {
-        try(Jedis jedis = jedisPool.getResource()) {
-            Set<String> keys = jedis.keys(SCHEMA_WILDCARD);
-            keys = keys.stream().map(key -> key.substring(SCHEMA.length())).collect(Collectors.toSet());
-            return keys;
+        DefinitionsCache current = getCache();
+        Set<String> names = current.names;
+        if (names == null) {
+            try(Jedis jedis = jedisPool.getResource()) {
+                names = Collections.unmodifiableSet(jedis.smembers(SCHEMA_NAMES));
+            }
+            current.names = names;
         }
+        return new HashSet<>(names);
     }
 
     @Override
     public List<Definition> getAllDefinitions() {
-        try(Jedis jedis = jedisPool.getResource()) {
-            Set<String> keys = jedis.keys(SCHEMA_WILDCARD);
-            String[] keysArr = keys.toArray(new String[0]);
-            List<String> definitionsStr = jedis.mget(keysArr);
-            List<Definition> definitions = new ArrayList<>();
-            for(String definitionStr : definitionsStr) {
-                JsonNode jsonNode = objectMapper.readTree(definitionStr);
-                Definition definition = new Definition(jsonNode);
-                definitions.add(definition);
+        return new ArrayList<>(getDefinitions(getAllKnownDefinitions()).values());
+    }
+
+    /**
+     * Returns the definitions of the given names, reading the ones not cached from redis in one go
+     */
+    private Map<String, Definition> getDefinitions(Set<String> names) {
+        DefinitionsCache current = getCache();
+        Map<String, Definition> definitions = new LinkedHashMap<>();
+        List<String> missingNames = new ArrayList<>();
+        for (String name : names) {
+            Definition definition = current.definitions.get(name);
+            if (definition != null) {
+                cacheHits.increment();
+                definitions.put(name, definition);
+            } else {
+                cacheMisses.increment();
+                missingNames.add(name);
             }
-            return definitions;
-        } catch (JsonProcessingException e) {
-            throw new RuntimeException(e);
         }
+        if (!missingNames.isEmpty()) {
+            String[] keysArr = missingNames.stream().map(name -> SCHEMA + name).toArray(String[]::new);
+            try(Jedis jedis = jedisPool.getResource()) {
+                List<String> definitionsStr = jedis.mget(keysArr);
+                for (int i = 0; i < definitionsStr.size(); i++) {
+                    String definitionStr = definitionsStr.get(i);
+                    if (definitionStr != null) {
+                        Definition definition = parseDefinition(definitionStr);
+                        current.definitions.put(missingNames.get(i), definition);
+                        definitions.put(missingNames.get(i), definition);
+                    }
+                }
+            } catch (JsonProcessingException e) {
+                throw new RuntimeException(e);
+            }
+        }
+        return definitions;
     }
 
     @Override
     public Definition getDefinition(String title) {
+        DefinitionsCache current = getCache();
+        Definition definition = current.definitions.get(title);
+        if (definition != null) {
+            cacheHits.increment();
+            return definition;
+        }
+        cacheMisses.increment();
         try(Jedis jedis = jedisPool.getResource()) {
             String schemaAsText = jedis.get(SCHEMA + title);
             if(schemaAsText == null) {
                 return null;
             }
-            JsonNode schemaNode = objectMapper.readTree(schemaAsText);
-            return new Definition(schemaNode);
+            definition = parseDefinition(schemaAsText);
+            current.definitions.put(title, definition);
+            return definition;
         } catch (JsonProcessingException e) {
             throw new RuntimeException(e);
         }
@@ -107,20 +252,8 @@ public class DistributedDefinitionsManager implements IDefinitionsManager {
     @Override
     public Map<String, Definition> getDefinitionMap() {
         Map<String, Definition> definitionMap = new HashMap<>();
-        try(Jedis jedis = jedisPool.getResource()) {
-            Set<String> keys = jedis.keys(SCHEMA_WILDCARD);
-            String[] keysArr = keys.toArray(new String[0]);
-            List<String> definitionsStr = jedis.mget(keysArr);
-            for (int i = 0; i < definitionsStr.size(); i++) {
-                String definitionStr = definitionsStr.get(i);
-                JsonNode jsonNode = objectMapper.readTree(definitionStr);
-                Definition definition = new Definition(jsonNode);
-                definitionMap.put(keysArr[i], definition);
-            }
-            return definitionMap;
-        } catch (JsonProcessingException e) {
-            throw new RuntimeException(e);
-        }
+        getDefinitions(getAllKnownDefinitions()).forEach((name, definition) -> definitionMap.put(SCHEMA + name, definition));
+        return definitionMap;
     }
 
     @Override
@@ -130,16 +263,12 @@ public class DistributedDefinitionsManager implements IDefinitionsManager {
 
     @Override
     public List<OwnershipsAttributes> getOwnershipAttributes(String entity) {
-        try(Jedis jedis = jedisPool.getResource()) {
-            String value = jedis.get(SCHEMA + entity);
-            if(value != null) {
-                JsonNode schemaJson = objectMapper.readTree(value);
-                Definition definition = new Definition(schemaJson);
+        try {
+            Definition definition = getDefinition(entity);
+            if(definition != null) {
                 return definition.getOsSchemaConfiguration().getOwnershipAttributes();
             }
             return Collections.emptyList();
-        } catch (JsonProcessingException e) {
-            throw new RuntimeException(e);
         } catch (NullPointerException e) {
             return Collections.emptyList();
         }
@@ -147,9 +276,7 @@ public class DistributedDefinitionsManager implements IDefinitionsManager {
 
     @Override
     public boolean isValidEntityName(String entityName) {
-        try(Jedis jedis = jedisPool.getResource()) {
-            return jedis.exists(SCHEMA + entityName);
-        }
+        return getAllKnownDefinitions().contains(entityName);
     }
 
     @Override
@@ -167,7 +294,9 @@ public class DistributedDefinitionsManager implements IDefinitionsManager {
     public void appendNewDefinition(Definition definition) {
         try(Jedis jedis = jedisPool.getResource()) {
             jedis.set(SCHEMA+definition.getTitle(), definition.getContent());
+            jedis.sadd(SCHEMA_NAMES, definition.getTitle());
         }
+        definitionsChanged();
     }
 
     @Override
@@ -184,11 +313,13 @@ public class DistributedDefinitionsManager implements IDefinitionsManager {
 
     @Override
     public void removeDefinition(String schema) {
+        String title = schema.startsWith(SCHEMA) ? schema.substring(SCHEMA.length()) : schema;
         try(Jedis jedis = jedisPool.getResource()) {
-            jedis.del(schema);
+            jedis.del(SCHEMA + title);
+            jedis.srem(SCHEMA_NAMES, title);
         } catch (Exception e) {
             throw new RuntimeException(e);
         }
+        definitionsChanged();
     }
 }
-
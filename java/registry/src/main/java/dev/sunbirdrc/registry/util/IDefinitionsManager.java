@@ -53,9 +53,9 @@ public interface IDefinitionsManager {
     default Map<String, Set<String>> getExcludingFields() {
         Map<String, Set<String>> result = new HashMap<>();
         for (String index : getAllKnownDefinitions()) {
-            List<String> internalFields = getDefinition(index)
+            List<String> internalFields = new ArrayList<>(getDefinition(index)
                     .getOsSchemaConfiguration()
-                    .getInternalFields();
+                    .getInternalFields());
             List<String> privateFields = getDefinition(index)
                     .getOsSchemaConfiguration()
                     .getPrivateFields();
@@ -1,26 +1,29 @@
 package dev.sunbirdrc.registry.util;
 
 import com.fasterxml.jackson.databind.JsonNode;
-import com.fasterxml.jackson.databind.node.ArrayNode;
-import com.fasterxml.jackson.databind.node.JsonNodeFactory;
-import com.jayway.jsonpath.DocumentContext;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.node.ObjectNode;
+import com.jayway.jsonpath.Configuration;
 import com.jayway.jsonpath.JsonPath;
 import com.jayway.jsonpath.PathNotFoundException;
+import com.jayway.jsonpath.spi.json.JacksonJsonNodeJsonProvider;
+import com.jayway.jsonpath.spi.mapper.JacksonMappingProvider;
 import dev.sunbirdrc.registry.exception.EncryptionException;
 import dev.sunbirdrc.registry.middleware.util.Constants;
-import dev.sunbirdrc.registry.middleware.util.JSONUtil;
 import dev.sunbirdrc.registry.service.EncryptionService;
-import org.apache.commons.lang3.exception.ExceptionUtils;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import org.springframework.beans.factory.annotation.Autowired;
 
-import java.io.IOException;
+import java.util.ArrayList;
+import java.util.Collections;
 import java.util.HashMap;
 import java.util.Iterator;
 import java.util.List;
 import java.util.Map;
-import java.util.stream.Collectors;
+import java.util.Objects;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.regex.Pattern;
 
 public class PrivateField {
     @Autowired
@@ -29,126 +32,220 @@ public class PrivateField {
     public IDefinitionsManager definitionsManager;
     private Logger logger = LoggerFactory.getLogger(PrivateField.class);
 
+    private static final Pattern PROPERTY_PATH = Pattern.compile("^\\$(\\.[^.\\[\\]*]+)+$");
+    private static final Configuration jacksonConfig = Configuration.builder()
+            .jsonProvider(new JacksonJsonNodeJsonProvider())
+            .mappingProvider(new JacksonMappingProvider())
+            .build();
+    private static final ObjectMapper objectMapper = new ObjectMapper();
+
+    // Private field paths of each definition, compiled again when the definition is replaced
+    private final Map<String, CompiledPrivateFields> compiledPrivateFields = new ConcurrentHashMap<>();
+
+    protected Map<String, Object> performOperation(Map<String, Object> plainMap) throws EncryptionException {
+        return null;
+    }
+
     /**
-     * Identifies the keys in the rootNode that needs to be encrypted/decrypted
-     * @param rootNode
-     * @param privatePropertyLst
-     * @return the keys and values that need to be encrypted/decrypted based on base call
+     * Encrypts/decrypts the private fields of the node and of its nested objects, all of them in
+     * one call to the encryption service. The node given is not modified.
+     *
+     * @param jsonNode
+     * @param rootFieldName the definition of the node
+     * @param fieldName     the field of the root definition holding the node, if it is nested
+     * @return a copy of the node with the private fields replaced
      */
-    public Map<String, Object> getPrivateFields(JsonNode rootNode, List<String> privatePropertyLst) {
-        Map<String, Object> plainKeyValues = new HashMap<>();
-        if(privatePropertyLst != null) {
-            DocumentContext documentContext = JsonPath.parse(rootNode.toString());
-            privatePropertyLst.forEach(path -> {
-                try {
-                    Object read = documentContext.read(path);
-                    plainKeyValues.put(path, read);
-                } catch (PathNotFoundException ignored) {
-                }
+    protected JsonNode process(JsonNode jsonNode, String rootFieldName, String fieldName) throws EncryptionException {
+        JsonNode processed = jsonNode.deepCopy();
+        List<PrivateValue> privateValues = new ArrayList<>();
+        collect(processed, rootFieldName, fieldName, privateValues, new HashMap<>());
+        if (privateValues.isEmpty()) {
+            return processed;
+        }
 
-            });
+        Map<String, Object> plainMap = new HashMap<>();
+        for (int i = 0; i < privateValues.size(); i++) {
+            plainMap.put(String.valueOf(i), objectMapper.convertValue(privateValues.get(i).value, Object.class));
+        }
+        Map<String, Object> encodedMap = performOperation(plainMap);
+        if (encodedMap == null) {
+            return processed;
         }
-        return plainKeyValues;
+        for (int i = 0; i < privateValues.size(); i++) {
+            String key = String.valueOf(i);
+            if (encodedMap.containsKey(key)) {
+                privateValues.get(i).replace(objectMapper.valueToTree(encodedMap.get(key)));
+            }
+        }
+        return processed;
     }
 
     /**
-     * Given the root node, based on the privatePropertyList, fetch the encrypted/decrypted value.
-     * and replace the root node value (original unencrypted/decrypted)
+     * Collects the private values of the node, then those of its nested objects. The nested
+     * objects are looked up with the definitions of the fields holding them.
      *
-     * @param rootNode
-     * @param privatePropertyLst
-     * @param privateFieldMap Contains the values encrypted/decrypted based on base call
+     * @param collected the private values collected so far, by their parent and field
      */
-    public JsonNode replacePrivateFields(JsonNode rootNode, List<String> privatePropertyLst, Map<String, Object> privateFieldMap) throws IOException {
-        if (privatePropertyLst != null) {
-            DocumentContext documentContext = JsonPath.parse(rootNode.toString());
-            privateFieldMap.forEach(documentContext::set);
-            return JSONUtil.convertStringJsonNode(documentContext.jsonString());
+    private void collect(JsonNode jsonNode, String rootFieldName, String fieldName, List<PrivateValue> privateValues,
+                         Map<PrivateValue, PrivateValue> collected) {
+        for (PrivatePath privatePath : getPrivatePaths(rootFieldName, fieldName)) {
+            PrivateValue privateValue = privatePath.read(jsonNode);
+            if (privateValue != null && collected.putIfAbsent(privateValue, privateValue) == null) {
+                privateValues.add(privateValue);
+            }
         }
-        return rootNode;
-    }
 
-    protected Map<String, Object> performOperation(Map<String, Object> plainMap) throws EncryptionException {
-        return null;
+        String tempFieldName = fieldName;
+        if (null == tempFieldName) {
+            tempFieldName = rootFieldName;
+        }
+
+        JsonNode toProcess = jsonNode;
+        JsonNode childNode = jsonNode.get(tempFieldName);
+        if (null != childNode) {
+            toProcess = childNode;
+        }
+
+        Iterator<Map.Entry<String, JsonNode>> fieldsItr = toProcess.fields();
+        while (fieldsItr.hasNext()) {
+            Map.Entry<String, JsonNode> entry = fieldsItr.next();
+            JsonNode entryValue = entry.getValue();
+            boolean isNotSignatures = !Constants.SIGNATURES_STR.equals(entry.getKey());
+            // A private object is replaced as a whole, its fields are not processed
+            if (!isNotSignatures || collected.containsKey(new PrivateValue(toProcess, entry.getKey(), null))) {
+                continue;
+            }
+            logger.debug("Processing {}.{}", tempFieldName, entry.getKey());
+            if (entryValue.isObject()) {
+                collect(entryValue, tempFieldName, entry.getKey(), privateValues, collected);
+            } else if (entryValue.isArray()) {
+                for (JsonNode element : entryValue) {
+                    if (element.isObject()) {
+                        collect(element, tempFieldName, entry.getKey(), privateValues, collected);
+                    }
+                }
+            }
+        }
     }
 
-    protected JsonNode processPrivateFields(JsonNode element, String rootDefinitionName, String childFieldName) throws EncryptionException {
-        JsonNode tempElement = element;
-        Definition definition = definitionsManager.getDefinition(rootDefinitionName);;
+    /**
+     * Returns the private field paths of the definition, or of the definition of its field
+     */
+    private List<PrivatePath> getPrivatePaths(String rootDefinitionName, String childFieldName) {
+        Definition definition = definitionsManager.getDefinition(rootDefinitionName);
         if (null != childFieldName && definition != null) {
             String defnName = definition.getDefinitionNameForField(childFieldName);
             Definition childDefinition = definitionsManager.getDefinition(defnName);
             if (null == childDefinition) {
                 logger.info("Cannot get child name definition {}", childFieldName);
-                return element;
+                return Collections.emptyList();
             }
             definition = childDefinition;
         } else if (definition == null) {
-            return element;
-        }
-
-        List<String> privatePropertyLst = definition.getOsSchemaConfiguration().getPrivateFields()
-                .stream().map(d -> {
-                    if (!d.startsWith("$."))
-                        return String.format("$.%s", d.replaceAll("/", "."));
-                    return d;
-                }).collect(Collectors.toList());
-        Map<String, Object> plainMap = getPrivateFields(element, privatePropertyLst);
-        if (null != plainMap && !plainMap.isEmpty()) {
-            Map<String, Object> encodedMap = performOperation(plainMap);
-            try {
-                tempElement = replacePrivateFields(element, privatePropertyLst, encodedMap);
-            } catch (IOException e) {
-                throw new RuntimeException(e);
+            return Collections.emptyList();
+        }
+
+        CompiledPrivateFields compiled = compiledPrivateFields.get(definition.getTitle());
+        if (compiled == null || compiled.definition != definition) {
+            compiled = new CompiledPrivateFields(definition);
+            compiledPrivateFields.put(definition.getTitle(), compiled);
+        }
+        return compiled.paths;
+    }
+
+    private static class CompiledPrivateFields {
+        private final Definition definition;
+        private final List<PrivatePath> paths = new ArrayList<>();
+
+        CompiledPrivateFields(Definition definition) {
+            this.definition = definition;
+            for (String privateField : definition.getOsSchemaConfiguration().getPrivateFields()) {
+                String path = privateField.startsWith("$.") ? privateField : String.format("$.%s", privateField.replaceAll("/", "."));
+                paths.add(new PrivatePath(path));
             }
         }
-        return tempElement;
     }
 
-    private ArrayNode processArray(ArrayNode arrayNode, String rootFieldName, String fieldName) throws EncryptionException {
-        ArrayNode updatedArrayNode = JsonNodeFactory.instance.arrayNode();
-        for (JsonNode jsonNode : arrayNode) {
-            JsonNode updatedNode = jsonNode;
-            if (jsonNode.isObject()) {
-                updatedNode = process(jsonNode, rootFieldName, fieldName);
+    /**
+     * A private field path. Paths of plain property names are followed field by field, others
+     * are read as json paths.
+     */
+    private static class PrivatePath {
+        private final String[] properties;
+        private final JsonPath jsonPath;
+
+        PrivatePath(String path) {
+            if (PROPERTY_PATH.matcher(path).matches()) {
+                properties = path.substring(2).split("\\.");
+                jsonPath = null;
+            } else {
+                properties = null;
+                jsonPath = JsonPath.compile(path);
+            }
+        }
+
+        /**
+         * Returns the value of the path in the node, null if it has none
+         */
+        PrivateValue read(JsonNode node) {
+            if (properties != null) {
+                JsonNode parent = node;
+                for (int i = 0; i < properties.length - 1 && parent != null; i++) {
+                    parent = parent.get(properties[i]);
+                }
+                String field = properties[properties.length - 1];
+                if (parent == null || !parent.isObject() || parent.get(field) == null || parent.get(field).isNull()) {
+                    return null;
+                }
+                return new PrivateValue(parent, field, parent.get(field));
+            }
+            try {
+                Object value = JsonPath.using(jacksonConfig).parse(node).read(jsonPath);
+                if (value == null || value instanceof JsonNode && ((JsonNode) value).isNull()) {
+                    return null;
+                }
+                return new PrivateValue(node, jsonPath, value instanceof JsonNode ? (JsonNode) value : objectMapper.valueToTree(value));
+            } catch (PathNotFoundException e) {
+                return null;
             }
-            updatedArrayNode.add(updatedNode);
         }
-        return updatedArrayNode;
     }
 
-    protected JsonNode process(JsonNode jsonNode, String rootFieldName, String fieldName) throws EncryptionException {
-        jsonNode = processPrivateFields(jsonNode, rootFieldName, fieldName);
+    /**
+     * A private value and where to write its encrypted/decrypted value, either a field of an
+     * object or a json path of a node
+     */
+    private static class PrivateValue {
+        private final JsonNode parent;
+        private final Object location;
+        private final JsonNode value;
 
-        String tempFieldName = fieldName;
-        if (null == tempFieldName) {
-            tempFieldName = rootFieldName;
+        PrivateValue(JsonNode parent, Object location, JsonNode value) {
+            this.parent = parent;
+            this.location = location;
+            this.value = value;
         }
 
-        JsonNode toProcess = jsonNode;
-        JsonNode childNode = jsonNode.get(tempFieldName);
-        if (null != childNode) {
-            toProcess = childNode;
+        void replace(JsonNode replacement) {
+            if (location instanceof JsonPath) {
+                JsonPath.using(jacksonConfig).parse(parent).set((JsonPath) location, replacement);
+            } else {
+                ((ObjectNode) parent).set((String) location, replacement);
+            }
         }
 
-        Iterator<Map.Entry<String, JsonNode>> fieldsItr = toProcess.fields();
-        while (fieldsItr.hasNext()) {
-            try {
-                Map.Entry<String, JsonNode> entry = fieldsItr.next();
-                JsonNode entryValue = entry.getValue();
-                logger.debug("Processing {}.{} -> {}", tempFieldName, entry.getKey(), entry.getValue());
-                boolean isNotSignatures = !Constants.SIGNATURES_STR.equals(entry.getKey());
-
-                if (isNotSignatures && entryValue.isObject()) {
-                    // Recursive calls
-                    entry.setValue(process(entryValue, tempFieldName, entry.getKey()));
-                } else if (isNotSignatures && entryValue.isArray()) {
-                    entry.setValue(processArray((ArrayNode) entryValue, tempFieldName, entry.getKey()));
-                }
-            } catch (EncryptionException e) {
-                logger.error("Exception occurred in PrivateField: {}", ExceptionUtils.getStackTrace(e));
+        @Override
+        public boolean equals(Object o) {
+            if (!(o instanceof PrivateValue)) {
+                return false;
             }
+            PrivateValue that = (PrivateValue) o;
+            return parent == that.parent && location.equals(that.location);
+        }
+
+        @Override
+        public int hashCode() {
+            return Objects.hash(System.identityHashCode(parent), location);
         }
-        return jsonNode;
     }
 }
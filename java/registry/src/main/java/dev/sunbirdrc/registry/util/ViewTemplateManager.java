@@ -53,6 +53,8 @@ public class ViewTemplateManager {
 		for (Entry<String, String> jsonNode : osResourceLoader.getNameContent().entrySet()) {
 			try {
 				ViewTemplate template = mapper.readValue(jsonNode.getValue(), ViewTemplate.class);
+				// Parses the functions once, instead of on every transformation
+				template.compile();
 				templates.put(jsonNode.getKey(), template);
 			} catch (Exception e) {
 				logger.error("ViewTemplate could not be create for {}", jsonNode.getKey());
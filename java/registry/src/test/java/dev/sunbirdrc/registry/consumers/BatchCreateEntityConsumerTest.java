@@ -0,0 +1,192 @@
+package dev.sunbirdrc.registry.consumers;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import dev.sunbirdrc.registry.helper.RegistryHelper;
+import dev.sunbirdrc.registry.model.dto.CreateEntityStatus;
+import dev.sunbirdrc.registry.model.dto.PostCreateEntityMessage;
+import dev.sunbirdrc.registry.service.RegistryService;
+import dev.sunbirdrc.registry.service.WebhookService;
+import dev.sunbirdrc.registry.sink.shard.Shard;
+import dev.sunbirdrc.registry.sink.shard.ShardManager;
+import org.apache.kafka.clients.consumer.ConsumerRecord;
+import org.junit.Before;
+import org.junit.Test;
+import org.springframework.kafka.KafkaException;
+import org.springframework.kafka.core.KafkaTemplate;
+import org.springframework.kafka.support.Acknowledgment;
+import org.springframework.kafka.support.SendResult;
+import org.springframework.test.util.ReflectionTestUtils;
+import org.springframework.util.concurrent.SettableListenableFuture;
+
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.stream.Collectors;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.fail;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyBoolean;
+import static org.mockito.ArgumentMatchers.anyList;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.*;
+
+@SuppressWarnings("unchecked")
+public class BatchCreateEntityConsumerTest {
+    private static final String TOPIC = "create_entity";
+
+    private final ObjectMapper objectMapper = new ObjectMapper();
+    private final Shard shard1 = new Shard("shard1", "1", null);
+    private final Shard shard2 = new Shard("shard2", "2", null);
+    private final RegistryService registryService = mock(RegistryService.class);
+    private final KafkaTemplate<String, String> kafkaTemplate = mock(KafkaTemplate.class);
+    private final WebhookService webhookService = mock(WebhookService.class);
+    private final Acknowledgment acknowledgment = mock(Acknowledgment.class);
+    private final Map<String, PostCreateEntityMessage> sent = new HashMap<>();
+    private BatchCreateEntityConsumer consumer;
+
+    @Before
+    public void setUp() throws Exception {
+        ShardManager shardManager = mock(ShardManager.class);
+        when(shardManager.getShardProperty()).thenReturn("school");
+        when(shardManager.getShard(any())).thenAnswer(invocation -> {
+            JsonNode school = invocation.getArgument(0);
+            return school.asText().equals("s2") ? shard2 : shard1;
+        });
+        when(registryService.addEntities(any(), anyString(), anyList(), anyBoolean())).thenAnswer(invocation -> {
+            List<JsonNode> inputJsons = invocation.getArgument(2);
+            return inputJsons.stream().map(this::getUuid).collect(Collectors.toList());
+        });
+        when(registryService.addEntity(any(), anyString(), any(), anyBoolean()))
+                .thenAnswer(invocation -> getUuid(invocation.getArgument(2)));
+        doAnswer(invocation -> {
+            sent.put(invocation.getArgument(1), objectMapper.readValue((String) invocation.getArgument(2), PostCreateEntityMessage.class));
+            return getSentFuture();
+        }).when(kafkaTemplate).send(anyString(), anyString(), anyString());
+
+        consumer = new BatchCreateEntityConsumer(objectMapper, shardManager, kafkaTemplate, registryService,
+                mock(RegistryHelper.class), webhookService);
+        ReflectionTestUtils.setField(consumer, "postCreateEntityTopic", "post_create_entity");
+        ReflectionTestUtils.setField(consumer, "webhookUrl", "http://localhost/webhook");
+    }
+
+    @Test
+    public void shouldAddTheRecordsOfAShardAndUserTogether() throws Exception {
+        List<ConsumerRecord<String, String>> records = Arrays.asList(
+                getRecord(0, "t0", "s1", "user1"),
+                getRecord(1, "t1", "s2", "user1"),
+                getRecord(2, "t2", "s1", "user2"),
+                getRecord(3, "t3", "s1", "user1"));
+
+        consumer.createEntitiesConsumer(records, acknowledgment);
+
+        verify(registryService).addEntities(eq(shard1), eq("user1"), eq(Arrays.asList(getInputJson("t0", "s1"), getInputJson("t3", "s1"))), eq(false));
+        verify(registryService).addEntities(eq(shard2), eq("user1"), eq(Arrays.asList(getInputJson("t1", "s2"))), eq(false));
+        verify(registryService).addEntities(eq(shard1), eq("user2"), eq(Arrays.asList(getInputJson("t2", "s1"))), eq(false));
+        verify(registryService, never()).addEntity(any(), anyString(), any(), anyBoolean());
+        verify(acknowledgment).acknowledge();
+        verify(webhookService, times(4)).dispatchEvent(any());
+    }
+
+    @Test
+    public void shouldSendTheStatusOfEachRecordUnderItsKey() throws Exception {
+        List<ConsumerRecord<String, String>> records = Arrays.asList(
+                getRecord(0, "t0", "s1", "user1"),
+                getRecord(1, "t1", "s2", "user1"),
+                getRecord(2, "t2", "s1", "user1"),
+                new ConsumerRecord<>(TOPIC, 0, 3, "key3", "not json"));
+
+        consumer.createEntitiesConsumer(records, acknowledgment);
+
+        assertEquals(4, sent.size());
+        for (int i = 0; i < 3; i++) {
+            PostCreateEntityMessage message = sent.get("key" + i);
+            assertEquals(CreateEntityStatus.SUCCESSFUL, message.getStatus());
+            assertEquals("uuid-t" + i, message.getUuid());
+            assertEquals("Teacher", message.getEntityType());
+            assertEquals("key" + i, message.getTransactionId());
+        }
+        assertEquals(CreateEntityStatus.FAILED, sent.get("key3").getStatus());
+        verify(acknowledgment).acknowledge();
+    }
+
+    @Test
+    public void shouldAddTheRecordsOneByOneWhenTheirGroupFails() throws Exception {
+        doThrow(new RuntimeException("invalid t1")).when(registryService).addEntities(any(), anyString(), anyList(), anyBoolean());
+        doAnswer(invocation -> {
+            JsonNode inputJson = invocation.getArgument(2);
+            if (inputJson.get("Teacher").get("name").asText().equals("t1")) {
+                throw new RuntimeException("invalid t1");
+            }
+            return getUuid(inputJson);
+        }).when(registryService).addEntity(any(), anyString(), any(), anyBoolean());
+        List<ConsumerRecord<String, String>> records = Arrays.asList(
+                getRecord(0, "t0", "s1", "user1"),
+                getRecord(1, "t1", "s1", "user1"),
+                getRecord(2, "t2", "s1", "user1"));
+
+        consumer.createEntitiesConsumer(records, acknowledgment);
+
+        verify(registryService, times(3)).addEntity(eq(shard1), eq("user1"), any(), eq(false));
+        assertEquals(CreateEntityStatus.SUCCESSFUL, sent.get("key0").getStatus());
+        assertEquals("uuid-t0", sent.get("key0").getUuid());
+        assertEquals(CreateEntityStatus.FAILED, sent.get("key1").getStatus());
+        assertEquals("invalid t1", sent.get("key1").getMessage());
+        assertEquals(CreateEntityStatus.SUCCESSFUL, sent.get("key2").getStatus());
+        assertEquals("uuid-t2", sent.get("key2").getUuid());
+        verify(acknowledgment).acknowledge();
+    }
+
+    @Test
+    public void shouldNotAcknowledgeAPollWhoseStatusesWereNotSent() throws Exception {
+        List<ConsumerRecord<String, String>> records = Arrays.asList(
+                getRecord(0, "t0", "s1", "user1"),
+                getRecord(1, "t1", "s1", "user1"));
+        doAnswer(invocation -> {
+            SettableListenableFuture<SendResult<String, String>> future = new SettableListenableFuture<>();
+            future.setException(new IllegalStateException("broker down"));
+            return future;
+        }).when(kafkaTemplate).send(anyString(), eq("key1"), anyString());
+
+        try {
+            consumer.createEntitiesConsumer(records, acknowledgment);
+            fail("A poll whose statuses were not sent should fail");
+        } catch (KafkaException e) {
+            // expected
+        }
+        verify(acknowledgment, never()).acknowledge();
+        verify(webhookService, never()).dispatchEvent(any());
+
+        // The container hands the poll again, the entities must not be added twice
+        doAnswer(invocation -> getSentFuture()).when(kafkaTemplate).send(anyString(), eq("key1"), anyString());
+        consumer.createEntitiesConsumer(records, acknowledgment);
+
+        verify(registryService, times(1)).addEntities(any(), anyString(), anyList(), anyBoolean());
+        verify(acknowledgment).acknowledge();
+        verify(webhookService, times(2)).dispatchEvent(any());
+    }
+
+    private ConsumerRecord<String, String> getRecord(int offset, String name, String school, String userId) throws Exception {
+        Map<String, Object> message = new HashMap<>();
+        message.put("userId", userId);
+        message.put("inputJson", getInputJson(name, school));
+        return new ConsumerRecord<>(TOPIC, 0, offset, "key" + offset, objectMapper.writeValueAsString(message));
+    }
+
+    private JsonNode getInputJson(String name, String school) throws Exception {
+        return objectMapper.readTree(String.format("{\"Teacher\": {\"name\": \"%s\", \"school\": \"%s\"}}", name, school));
+    }
+
+    private String getUuid(JsonNode inputJson) {
+        return "uuid-" + inputJson.get("Teacher").get("name").asText();
+    }
+
+    private SettableListenableFuture<SendResult<String, String>> getSentFuture() {
+        SettableListenableFuture<SendResult<String, String>> future = new SettableListenableFuture<>();
+        future.set(null);
+        return future;
+    }
+}
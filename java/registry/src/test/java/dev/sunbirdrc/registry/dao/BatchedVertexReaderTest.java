@@ -0,0 +1,129 @@
+package dev.sunbirdrc.registry.dao;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import dev.sunbirdrc.registry.middleware.util.Constants;
+import dev.sunbirdrc.registry.sink.DatabaseProvider;
+import dev.sunbirdrc.registry.sink.TinkerGraphProvider;
+import dev.sunbirdrc.registry.util.ReadConfigurator;
+import dev.sunbirdrc.registry.util.ReadConfiguratorFactory;
+import org.apache.tinkerpop.gremlin.structure.Graph;
+import org.apache.tinkerpop.gremlin.structure.Vertex;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+import java.util.Arrays;
+import java.util.Collections;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+public class BatchedVertexReaderTest {
+    private static final String uuidPropertyName = "osid";
+    private static final String TEACHER = "{\"Teacher\": {\"fullName\": \"abc\", \"serialNum\": 6, \"subjects\": [\"maths\", \"physics\"], " +
+            "\"address\": {\"city\": \"bangalore\", \"location\": {\"lat\": 12.9, \"long\": 77.5}}, " +
+            "\"education\": [{\"degree\": \"bsc\", \"marks\": {\"total\": 80}}, {\"degree\": \"msc\", \"marks\": {\"total\": 90}}], " +
+            "\"signatures\": [{\"signatureFor\": \"Teacher\", \"signatureValue\": \"xyz\"}]}}";
+
+    private DatabaseProvider databaseProvider;
+    private Graph graph;
+    private String teacherId;
+
+    @Before
+    public void setUp() throws Exception {
+        databaseProvider = new TinkerGraphProvider(null) {{
+            setUuidPropertyName(uuidPropertyName);
+        }};
+        graph = databaseProvider.getOSGraph().getGraphStore();
+        VertexWriter vertexWriter = new VertexWriter(graph, databaseProvider, uuidPropertyName);
+        teacherId = vertexWriter.writeNodeEntity(new ObjectMapper().readTree(TEACHER));
+    }
+
+    @After
+    public void tearDown() throws Exception {
+        databaseProvider.shutdown();
+    }
+
+    private void assertSameAsVertexReader(ReadConfigurator configurator) throws Exception {
+        VertexReader vertexReader = new VertexReader(databaseProvider, graph, configurator, uuidPropertyName, null, false);
+        JsonNode expected = vertexReader.read("Teacher", teacherId);
+        VertexReader batchedReader = new BatchedVertexReader(databaseProvider, graph, configurator, uuidPropertyName, null, false);
+        JsonNode actual = batchedReader.read("Teacher", teacherId);
+
+        assertEquals(expected.toString(), actual.toString());
+        assertEquals(vertexReader.getUuidVertexMap().keySet(), batchedReader.getUuidVertexMap().keySet());
+        assertTrue(batchedReader.getQueryCount() < vertexReader.getQueryCount());
+    }
+
+    @Test
+    public void shouldReadSameAsVertexReader() throws Exception {
+        assertSameAsVertexReader(ReadConfiguratorFactory.getDefault());
+    }
+
+    @Test
+    public void shouldReadSameAsVertexReaderWithSignaturesAndTypes() throws Exception {
+        assertSameAsVertexReader(ReadConfiguratorFactory.getForUpdateValidation());
+    }
+
+    @Test
+    public void shouldReadSameAsVertexReaderForLimitedDepth() throws Exception {
+        ReadConfigurator configurator = ReadConfiguratorFactory.getDefault();
+        configurator.setDepth(2);
+        assertSameAsVertexReader(configurator);
+    }
+
+    @Test
+    public void shouldSkipInactiveChildren() throws Exception {
+        Vertex education = graph.traversal().V().hasLabel("education").has("degree", "msc").next();
+        education.property(Constants.STATUS_KEYWORD, Constants.STATUS_INACTIVE);
+        assertSameAsVertexReader(ReadConfiguratorFactory.getDefault());
+    }
+
+    @Test
+    public void shouldReadChildrenNotStampedWithRoot() throws Exception {
+        // Children added by an update in older versions were stamped with their own identifier
+        Vertex education = graph.traversal().V().hasLabel("education").has("degree", "bsc").next();
+        VertexWriter vertexWriter = new VertexWriter(graph, databaseProvider, uuidPropertyName);
+        Vertex grade = vertexWriter.writeSingleNode(education, "grade", new ObjectMapper().readTree("{\"value\": \"A\", \"remarks\": {\"text\": \"good\"}}"));
+        String gradeId = databaseProvider.getId(grade);
+        grade.property(Constants.ROOT_KEYWORD, gradeId);
+        graph.traversal().V(grade.id()).out().forEachRemaining(v -> v.property(Constants.ROOT_KEYWORD, gradeId));
+
+        assertSameAsVertexReader(ReadConfiguratorFactory.getDefault());
+        JsonNode teacher = new BatchedVertexReader(databaseProvider, graph, ReadConfiguratorFactory.getDefault(), uuidPropertyName, null, false)
+                .read("Teacher", teacherId);
+        assertEquals("good", teacher.at("/Teacher/education/0/grade/remarks/text").asText());
+    }
+
+    @Test
+    public void shouldPreloadSeveralEntitiesTogether() throws Exception {
+        VertexWriter vertexWriter = new VertexWriter(graph, databaseProvider, uuidPropertyName);
+        String otherTeacherId = vertexWriter.writeNodeEntity(new ObjectMapper().readTree(TEACHER.replace("abc", "def")));
+        ReadConfigurator configurator = ReadConfiguratorFactory.getDefault();
+
+        VertexReader vertexReader = new VertexReader(databaseProvider, graph, configurator, uuidPropertyName, null, false);
+        JsonNode expected = vertexReader.read("Teacher", teacherId);
+        JsonNode otherExpected = new VertexReader(databaseProvider, graph, configurator, uuidPropertyName, null, false)
+                .read("Teacher", otherTeacherId);
+
+        VertexReader batchedReader = new BatchedVertexReader(databaseProvider, graph, configurator, uuidPropertyName, null, false);
+        Vertex teacher = batchedReader.getVertex("Teacher", teacherId);
+        Vertex otherTeacher = batchedReader.getVertex("Teacher", otherTeacherId);
+        batchedReader.preload(Arrays.asList(teacher, otherTeacher));
+        int preloadQueryCount = batchedReader.getQueryCount();
+
+        assertEquals(expected.toString(), batchedReader.readInternal(teacher).toString());
+        assertEquals(otherExpected.toString(), batchedReader.readInternal(otherTeacher).toString());
+        assertEquals(preloadQueryCount, batchedReader.getQueryCount());
+    }
+
+    @Test
+    public void shouldStampRootOnChildrenAddedLater() throws Exception {
+        Vertex address = graph.traversal().V().hasLabel("address").next();
+        VertexWriter vertexWriter = new VertexWriter(graph, databaseProvider, uuidPropertyName);
+        Vertex pin = vertexWriter.writeSingleNode(address, "pin", new ObjectMapper().readTree("{\"code\": \"560001\"}"));
+        assertEquals(teacherId, pin.value(Constants.ROOT_KEYWORD));
+        assertEquals(Collections.singletonList(pin), graph.traversal().V().hasLabel("pin").has(Constants.ROOT_KEYWORD, teacherId).toList());
+    }
+}
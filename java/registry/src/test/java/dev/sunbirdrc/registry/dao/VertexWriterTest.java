@@ -125,6 +125,10 @@ public class VertexWriterTest {
         TextNode references = JsonNodeFactory.instance.textNode("did:some_entity:123");
         entryValue.set("references", references);
         Mockito.when(mockDatabaseProvider.getId(vertex)).thenReturn("123");
+        VertexProperty vertexProperty = Mockito.mock(VertexProperty.class);
+        Mockito.when(vertexProperty.isPresent()).thenReturn(false);
+        Mockito.when(parentVertex.property(Constants.ROOT_KEYWORD)).thenReturn(vertexProperty);
+        Mockito.when(vertex.property(Constants.ROOT_KEYWORD)).thenReturn(vertexProperty);
         Vertex actualVertex = vertexWriter.writeSingleNode(parentVertex, label, entryValue);
         Mockito.verify(vertex, Mockito.times(1)).property("references", "did:some_entity:123");
         Mockito.verify(vertex, Mockito.times(1)).property("field1", "value1");
@@ -19,6 +19,7 @@ import dev.sunbirdrc.registry.sink.DBProviderFactory;
 import dev.sunbirdrc.registry.sink.DatabaseProvider;
 import dev.sunbirdrc.registry.util.DefinitionsManager;
 import dev.sunbirdrc.registry.util.OSResourceLoader;
+import dev.sunbirdrc.registry.util.ReadConfigurator;
 import java.io.IOException;
 import java.util.ArrayList;
 import java.util.List;
@@ -38,6 +39,7 @@ import org.springframework.test.context.ActiveProfiles;
 import org.springframework.test.context.junit4.SpringRunner;
 
 import static dev.sunbirdrc.registry.middleware.util.Constants.ENTITY_LIST;
+import static dev.sunbirdrc.registry.middleware.util.Constants.QUERY_COUNT;
 import static dev.sunbirdrc.registry.middleware.util.Constants.TOTAL_COUNT;
 import static org.junit.Assert.*;
 
@@ -202,6 +204,30 @@ public class SearchDaoImplTest {
         assertEquals(1, result.get("Teacher").get(ENTITY_LIST).size());
     }
 
+    @Test
+    public void testBatchedReadOfResults() throws Exception {
+        SearchQuery searchQuery = new SearchQuery(entities, 0, 100);
+        IRegistryDao batchedRegistryDao = new RegistryDaoImpl(databaseProvider, definitionsManager, "tid", expandReferenceObj, true);
+        JsonNode batched = new SearchDaoImpl(batchedRegistryDao, true).search(graph, searchQuery, expandInternal);
+        IRegistryDao registryDao = new RegistryDaoImpl(databaseProvider, definitionsManager, "tid", expandReferenceObj, false);
+        JsonNode unbatched = new SearchDaoImpl(registryDao, true).search(graph, searchQuery, expandInternal);
+
+        assertEquals(unbatched.get("Teacher").get(ENTITY_LIST), batched.get("Teacher").get(ENTITY_LIST));
+        // The reader shared by the page reads each entity as a reader of its own does
+        ReadConfigurator configurator = new ReadConfigurator();
+        configurator.setIncludeSignatures(false);
+        configurator.setIncludeTypeAttributes(false);
+        for (JsonNode entity : batched.get("Teacher").get(ENTITY_LIST)) {
+            Vertex vertex = graph.traversal().V().has("tid", entity.get("tid").asText()).next();
+            assertEquals(registryDao.getEntity(graph, vertex, configurator, expandInternal), entity);
+        }
+        int results = batched.get("Teacher").get(ENTITY_LIST).size();
+        assertTrue(results > 1);
+        assertEquals(2 + results, unbatched.get("Teacher").get(QUERY_COUNT).asInt());
+        assertEquals(4, batched.get("Teacher").get(QUERY_COUNT).asInt());
+        assertFalse(searchDao.search(graph, searchQuery, expandInternal).get("Teacher").has(QUERY_COUNT));
+    }
+
     @PreDestroy
     public void shutdown() throws Exception {
         graph.close();
@@ -17,6 +17,8 @@ import dev.sunbirdrc.registry.middleware.MiddlewareHaltException;
 import dev.sunbirdrc.registry.middleware.service.ConditionResolverService;
 import dev.sunbirdrc.registry.middleware.util.Constants;
 import dev.sunbirdrc.registry.model.DBConnectionInfoMgr;
+import dev.sunbirdrc.registry.model.dto.BulkEntityResult;
+import dev.sunbirdrc.registry.model.dto.CreateEntityStatus;
 import dev.sunbirdrc.registry.service.*;
 import dev.sunbirdrc.registry.sink.shard.Shard;
 import dev.sunbirdrc.registry.sink.shard.ShardManager;
@@ -50,6 +52,7 @@ import java.io.File;
 import java.io.IOException;
 import java.nio.charset.Charset;
 import java.util.*;
+import java.util.stream.Collectors;
 
 import static dev.sunbirdrc.registry.Constants.*;
 import static dev.sunbirdrc.registry.middleware.util.Constants.ENTITY_LIST;
@@ -671,6 +674,23 @@ public class RegistryHelperTest {
 		verify(registryAsyncService, atLeastOnce()).addEntity(any(), anyString(), any(), anyBoolean());
 	}
 
+	@Test
+	public void shouldPublishTheBulkEntitiesInAsyncMode() throws Exception {
+		Map<Long, JsonNode> inputJsons = new LinkedHashMap<>();
+		inputJsons.put(1L, new ObjectMapper().readTree("{\"Institute\":{\"instituteName\":\"gecasu\"}}"));
+		inputJsons.put(2L, new ObjectMapper().readTree("{\"Institute\":{\"instituteName\":\"ihises\"}}"));
+		when(shardManager.getShard(any())).thenReturn(new Shard());
+		when(registryAsyncService.addEntity(any(), any(), any(), anyBoolean())).thenReturn("transaction1", "transaction2");
+		when(asyncRequest.isEnabled()).thenReturn(Boolean.TRUE);
+
+		List<BulkEntityResult> results = registryHelper.addEntities(inputJsons, "");
+
+		assertEquals(Arrays.asList("transaction1", "transaction2"),
+				results.stream().map(BulkEntityResult::getEntityId).collect(Collectors.toList()));
+		assertTrue(results.stream().allMatch(result -> result.getStatus() == CreateEntityStatus.SUCCESSFUL));
+		verify(registryService, never()).addEntities(any(), anyString(), anyList(), anyBoolean());
+	}
+
 	@Test
 	public void shouldRaiseClaimIfAttestationTypeIsAutomated() throws Exception {
 		mockDefinitionManager();
@@ -22,10 +22,13 @@ import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
 import org.springframework.test.context.ActiveProfiles;
 import org.springframework.test.context.junit4.SpringRunner;
+import org.springframework.test.util.ReflectionTestUtils;
 
 import java.io.IOException;
 import java.lang.reflect.Field;
 import java.util.*;
+import java.util.concurrent.*;
+import java.util.concurrent.atomic.AtomicInteger;
 
 import static org.junit.Assert.*;
 import static org.mockito.Mockito.*;
@@ -248,4 +251,61 @@ public class CredentialSchemaServiceTest {
         assertNotNull(failedHealthInfo);
         assertFalse(failedHealthInfo.isHealthy());
     }
-}
\ No newline at end of file
+
+    private void initSchemaCache() {
+        ReflectionTestUtils.setField(credentialSchemaServiceMock, "cacheMaximumSize", 100L);
+        ReflectionTestUtils.setField(credentialSchemaServiceMock, "cacheTtlSeconds", 600L);
+        credentialSchemaServiceMock.init();
+    }
+
+    @Test
+    public void test_getLatestSchemaByTitle_fetches_once_for_concurrent_misses() throws Exception {
+        initSchemaCache();
+        JsonNode schema = new ObjectMapper().readTree("{\"status\": \"DRAFT\", \"schema\": { \"id\": \"did:schema:1\", \"version\": \"1.0.0\" }}");
+        AtomicInteger fetches = new AtomicInteger();
+        doAnswer(invocation -> {
+            fetches.incrementAndGet();
+            Thread.sleep(100);
+            return schema;
+        }).when(credentialSchemaServiceMock).getLatestSchemaByTags(Collections.singletonList("Title1"));
+
+        ExecutorService executor = Executors.newFixedThreadPool(8);
+        try {
+            CountDownLatch start = new CountDownLatch(1);
+            List<Future<JsonNode>> results = new ArrayList<>();
+            for (int i = 0; i < 8; i++) {
+                results.add(executor.submit(() -> {
+                    start.await();
+                    return credentialSchemaServiceMock.getLatestSchemaByTitle("Title1");
+                }));
+            }
+            start.countDown();
+            for (Future<JsonNode> result : results) {
+                assertEquals(schema, result.get(10, TimeUnit.SECONDS));
+            }
+        } finally {
+            executor.shutdownNow();
+        }
+        assertEquals(schema, credentialSchemaServiceMock.getLatestSchemaByTitle("Title1"));
+        assertEquals(1, fetches.get());
+    }
+
+    @Test
+    public void test_ensureCredentialSchema_refreshes_the_cached_schema() throws Exception {
+        initSchemaCache();
+        JsonNode oldSchema = new ObjectMapper().readTree("{\"status\": \"DRAFT\", \"schema\": { \"id\": \"did:schema:1\", \"version\": \"1.0.0\", \"schema\": { \"properties\": { \"name\": {} } } }}");
+        JsonNode newSchema = new ObjectMapper().readTree("{\"status\": \"DRAFT\", \"schema\": { \"id\": \"did:schema:1\", \"version\": \"1.1.0\", \"schema\": { \"properties\": { \"name\": {}, \"age\": {} } } }}");
+        doReturn(oldSchema, oldSchema, newSchema).when(credentialSchemaServiceMock).getLatestSchemaByTags(Collections.singletonList("Title1"));
+        doReturn(null).when(credentialSchemaServiceMock).updateSchema(any(), any(), any(), any());
+        when(didService.ensureDidForName(any(), any())).thenReturn("did:author:1");
+        assertEquals(oldSchema, credentialSchemaServiceMock.getLatestSchemaByTitle("Title1"));
+
+        credentialSchemaServiceMock.ensureCredentialSchema("Title1",
+                "{ \"credentialSubject\": { \"name\": \"{{name}}\", \"age\": \"{{age}}\" } }", null);
+
+        verify(credentialSchemaServiceMock).updateSchema(eq("did:schema:1"), eq("1.0.0"), any(), eq("DRAFT"));
+        assertEquals(newSchema, credentialSchemaServiceMock.getLatestSchemaByTitle("Title1"));
+        assertEquals(newSchema, credentialSchemaServiceMock.getLatestSchemaByTitle("Title1"));
+        verify(credentialSchemaServiceMock, times(3)).getLatestSchemaByTags(Collections.singletonList("Title1"));
+    }
+}
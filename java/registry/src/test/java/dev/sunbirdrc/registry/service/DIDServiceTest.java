@@ -24,10 +24,19 @@ import org.mockito.Mock;
 import org.springframework.http.ResponseEntity;
 import org.springframework.test.context.ActiveProfiles;
 import org.springframework.test.context.junit4.SpringRunner;
+import org.springframework.test.util.ReflectionTestUtils;
 import org.springframework.web.client.RestClientException;
 
+import java.util.ArrayList;
 import java.util.HashMap;
+import java.util.List;
 import java.util.Map;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
 
 @RunWith(SpringRunner.class)
 @ActiveProfiles(Constants.TEST_ENVIRONMENT)
@@ -225,6 +234,41 @@ public class DIDServiceTest {
         return results;
     }
 
+    @Test
+    public void testEnsureDidForNameLooksUpOnceForConcurrentMisses() throws Exception {
+        DIDService cachedDidService = spy(didService);
+        ReflectionTestUtils.setField(cachedDidService, "cacheMaximumSize", 100L);
+        ReflectionTestUtils.setField(cachedDidService, "cacheTtlSeconds", 600L);
+        cachedDidService.init();
+        AtomicInteger lookups = new AtomicInteger();
+        doAnswer(invocation -> {
+            lookups.incrementAndGet();
+            Thread.sleep(100);
+            return "did:issuer:1";
+        }).when(cachedDidService).getDid("Issuer1");
+
+        ExecutorService executor = Executors.newFixedThreadPool(8);
+        try {
+            CountDownLatch start = new CountDownLatch(1);
+            List<Future<String>> results = new ArrayList<>();
+            for (int i = 0; i < 8; i++) {
+                results.add(executor.submit(() -> {
+                    start.await();
+                    return cachedDidService.ensureDidForName("Issuer1", "issuer");
+                }));
+            }
+            start.countDown();
+            for (Future<String> result : results) {
+                assertEquals("did:issuer:1", result.get(10, TimeUnit.SECONDS));
+            }
+        } finally {
+            executor.shutdownNow();
+        }
+        assertEquals("did:issuer:1", cachedDidService.ensureDidForName("Issuer1", "issuer"));
+        assertEquals(1, lookups.get());
+        verify(cachedDidService, never()).generateDid(any(), any());
+    }
+
     private JsonNode readTree(String value) throws JsonProcessingException {
         return new ObjectMapper().readTree(value);
     }
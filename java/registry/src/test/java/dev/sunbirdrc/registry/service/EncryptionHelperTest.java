@@ -0,0 +1,86 @@
+package dev.sunbirdrc.registry.service;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import dev.sunbirdrc.registry.util.Definition;
+import dev.sunbirdrc.registry.util.IDefinitionsManager;
+import org.junit.Before;
+import org.junit.Test;
+import org.mockito.ArgumentCaptor;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.mockito.MockitoAnnotations;
+
+import java.util.HashMap;
+import java.util.Map;
+
+import static org.junit.Assert.assertEquals;
+import static org.mockito.ArgumentMatchers.anyMap;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+public class EncryptionHelperTest {
+    private static final String TEACHER_SCHEMA = "{\"title\": \"Teacher\", \"definitions\": {\"Teacher\": {\"properties\": {" +
+            "\"name\": {\"type\": \"string\"}, \"email\": {\"type\": \"string\"}, " +
+            "\"identity\": {\"type\": \"object\", \"properties\": {\"id\": {\"type\": \"string\"}}}, " +
+            "\"experience\": {\"type\": \"array\", \"items\": {\"$ref\": \"Experience.json#/definitions/Experience\"}}}}}, " +
+            "\"_osConfig\": {\"privateFields\": [\"$.email\", \"identity/id\"]}}";
+    private static final String EXPERIENCE_SCHEMA = "{\"title\": \"Experience\", \"definitions\": {\"Experience\": {\"properties\": {" +
+            "\"institute\": {\"type\": \"string\"}, \"salary\": {\"type\": \"number\"}}}}, " +
+            "\"_osConfig\": {\"privateFields\": [\"$.salary\"]}}";
+    private static final String TEACHER = "{\"Teacher\": {\"name\": \"Anita\", \"email\": \"anita@example.com\", " +
+            "\"identity\": {\"id\": \"1234\"}, \"experience\": [{\"institute\": \"A\", \"salary\": 100}, " +
+            "{\"institute\": \"B\", \"salary\": 200}, {\"institute\": \"C\"}]}}";
+
+    private final ObjectMapper objectMapper = new ObjectMapper();
+
+    @Mock
+    private EncryptionService encryptionService;
+    @Mock
+    private IDefinitionsManager definitionsManager;
+    @InjectMocks
+    private EncryptionHelper encryptionHelper;
+
+    @Before
+    public void setUp() throws Exception {
+        MockitoAnnotations.initMocks(this);
+        Definition teacher = new Definition(objectMapper.readTree(TEACHER_SCHEMA));
+        Definition experience = new Definition(objectMapper.readTree(EXPERIENCE_SCHEMA));
+        when(definitionsManager.getDefinition("Teacher")).thenReturn(teacher);
+        when(definitionsManager.getDefinition("Experience")).thenReturn(experience);
+        when(encryptionService.encrypt(anyMap())).thenAnswer(invocation -> {
+            Map<String, Object> plainMap = invocation.getArgument(0);
+            Map<String, Object> encodedMap = new HashMap<>();
+            plainMap.forEach((key, value) -> encodedMap.put(key, "enc:" + value));
+            return encodedMap;
+        });
+    }
+
+    @Test
+    public void shouldEncryptAllPrivateFieldsInOneCall() throws Exception {
+        JsonNode input = objectMapper.readTree(TEACHER);
+
+        JsonNode encrypted = encryptionHelper.getEncryptedJson(input).get("Teacher");
+
+        ArgumentCaptor<Map<String, Object>> captor = ArgumentCaptor.forClass(Map.class);
+        verify(encryptionService, times(1)).encrypt(captor.capture());
+        assertEquals(4, captor.getValue().size());
+        assertEquals("Anita", encrypted.get("name").asText());
+        assertEquals("enc:anita@example.com", encrypted.get("email").asText());
+        assertEquals("enc:1234", encrypted.at("/identity/id").asText());
+        assertEquals("enc:100", encrypted.at("/experience/0/salary").asText());
+        assertEquals("enc:200", encrypted.at("/experience/1/salary").asText());
+        assertEquals("C", encrypted.at("/experience/2/institute").asText());
+        assertEquals(1, encrypted.at("/experience/2").size());
+    }
+
+    @Test
+    public void shouldNotModifyTheInput() throws Exception {
+        JsonNode input = objectMapper.readTree(TEACHER);
+
+        encryptionHelper.getEncryptedJson(input);
+
+        assertEquals(objectMapper.readTree(TEACHER), input);
+    }
+}
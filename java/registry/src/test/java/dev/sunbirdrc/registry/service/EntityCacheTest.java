@@ -0,0 +1,83 @@
+package dev.sunbirdrc.registry.service;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.node.ObjectNode;
+import org.junit.Before;
+import org.junit.Test;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNotSame;
+import static org.junit.Assert.assertNull;
+
+public class EntityCacheTest {
+    private static final String READ_KEY = EntityCache.getReadKey("Teacher", false, false, null, false);
+
+    private final ObjectMapper objectMapper = new ObjectMapper();
+    private EntityCache entityCache;
+    private JsonNode teacher;
+
+    @Before
+    public void setUp() throws Exception {
+        entityCache = new EntityCache();
+        ReflectionTestUtils.setField(entityCache, "maximumSize", 100L);
+        ReflectionTestUtils.setField(entityCache, "ttlSeconds", 60L);
+        ReflectionTestUtils.setField(entityCache, "objectMapper", objectMapper);
+        entityCache.init();
+        teacher = objectMapper.readTree("{\"Teacher\": {\"name\": \"Anita\", \"osid\": \"1-abc\"}}");
+    }
+
+    @Test
+    public void shouldServeTheEntityCachedAtTheCurrentVersion() {
+        long version = entityCache.getVersion("shard1", "1-abc");
+        entityCache.put("shard1", "1-abc", READ_KEY, version, teacher, true);
+
+        JsonNode cached = entityCache.get("Teacher", "shard1", "1-abc", READ_KEY, entityCache.getVersion("shard1", "1-abc"));
+
+        assertEquals(teacher, cached);
+        assertNotSame(teacher, cached);
+        assertEquals(1, entityCache.getHitCount("Teacher"));
+    }
+
+    @Test
+    public void shouldNotServeTheEntityAfterAWrite() {
+        long version = entityCache.getVersion("shard1", "1-abc");
+        entityCache.put("shard1", "1-abc", READ_KEY, version, teacher, true);
+
+        entityCache.invalidate("shard1", "1-abc");
+
+        assertNull(entityCache.get("Teacher", "shard1", "1-abc", READ_KEY, entityCache.getVersion("shard1", "1-abc")));
+        assertEquals(1, entityCache.getMissCount("Teacher"));
+    }
+
+    @Test
+    public void shouldNotServeAnEntityReadBeforeAWriteAndCachedAfterIt() {
+        long version = entityCache.getVersion("shard1", "1-abc");
+        entityCache.invalidate("shard1", "1-abc");
+        entityCache.put("shard1", "1-abc", READ_KEY, version, teacher, true);
+
+        assertNull(entityCache.get("Teacher", "shard1", "1-abc", READ_KEY, entityCache.getVersion("shard1", "1-abc")));
+    }
+
+    @Test
+    public void shouldKeepTheReadOptionsApart() {
+        long version = entityCache.getVersion("shard1", "1-abc");
+        entityCache.put("shard1", "1-abc", READ_KEY, version, teacher, true);
+
+        String withSignatures = EntityCache.getReadKey("Teacher", true, false, null, false);
+        assertNull(entityCache.get("Teacher", "shard1", "1-abc", withSignatures, version));
+        assertNull(entityCache.get("Teacher", "shard2", "1-abc", READ_KEY, entityCache.getVersion("shard2", "1-abc")));
+    }
+
+    @Test
+    public void shouldNotBeChangedByTheCallers() {
+        long version = entityCache.getVersion("shard1", "1-abc");
+        entityCache.put("shard1", "1-abc", READ_KEY, version, teacher, true);
+        ((ObjectNode) teacher.get("Teacher")).put("name", "Changed");
+        ((ObjectNode) entityCache.get("Teacher", "shard1", "1-abc", READ_KEY, version).get("Teacher")).put("name", "Changed");
+
+        assertEquals("Anita", entityCache.get("Teacher", "shard1", "1-abc", READ_KEY, version).at("/Teacher/name").asText());
+        assertEquals(1.0, entityCache.getHitRatio("Teacher"), 0);
+    }
+}
@@ -0,0 +1,147 @@
+package dev.sunbirdrc.registry.service.impl;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.node.JsonNodeFactory;
+import com.fasterxml.jackson.databind.node.ObjectNode;
+import dev.sunbirdrc.registry.sink.shard.Shard;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.BooleanSupplier;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+public class AuditJournalTest {
+
+    @Rule
+    public TemporaryFolder folder = new TemporaryFolder();
+
+    private final List<String> written = Collections.synchronizedList(new ArrayList<>());
+
+    private JsonNode auditRecord(String entityType, String id) {
+        return JsonNodeFactory.instance.objectNode().set(entityType, JsonNodeFactory.instance.objectNode().put("recordId", id));
+    }
+
+    private void record(Shard shard, String entityType, List<JsonNode> rootNodes) {
+        for (JsonNode rootNode : rootNodes) {
+            written.add(entityType + ":" + rootNode.get(entityType).get("recordId").asText());
+        }
+    }
+
+    private static void waitFor(BooleanSupplier condition) throws InterruptedException {
+        long deadline = System.currentTimeMillis() + 10000;
+        while (!condition.getAsBoolean() && System.currentTimeMillis() < deadline) {
+            Thread.sleep(20);
+        }
+        assertTrue(condition.getAsBoolean());
+    }
+
+    @Test
+    public void shouldWriteTheAppendedRecords() throws Exception {
+        Path dir = folder.getRoot().toPath();
+        try (AuditJournal journal = new AuditJournal(dir, this::record, 10, 100, 0, false)) {
+            journal.start(shardId -> null);
+            journal.append(null, "Student_Audit", auditRecord("Student_Audit", "1"));
+            journal.append(null, "Teacher_Audit", auditRecord("Teacher_Audit", "2"));
+            journal.append(null, "Student_Audit", auditRecord("Student_Audit", "3"));
+            waitFor(() -> journal.getCommittedCount() == 3);
+
+            assertTrue(written.containsAll(Arrays.asList("Student_Audit:1", "Teacher_Audit:2", "Student_Audit:3")));
+            assertEquals(0, journal.getLag());
+            // The journal is emptied once all its records are written
+            waitFor(() -> dir.resolve("audit.journal").toFile().length() == 0);
+        }
+    }
+
+    @Test
+    public void shouldReplayTheRecordsNotWritten() throws Exception {
+        Path dir = folder.getRoot().toPath();
+        CountDownLatch release = new CountDownLatch(1);
+        AuditJournal stuckJournal = new AuditJournal(dir, (shard, entityType, rootNodes) -> release.await(), 10, 100, 0, false);
+        stuckJournal.start(shardId -> null);
+        stuckJournal.append(null, "Student_Audit", auditRecord("Student_Audit", "1"));
+        stuckJournal.append(null, "Student_Audit", auditRecord("Student_Audit", "2"));
+        assertTrue(Files.size(dir.resolve("audit.journal")) > 0);
+
+        // Starting again over the same directory, as after a crash
+        try (AuditJournal journal = new AuditJournal(dir, this::record, 10, 100, 0, false)) {
+            journal.start(shardId -> null);
+            waitFor(() -> journal.getCommittedCount() == 2);
+            assertEquals(Arrays.asList("Student_Audit:1", "Student_Audit:2"), written);
+        } finally {
+            release.countDown();
+            stuckJournal.close();
+        }
+    }
+
+    @Test
+    public void shouldKeepRetryingAFailedBatchWithoutMovingTheCheckpointPastIt() throws Exception {
+        Path dir = folder.getRoot().toPath();
+        AtomicInteger failures = new AtomicInteger(2);
+        try (AuditJournal journal = new AuditJournal(dir, (shard, entityType, rootNodes) -> {
+            if (entityType.equals("Student_Audit") && failures.getAndDecrement() > 0) {
+                throw new IllegalStateException("database is down");
+            }
+            record(shard, entityType, rootNodes);
+        }, 10, 100, 0, false)) {
+            journal.start(shardId -> null);
+            journal.append(null, "Student_Audit", auditRecord("Student_Audit", "1"));
+            waitFor(() -> journal.getFailedCount() == 1);
+            journal.append(null, "Teacher_Audit", auditRecord("Teacher_Audit", "2"));
+            waitFor(() -> written.contains("Teacher_Audit:2"));
+            assertEquals(0, readCheckpoint(dir));
+
+            waitFor(() -> journal.getLag() == 0);
+            assertEquals(Arrays.asList("Teacher_Audit:2", "Student_Audit:1"), written);
+        }
+    }
+
+    @Test
+    public void shouldAppendAfterTheLastCompleteRecordOfATornJournal() throws Exception {
+        Path dir = folder.getRoot().toPath();
+        ObjectMapper objectMapper = new ObjectMapper();
+        StringBuilder journalContent = new StringBuilder();
+        for (String id : Arrays.asList("1", "2")) {
+            ObjectNode entry = JsonNodeFactory.instance.objectNode();
+            entry.putNull("shardId");
+            entry.put("entityType", "Student_Audit");
+            entry.set("record", auditRecord("Student_Audit", id));
+            journalContent.append(objectMapper.writeValueAsString(entry)).append('\n');
+        }
+        // The registry stopped in the middle of appending the third record
+        journalContent.append("{\"shardId\":null,\"entityType\":\"Stud");
+        Files.write(dir.resolve("audit.journal"), journalContent.toString().getBytes(StandardCharsets.UTF_8));
+
+        CountDownLatch release = new CountDownLatch(1);
+        AuditJournal stuckJournal = new AuditJournal(dir, (shard, entityType, rootNodes) -> release.await(), 10, 100, 0, false);
+        stuckJournal.start(shardId -> null);
+        stuckJournal.append(null, "Student_Audit", auditRecord("Student_Audit", "3"));
+
+        try (AuditJournal journal = new AuditJournal(dir, this::record, 10, 100, 0, false)) {
+            journal.start(shardId -> null);
+            waitFor(() -> journal.getCommittedCount() == 3);
+            assertEquals(Arrays.asList("Student_Audit:1", "Student_Audit:2", "Student_Audit:3"), written);
+        } finally {
+            release.countDown();
+            stuckJournal.close();
+        }
+    }
+
+    private static long readCheckpoint(Path dir) throws IOException {
+        Path checkpoint = dir.resolve("audit.checkpoint");
+        return Files.exists(checkpoint) ? Long.parseLong(new String(Files.readAllBytes(checkpoint), StandardCharsets.UTF_8).trim()) : 0;
+    }
+}
@@ -0,0 +1,263 @@
+package dev.sunbirdrc.registry.service.impl;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import dev.sunbirdrc.registry.config.GenericConfiguration;
+import dev.sunbirdrc.registry.dao.VertexWriter;
+import dev.sunbirdrc.registry.helper.SignatureHelper;
+import dev.sunbirdrc.registry.middleware.util.Constants;
+import dev.sunbirdrc.registry.middleware.util.OSSystemFields;
+import dev.sunbirdrc.registry.model.DBConnectionInfo;
+import dev.sunbirdrc.registry.model.DBConnectionInfoMgr;
+import dev.sunbirdrc.registry.service.RegistryService;
+import dev.sunbirdrc.registry.sink.DBProviderFactory;
+import dev.sunbirdrc.registry.sink.shard.DefaultShardAdvisor;
+import dev.sunbirdrc.registry.sink.shard.Shard;
+import dev.sunbirdrc.registry.sink.shard.ShardManager;
+import dev.sunbirdrc.registry.util.IDefinitionsManager;
+import org.apache.tinkerpop.gremlin.structure.Graph;
+import org.apache.tinkerpop.gremlin.structure.Vertex;
+import org.apache.tinkerpop.gremlin.util.iterator.IteratorUtils;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+import org.springframework.mock.env.MockEnvironment;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.Assert.assertEquals;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.*;
+
+public class CredentialReissuerTest {
+    private static final String UUID_PROPERTY = "osid";
+    private static final String SIGNED_DATA = "_osSignedData";
+
+    private final ObjectMapper objectMapper = new ObjectMapper();
+    private final SignatureHelper signatureHelper = mock(SignatureHelper.class);
+    private String signatureProvider;
+    private CredentialReissuer credentialReissuer;
+    private Shard shard;
+    private List<String> uuids;
+
+    @Before
+    public void setUp() throws Exception {
+        DBConnectionInfoMgr dbConnectionInfoMgr = new DBConnectionInfoMgr();
+        dbConnectionInfoMgr.setUuidPropertyName(UUID_PROPERTY);
+        DBConnectionInfo connection = new DBConnectionInfo();
+        connection.setShardId("shard1");
+        connection.setShardLabel("");
+        dbConnectionInfoMgr.setConnectionInfo(Collections.singletonList(connection));
+        dbConnectionInfoMgr.init();
+
+        DBProviderFactory dbProviderFactory = new DBProviderFactory();
+        ReflectionTestUtils.setField(dbProviderFactory, "environment",
+                new MockEnvironment().withProperty(Constants.DATABASE_PROVIDER, "TINKERGRAPH"));
+        ReflectionTestUtils.setField(dbProviderFactory, "dbConnectionInfoMgr", dbConnectionInfoMgr);
+        DefaultShardAdvisor shardAdvisor = new DefaultShardAdvisor();
+        ReflectionTestUtils.setField(shardAdvisor, "dBConnectionInfoMgr", dbConnectionInfoMgr);
+        ShardManager shardManager = new ShardManager();
+        ReflectionTestUtils.setField(shardManager, "dbConnectionInfoMgr", dbConnectionInfoMgr);
+        ReflectionTestUtils.setField(shardManager, "dbProviderFactory", dbProviderFactory);
+        ReflectionTestUtils.setField(shardManager, "shardAdvisor", shardAdvisor);
+
+        IDefinitionsManager definitionsManager = mock(IDefinitionsManager.class);
+        when(definitionsManager.isValidEntityName("Teacher")).thenReturn(true);
+        when(definitionsManager.getCredentialTemplate("Teacher")).thenReturn("{}");
+        when(signatureHelper.sign(any())).thenAnswer(invocation -> {
+            Map<String, Object> request = invocation.getArgument(0);
+            return "signed:" + ((JsonNode) request.get("data")).get("name").asText();
+        });
+
+        signatureProvider = GenericConfiguration.getSignatureProvider();
+        ReflectionTestUtils.setField(GenericConfiguration.class, "signatureProvider", SignatureV1ServiceImpl.class.getName());
+
+        credentialReissuer = new CredentialReissuer();
+        ReflectionTestUtils.setField(credentialReissuer, "shardManager", shardManager);
+        ReflectionTestUtils.setField(credentialReissuer, "definitionsManager", definitionsManager);
+        ReflectionTestUtils.setField(credentialReissuer, "signatureHelper", signatureHelper);
+        ReflectionTestUtils.setField(credentialReissuer, "registryService", mock(RegistryService.class));
+        ReflectionTestUtils.setField(credentialReissuer, "searchProvider", "dev.sunbirdrc.registry.service.NativeSearchService");
+        ReflectionTestUtils.setField(credentialReissuer, "batchSize", 2);
+        ReflectionTestUtils.setField(credentialReissuer, "concurrency", 2);
+        ReflectionTestUtils.setField(credentialReissuer, "recordsPerSecond", 0d);
+        credentialReissuer.init();
+
+        shard = shardManager.activateShard("shard1");
+        uuids = new ArrayList<>();
+        for (int i = 0; i < 5; i++) {
+            uuids.add(addTeacher(i));
+        }
+    }
+
+    @After
+    public void tearDown() {
+        credentialReissuer.destroy();
+        ReflectionTestUtils.setField(GenericConfiguration.class, "signatureProvider", signatureProvider);
+    }
+
+    @Test
+    public void shouldReissueTheCredentialsOfAllTheRecords() throws Exception {
+        CredentialReissuer.ReissueProgress progress = credentialReissuer.reissue("Teacher");
+
+        assertEquals(CredentialReissuer.Status.COMPLETED, progress.getStatus());
+        assertEquals(5, progress.getScanned());
+        assertEquals(5, progress.getWritten());
+        for (int i = 0; i < 5; i++) {
+            assertEquals("signed:teacher" + i, getRoot(uuids.get(i)).value(SIGNED_DATA));
+            verify(signatureHelper).revoke("Teacher", null, "old" + i);
+        }
+        assertEquals(0, IteratorUtils.count(getGraph().traversal().V().hasLabel("_osCredentialReissue")));
+    }
+
+    @Test
+    public void shouldLimitTheSignaturesInFlight() throws Exception {
+        ReflectionTestUtils.setField(credentialReissuer, "batchSize", 5);
+        AtomicInteger inFlight = new AtomicInteger();
+        AtomicInteger maxInFlight = new AtomicInteger();
+        doAnswer(invocation -> {
+            maxInFlight.accumulateAndGet(inFlight.incrementAndGet(), Math::max);
+            Thread.sleep(50);
+            inFlight.decrementAndGet();
+            return "signed";
+        }).when(signatureHelper).sign(any());
+
+        CredentialReissuer.ReissueProgress progress = credentialReissuer.reissue("Teacher");
+
+        assertEquals(5, progress.getWritten());
+        assertEquals(2, maxInFlight.get());
+    }
+
+    @Test
+    public void shouldResumeWhereTheStoppedRunStopped() throws Exception {
+        doAnswer(invocation -> {
+            credentialReissuer.stop();
+            return "signed";
+        }).when(signatureHelper).sign(any());
+        CredentialReissuer.ReissueProgress stopped = credentialReissuer.reissue("Teacher");
+
+        assertEquals(CredentialReissuer.Status.STOPPED, stopped.getStatus());
+        assertEquals(2, stopped.getWritten());
+
+        reset(signatureHelper);
+        doReturn("signed").when(signatureHelper).sign(any());
+        CredentialReissuer.ReissueProgress resumed = credentialReissuer.reissue("Teacher");
+
+        assertEquals(CredentialReissuer.Status.COMPLETED, resumed.getStatus());
+        assertEquals(3, resumed.getScanned());
+        assertEquals(3, resumed.getWritten());
+        for (String uuid : uuids) {
+            assertEquals("signed", getRoot(uuid).value(SIGNED_DATA));
+        }
+    }
+
+    @Test
+    public void shouldKeepTheCredentialOfARecordThatFailedToSign() throws Exception {
+        doAnswer(invocation -> {
+            Map<String, Object> request = invocation.getArgument(0);
+            String name = ((JsonNode) request.get("data")).get("name").asText();
+            if (name.equals("teacher1")) {
+                throw new IllegalStateException("unreachable");
+            }
+            return "signed:" + name;
+        }).when(signatureHelper).sign(any());
+
+        CredentialReissuer.ReissueProgress progress = credentialReissuer.reissue("Teacher");
+
+        assertEquals(CredentialReissuer.Status.PARTIAL, progress.getStatus());
+        assertEquals(1, progress.getFailed());
+        assertEquals(Collections.singletonList(uuids.get(1)), progress.getFailedUuids());
+        assertEquals(4, progress.getWritten());
+        assertEquals("old1", getRoot(uuids.get(1)).value(SIGNED_DATA));
+        verify(signatureHelper, never()).revoke("Teacher", null, "old1");
+
+        // The checkpoint is kept before the record, the next run goes over it
+        doReturn("signed").when(signatureHelper).sign(any());
+        CredentialReissuer.ReissueProgress resumed = credentialReissuer.reissue("Teacher");
+
+        assertEquals(CredentialReissuer.Status.COMPLETED, resumed.getStatus());
+        assertEquals("signed", getRoot(uuids.get(1)).value(SIGNED_DATA));
+        verify(signatureHelper).revoke("Teacher", null, "old1");
+    }
+
+    @Test
+    public void shouldSignARecordThatFailedToSignAgain() throws Exception {
+        AtomicInteger teacher1Calls = new AtomicInteger();
+        doAnswer(invocation -> {
+            Map<String, Object> request = invocation.getArgument(0);
+            String name = ((JsonNode) request.get("data")).get("name").asText();
+            if (name.equals("teacher1") && teacher1Calls.incrementAndGet() == 1) {
+                throw new IllegalStateException("unreachable");
+            }
+            return "signed:" + name;
+        }).when(signatureHelper).sign(any());
+
+        CredentialReissuer.ReissueProgress progress = credentialReissuer.reissue("Teacher");
+
+        assertEquals(CredentialReissuer.Status.COMPLETED, progress.getStatus());
+        assertEquals(0, progress.getFailed());
+        assertEquals(5, progress.getWritten());
+        assertEquals("signed:teacher1", getRoot(uuids.get(1)).value(SIGNED_DATA));
+        assertEquals(0, IteratorUtils.count(getGraph().traversal().V().hasLabel("_osCredentialReissue")));
+    }
+
+    @Test
+    public void shouldNotOverwriteARecordChangedWhileSigning() throws Exception {
+        doAnswer(invocation -> {
+            Map<String, Object> request = invocation.getArgument(0);
+            String name = ((JsonNode) request.get("data")).get("name").asText();
+            if (name.equals("teacher0")) {
+                getRoot(uuids.get(0)).property(SIGNED_DATA, "changed");
+            }
+            return "signed:" + name;
+        }).when(signatureHelper).sign(any());
+
+        CredentialReissuer.ReissueProgress progress = credentialReissuer.reissue("Teacher");
+
+        assertEquals(1, progress.getChanged());
+        assertEquals(4, progress.getWritten());
+        assertEquals("changed", getRoot(uuids.get(0)).value(SIGNED_DATA));
+        verify(signatureHelper).revoke("Teacher", null, "signed:teacher0");
+        verify(signatureHelper, never()).revoke("Teacher", null, "changed");
+    }
+
+    @Test
+    public void shouldNotOverwriteARecordUpdatedWithoutANewCredential() throws Exception {
+        doAnswer(invocation -> {
+            Map<String, Object> request = invocation.getArgument(0);
+            String name = ((JsonNode) request.get("data")).get("name").asText();
+            if (name.equals("teacher0")) {
+                // As an update with skipSignature, the credential is kept
+                getRoot(uuids.get(0)).property(OSSystemFields.osUpdatedAt.name(), "2026-10-17T00:00:00Z");
+            }
+            return "signed:" + name;
+        }).when(signatureHelper).sign(any());
+
+        CredentialReissuer.ReissueProgress progress = credentialReissuer.reissue("Teacher");
+
+        assertEquals(1, progress.getChanged());
+        assertEquals(4, progress.getWritten());
+        assertEquals("old0", getRoot(uuids.get(0)).value(SIGNED_DATA));
+        verify(signatureHelper).revoke("Teacher", null, "signed:teacher0");
+        verify(signatureHelper, never()).revoke("Teacher", null, "old0");
+    }
+
+    private String addTeacher(int i) throws Exception {
+        JsonNode teacher = objectMapper.readTree("{\"Teacher\": {\"name\": \"teacher" + i + "\", \""
+                + SIGNED_DATA + "\": \"old" + i + "\"}}");
+        return new VertexWriter(getGraph(), shard.getDatabaseProvider(), UUID_PROPERTY).writeNodeEntity(teacher);
+    }
+
+    private Vertex getRoot(String uuid) {
+        return getGraph().traversal().V().hasLabel("Teacher").has(UUID_PROPERTY, uuid).next();
+    }
+
+    private Graph getGraph() {
+        return shard.getDatabaseProvider().getOSGraph().getGraphStore();
+    }
+}
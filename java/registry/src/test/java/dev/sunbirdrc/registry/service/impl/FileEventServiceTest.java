@@ -0,0 +1,80 @@
+package dev.sunbirdrc.registry.service.impl;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import dev.sunbirdrc.registry.model.event.Event;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.io.File;
+import java.nio.file.Files;
+import java.util.List;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNotNull;
+import static org.junit.Assert.assertTrue;
+
+public class FileEventServiceTest {
+
+    @Rule
+    public TemporaryFolder folder = new TemporaryFolder();
+
+    private final ObjectMapper objectMapper = new ObjectMapper();
+    private FileEventService fileEventService;
+
+    @Before
+    public void setUp() throws Exception {
+        fileEventService = new FileEventService();
+        ReflectionTestUtils.setField(fileEventService, "directory", folder.getRoot().getPath());
+        ReflectionTestUtils.setField(fileEventService, "fileName", "events");
+        ReflectionTestUtils.setField(fileEventService, "maxFileSizeKB", 1L);
+        ReflectionTestUtils.setField(fileEventService, "maxFiles", 3);
+        ReflectionTestUtils.setField(fileEventService, "bufferSizeKB", 8);
+        ReflectionTestUtils.setField(fileEventService, "flushIntervalMillis", 60000L);
+        fileEventService.init();
+    }
+
+    @After
+    public void tearDown() {
+        fileEventService.destroy();
+    }
+
+    private Event createEvent(int i) throws Exception {
+        return fileEventService.createTelemetryObject("ADD", "user1", "USER", "1-" + i, "Teacher",
+                objectMapper.readTree("{\"name\": \"teacher" + i + "\"}"));
+    }
+
+    @Test
+    public void shouldBufferTheEventsUntilFlushed() throws Exception {
+        File file = new File(folder.getRoot(), "events.log");
+        fileEventService.pushEvents(createEvent(1));
+        fileEventService.pushEvents(createEvent(2));
+        assertEquals(0, file.length());
+
+        fileEventService.flush();
+
+        List<String> lines = Files.readAllLines(file.toPath());
+        assertEquals(2, lines.size());
+        assertEquals("1-2", objectMapper.readTree(lines.get(1)).get("object").get("id").asText());
+    }
+
+    @Test
+    public void shouldRollTheFileOverAndKeepTheLastFiles() throws Exception {
+        for (int i = 0; i < 40; i++) {
+            fileEventService.pushEvents(createEvent(i));
+        }
+        fileEventService.flush();
+
+        File[] files = folder.getRoot().listFiles();
+        assertNotNull(files);
+        assertEquals(3, files.length);
+        for (File file : files) {
+            assertTrue(file.length() <= 1024);
+        }
+        List<String> lines = Files.readAllLines(new File(folder.getRoot(), "events.log").toPath());
+        assertEquals("1-39", objectMapper.readTree(lines.get(lines.size() - 1)).get("object").get("id").asText());
+    }
+}
@@ -1,5 +1,6 @@
 package dev.sunbirdrc.registry.service.impl;
 import com.fasterxml.jackson.databind.ObjectMapper;
+import com.google.common.util.concurrent.MoreExecutors;
 import com.google.gson.Gson;
 import dev.sunbirdrc.pojos.ComponentHealthInfo;
 import dev.sunbirdrc.pojos.SunbirdRCInstrumentation;
@@ -13,6 +14,7 @@ import dev.sunbirdrc.registry.middleware.util.JSONUtil;
 import org.junit.Before;
 import org.junit.Test;
 import org.junit.runner.RunWith;
+import org.mockito.ArgumentCaptor;
 import org.mockito.InjectMocks;
 import org.mockito.Mock;
 import org.mockito.MockitoAnnotations;
@@ -123,6 +125,43 @@ public class IdGenServiceTest {
         idGenService.generateId(fields);
     }
 
+    @Test
+    public void testGenerateIdFromPrefetchedIds() throws Exception {
+        setField(idGenService, "prefetchSize", 4);
+        setField(idGenService, "prefetchExecutor", MoreExecutors.newDirectExecutorService());
+        UniqueIdentifierField field1 = new UniqueIdentifierField("field1", "teacherId", "T-[seq_teacher]");
+        List<UniqueIdentifierField> fields = Collections.singletonList(field1);
+
+        when(gson.toJson(anyMap())).thenReturn("request");
+        when(retryRestTemplate.postForEntity(eq(generateUrl), any(HttpEntity.class)))
+                .thenReturn(new ResponseEntity<>("{\"responseInfo\":{\"status\":\"SUCCESSFUL\"},\"idResponses\":[{\"id\":\"T-1\"}]}", HttpStatus.OK))
+                .thenReturn(new ResponseEntity<>("{\"responseInfo\":{\"status\":\"SUCCESSFUL\"},\"idResponses\":[{\"id\":\"T-2\"},{\"id\":\"T-3\"},{\"id\":\"T-4\"},{\"id\":\"T-5\"}]}", HttpStatus.OK));
+
+        assertEquals("T-1", idGenService.generateId(fields).get("field1"));
+        assertEquals("T-2", idGenService.generateId(fields).get("field1"));
+        verify(retryRestTemplate, times(2)).postForEntity(eq(generateUrl), any(HttpEntity.class));
+        ArgumentCaptor<Map> captor = ArgumentCaptor.forClass(Map.class);
+        verify(gson, times(2)).toJson(captor.capture());
+        assertEquals(4, ((List<Map<String, Object>>) captor.getAllValues().get(1).get("idRequests")).get(0).get("count"));
+    }
+
+    @Test
+    public void testGenerateIdWhenPrefetchFails() throws Exception {
+        setField(idGenService, "prefetchSize", 2);
+        setField(idGenService, "prefetchExecutor", MoreExecutors.newDirectExecutorService());
+        UniqueIdentifierField field1 = new UniqueIdentifierField("field1", "teacherId", "T-[seq_teacher]");
+        List<UniqueIdentifierField> fields = Collections.singletonList(field1);
+
+        when(gson.toJson(anyMap())).thenReturn("request");
+        when(retryRestTemplate.postForEntity(eq(generateUrl), any(HttpEntity.class)))
+                .thenReturn(new ResponseEntity<>("{\"responseInfo\":{\"status\":\"SUCCESSFUL\"},\"idResponses\":[{\"id\":\"T-1\"}]}", HttpStatus.OK))
+                .thenThrow(new ResourceAccessException("Exception"))
+                .thenReturn(new ResponseEntity<>("{\"responseInfo\":{\"status\":\"SUCCESSFUL\"},\"idResponses\":[{\"id\":\"T-2\"}]}", HttpStatus.OK));
+
+        assertEquals("T-1", idGenService.generateId(fields).get("field1"));
+        assertEquals("T-2", idGenService.generateId(fields).get("field1"));
+    }
+
     @Test
     public void testSaveIdFormatSuccessful() throws CustomException, IOException {
         List<UniqueIdentifierField> fields = new ArrayList<>();
@@ -0,0 +1,115 @@
+package dev.sunbirdrc.registry.service.impl;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.google.protobuf.CodedInputStream;
+import dev.sunbirdrc.registry.model.event.Event;
+import org.junit.Before;
+import org.junit.Test;
+import org.mockito.ArgumentCaptor;
+import org.springframework.kafka.core.KafkaTemplate;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.util.HashMap;
+import java.util.Map;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.verify;
+
+public class KafkaEventServiceTest {
+    private final ObjectMapper objectMapper = new ObjectMapper();
+    private KafkaEventService kafkaEventService;
+    private KafkaTemplate<String, byte[]> kafkaTemplate;
+
+    @Before
+    @SuppressWarnings("unchecked")
+    public void setUp() {
+        kafkaTemplate = mock(KafkaTemplate.class);
+        kafkaEventService = new KafkaEventService();
+        ReflectionTestUtils.setField(kafkaEventService, "metricsTopic", "events");
+        ReflectionTestUtils.setField(kafkaEventService, "kafkaTemplate", kafkaTemplate);
+    }
+
+    private Event createEvent() throws Exception {
+        JsonNode edata = objectMapper.readTree("{\"name\": \"teacher\", \"serialNum\": 1}");
+        return kafkaEventService.createTelemetryObject("READ", "user1", "USER", "1-abc", "Teacher", edata)
+                .toBuilder().sampleRate(0.25).build();
+    }
+
+    private byte[] pushEvent(Event event) throws Exception {
+        kafkaEventService.pushEvents(event);
+        ArgumentCaptor<byte[]> message = ArgumentCaptor.forClass(byte[].class);
+        verify(kafkaTemplate).send(eq("events"), eq("1-abc"), message.capture());
+        return message.getValue();
+    }
+
+    @Test
+    public void shouldSendCompactJson() throws Exception {
+        ReflectionTestUtils.setField(kafkaEventService, "encoding", "json");
+        Event event = createEvent();
+
+        String message = new String(pushEvent(event));
+
+        assertFalse(message.contains("\n"));
+        JsonNode json = objectMapper.readTree(message);
+        assertEquals("READ", json.get("eid").asText());
+        assertEquals("Teacher", json.get("object").get("type").asText());
+        assertEquals(0.25, json.get("sampleRate").asDouble(), 0);
+    }
+
+    @Test
+    public void shouldSendTheEventProtobufMessage() throws Exception {
+        ReflectionTestUtils.setField(kafkaEventService, "encoding", KafkaEventService.PROTOBUF_ENCODING);
+        Event event = createEvent();
+
+        Map<Integer, Object> fields = readFields(CodedInputStream.newInstance(pushEvent(event)));
+
+        assertEquals("READ", fields.get(1));
+        assertEquals(event.getEts(), fields.get(2));
+        assertEquals("3.1", fields.get(3));
+        assertEquals(event.getMid(), fields.get(4));
+        Map<Integer, String> actor = readStrings(CodedInputStream.newInstance((byte[]) fields.get(5)));
+        assertEquals("user1", actor.get(1));
+        assertEquals("USER", actor.get(2));
+        Map<Integer, String> object = readStrings(CodedInputStream.newInstance((byte[]) fields.get(6)));
+        assertEquals("1-abc", object.get(1));
+        assertEquals("Teacher", object.get(2));
+        assertEquals(event.getEdata(), objectMapper.readTree((String) fields.get(7)));
+        assertEquals(0.25, (Double) fields.get(8), 0);
+    }
+
+    private static Map<Integer, Object> readFields(CodedInputStream input) throws Exception {
+        Map<Integer, Object> fields = new HashMap<>();
+        int tag;
+        while ((tag = input.readTag()) != 0) {
+            int field = tag >>> 3;
+            switch (field) {
+                case 2:
+                    fields.put(field, input.readInt64());
+                    break;
+                case 5:
+                case 6:
+                    fields.put(field, input.readByteArray());
+                    break;
+                case 8:
+                    fields.put(field, input.readDouble());
+                    break;
+                default:
+                    fields.put(field, input.readString());
+            }
+        }
+        return fields;
+    }
+
+    private static Map<Integer, String> readStrings(CodedInputStream input) throws Exception {
+        Map<Integer, String> fields = new HashMap<>();
+        int tag;
+        while ((tag = input.readTag()) != 0) {
+            fields.put(tag >>> 3, input.readString());
+        }
+        return fields;
+    }
+}
@@ -3,7 +3,9 @@ package dev.sunbirdrc.registry.service.impl;
 import com.fasterxml.jackson.core.JsonProcessingException;
 import com.fasterxml.jackson.databind.JsonNode;
 import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.node.ObjectNode;
 import dev.sunbirdrc.registry.dao.VertexWriter;
+import dev.sunbirdrc.registry.exception.InvalidSearchCursorException;
 import dev.sunbirdrc.registry.middleware.util.Constants;
 import dev.sunbirdrc.registry.model.DBConnectionInfo;
 import dev.sunbirdrc.registry.model.DBConnectionInfoMgr;
@@ -28,15 +30,25 @@ import org.kie.api.runtime.manager.audit.AuditService;
 import org.mockito.Mock;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.scheduling.concurrent.ThreadPoolTaskExecutor;
 import org.springframework.test.context.ActiveProfiles;
 import org.springframework.test.context.junit4.SpringRunner;
 import org.springframework.test.util.ReflectionTestUtils;
 
 import javax.annotation.PreDestroy;
 import java.io.IOException;
+import java.util.ArrayList;
 import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.Callable;
+import java.util.concurrent.Future;
+import java.util.concurrent.FutureTask;
+import java.util.concurrent.atomic.AtomicInteger;
 
+import static dev.sunbirdrc.registry.middleware.util.Constants.CURSOR;
 import static dev.sunbirdrc.registry.middleware.util.Constants.ENTITY_LIST;
+import static dev.sunbirdrc.registry.middleware.util.Constants.FAILED_SHARDS;
+import static dev.sunbirdrc.registry.middleware.util.Constants.NEXT_CURSOR;
 import static dev.sunbirdrc.registry.middleware.util.Constants.TOTAL_COUNT;
 
 @RunWith(SpringRunner.class)
@@ -125,6 +137,157 @@ public class NativeSearchServiceTest {
 	}
 
 
+	@Test
+	public void shouldMergeShardResultsForTheRequestedPage() throws IOException {
+		List<String> uuids = new ArrayList<>();
+		ThreadPoolTaskExecutor searchExecutor = createShards(uuids);
+
+		ObjectNode query = (ObjectNode) getSearchQuery();
+		query.put("offset", 2);
+		query.put("limit", 4);
+		JsonNode results = nativeSearchService.search(query, "");
+
+		Collections.sort(uuids);
+		Assert.assertEquals(9L, results.get("Teacher").get(TOTAL_COUNT).asLong());
+		JsonNode entities = results.get("Teacher").get(ENTITY_LIST);
+		Assert.assertEquals(4, entities.size());
+		for (int i = 0; i < entities.size(); i++) {
+			Assert.assertEquals(uuids.get(i + 2), entities.get(i).get("tid").asText());
+		}
+		searchExecutor.shutdown();
+	}
+
+	@Test
+	public void shouldPageThroughShardsWithCursor() throws IOException {
+		List<String> uuids = new ArrayList<>();
+		ThreadPoolTaskExecutor searchExecutor = createShards(uuids);
+
+		ObjectNode query = (ObjectNode) getSearchQuery();
+		query.put("limit", 4);
+		query.put(CURSOR, "");
+		List<String> pagedUuids = new ArrayList<>();
+		int pages = 0;
+		JsonNode results;
+		do {
+			results = nativeSearchService.search(query, "").get("Teacher");
+			Assert.assertFalse(results.has(TOTAL_COUNT));
+			results.get(ENTITY_LIST).forEach(entity -> pagedUuids.add(entity.get("tid").asText()));
+			query.put(CURSOR, results.path(NEXT_CURSOR).asText());
+			pages++;
+		} while (results.has(NEXT_CURSOR));
+
+		Collections.sort(uuids);
+		Assert.assertEquals(3, pages);
+		Assert.assertEquals(uuids, pagedUuids);
+
+		query.put(TOTAL_COUNT, true);
+		Assert.assertEquals(9L, nativeSearchService.search(query, "").get("Teacher").get(TOTAL_COUNT).asLong());
+		searchExecutor.shutdown();
+	}
+
+	@Test
+	public void shouldPageEachEntityTypeWithItsOwnCursor() throws IOException {
+		ReflectionTestUtils.setField(nativeSearchService, "uuidPropertyName", "tid");
+		VertexWriter vertexWriter = new VertexWriter(graph, databaseProvider, "tid");
+		List<String> studentUuids = new ArrayList<>();
+		for (int i = 0; i < 5; i++) {
+			Vertex vertex = vertexWriter.createVertex("Student");
+			vertex.property("teacherName", "ram");
+			studentUuids.add(vertex.value("tid"));
+		}
+
+		ObjectNode query = (ObjectNode) getSearchQuery();
+		query.putArray("entityType").add("Teacher").add("Student");
+		query.put("limit", 2);
+		query.put(CURSOR, "");
+		List<String> pagedTeachers = new ArrayList<>();
+		List<String> pagedStudents = new ArrayList<>();
+		int pages = 0;
+		JsonNode results;
+		do {
+			results = nativeSearchService.search(query, "");
+			results.get("Teacher").get(ENTITY_LIST).forEach(entity -> pagedTeachers.add(entity.get("tid").asText()));
+			results.get("Student").get(ENTITY_LIST).forEach(entity -> pagedStudents.add(entity.get("tid").asText()));
+			Assert.assertFalse(results.get("Teacher").has(NEXT_CURSOR));
+			query.put(CURSOR, results.get("Student").path(NEXT_CURSOR).asText());
+			pages++;
+		} while (results.get("Student").has(NEXT_CURSOR));
+
+		Collections.sort(studentUuids);
+		Assert.assertEquals(3, pages);
+		Assert.assertEquals(1, pagedTeachers.size());
+		Assert.assertEquals(studentUuids, pagedStudents);
+	}
+
+	@Test(expected = InvalidSearchCursorException.class)
+	public void shouldRejectAnInvalidCursor() throws IOException {
+		ObjectNode query = (ObjectNode) getSearchQuery();
+		query.put(CURSOR, "not a cursor");
+		nativeSearchService.search(query, "");
+	}
+
+	@Test
+	public void shouldListTheShardsLeftOutOfTheResults() throws IOException {
+		List<String> uuids = new ArrayList<>();
+		createShards(uuids).shutdown();
+		// The search on the first shard is never run, so it times out
+		AtomicInteger submitted = new AtomicInteger();
+		ThreadPoolTaskExecutor searchExecutor = new ThreadPoolTaskExecutor() {
+			@Override
+			public <T> Future<T> submit(Callable<T> task) {
+				return submitted.getAndIncrement() == 0 ? new FutureTask<>(task) : super.submit(task);
+			}
+		};
+		searchExecutor.initialize();
+		ReflectionTestUtils.setField(nativeSearchService, "searchExecutor", searchExecutor);
+		ReflectionTestUtils.setField(nativeSearchService, "shardTimeout", 500L);
+
+		JsonNode results = nativeSearchService.search(getSearchQuery(), "").get("Teacher");
+
+		String timedOutShard = dbConnectionInfoMgr.getConnectionInfo().get(0).getShardId();
+		Assert.assertEquals(6, results.get(ENTITY_LIST).size());
+		Assert.assertEquals(1, results.get(FAILED_SHARDS).size());
+		Assert.assertEquals(timedOutShard, results.get(FAILED_SHARDS).get(0).asText());
+		searchExecutor.shutdown();
+	}
+
+	@Test
+	public void shouldNotListFailedShardsWhenAllShardsAnswer() throws IOException {
+		ThreadPoolTaskExecutor searchExecutor = createShards(new ArrayList<>());
+		JsonNode results = nativeSearchService.search(getSearchQuery(), "").get("Teacher");
+
+		Assert.assertEquals(9, results.get(ENTITY_LIST).size());
+		Assert.assertFalse(results.has(FAILED_SHARDS));
+		searchExecutor.shutdown();
+	}
+
+	/**
+	 * Sets up 3 shards with 3 matching teachers each and a search executor
+	 */
+	private ThreadPoolTaskExecutor createShards(List<String> uuids) {
+		List<DBConnectionInfo> dbConnections = new ArrayList<>();
+		for (int i = 0; i < 3; i++) {
+			DBConnectionInfo dbConnection = new DBConnectionInfo();
+			dbConnection.setShardId(RandomString.randomCode(4));
+			dbConnection.setShardLabel("");
+			dbConnections.add(dbConnection);
+			DatabaseProvider shardDatabaseProvider = dbProviderFactory.getInstance(dbConnection);
+			VertexWriter vertexWriter = new VertexWriter(shardDatabaseProvider.getOSGraph().getGraphStore(), shardDatabaseProvider, "tid");
+			for (int j = 0; j < 3; j++) {
+				Vertex vertex = vertexWriter.createVertex("Teacher");
+				vertex.property("teacherName", "ram");
+				uuids.add(vertex.value("tid"));
+			}
+		}
+		dbConnectionInfoMgr.setConnectionInfo(dbConnections);
+		ThreadPoolTaskExecutor searchExecutor = new ThreadPoolTaskExecutor();
+		searchExecutor.initialize();
+		ReflectionTestUtils.setField(nativeSearchService, "searchExecutor", searchExecutor);
+		ReflectionTestUtils.setField(nativeSearchService, "shardTimeout", 10000L);
+		ReflectionTestUtils.setField(nativeSearchService, "uuidPropertyName", "tid");
+		return searchExecutor;
+	}
+
 	@PreDestroy
 	public void shutdown() throws Exception {
 
@@ -50,7 +50,9 @@ import org.sunbird.akka.core.SunbirdActorFactory;
 
 import java.io.IOException;
 import java.nio.charset.Charset;
+import java.util.ArrayList;
 import java.util.Arrays;
+import java.util.List;
 import java.util.Optional;
 
 import static dev.sunbirdrc.registry.Constants.Schema;
@@ -325,6 +327,36 @@ public class RegistryServiceImplTest {
 		definitionsManager.removeDefinition(JsonNodeFactory.instance.textNode(schema));
 	}
 
+	@Test
+	public void shouldAddEntitiesInOneBatch() throws Exception {
+		String schema = IOUtils.toString(this.getClass().getClassLoader().getResourceAsStream("Teacher.json"), Charset.defaultCharset());
+		definitionsManager.appendNewDefinition(JsonNodeFactory.instance.textNode(schema));
+		ReflectionTestUtils.setField(registryService, "persistenceEnabled", true);
+		ReflectionTestUtils.setField(registryService, "uuidPropertyName", "osid");
+		ReflectionTestUtils.setField(registryService, "searchProvider", "dev.sunbirdrc.registry.service.ElasticSearchService");
+		when(shard.getDatabaseProvider()).thenReturn(mockDatabaseProvider);
+		when(shard.getShardLabel()).thenReturn("");
+		List<JsonNode> inputJsons = new ArrayList<>();
+		for (String name : Arrays.asList("abc", "def", "ghi")) {
+			ObjectNode inputJson = JsonNodeFactory.instance.objectNode();
+			inputJson.set("Teacher", objectMapper.readTree("{\"fullName\": \"" + name + "\", \"gender\": \"male\"}"));
+			inputJsons.add(inputJson);
+		}
+		Event event = mock(Event.class);
+		when(eventService.createTelemetryObject(anyString(), anyString(), anyString(), anyString(), anyString(), any())).thenReturn(event);
+
+		List<String> entityIds = registryService.addEntities(shard, "", inputJsons, true);
+
+		assertEquals(3, entityIds.size());
+		for (int i = 0; i < entityIds.size(); i++) {
+			Vertex vertex = graph.traversal().V().has("osid", entityIds.get(i)).next();
+			assertEquals(inputJsons.get(i).get("Teacher").get("fullName").asText(), vertex.value("fullName"));
+		}
+		verify(auditService, times(1)).auditAdd(anyList(), eq(shard), anyList());
+		verify(eventService, times(3)).pushEvents(event);
+		definitionsManager.removeDefinition(JsonNodeFactory.instance.textNode(schema));
+	}
+
 	@Test
 	public void shouldUpdateArrayFieldsInEntity() throws Exception {
 		String schema = IOUtils.toString(this.getClass().getClassLoader().getResourceAsStream("Institute.json"), Charset.defaultCharset());
@@ -0,0 +1,165 @@
+package dev.sunbirdrc.registry.service.impl;
+
+import org.junit.After;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashSet;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.BooleanSupplier;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+public class WebhookDispatcherTest {
+    private static final String URL = "http://localhost/callback";
+
+    @Rule
+    public TemporaryFolder folder = new TemporaryFolder();
+
+    private final List<String> sent = Collections.synchronizedList(new ArrayList<>());
+    private final List<WebhookDispatcher> dispatchers = new ArrayList<>();
+
+    private WebhookDispatcher start(WebhookDispatcher.Settings settings, WebhookDispatcher.Sender sender) throws Exception {
+        WebhookDispatcher dispatcher = new WebhookDispatcher(settings, sender);
+        dispatcher.start();
+        dispatchers.add(dispatcher);
+        return dispatcher;
+    }
+
+    @After
+    public void tearDown() throws Exception {
+        for (WebhookDispatcher dispatcher : dispatchers) {
+            dispatcher.close();
+        }
+    }
+
+    private static void waitFor(BooleanSupplier condition) throws InterruptedException {
+        long deadline = System.currentTimeMillis() + 10000;
+        while (!condition.getAsBoolean() && System.currentTimeMillis() < deadline) {
+            Thread.sleep(20);
+        }
+        assertTrue(condition.getAsBoolean());
+    }
+
+    @Test
+    public void shouldDeliverThePendingEventsAfterARestart() throws Exception {
+        Path dir = folder.getRoot().toPath();
+        WebhookDispatcher.Settings settings = WebhookDispatcher.Settings.builder().directory(dir)
+                .failureThreshold(1).openMillis(60000).build();
+        WebhookDispatcher failing = start(settings, (url, body) -> {
+            throw new IllegalStateException("unreachable");
+        });
+        failing.dispatch(URL, "{\"id\":1}");
+        failing.dispatch(URL, "{\"id\":2}");
+        waitFor(() -> failing.getFailedAttemptCount() >= 1);
+        failing.close();
+
+        WebhookDispatcher dispatcher = start(settings, (url, body) -> sent.add(body));
+        waitFor(() -> dispatcher.getDeliveredCount() == 2);
+
+        assertEquals(new HashSet<>(Arrays.asList("{\"id\":1}", "{\"id\":2}")), new HashSet<>(sent));
+        assertEquals(0, dispatcher.getPendingCount());
+        dispatcher.close();
+        // Nothing is delivered again
+        WebhookDispatcher restarted = start(settings, (url, body) -> sent.add(body));
+        assertEquals(0, restarted.getPendingCount());
+    }
+
+    @Test
+    public void shouldLimitTheDeliveriesInFlightPerUrl() throws Exception {
+        AtomicInteger inFlight = new AtomicInteger();
+        AtomicInteger maxInFlight = new AtomicInteger();
+        WebhookDispatcher dispatcher = start(WebhookDispatcher.Settings.builder().threads(8).maxConcurrencyPerUrl(2).build(),
+                (url, body) -> {
+                    maxInFlight.accumulateAndGet(inFlight.incrementAndGet(), Math::max);
+                    Thread.sleep(20);
+                    inFlight.decrementAndGet();
+                });
+        for (int i = 0; i < 10; i++) {
+            dispatcher.dispatch(URL, "{}");
+        }
+        waitFor(() -> dispatcher.getDeliveredCount() == 10);
+
+        assertEquals(2, maxInFlight.get());
+    }
+
+    @Test
+    public void shouldOpenTheCircuitOfAFailingUrl() throws Exception {
+        AtomicInteger attempts = new AtomicInteger();
+        WebhookDispatcher dispatcher = start(WebhookDispatcher.Settings.builder().maxConcurrencyPerUrl(1)
+                        .retryDelayMillis(1).failureThreshold(3).openMillis(60000).build(),
+                (url, body) -> {
+                    attempts.incrementAndGet();
+                    throw new IllegalStateException("unreachable");
+                });
+        for (int i = 0; i < 5; i++) {
+            dispatcher.dispatch(URL, "{}");
+        }
+        waitFor(() -> dispatcher.getCircuitOpenCount() == 1);
+        Thread.sleep(200);
+
+        assertEquals(3, attempts.get());
+        assertEquals(Collections.singletonList(URL), dispatcher.getOpenCircuits());
+        assertEquals(5, dispatcher.getPendingCount());
+    }
+
+    @Test
+    public void shouldForgetTheUrlsWithNothingLeftToDeliver() throws Exception {
+        WebhookDispatcher dispatcher = start(WebhookDispatcher.Settings.builder().maxAttempts(2).retryDelayMillis(1).build(),
+                (url, body) -> {
+                    if (url.endsWith("/failing")) {
+                        throw new IllegalStateException("unreachable");
+                    }
+                    sent.add(body);
+                });
+        for (int i = 0; i < 3; i++) {
+            dispatcher.dispatch(URL + i, "{}");
+        }
+        dispatcher.dispatch(URL + "/failing", "{}");
+        waitFor(() -> dispatcher.getDeliveredCount() == 3 && dispatcher.getDroppedCount() == 1);
+
+        waitFor(() -> dispatcher.getEndpointCount() == 0);
+        dispatcher.dispatch(URL + 0, "{}");
+        waitFor(() -> dispatcher.getDeliveredCount() == 4);
+    }
+
+    @Test
+    public void shouldDropAnEventAfterMaxAttempts() throws Exception {
+        WebhookDispatcher dispatcher = start(WebhookDispatcher.Settings.builder().maxAttempts(2).retryDelayMillis(1).build(),
+                (url, body) -> {
+                    throw new IllegalStateException("unreachable");
+                });
+        dispatcher.dispatch(URL, "{}");
+        waitFor(() -> dispatcher.getDroppedCount() == 1);
+
+        assertEquals(2, dispatcher.getFailedAttemptCount());
+        assertEquals(0, dispatcher.getPendingCount());
+    }
+
+    @Test
+    public void shouldPostTheQueuedEventsTogetherToABatchUrl() throws Exception {
+        CountDownLatch release = new CountDownLatch(1);
+        WebhookDispatcher dispatcher = start(WebhookDispatcher.Settings.builder().maxConcurrencyPerUrl(1)
+                        .batchUrls(Collections.singleton(URL)).maxBatchSize(3).build(),
+                (url, body) -> {
+                    release.await(10, TimeUnit.SECONDS);
+                    sent.add(body);
+                });
+        for (int i = 1; i <= 5; i++) {
+            dispatcher.dispatch(URL, "{\"id\":" + i + "}");
+        }
+        release.countDown();
+        waitFor(() -> dispatcher.getDeliveredCount() == 5);
+
+        assertEquals(Arrays.asList("[{\"id\":1}]", "[{\"id\":2},{\"id\":3},{\"id\":4}]", "[{\"id\":5}]"), sent);
+    }
+}
@@ -0,0 +1,90 @@
+package dev.sunbirdrc.registry.sink.shard;
+
+import com.fasterxml.jackson.databind.node.IntNode;
+import com.fasterxml.jackson.databind.node.NullNode;
+import com.fasterxml.jackson.databind.node.TextNode;
+import dev.sunbirdrc.registry.model.DBConnectionInfo;
+import dev.sunbirdrc.registry.model.DBConnectionInfoMgr;
+import org.junit.Before;
+import org.junit.Test;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.assertTrue;
+
+public class ConsistentHashShardAdvisorTest {
+	private static final int KEYS = 100000;
+
+	private DBConnectionInfoMgr dbConnectionInfoMgr;
+	private ConsistentHashShardAdvisor advisor;
+
+	@Before
+	public void setUp() {
+		dbConnectionInfoMgr = new DBConnectionInfoMgr();
+		dbConnectionInfoMgr.setConnectionInfo(getConnections(4));
+		advisor = new ConsistentHashShardAdvisor();
+		advisor.dBConnectionInfoMgr = dbConnectionInfoMgr;
+	}
+
+	@Test
+	public void shouldSpreadTheKeysEvenlyOverTheShards() {
+		Map<String, Integer> counts = new HashMap<>();
+		for (int i = 0; i < KEYS; i++) {
+			counts.merge(advisor.getShard(TextNode.valueOf("key-" + i)).getShardId(), 1, Integer::sum);
+		}
+		assertEquals(4, counts.size());
+		counts.values().forEach(count -> assertTrue("Unbalanced shards " + counts,
+				Math.abs(count - KEYS / 4) < KEYS / 4 / 5));
+	}
+
+	@Test
+	public void shouldMoveOnlyTheKeysOfTheNewShard() {
+		Map<Integer, String> before = new HashMap<>();
+		for (int i = 0; i < KEYS; i++) {
+			before.put(i, advisor.getShard(TextNode.valueOf("key-" + i)).getShardId());
+		}
+		dbConnectionInfoMgr.setConnectionInfo(getConnections(5));
+
+		int moved = 0;
+		for (int i = 0; i < KEYS; i++) {
+			String shardId = advisor.getShard(TextNode.valueOf("key-" + i)).getShardId();
+			if (!shardId.equals(before.get(i))) {
+				assertEquals("shard5", shardId);
+				moved++;
+			}
+		}
+		assertTrue("Moved " + moved + " keys", Math.abs(moved - KEYS / 5) < KEYS / 5 / 5);
+	}
+
+	@Test
+	public void shouldPickTheSameShardForANumberAndItsText() {
+		for (int i = -1000; i < 1000; i++) {
+			assertSame(advisor.getShard(String.valueOf(i)), advisor.getShard(IntNode.valueOf(i)));
+			assertSame(advisor.getShard(String.valueOf(i)), advisor.getShard(i));
+		}
+		assertEquals(ConsistentHashShardAdvisor.hash(String.valueOf(Long.MIN_VALUE)),
+				ConsistentHashShardAdvisor.hash(Long.MIN_VALUE));
+	}
+
+	@Test
+	public void shouldPickTheFirstShardWithoutAValue() {
+		assertSame(dbConnectionInfoMgr.getConnectionInfo().get(0), advisor.getShard(null));
+		assertSame(dbConnectionInfoMgr.getConnectionInfo().get(0), advisor.getShard(NullNode.getInstance()));
+	}
+
+	private static List<DBConnectionInfo> getConnections(int count) {
+		List<DBConnectionInfo> connections = new ArrayList<>();
+		for (int i = 1; i <= count; i++) {
+			DBConnectionInfo connection = new DBConnectionInfo();
+			connection.setShardId("shard" + i);
+			connection.setShardLabel(String.valueOf(i));
+			connections.add(connection);
+		}
+		return connections;
+	}
+}
@@ -0,0 +1,79 @@
+package dev.sunbirdrc.registry.sink.shard;
+
+import dev.sunbirdrc.registry.model.DBConnectionInfo;
+import dev.sunbirdrc.registry.model.DBConnectionInfoMgr;
+import dev.sunbirdrc.registry.sink.DBProviderFactory;
+import dev.sunbirdrc.registry.sink.DatabaseProvider;
+import org.junit.Before;
+import org.junit.Test;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.util.Arrays;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNotSame;
+import static org.junit.Assert.assertSame;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+public class ShardManagerTest {
+
+	private DBConnectionInfoMgr dbConnectionInfoMgr;
+	private DBProviderFactory dbProviderFactory;
+	private ShardManager shardManager;
+	private DBConnectionInfo shard1;
+	private DBConnectionInfo shard2;
+
+	@Before
+	public void setUp() {
+		shard1 = getConnection("shard1", "1");
+		shard2 = getConnection("shard2", "2");
+		dbConnectionInfoMgr = new DBConnectionInfoMgr();
+		dbConnectionInfoMgr.setConnectionInfo(Arrays.asList(shard1, shard2));
+		dbProviderFactory = mock(DBProviderFactory.class);
+		when(dbProviderFactory.getInstance(any())).thenAnswer(invocation -> mock(DatabaseProvider.class));
+		IShardAdvisor shardAdvisor = attributeValue -> Integer.valueOf(2).equals(attributeValue) ? shard2 : shard1;
+
+		shardManager = new ShardManager();
+		ReflectionTestUtils.setField(shardManager, "dbConnectionInfoMgr", dbConnectionInfoMgr);
+		ReflectionTestUtils.setField(shardManager, "dbProviderFactory", dbProviderFactory);
+		ReflectionTestUtils.setField(shardManager, "shardAdvisor", shardAdvisor);
+	}
+
+	@Test
+	public void shouldReturnTheSameShardOnEveryCall() {
+		Shard shard = shardManager.getShard(2);
+
+		assertEquals("shard2", shard.getShardId());
+		assertEquals("2", shard.getShardLabel());
+		assertSame(shard, shardManager.getShard(2));
+		assertSame(shard, shardManager.activateShard("SHARD2"));
+		assertSame(shard, shardManager.getShardInstance("shard2"));
+		assertSame(shardManager.getDefaultShard(), shardManager.activateShard((String) null));
+		verify(dbProviderFactory, times(2)).getInstance(any());
+	}
+
+	@Test
+	public void shouldRebuildTheShardsWhenTheConnectionsAreReplaced() {
+		Shard shard = shardManager.activateShard("shard1");
+		dbConnectionInfoMgr.setConnectionInfo(Arrays.asList(shard1, shard2, getConnection("shard3", "3")));
+
+		assertNotSame(shard, shardManager.activateShard("shard1"));
+		assertEquals("shard3", shardManager.activateShard("shard3").getShardId());
+	}
+
+	@Test(expected = IllegalArgumentException.class)
+	public void shouldFailForAnUnknownShard() {
+		shardManager.activateShard("shard9");
+	}
+
+	private static DBConnectionInfo getConnection(String shardId, String shardLabel) {
+		DBConnectionInfo connection = new DBConnectionInfo();
+		connection.setShardId(shardId);
+		connection.setShardLabel(shardLabel);
+		return connection;
+	}
+}
@@ -0,0 +1,186 @@
+package dev.sunbirdrc.registry.sink.shard;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import dev.sunbirdrc.registry.dao.VertexWriter;
+import dev.sunbirdrc.registry.middleware.util.Constants;
+import dev.sunbirdrc.registry.model.DBConnectionInfo;
+import dev.sunbirdrc.registry.model.DBConnectionInfoMgr;
+import dev.sunbirdrc.registry.sink.DBProviderFactory;
+import dev.sunbirdrc.registry.util.RecordIdentifier;
+import org.apache.tinkerpop.gremlin.structure.Graph;
+import org.apache.tinkerpop.gremlin.util.iterator.IteratorUtils;
+import org.junit.Before;
+import org.junit.Test;
+import org.springframework.mock.env.MockEnvironment;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.doAnswer;
+import static org.mockito.Mockito.spy;
+
+public class ShardRebalancerTest {
+	private static final String UUID_PROPERTY = "osid";
+
+	private final ObjectMapper objectMapper = new ObjectMapper();
+	private DBConnectionInfoMgr dbConnectionInfoMgr;
+	private ShardManager shardManager;
+	private ShardRebalancer shardRebalancer;
+	private Shard shard1;
+	private Shard shard2;
+	private List<String> uuids;
+
+	@Before
+	public void setUp() throws Exception {
+		dbConnectionInfoMgr = new DBConnectionInfoMgr();
+		dbConnectionInfoMgr.setUuidPropertyName(UUID_PROPERTY);
+		dbConnectionInfoMgr.setShardProperty("serialNum");
+		dbConnectionInfoMgr.setConnectionInfo(Arrays.asList(getConnection("shard1", "1"), getConnection("shard2", "2")));
+		dbConnectionInfoMgr.init();
+
+		DBProviderFactory dbProviderFactory = new DBProviderFactory();
+		ReflectionTestUtils.setField(dbProviderFactory, "environment",
+				new MockEnvironment().withProperty(Constants.DATABASE_PROVIDER, "TINKERGRAPH"));
+		ReflectionTestUtils.setField(dbProviderFactory, "dbConnectionInfoMgr", dbConnectionInfoMgr);
+		SerialNumberShardAdvisor shardAdvisor = new SerialNumberShardAdvisor();
+		shardAdvisor.dBConnectionInfoMgr = dbConnectionInfoMgr;
+
+		ShardRedirects shardRedirects = new ShardRedirects();
+		ReflectionTestUtils.setField(shardRedirects, "cacheSize", 100L);
+		ReflectionTestUtils.setField(shardRedirects, "cacheTtlSeconds", 0L);
+		shardRedirects.init();
+
+		shardManager = new ShardManager();
+		ReflectionTestUtils.setField(shardManager, "dbConnectionInfoMgr", dbConnectionInfoMgr);
+		ReflectionTestUtils.setField(shardManager, "dbProviderFactory", dbProviderFactory);
+		ReflectionTestUtils.setField(shardManager, "shardAdvisor", shardAdvisor);
+		ReflectionTestUtils.setField(shardManager, "shardRedirects", shardRedirects);
+
+		shardRebalancer = new ShardRebalancer();
+		ReflectionTestUtils.setField(shardRebalancer, "shardManager", shardManager);
+		ReflectionTestUtils.setField(shardRebalancer, "dbConnectionInfoMgr", dbConnectionInfoMgr);
+		ReflectionTestUtils.setField(shardRebalancer, "shardRedirects", shardRedirects);
+		ReflectionTestUtils.setField(shardRebalancer, "batchSize", 2);
+		ReflectionTestUtils.setField(shardRebalancer, "recordsPerSecond", 0d);
+		shardRebalancer.init();
+
+		shard1 = shardManager.activateShard("shard1");
+		shard2 = shardManager.activateShard("shard2");
+		// All the records were added before the second shard, the odd ones belong to it now
+		uuids = new ArrayList<>();
+		for (int serialNum = 0; serialNum < 5; serialNum++) {
+			uuids.add(addTeacher(shard1, serialNum));
+		}
+	}
+
+	@Test
+	public void shouldMoveTheRecordsToTheShardsOfTheAdvisor() {
+		ShardRebalancer.RebalanceProgress progress = shardRebalancer.rebalance("Teacher");
+
+		assertEquals(ShardRebalancer.Status.COMPLETED, progress.getStatus());
+		// The moved records are visited again in the second shard
+		assertEquals(7, progress.getScanned());
+		assertEquals(2, progress.getMoved());
+		for (int serialNum = 0; serialNum < 5; serialNum++) {
+			String uuid = uuids.get(serialNum);
+			Shard holder = serialNum % 2 == 0 ? shard1 : shard2;
+			Shard other = serialNum % 2 == 0 ? shard2 : shard1;
+			assertEquals(2, countRecordVertices(holder, uuid));
+			assertEquals(0, countRecordVertices(other, uuid));
+			assertEquals(1, IteratorUtils.count(getGraph(holder).traversal().V().has(UUID_PROPERTY, uuid).outE()));
+			assertEquals(holder.getShardId(), shardManager.activateShard(new RecordIdentifier("1", uuid)).getShardId());
+		}
+		assertEquals(0, IteratorUtils.count(getGraph(shard1).traversal().V().hasLabel("_osShardRebalance")));
+	}
+
+	@Test
+	public void shouldNotMoveTheRecordsAgain() {
+		shardRebalancer.rebalance("Teacher");
+
+		ShardRebalancer.RebalanceProgress progress = shardRebalancer.rebalance("Teacher");
+
+		assertEquals(5, progress.getScanned());
+		assertEquals(0, progress.getMoved());
+	}
+
+	@Test
+	public void shouldResolveARecordMovedBack() {
+		shardRebalancer.rebalance("Teacher");
+		String uuid = uuids.get(1);
+		ReflectionTestUtils.setField(shardManager, "shardAdvisor", (IShardAdvisor) attribute ->
+				dbConnectionInfoMgr.getConnectionInfo().get(0));
+
+		ShardRebalancer.RebalanceProgress progress = shardRebalancer.rebalance("Teacher");
+
+		assertEquals(2, progress.getMoved());
+		assertEquals(2, countRecordVertices(shard1, uuid));
+		assertEquals(0, countRecordVertices(shard2, uuid));
+		assertEquals("shard1", shardManager.activateShard(new RecordIdentifier("1", uuid)).getShardId());
+		assertEquals("shard1", shardManager.activateShard(new RecordIdentifier("2", uuid)).getShardId());
+	}
+
+	@Test
+	public void shouldLeaveARecordChangedWhileBeingMoved() {
+		String uuid = uuids.get(1);
+		ShardRedirects shardRedirects = spy((ShardRedirects) ReflectionTestUtils.getField(shardRebalancer, "shardRedirects"));
+		ReflectionTestUtils.setField(shardRebalancer, "shardRedirects", shardRedirects);
+		// The record is updated once copied to its target shard
+		doAnswer(invocation -> {
+			invocation.callRealMethod();
+			getGraph(shard1).traversal().V().hasLabel("Teacher").has(UUID_PROPERTY, uuid).next().property("name", "changed");
+			return null;
+		}).when(shardRedirects).removeRedirect(any(), anyString(), eq(uuid));
+
+		ShardRebalancer.RebalanceProgress progress = shardRebalancer.rebalance("Teacher");
+
+		assertEquals(1, progress.getChanged());
+		assertEquals(1, progress.getMoved());
+		assertEquals(2, countRecordVertices(shard1, uuid));
+		assertEquals(0, countRecordVertices(shard2, uuid));
+		assertEquals("changed", getGraph(shard1).traversal().V().hasLabel("Teacher").has(UUID_PROPERTY, uuid).next().value("name"));
+		assertFalse(getGraph(shard1).traversal().V().has(UUID_PROPERTY, uuid).has("_osMoving").hasNext());
+	}
+
+	@Test
+	public void shouldFailWithoutAShardProperty() {
+		dbConnectionInfoMgr.setShardProperty("none");
+
+		ShardRebalancer.RebalanceProgress progress = shardRebalancer.rebalance("Teacher");
+
+		assertEquals(ShardRebalancer.Status.FAILED, progress.getStatus());
+		assertFalse(progress.getError().isEmpty());
+		assertTrue(uuids.stream().allMatch(uuid -> countRecordVertices(shard1, uuid) == 2));
+	}
+
+	private String addTeacher(Shard shard, int serialNum) throws Exception {
+		JsonNode teacher = objectMapper.readTree("{\"Teacher\": {\"serialNum\": " + serialNum
+				+ ", \"name\": \"teacher" + serialNum + "\", \"address\": {\"city\": \"city" + serialNum + "\"}}}");
+		return new VertexWriter(getGraph(shard), shard.getDatabaseProvider(), UUID_PROPERTY).writeNodeEntity(teacher);
+	}
+
+	private static long countRecordVertices(Shard shard, String uuid) {
+		Graph graph = getGraph(shard);
+		return IteratorUtils.count(graph.traversal().V().hasLabel("Teacher").has(UUID_PROPERTY, uuid))
+				+ IteratorUtils.count(graph.traversal().V().has(Constants.ROOT_KEYWORD, uuid));
+	}
+
+	private static Graph getGraph(Shard shard) {
+		return shard.getDatabaseProvider().getOSGraph().getGraphStore();
+	}
+
+	private static DBConnectionInfo getConnection(String shardId, String shardLabel) {
+		DBConnectionInfo connection = new DBConnectionInfo();
+		connection.setShardId(shardId);
+		connection.setShardLabel(shardLabel);
+		return connection;
+	}
+}
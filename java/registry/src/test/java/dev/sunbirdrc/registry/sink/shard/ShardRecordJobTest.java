@@ -0,0 +1,173 @@
+package dev.sunbirdrc.registry.sink.shard;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import dev.sunbirdrc.registry.dao.VertexWriter;
+import dev.sunbirdrc.registry.middleware.util.Constants;
+import dev.sunbirdrc.registry.model.DBConnectionInfo;
+import dev.sunbirdrc.registry.model.DBConnectionInfoMgr;
+import dev.sunbirdrc.registry.sink.DBProviderFactory;
+import org.apache.tinkerpop.gremlin.structure.Graph;
+import org.apache.tinkerpop.gremlin.util.iterator.IteratorUtils;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+import org.springframework.mock.env.MockEnvironment;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNotEquals;
+import static org.junit.Assert.fail;
+
+public class ShardRecordJobTest {
+	private static final String UUID_PROPERTY = "osid";
+	private static final String CHECKPOINT_LABEL = "_osVisit";
+
+	private final ObjectMapper objectMapper = new ObjectMapper();
+	private VisitingJob job;
+	private Shard shard1;
+	private Shard shard2;
+	private List<String> uuids1;
+	private List<String> uuids2;
+
+	private static class VisitingJob extends ShardRecordJob<VisitingJob.VisitProgress> {
+		private final List<String> visited = new CopyOnWriteArrayList<>();
+		private volatile String stopAt;
+
+		static class VisitProgress extends ShardRecordJob.Progress {
+			VisitProgress(String entityType) {
+				super(entityType);
+			}
+
+			@Override
+			public long getScanned() {
+				return 0;
+			}
+
+			@Override
+			public long getFailed() {
+				return 0;
+			}
+		}
+
+		VisitingJob() {
+			super("Visiting", "visit", CHECKPOINT_LABEL);
+		}
+
+		@Override
+		protected VisitProgress createProgress(String entityType) {
+			return new VisitProgress(entityType);
+		}
+
+		@Override
+		protected int getBatchSize() {
+			return 2;
+		}
+
+		@Override
+		protected int process(Shard shard, String after, List<String> uuids, VisitProgress runProgress) {
+			visited.addAll(uuids);
+			if (uuids.contains(stopAt)) {
+				stop();
+			}
+			return uuids.size();
+		}
+	}
+
+	@Before
+	public void setUp() throws Exception {
+		DBConnectionInfoMgr dbConnectionInfoMgr = new DBConnectionInfoMgr();
+		dbConnectionInfoMgr.setUuidPropertyName(UUID_PROPERTY);
+		dbConnectionInfoMgr.setConnectionInfo(Arrays.asList(getConnection("shard1", "1"), getConnection("shard2", "2")));
+		dbConnectionInfoMgr.init();
+
+		DBProviderFactory dbProviderFactory = new DBProviderFactory();
+		ReflectionTestUtils.setField(dbProviderFactory, "environment",
+				new MockEnvironment().withProperty(Constants.DATABASE_PROVIDER, "TINKERGRAPH"));
+		ReflectionTestUtils.setField(dbProviderFactory, "dbConnectionInfoMgr", dbConnectionInfoMgr);
+		ShardManager shardManager = new ShardManager();
+		ReflectionTestUtils.setField(shardManager, "dbConnectionInfoMgr", dbConnectionInfoMgr);
+		ReflectionTestUtils.setField(shardManager, "dbProviderFactory", dbProviderFactory);
+
+		job = new VisitingJob();
+		ReflectionTestUtils.setField(job, "shardManager", shardManager);
+		job.init();
+
+		shard1 = shardManager.activateShard("shard1");
+		shard2 = shardManager.activateShard("shard2");
+		uuids1 = addTeachers(shard1, 3);
+		uuids2 = addTeachers(shard2, 3);
+	}
+
+	@After
+	public void tearDown() {
+		job.destroy();
+	}
+
+	@Test
+	public void shouldResumeAfterTheShardsTheStoppedRunWasDoneWith() {
+		job.stopAt = uuids2.get(0);
+		VisitingJob.VisitProgress stopped = job.runNow("Teacher");
+
+		assertEquals(ShardRecordJob.Status.STOPPED, stopped.getStatus());
+		List<String> visited = new ArrayList<>(uuids1);
+		visited.addAll(uuids2.subList(0, 2));
+		assertEquals(visited, job.visited);
+
+		job.stopAt = null;
+		job.visited.clear();
+		VisitingJob.VisitProgress resumed = job.runNow("Teacher");
+
+		assertEquals(ShardRecordJob.Status.COMPLETED, resumed.getStatus());
+		assertEquals(stopped.getRunId(), resumed.getRunId());
+		assertEquals(Collections.singletonList(uuids2.get(2)), job.visited);
+		assertEquals(0, countCheckpoints(shard1) + countCheckpoints(shard2));
+
+		// Once completed, the next run starts over
+		job.visited.clear();
+		VisitingJob.VisitProgress next = job.runNow("Teacher");
+
+		assertNotEquals(resumed.getRunId(), next.getRunId());
+		assertEquals(6, job.visited.size());
+	}
+
+	@Test
+	public void shouldNotRunWhileARunIsInProgress() {
+		ReflectionTestUtils.setField(job, "progress", new VisitingJob.VisitProgress("Teacher"));
+
+		try {
+			job.runNow("Teacher");
+			fail("Ran while a run was in progress");
+		} catch (IllegalStateException e) {
+			assertEquals(0, job.visited.size());
+		}
+	}
+
+	private List<String> addTeachers(Shard shard, int count) throws Exception {
+		List<String> uuids = new ArrayList<>();
+		Graph graph = shard.getDatabaseProvider().getOSGraph().getGraphStore();
+		for (int i = 0; i < count; i++) {
+			JsonNode teacher = objectMapper.readTree("{\"Teacher\": {\"name\": \"teacher" + i + "\"}}");
+			uuids.add(new VertexWriter(graph, shard.getDatabaseProvider(), UUID_PROPERTY).writeNodeEntity(teacher));
+		}
+		Collections.sort(uuids);
+		return uuids;
+	}
+
+	private static long countCheckpoints(Shard shard) {
+		return IteratorUtils.count(shard.getDatabaseProvider().getOSGraph().getGraphStore().traversal().V().hasLabel(CHECKPOINT_LABEL));
+	}
+
+	private static DBConnectionInfo getConnection(String shardId, String shardLabel) {
+		DBConnectionInfo connection = new DBConnectionInfo();
+		connection.setShardId(shardId);
+		connection.setShardLabel(shardLabel);
+		return connection;
+	}
+}
@@ -34,7 +34,8 @@ import static org.mockito.Mockito.*;
 @ActiveProfiles(Constants.TEST_ENVIRONMENT)
 public class DistributedDefinitionsManagerTest {
     private static final String SCHEMA = "SCHEMA_";
-    private static final String SCHEMA_WILDCARD = SCHEMA + "*";
+    private static final String SCHEMA_NAMES = "SCHEMAS";
+    private static final String SCHEMA_VERSION = "SCHEMAS_VERSION";
     @InjectMocks
     @Spy
     private DistributedDefinitionsManager distributedDefinitionsManager;
@@ -57,10 +58,11 @@ public class DistributedDefinitionsManagerTest {
     @Test
     public void shouldGetAllKnownDefinitionsFromRedis() {
         Set<String> keys = new HashSet<>();
-        keys.add("SCHEMA_TrainingCertificate");
-        when(jedis.keys(SCHEMA_WILDCARD)).thenReturn(keys);
+        keys.add("TrainingCertificate");
+        when(jedis.smembers(SCHEMA_NAMES)).thenReturn(keys);
         Set<String> expectedKeys = distributedDefinitionsManager.getAllKnownDefinitions();
-        verify(jedis, times(1)).keys(SCHEMA_WILDCARD);
+        verify(jedis, times(1)).smembers(SCHEMA_NAMES);
+        verify(jedis, never()).keys(anyString());
         assertEquals(1, expectedKeys.size());
         assertEquals("TrainingCertificate", expectedKeys.toArray(new String[keys.size()])[0]);
     }
@@ -68,17 +70,17 @@ public class DistributedDefinitionsManagerTest {
     @Test
     public void shouldGetAllDefinitionsFromRedis() throws IOException {
         Set<String> keys = new HashSet<>();
-        keys.add("SCHEMA_TrainingCertificate");
-        when(jedis.keys(SCHEMA_WILDCARD)).thenReturn(keys);
+        keys.add("TrainingCertificate");
+        when(jedis.smembers(SCHEMA_NAMES)).thenReturn(keys);
         List<String> definitionsStr = new ArrayList<>();
         String schema = IOUtils.toString(this.getClass().getClassLoader().getResourceAsStream("TrainingCertificate.json"), Charset.defaultCharset());
         definitionsStr.add(schema);
-        when(jedis.mget(keys.toArray(new String[keys.size()]))).thenReturn(definitionsStr);
+        when(jedis.mget("SCHEMA_TrainingCertificate")).thenReturn(definitionsStr);
         ObjectMapper objectMapper1 = new ObjectMapper();
         JsonNode node = objectMapper1.readTree(schema);
         when(objectMapper.readTree(schema)).thenReturn(node);
         List<Definition> definitions = distributedDefinitionsManager.getAllDefinitions();
-        verify(jedis, times(1)).keys(SCHEMA_WILDCARD);
+        verify(jedis, times(1)).smembers(SCHEMA_NAMES);
         verify(objectMapper, times(1)).readTree(schema);
         assertEquals(1, definitions.size());
     }
@@ -104,8 +106,8 @@ public class DistributedDefinitionsManagerTest {
     public void shouldReturnPublicFieldsFromDefinition() throws IOException {
         Set<String> keys = new HashSet<>();
         final String SCHEMA = "SCHEMA_";
-        keys.add(SCHEMA + "TrainingCertificate");
-        when(jedis.keys(SCHEMA_WILDCARD)).thenReturn(keys);
+        keys.add("TrainingCertificate");
+        when(jedis.smembers(SCHEMA_NAMES)).thenReturn(keys);
         String schema = IOUtils.toString(this.getClass().getClassLoader().getResourceAsStream("TrainingCertificate.json"), Charset.defaultCharset());
         when(jedis.get("SCHEMA_TrainingCertificate")).thenReturn(schema);
         ObjectMapper objectMapper1 = new ObjectMapper();
@@ -121,8 +123,8 @@ public class DistributedDefinitionsManagerTest {
     public void shouldReturnExcludingFieldsFromDefinition() throws IOException {
         Set<String> keys = new HashSet<>();
         final String SCHEMA = "SCHEMA_";
-        keys.add("SCHEMA_TrainingCertificate");
-        when(jedis.keys(SCHEMA_WILDCARD)).thenReturn(keys);
+        keys.add("TrainingCertificate");
+        when(jedis.smembers(SCHEMA_NAMES)).thenReturn(keys);
         String schema = IOUtils.toString(this.getClass().getClassLoader().getResourceAsStream("TrainingCertificate.json"), Charset.defaultCharset());
         when(jedis.get("SCHEMA_TrainingCertificate")).thenReturn(schema);
         ObjectMapper objectMapper1 = new ObjectMapper();
@@ -161,14 +163,14 @@ public class DistributedDefinitionsManagerTest {
     public void shouldReturnTrueForValidEntityName() {
         String entity = "TrainingCertificate";
         final String SCHEMA = "SCHEMA_";
-        when(jedis.exists(SCHEMA + entity)).thenReturn(true);
+        when(jedis.smembers(SCHEMA_NAMES)).thenReturn(new HashSet<>(Collections.singletonList(entity)));
         assertTrue(distributedDefinitionsManager.isValidEntityName(entity));
     }
 
     @Test
     public void shouldReturnFalseForInValidEntityName() {
         String entity = "UnknownEntity";
-        when(jedis.exists(entity)).thenReturn(false);
+        when(jedis.smembers(SCHEMA_NAMES)).thenReturn(new HashSet<>(Collections.singletonList("TrainingCertificate")));
         assertFalse(distributedDefinitionsManager.isValidEntityName(entity));
     }
 
@@ -180,6 +182,8 @@ public class DistributedDefinitionsManagerTest {
         when(objectMapper.readTree(schema)).thenReturn(objectMapper1.readTree(schema));
         distributedDefinitionsManager.appendNewDefinition(node);
         verify(jedis, times(1)).set("SCHEMA_Place", objectMapper1.readTree(node.textValue()).toString());
+        verify(jedis, times(1)).sadd(SCHEMA_NAMES, "Place");
+        verify(jedis, times(1)).incr(SCHEMA_VERSION);
     }
 
     @Test
@@ -190,5 +194,26 @@ public class DistributedDefinitionsManagerTest {
         when(objectMapper.readTree(schema)).thenReturn(objectMapper1.readTree(schema));
         distributedDefinitionsManager.removeDefinition(node);
         verify(jedis, times(1)).del("SCHEMA_Place");
+        verify(jedis, times(1)).srem(SCHEMA_NAMES, "Place");
+        verify(jedis, times(1)).incr(SCHEMA_VERSION);
+    }
+
+    @Test
+    public void shouldCacheDefinitionsUntilTheVersionChanges() throws IOException {
+        String schema = IOUtils.toString(this.getClass().getClassLoader().getResourceAsStream("TrainingCertificate.json"), Charset.defaultCharset());
+        when(jedis.get(SCHEMA + "TrainingCertificate")).thenReturn(schema);
+        when(objectMapper.readTree(schema)).thenReturn(new ObjectMapper().readTree(schema));
+        when(jedis.get(SCHEMA_VERSION)).thenReturn("1");
+
+        Definition definition = distributedDefinitionsManager.getDefinition("TrainingCertificate");
+        assertSame(definition, distributedDefinitionsManager.getDefinition("TrainingCertificate"));
+        verify(jedis, times(1)).get(SCHEMA + "TrainingCertificate");
+        assertEquals(1, distributedDefinitionsManager.getCacheHits());
+        assertEquals(1, distributedDefinitionsManager.getCacheMisses());
+
+        when(jedis.get(SCHEMA_VERSION)).thenReturn("2");
+        assertNotSame(definition, distributedDefinitionsManager.getDefinition("TrainingCertificate"));
+        verify(jedis, times(2)).get(SCHEMA + "TrainingCertificate");
+        assertEquals(1.0 / 3, distributedDefinitionsManager.getCacheHitRatio(), 0.001);
     }
 }
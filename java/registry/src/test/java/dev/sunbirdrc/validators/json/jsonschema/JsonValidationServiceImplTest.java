@@ -6,10 +6,19 @@ import com.fasterxml.jackson.databind.ObjectMapper;
 import com.fasterxml.jackson.databind.node.JsonNodeFactory;
 import dev.sunbirdrc.registry.middleware.MiddlewareHaltException;
 import dev.sunbirdrc.registry.util.Definition;
+import org.everit.json.schema.Schema;
 import org.junit.Before;
 import org.junit.Test;
+import org.springframework.test.util.ReflectionTestUtils;
 
 import java.io.*;
+import java.util.Map;
+
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNotSame;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.assertTrue;
+import static org.junit.Assert.fail;
 
 public class JsonValidationServiceImplTest {
 
@@ -180,4 +189,86 @@ public class JsonValidationServiceImplTest {
                 "}", false);
 
     }
+
+    private static final String courseSchema = "{\"title\": \"Course\", \"type\": \"object\", \"properties\": {\"Course\": " +
+            "{\"type\": \"object\", \"required\": [%s], \"properties\": {\"name\": {\"type\": \"string\"}, " +
+            "\"credits\": %s}}}}";
+
+    @Test(expected = MiddlewareHaltException.class)
+    public void testValidateJsonNode() throws Exception {
+        jsonObj = mapper.readTree(new File(sampleJsonPathOnlyRequiredErrors));
+        jsonValidationService.validate(schemaDefinition.getTitle(), jsonObj, false);
+    }
+
+    @Test
+    public void testIgnoreRequiredValidationOfJsonNode() throws Exception {
+        jsonObj = mapper.readTree(new File(sampleJsonPathOnlyRequiredErrors));
+        jsonValidationService.validate(schemaDefinition.getTitle(), jsonObj, true);
+    }
+
+    @Test
+    public void shouldValidateNumbersOfJsonNode() throws Exception {
+        jsonValidationService.addDefinitions("Course", String.format(courseSchema, "\"name\"", "{\"type\": \"integer\"}"));
+        jsonValidationService.validate("Course", mapper.readTree("{\"Course\": {\"name\": \"Maths\", \"credits\": 3}}"), false);
+        assertValidationFails(jsonValidationService, "Course", mapper.readTree("{\"Course\": {\"name\": \"Maths\", \"credits\": 3.5}}"));
+    }
+
+    @Test
+    public void shouldValidateAgainstTheUpdatedSchema() throws Exception {
+        jsonValidationService.addDefinitions("Course", String.format(courseSchema, "\"name\"", "{\"type\": \"integer\"}"));
+        jsonValidationService.compileSchemas();
+        JsonNode course = mapper.readTree("{\"Course\": {\"name\": \"Maths\"}}");
+        jsonValidationService.validate("Course", course, false);
+
+        jsonValidationService.addDefinitions("Course", String.format(courseSchema, "\"name\", \"credits\"", "{\"type\": \"integer\"}"));
+        assertValidationFails(jsonValidationService, "Course", course);
+    }
+
+    @Test
+    public void shouldResolveTheReferredSchemasFromTheDefinitions() throws Exception {
+        // Nothing listens at the schema url, the referred schema is read from the definitions
+        JsonValidationServiceImpl validationService = new JsonValidationServiceImpl("http://localhost:1/_schemas/");
+        validationService.addDefinitions("Common", "{\"title\": \"Common\", \"definitions\": {\"Credits\": {\"type\": \"integer\"}}}");
+        validationService.addDefinitions("Course", String.format(courseSchema, "\"name\"", "{\"$ref\": \"Common.json#/definitions/Credits\"}"));
+        validationService.compileSchemas();
+        validationService.validate("Course", mapper.readTree("{\"Course\": {\"name\": \"Maths\", \"credits\": 3}}"), false);
+        assertValidationFails(validationService, "Course", mapper.readTree("{\"Course\": {\"name\": \"Maths\", \"credits\": 3.5}}"));
+    }
+
+    @Test
+    public void shouldCompileAgainOnlyTheSchemasReferringToTheChangedDefinition() throws Exception {
+        JsonValidationServiceImpl validationService = new JsonValidationServiceImpl("http://localhost:1/_schemas/");
+        validationService.addDefinitions("Common", "{\"title\": \"Common\", \"definitions\": {\"Credits\": {\"type\": \"integer\"}}}");
+        validationService.addDefinitions("Course", String.format(courseSchema, "\"name\"", "{\"$ref\": \"Common.json#/definitions/Credits\"}"));
+        validationService.addDefinitions(schemaDefinition.getTitle(), schemaDefinition.getContent());
+        validationService.compileSchemas();
+        Map<String, Schema> compiledSchemas = getCompiledSchemas(validationService);
+
+        validationService.addDefinitions("Common", "{\"title\": \"Common\", \"definitions\": {\"Credits\": {\"type\": \"number\"}}}");
+        validationService.validate("Course", mapper.readTree("{\"Course\": {\"name\": \"Maths\", \"credits\": 3.5}}"), false);
+        Map<String, Schema> recompiledSchemas = getCompiledSchemas(validationService);
+        assertNotSame(compiledSchemas.get("Common"), recompiledSchemas.get("Common"));
+        assertNotSame(compiledSchemas.get("Course"), recompiledSchemas.get("Course"));
+        assertSame(compiledSchemas.get(schemaDefinition.getTitle()), recompiledSchemas.get(schemaDefinition.getTitle()));
+
+        validationService.removeDefinition("Common");
+        recompiledSchemas = getCompiledSchemas(validationService);
+        assertFalse(recompiledSchemas.containsKey("Common"));
+        assertFalse(recompiledSchemas.containsKey("Course"));
+        assertSame(compiledSchemas.get(schemaDefinition.getTitle()), recompiledSchemas.get(schemaDefinition.getTitle()));
+    }
+
+    @SuppressWarnings("unchecked")
+    private static Map<String, Schema> getCompiledSchemas(JsonValidationServiceImpl validationService) {
+        return (Map<String, Schema>) ReflectionTestUtils.getField(validationService, "entitySchemaMap");
+    }
+
+    private static void assertValidationFails(JsonValidationServiceImpl validationService, String entityType, JsonNode payload) {
+        try {
+            validationService.validate(entityType, payload, false);
+            fail("Validation passed");
+        } catch (MiddlewareHaltException e) {
+            assertTrue(e.getMessage().startsWith("Validation Exception"));
+        }
+    }
 }
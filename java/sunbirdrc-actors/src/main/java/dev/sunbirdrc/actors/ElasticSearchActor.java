@@ -1,40 +1,77 @@
 package dev.sunbirdrc.actors;
 
 
+import com.fasterxml.jackson.core.type.TypeReference;
+import com.fasterxml.jackson.databind.JsonNode;
 import com.fasterxml.jackson.databind.ObjectMapper;
 import dev.sunbirdrc.elastic.ESMessage;
+import dev.sunbirdrc.elastic.ElasticBulkIndexer;
 import dev.sunbirdrc.elastic.ElasticServiceImpl;
 import dev.sunbirdrc.elastic.IElasticService;
 import org.sunbird.akka.core.BaseActor;
 import org.sunbird.akka.core.MessageProtos;
 
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
 public class ElasticSearchActor extends BaseActor {
-    public IElasticService elasticSearch;
-    public ObjectMapper objectMapper;
+    public IElasticService elasticSearch = new ElasticServiceImpl();
+    public ObjectMapper objectMapper = new ObjectMapper();
 
     @Override
     public void onReceive(MessageProtos.Message request) throws Throwable {
         logger.debug("Received a message to ElasticSearch Actor {}", request.getPerformOperation());
-        MessageProtos.Message.Builder msgBuilder = MessageProtos.Message.newBuilder();
-        elasticSearch = new ElasticServiceImpl();
-        objectMapper = new ObjectMapper();
+        // Queue the operations to be sent in bulk, when enabled. Queueing does not block the
+        // dispatcher thread, the indexer waits for room on its own thread.
+        ElasticBulkIndexer bulkIndexer = ElasticBulkIndexer.getInstance();
+        if ("BULK_ADD".equals(request.getPerformOperation())) {
+            List<ESMessage> esMessages = objectMapper.readValue(request.getPayload().getStringValue(), new TypeReference<List<ESMessage>>() {});
+            if (bulkIndexer != null) {
+                esMessages.forEach(esMessage -> bulkIndexer.addEntity(esMessage.getIndexName(), esMessage.getUuidPropertyValue(), esMessage.getInput()));
+            } else {
+                addEntities(esMessages);
+            }
+            return;
+        }
         ESMessage esMessage = objectMapper.readValue(request.getPayload().getStringValue(), ESMessage.class);
         //ESMessage es =  objectMapper.writeValue(request.getPayload(), ESMessage.class);
         switch (request.getPerformOperation()) {
             case "ADD":
-                elasticSearch.addEntity(esMessage.getIndexName(), esMessage.getUuidPropertyValue(), esMessage.getInput());
+                if (bulkIndexer != null) {
+                    bulkIndexer.addEntity(esMessage.getIndexName(), esMessage.getUuidPropertyValue(), esMessage.getInput());
+                } else {
+                    elasticSearch.addEntity(esMessage.getIndexName(), esMessage.getUuidPropertyValue(), esMessage.getInput());
+                }
                 break;
             case "UPDATE":
-                elasticSearch.updateEntity(esMessage.getIndexName(), esMessage.getUuidPropertyValue(), esMessage.getInput());
+                if (bulkIndexer != null) {
+                    bulkIndexer.updateEntity(esMessage.getIndexName(), esMessage.getUuidPropertyValue(), esMessage.getInput());
+                } else {
+                    elasticSearch.updateEntity(esMessage.getIndexName(), esMessage.getUuidPropertyValue(), esMessage.getInput());
+                }
                 break;
             case "DELETE":
-                elasticSearch.deleteEntity(esMessage.getIndexName(), esMessage.getUuidPropertyValue());
+                if (bulkIndexer != null) {
+                    bulkIndexer.deleteEntity(esMessage.getIndexName(), esMessage.getUuidPropertyValue());
+                } else {
+                    elasticSearch.deleteEntity(esMessage.getIndexName(), esMessage.getUuidPropertyValue());
+                }
                 break;
             case "READ":
                 break;
         }
     }
 
+    private void addEntities(List<ESMessage> esMessages) {
+        Map<String, Map<String, JsonNode>> indexEntities = new LinkedHashMap<>();
+        for (ESMessage esMessage : esMessages) {
+            indexEntities.computeIfAbsent(esMessage.getIndexName(), k -> new LinkedHashMap<>())
+                    .put(esMessage.getUuidPropertyValue(), esMessage.getInput());
+        }
+        indexEntities.forEach((index, entities) -> elasticSearch.addEntities(index, entities));
+    }
+
     @Override
     public void onFailure(MessageProtos.Message message) {
         logger.info("Send hello failed {}", message.toString());
@@ -14,6 +14,7 @@ import dev.sunbirdrc.registry.middleware.util.Constants;
 import org.sunbird.akka.core.MessageProtos;
 
 import java.util.HashMap;
+import java.util.List;
 import java.util.Map;
 
 public class MessageFactory {
@@ -37,6 +38,17 @@ public class MessageFactory {
         return msgBuilder.build();
     }
 
+    public MessageProtos.Message createElasticSearchBulkMessage(String operation, List<ESMessage> esMessages) throws JsonProcessingException {
+        MessageProtos.Message.Builder msgBuilder = MessageProtos.Message.newBuilder();
+        msgBuilder.setPerformOperation(operation);
+        msgBuilder.setTargetActorName(Constants.ELASTIC_SEARCH_ACTOR);
+        Value.Builder payloadBuilder = msgBuilder.getPayloadBuilder();
+        ObjectMapper objectMapper = new ObjectMapper();
+        payloadBuilder.setStringValue(objectMapper.writeValueAsString(esMessages));
+        msgBuilder.setPayload(payloadBuilder.build());
+        return msgBuilder.build();
+    }
+
     public MessageProtos.Message createAuditMessage(AuditRecord auditRecord) throws JsonProcessingException {
         MessageProtos.Message.Builder msgBuilder = MessageProtos.Message.newBuilder();
         msgBuilder.setTargetActorName(Constants.AUDIT_ACTOR);
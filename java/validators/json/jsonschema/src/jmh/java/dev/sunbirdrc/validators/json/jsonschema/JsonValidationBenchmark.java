@@ -0,0 +1,87 @@
+package dev.sunbirdrc.validators.json.jsonschema;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import dev.sunbirdrc.registry.middleware.MiddlewareHaltException;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.io.IOException;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Validates typical Teacher and Student payloads. The string benchmarks serialise the payload and
+ * validate the string, as the registry did before validating the JsonNode directly.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class JsonValidationBenchmark {
+    private static final String TEACHER_SCHEMA = "{\"$schema\": \"http://json-schema.org/draft-07/schema\", \"type\": \"object\", " +
+            "\"title\": \"Teacher\", \"required\": [\"Teacher\"], \"properties\": {\"Teacher\": {\"$ref\": \"#/definitions/Teacher\"}}, " +
+            "\"definitions\": {\"Teacher\": {\"type\": \"object\", \"required\": [\"fullName\", \"email\"], \"properties\": {" +
+            "\"fullName\": {\"type\": \"string\"}, \"email\": {\"type\": \"string\", \"format\": \"email\"}, " +
+            "\"gender\": {\"type\": \"string\", \"enum\": [\"Male\", \"Female\", \"Other\"]}, " +
+            "\"dob\": {\"type\": \"string\", \"format\": \"date\"}, \"subjects\": {\"type\": \"array\", \"items\": {\"type\": \"string\"}}, " +
+            "\"experience\": {\"type\": \"array\", \"items\": {\"type\": \"object\", \"required\": [\"institute\"], \"properties\": {" +
+            "\"institute\": {\"type\": \"string\"}, \"years\": {\"type\": \"integer\", \"minimum\": 0}}}}}}}}";
+    private static final String STUDENT_SCHEMA = "{\"$schema\": \"http://json-schema.org/draft-07/schema\", \"type\": \"object\", " +
+            "\"title\": \"Student\", \"required\": [\"Student\"], \"properties\": {\"Student\": {\"$ref\": \"#/definitions/Student\"}}, " +
+            "\"definitions\": {\"Student\": {\"type\": \"object\", \"required\": [\"name\"], \"properties\": {" +
+            "\"name\": {\"type\": \"string\"}, \"dob\": {\"type\": \"string\", \"format\": \"date\"}, " +
+            "\"address\": {\"type\": \"object\", \"properties\": {\"line1\": {\"type\": \"string\"}, \"pincode\": {\"type\": \"string\", \"pattern\": \"^[0-9]{6}$\"}}}, " +
+            "\"education\": {\"type\": \"array\", \"items\": {\"type\": \"object\", \"required\": [\"title\"], \"properties\": {" +
+            "\"title\": {\"type\": \"string\"}, \"fromDate\": {\"type\": \"string\", \"format\": \"date\"}, \"score\": {\"type\": \"number\"}}}}}}}}";
+    private static final String TEACHER = "{\"Teacher\": {\"fullName\": \"Anita Rao\", \"email\": \"anita@example.com\", " +
+            "\"gender\": \"Female\", \"dob\": \"1985-04-12\", \"subjects\": [\"Maths\", \"Physics\", \"Chemistry\"], " +
+            "\"experience\": [{\"institute\": \"City School\", \"years\": 6}, {\"institute\": \"Town College\", \"years\": 4}]}}";
+    private static final String STUDENT = "{\"Student\": {\"name\": \"Rohan K\", \"dob\": \"2005-09-30\", " +
+            "\"address\": {\"line1\": \"12 Main Road\", \"pincode\": \"560001\"}, " +
+            "\"education\": [{\"title\": \"SSLC\", \"fromDate\": \"2019-06-01\", \"score\": 91.5}, " +
+            "{\"title\": \"PUC\", \"fromDate\": \"2021-06-01\", \"score\": 88}]}}";
+
+    private final ObjectMapper objectMapper = new ObjectMapper();
+    private final JsonValidationServiceImpl validationService = new JsonValidationServiceImpl("");
+    private JsonNode teacher;
+    private JsonNode student;
+
+    @Setup
+    public void setUp() throws IOException {
+        validationService.addDefinitions("Teacher", TEACHER_SCHEMA);
+        validationService.addDefinitions("Student", STUDENT_SCHEMA);
+        validationService.compileSchemas();
+        teacher = objectMapper.readTree(TEACHER);
+        student = objectMapper.readTree(STUDENT);
+    }
+
+    @Benchmark
+    public void teacherJsonNode() throws MiddlewareHaltException {
+        validationService.validate("Teacher", teacher, false);
+    }
+
+    @Benchmark
+    public void teacherString() throws IOException, MiddlewareHaltException {
+        validationService.validate("Teacher", objectMapper.writeValueAsString(teacher), false);
+    }
+
+    @Benchmark
+    public void studentJsonNode() throws MiddlewareHaltException {
+        validationService.validate("Student", student, false);
+    }
+
+    @Benchmark
+    public void studentString() throws IOException, MiddlewareHaltException {
+        validationService.validate("Student", objectMapper.writeValueAsString(student), false);
+    }
+}
@@ -7,16 +7,26 @@ import dev.sunbirdrc.validators.IValidate;
 import org.apache.commons.lang3.exception.ExceptionUtils;
 import org.everit.json.schema.Schema;
 import org.everit.json.schema.ValidationException;
+import org.everit.json.schema.loader.SchemaClient;
 import org.everit.json.schema.loader.SchemaLoader;
+import org.json.JSONArray;
 import org.json.JSONObject;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
+import java.io.ByteArrayInputStream;
 import java.io.IOException;
+import java.io.InputStream;
+import java.nio.charset.StandardCharsets;
 import java.util.ArrayList;
+import java.util.Collections;
 import java.util.HashMap;
+import java.util.HashSet;
+import java.util.Iterator;
 import java.util.List;
 import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
 import java.util.stream.Collectors;
 
 public class JsonValidationServiceImpl implements IValidate {
@@ -25,9 +35,19 @@ public class JsonValidationServiceImpl implements IValidate {
 	public final static String TITLE = "title";
 	private final String REQUIRED_KEYWORD = "required";
 
-	private Map<String, Schema> entitySchemaMap = new HashMap<>();
-	private Map<String, String> definitionMap = new HashMap<>();;
+	private static final String JSON_EXTENSION = ".json";
+
+	// Replaced as a whole, so that the schemas can be read without locking
+	private volatile Map<String, Schema> entitySchemaMap = Collections.emptyMap();
+	private volatile boolean compiled;
+	private final Map<String, String> definitionMap = new ConcurrentHashMap<>();
+	// The definitions each schema referred to when it was last compiled, directly or through other definitions
+	private final Map<String, Set<String>> referredDefinitions = new HashMap<>();
+	// Collects the definitions referred to by the schema being compiled, schemas are compiled holding the lock
+	private Set<String> referredByLoadingSchema;
 	private final String schemaUrl;
+	private final SchemaClient defaultSchemaClient = SchemaClient.classPathAwareClient();
+	private final SchemaClient schemaClient = this::getReferredSchema;
 
 	private final ObjectMapper objectMapper;
 
@@ -36,23 +56,83 @@ public class JsonValidationServiceImpl implements IValidate {
 		this.objectMapper = new ObjectMapper();
 	}
 
+	/**
+	 * Compiles the schemas of all the definitions and replaces the compiled schemas with them.
+	 * Once called, the schema of a definition added or removed is compiled again, along with the
+	 * schemas referring to it.
+	 */
+	public synchronized void compileSchemas() {
+		Map<String, Schema> schemas = new HashMap<>();
+		for (Map.Entry<String, String> definition : definitionMap.entrySet()) {
+			try {
+				schemas.put(definition.getKey(), loadSchema(definition.getKey(), definition.getValue()));
+			} catch (Exception e) {
+				// Compiled when first validated, failing the validation
+				logger.warn("{}: schema can't be compiled, {}", definition.getKey(), e.getMessage());
+			}
+		}
+		entitySchemaMap = Collections.unmodifiableMap(schemas);
+		compiled = true;
+		logger.info("Compiled {} of {} schemas", schemas.size(), definitionMap.size());
+	}
+
+	private Schema loadSchema(String definitionTitle, String definitionContent) {
+		Set<String> referred = new HashSet<>();
+		referredByLoadingSchema = referred;
+		try {
+			JSONObject rawSchema = new JSONObject(definitionContent);
+			SchemaLoader schemaLoader = SchemaLoader.builder().schemaJson(rawSchema).draftV7Support()
+					.resolutionScope(schemaUrl).schemaClient(schemaClient).build();
+			return schemaLoader.load().build();
+		} finally {
+			// Kept when the compilation fails too, it may fail for a missing definition
+			referredByLoadingSchema = null;
+			referredDefinitions.put(definitionTitle, referred);
+		}
+	}
+
+	/**
+	 * Resolves the references to the registry schemas from the definitions, instead of fetching
+	 * them from the registry
+	 */
+	private InputStream getReferredSchema(String url) {
+		if (url.startsWith(schemaUrl)) {
+			String name = url.substring(schemaUrl.length());
+			if (name.contains("#")) {
+				name = name.substring(0, name.indexOf('#'));
+			}
+			String definitionTitle = name.endsWith(JSON_EXTENSION) ?
+					name.substring(0, name.length() - JSON_EXTENSION.length()) : name;
+			if (referredByLoadingSchema != null) {
+				referredByLoadingSchema.add(definitionTitle);
+			}
+			String definitionContent = definitionMap.get(definitionTitle);
+			if (definitionContent != null) {
+				return new ByteArrayInputStream(definitionContent.getBytes(StandardCharsets.UTF_8));
+			}
+		}
+		return defaultSchemaClient.get(url);
+	}
+
 	private Schema getEntitySchema(String entityType) throws MiddlewareHaltException {
-		if (entitySchemaMap.containsKey(entityType)) {
-			return entitySchemaMap.get(entityType);
-		} else {
-			Schema schema;
+		Schema schema = entitySchemaMap.get(entityType);
+		if (schema != null || !definitionMap.containsKey(entityType)) {
+			return schema;
+		}
+		synchronized (this) {
+			schema = entitySchemaMap.get(entityType);
+			if (schema != null) {
+				return schema;
+			}
 			try {
 				String definitionContent = definitionMap.get(entityType);
-				if (definitionContent != null) {
-					JSONObject rawSchema = new JSONObject(definitionContent);
-
-					SchemaLoader schemaLoader = SchemaLoader.builder().schemaJson(rawSchema).draftV7Support()
-							.resolutionScope(schemaUrl).build();
-					schema = schemaLoader.load().build();
-					entitySchemaMap.put(entityType, schema);
-				} else {
+				if (definitionContent == null) {
 					return null;
 				}
+				schema = loadSchema(entityType, definitionContent);
+				Map<String, Schema> schemas = new HashMap<>(entitySchemaMap);
+				schemas.put(entityType, schema);
+				entitySchemaMap = Collections.unmodifiableMap(schemas);
 			} catch (Exception e) {
 				logger.error("can't validate, {}: schema has a problem!, {}", entityType, ExceptionUtils.getStackTrace(e));
 				throw new MiddlewareHaltException("can't validate, "+ entityType + ": schema has a problem!");
@@ -65,31 +145,81 @@ public class JsonValidationServiceImpl implements IValidate {
 	public void validate(String entityType, String objString, boolean ignoreRequiredFields) throws MiddlewareHaltException {
 		Schema schema = getEntitySchema(entityType);
 		if (schema != null) {
-			JSONObject obj = new JSONObject(objString);
-			try {
-				schema.validate(obj); // throws a ValidationException if this object is invalid
-			} catch (ValidationException e) {
-				logger.error("Validation Exception : " + e.getAllMessages());
-				if (ignoreRequiredFields) {
-					List<ValidationException> flattenedExceptions = flattenException(e).stream()
-							.filter(ve -> !ve.getKeyword().equals(REQUIRED_KEYWORD))
-							.collect(Collectors.toList());
-
-					if (!flattenedExceptions.isEmpty()) {
-						String errMsg = flattenedExceptions.stream()
-								.map(ve -> String.format("%s : %s", ve.getPointerToViolation(), ve.getMessage()))
-								.collect(Collectors.joining("; "));
-						throw new MiddlewareHaltException("Validation Exception : " + errMsg);
-					}
-				} else {
-					throw new MiddlewareHaltException("Validation Exception : " + String.join("; ", e.getAllMessages()));
-				}
-			}
+			validate(schema, new JSONObject(objString), ignoreRequiredFields);
 		} else {
 			logger.warn("{} schema not found for validation", entityType);
 		}
 	}
 
+	/**
+	 * Validates the payload converted directly to the json objects of the schema, without
+	 * serialising and parsing it
+	 */
+	@Override
+	public void validate(String entityType, JsonNode payload, boolean ignoreRequiredFields) throws MiddlewareHaltException {
+		Schema schema = getEntitySchema(entityType);
+		if (schema != null) {
+			validate(schema, toJson(payload), ignoreRequiredFields);
+		} else {
+			logger.warn("{} schema not found for validation", entityType);
+		}
+	}
+
+	private void validate(Schema schema, Object obj, boolean ignoreRequiredFields) throws MiddlewareHaltException {
+		try {
+			schema.validate(obj); // throws a ValidationException if this object is invalid
+		} catch (ValidationException e) {
+			logger.error("Validation Exception : " + e.getAllMessages());
+			if (ignoreRequiredFields) {
+				List<ValidationException> flattenedExceptions = flattenException(e).stream()
+						.filter(ve -> !ve.getKeyword().equals(REQUIRED_KEYWORD))
+						.collect(Collectors.toList());
+
+				if (!flattenedExceptions.isEmpty()) {
+					String errMsg = flattenedExceptions.stream()
+							.map(ve -> String.format("%s : %s", ve.getPointerToViolation(), ve.getMessage()))
+							.collect(Collectors.joining("; "));
+					throw new MiddlewareHaltException("Validation Exception : " + errMsg);
+				}
+			} else {
+				throw new MiddlewareHaltException("Validation Exception : " + String.join("; ", e.getAllMessages()));
+			}
+		}
+	}
+
+	/**
+	 * Converts the node to the org.json values the schemas validate
+	 */
+	static Object toJson(JsonNode node) {
+		if (node.isObject()) {
+			JSONObject object = new JSONObject();
+			Iterator<Map.Entry<String, JsonNode>> fields = node.fields();
+			while (fields.hasNext()) {
+				Map.Entry<String, JsonNode> field = fields.next();
+				object.put(field.getKey(), toJson(field.getValue()));
+			}
+			return object;
+		} else if (node.isArray()) {
+			JSONArray array = new JSONArray();
+			for (JsonNode element : node) {
+				array.put(toJson(element));
+			}
+			return array;
+		} else if (node.isTextual()) {
+			return node.textValue();
+		} else if (node.isIntegralNumber()) {
+			return node.canConvertToInt() ? (Object) node.intValue() :
+					node.canConvertToLong() ? (Object) node.longValue() : node.bigIntegerValue();
+		} else if (node.isNumber()) {
+			return node.isBigDecimal() ? node.decimalValue() : node.doubleValue();
+		} else if (node.isBoolean()) {
+			return node.booleanValue();
+		} else if (node.isNull() || node.isMissingNode()) {
+			return JSONObject.NULL;
+		}
+		return node.asText();
+	}
+
 	/**
      * Store all list of known definitions as definitionMap.
      * Must get populated before creating the schema.
@@ -100,8 +230,43 @@ public class JsonValidationServiceImpl implements IValidate {
     @Override
     public void addDefinitions(String definitionTitle, String definitionContent) {
         definitionMap.put(definitionTitle, definitionContent);
+        schemaChanged(definitionTitle);
     }
 
+	/**
+	 * Drops the compiled schemas of the definition and of the schemas referring to it. They are
+	 * compiled again right away if the schemas were compiled, otherwise when next validated.
+	 */
+	private synchronized void schemaChanged(String definitionTitle) {
+		Set<String> changed = new HashSet<>();
+		changed.add(definitionTitle);
+		referredDefinitions.forEach((title, referred) -> {
+			if (referred.contains(definitionTitle)) {
+				changed.add(title);
+			}
+		});
+		if (!definitionMap.containsKey(definitionTitle)) {
+			referredDefinitions.remove(definitionTitle);
+		}
+		Map<String, Schema> schemas = new HashMap<>(entitySchemaMap);
+		for (String title : changed) {
+			schemas.remove(title);
+			String definitionContent = definitionMap.get(title);
+			if (compiled && definitionContent != null) {
+				try {
+					schemas.put(title, loadSchema(title, definitionContent));
+				} catch (Exception e) {
+					// Compiled when first validated, failing the validation
+					logger.warn("{}: schema can't be compiled, {}", title, e.getMessage());
+				}
+			}
+		}
+		entitySchemaMap = Collections.unmodifiableMap(schemas);
+		if (compiled) {
+			logger.info("Compiled {} schemas for the change of {}", changed.size(), definitionTitle);
+		}
+	}
+
 	private List<ValidationException> flattenException(ValidationException e) {
 		List<ValidationException> flattenedValidationExceptions = new ArrayList<>();
 		if (!e.getCausingExceptions().isEmpty()) {
@@ -137,6 +302,7 @@ public class JsonValidationServiceImpl implements IValidate {
 	public void removeDefinition(String schema) {
 		try {
 			definitionMap.remove(schema);
+			schemaChanged(schema);
 		} catch (Exception e) {
 			logger.error("Failed removing schema from definition manager", e);
 		}
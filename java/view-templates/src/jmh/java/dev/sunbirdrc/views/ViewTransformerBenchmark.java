@@ -0,0 +1,86 @@
+package dev.sunbirdrc.views;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.node.ArrayNode;
+import com.fasterxml.jackson.databind.node.JsonNodeFactory;
+import com.fasterxml.jackson.databind.node.ObjectNode;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Transforms 2000 records with a view template of 5 function fields. The uncompiled benchmark
+ * interprets the function of every field for every record, as the transformer did before the
+ * templates were compiled.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class ViewTransformerBenchmark {
+    private static final int RECORDS = 2000;
+    private static final String TEMPLATE = "{\"subject\": \"Person\", \"fields\": [" +
+            "{\"name\": \"firstName\"}, {\"name\": \"lastName\"}, " +
+            "{\"title\": \"fullName\", \"function\": \"#/functionDefinitions/concat($firstName, $lastName)\"}, " +
+            "{\"title\": \"reverseName\", \"function\": \"#/functionDefinitions/concat($lastName, $firstName)\"}, " +
+            "{\"title\": \"total\", \"function\": \"#/functionDefinitions/add($a, $b)\"}, " +
+            "{\"title\": \"product\", \"function\": \"#/functionDefinitions/multiply($a, $b)\"}, " +
+            "{\"title\": \"initials\", \"function\": \"#/functionDefinitions/initials($firstName, $lastName)\"}], " +
+            "\"functionDefinitions\": [" +
+            "{\"name\": \"concat\", \"result\": \"arg1 + \\\" \\\" + arg2\"}, " +
+            "{\"name\": \"add\", \"result\": \"arg1 + arg2\"}, " +
+            "{\"name\": \"multiply\", \"result\": \"arg1 * arg2\"}, " +
+            "{\"name\": \"initials\", \"result\": \"arg1.substring(0, 1) + arg2.substring(0, 1)\"}]}";
+
+    private final ObjectMapper mapper = new ObjectMapper();
+    private final ViewTransformer transformer = new ViewTransformer();
+    private JsonNode records;
+
+    @Setup
+    public void setUp() {
+        ArrayNode persons = JsonNodeFactory.instance.arrayNode();
+        for (int i = 0; i < RECORDS; i++) {
+            persons.addObject().put("firstName", "first" + i).put("lastName", "last" + i).put("a", i).put("b", 2);
+        }
+        records = JsonNodeFactory.instance.objectNode().set("Person", persons);
+    }
+
+    @Benchmark
+    public JsonNode compiled() throws Exception {
+        return transformer.transform(mapper.readValue(TEMPLATE, ViewTemplate.class), records);
+    }
+
+    @Benchmark
+    public JsonNode uncompiled() throws Exception {
+        ViewTemplate viewTemplate = mapper.readValue(TEMPLATE, ViewTemplate.class);
+        ArrayNode result = JsonNodeFactory.instance.arrayNode();
+        for (JsonNode nodeAttrs : records.get("Person")) {
+            ObjectNode resultNode = result.addObject();
+            for (Field field : viewTemplate.getFields()) {
+                if (field.getFunction() == null) {
+                    resultNode.set(field.getTitle(), nodeAttrs.get(field.getName()));
+                    continue;
+                }
+                Object evaluatedValue = CompiledViewTemplate.interpret(viewTemplate, field, nodeAttrs);
+                if (evaluatedValue instanceof String) {
+                    resultNode.put(field.getTitle(), evaluatedValue.toString());
+                } else {
+                    resultNode.set(field.getTitle(), JsonNodeFactory.instance.pojoNode(evaluatedValue));
+                }
+            }
+        }
+        return result;
+    }
+}
@@ -0,0 +1,238 @@
+package dev.sunbirdrc.views;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import org.apache.commons.jexl2.Expression;
+import org.apache.commons.jexl2.JexlEngine;
+import org.apache.commons.jexl2.MapContext;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * A view template with its functions resolved once, so that it can be applied to many records.
+ * The expressions are parsed, the function definitions looked up and the argument names split
+ * when the template is compiled, instead of for every field of every record. A field whose
+ * function fails to compile is interpreted for every record, as before, so that the other fields
+ * of the template are still compiled.
+ *
+ * Instances are immutable and safe to share across threads.
+ */
+public class CompiledViewTemplate {
+    private static final Logger logger = LoggerFactory.getLogger(CompiledViewTemplate.class);
+
+    private static final JexlEngine jexl = new JexlEngine();
+    private static final String ARG = "arg";
+    private static final ThreadLocal<ArgsContext> contexts = ThreadLocal.withInitial(ArgsContext::new);
+
+    private final List<CompiledField> fields;
+    private final List<String> signatureSuffixes;
+    private final String subjectSuffix;
+
+    public CompiledViewTemplate(ViewTemplate viewTemplate) {
+        List<CompiledField> compiledFields = new ArrayList<>();
+        List<String> suffixes = new ArrayList<>();
+        for (Field field : viewTemplate.getFields()) {
+            compiledFields.add(new CompiledField(viewTemplate, field));
+            if (field.getDisplay()) {
+                suffixes.add("/" + field.getName());
+            }
+        }
+        this.fields = Collections.unmodifiableList(compiledFields);
+        this.signatureSuffixes = Collections.unmodifiableList(suffixes);
+        this.subjectSuffix = "/" + viewTemplate.getSubject();
+    }
+
+    public List<CompiledField> getFields() {
+        return fields;
+    }
+
+    /**
+     * Returns the number of times the signature is to be included, one for each displayed field
+     * it signs and one if it signs the subject
+     *
+     * @param signatureFor    the signatureFor value of the signature
+     * @return
+     */
+    public int getSignatureMatches(String signatureFor) {
+        int matches = 0;
+        for (String suffix : signatureSuffixes) {
+            if (signatureFor.endsWith(suffix)) {
+                matches++;
+            }
+        }
+        if (signatureFor.endsWith(subjectSuffix)) {
+            matches++;
+        }
+        return matches;
+    }
+
+    public static class CompiledField {
+        private final String name;
+        private final String title;
+        private final boolean display;
+        private final String[] argNames;
+        private final String[] argKeys;
+        private final String[] argVariables;
+        private final Expression expression;
+        private final Class<?> providerClass;
+        private final boolean function;
+        // Set when the function of the field failed to compile, to interpret it instead
+        private final ViewTemplate interpretedTemplate;
+        private final Field interpretedField;
+
+        CompiledField(ViewTemplate viewTemplate, Field field) {
+            this.name = field.getName();
+            this.title = field.getTitle();
+            this.display = field.getDisplay();
+            this.function = field.getFunction() != null;
+            Expression compiledExpression = null;
+            Class<?> compiledProviderClass = null;
+            boolean interpreted = false;
+            if (function) {
+                argNames = field.getArgNames();
+                // Cut off the $
+                argKeys = Arrays.stream(argNames).map(argName -> argName.substring(1)).toArray(String[]::new);
+                argVariables = new String[argNames.length];
+                for (int i = 0; i < argNames.length; i++) {
+                    argVariables[i] = ARG + (i + 1);
+                }
+                try {
+                    FunctionDefinition funcDef = viewTemplate.getFunctionDefinition(field.getFunctioName());
+                    compiledExpression = funcDef.getResult() != null ? jexl.createExpression(funcDef.getResult()) : null;
+                    compiledProviderClass = funcDef.getResult() == null && funcDef.getProvider() != null ?
+                            getProviderClass(funcDef.getProvider()) : null;
+                } catch (RuntimeException e) {
+                    logger.warn("Function of the field {} of the view template {} cannot be compiled, it is interpreted instead: {}",
+                            title, viewTemplate.getId(), e.getMessage());
+                    interpreted = true;
+                }
+            } else {
+                argNames = null;
+                argKeys = null;
+                argVariables = null;
+            }
+            this.expression = compiledExpression;
+            this.providerClass = compiledProviderClass;
+            this.interpretedTemplate = interpreted ? viewTemplate : null;
+            this.interpretedField = interpreted ? field : null;
+        }
+
+        public String getName() {
+            return name;
+        }
+
+        public String getTitle() {
+            return title;
+        }
+
+        public boolean getDisplay() {
+            return display;
+        }
+
+        public boolean isFunction() {
+            return function;
+        }
+
+        /**
+         * Evaluates the function of this field on the given record. The values of the arguments
+         * present in the record are passed in order as arg1, arg2 and so on.
+         *
+         * @param nodeAttrs    the record
+         * @return
+         */
+        public Object evaluate(JsonNode nodeAttrs) {
+            if (interpretedField != null) {
+                return interpret(interpretedTemplate, interpretedField, nodeAttrs);
+            } else if (expression != null) {
+                ArgsContext context = contexts.get();
+                try {
+                    int itr = 0;
+                    for (String argKey : argKeys) {
+                        JsonNode value = nodeAttrs.get(argKey);
+                        if (value != null) {
+                            context.set(argVariables[itr++], ValueType.getValue(value));
+                        }
+                    }
+                    return expression.evaluate(context);
+                } finally {
+                    context.clear();
+                }
+            } else if (providerClass != null) {
+                List<Object> actualValues = new ArrayList<>(argKeys.length);
+                for (String argKey : argKeys) {
+                    JsonNode value = nodeAttrs.get(argKey);
+                    if (value != null) {
+                        actualValues.add(ValueType.getValue(value));
+                    }
+                }
+                return newProvider().doAction(actualValues, argNames);
+            }
+            throw new IllegalArgumentException("Function of the field " + title + " cannot be evaluated");
+        }
+
+        @SuppressWarnings("unchecked")
+        private IViewFunctionProvider<Object> newProvider() {
+            try {
+                return (IViewFunctionProvider<Object>) providerClass.newInstance();
+            } catch (InstantiationException | IllegalAccessException e) {
+                throw new IllegalArgumentException("view function provider cannot be instantiated");
+            }
+        }
+
+        private static Class<?> getProviderClass(String providerName) {
+            try {
+                return Class.forName(providerName);
+            } catch (ClassNotFoundException e) {
+                throw new IllegalArgumentException("view function provider cannot be instantiated");
+            }
+        }
+    }
+
+    /**
+     * Evaluates the function of the field on the given record without compiling it, looking up the
+     * function definition and parsing its expression on every call
+     *
+     * @param viewTemplate    the template of the field
+     * @param field    a function field
+     * @param nodeAttrs    the record
+     * @return
+     */
+    static Object interpret(ViewTemplate viewTemplate, Field field, JsonNode nodeAttrs) {
+        FunctionDefinition funcDef = viewTemplate.getFunctionDefinition(field.getFunctioName());
+        List<Object> actualValues = new ArrayList<>();
+        for (String oneArg : field.getArgNames()) {
+            // Cut off the $
+            JsonNode value = nodeAttrs.get(oneArg.substring(1));
+            if (value != null) {
+                actualValues.add(ValueType.getValue(value));
+            }
+        }
+        return EvaluatorFactory.getInstance(funcDef, actualValues, field.getArgNames()).evaluate();
+    }
+
+    /**
+     * The context of the expressions, reused by a thread across evaluations
+     */
+    private static class ArgsContext extends MapContext {
+        private final Map<String, Object> args;
+
+        ArgsContext() {
+            this(new HashMap<>());
+        }
+
+        private ArgsContext(Map<String, Object> args) {
+            super(args);
+            this.args = args;
+        }
+
+        void clear() {
+            args.clear();
+        }
+    }
+}
@@ -9,6 +9,10 @@ import org.apache.commons.jexl2.MapContext;
 public class FunctionEvaluator implements IEvaluator<Object>{
 
     private static final JexlEngine jexl = new JexlEngine();
+    static {
+        // Keeps the parsed expressions, so that the same function is not parsed on every evaluation
+        jexl.setCache(256);
+    }
     private JexlContext jexlContext = new MapContext();
     private FieldFunction function;
     private Expression jexlExpression;
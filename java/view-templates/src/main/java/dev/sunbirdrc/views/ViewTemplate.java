@@ -1,5 +1,6 @@
 package dev.sunbirdrc.views;
 
+import com.fasterxml.jackson.annotation.JsonIgnore;
 import com.fasterxml.jackson.annotation.JsonIgnoreProperties;
 import java.util.List;
 
@@ -10,7 +11,9 @@ public class ViewTemplate {
     private String subject;    
     private List<Field> fields;
     private List<FunctionDefinition> functionDefinitions;
-    
+    @JsonIgnore
+    private volatile CompiledViewTemplate compiled;
+
     public String getId() {
         return id;
     }
@@ -22,18 +25,21 @@ public class ViewTemplate {
     }
     public void setSubject(String subject) {
         this.subject = subject;
+        this.compiled = null;
     }
     public List<FunctionDefinition> getFunctionDefinitions() {
         return functionDefinitions;
     }
     public void setFunctionDefinitions(List<FunctionDefinition> functionDefinitions) {
         this.functionDefinitions = functionDefinitions;
+        this.compiled = null;
     }
     public List<Field> getFields() {
         return fields;
     }
     public void setFields(List<Field> fields) {
         this.fields = fields;
+        this.compiled = null;
     }
 
     /**
@@ -54,4 +60,18 @@ public class ViewTemplate {
         }
         return functionDef;
     }
+
+    /**
+     * return the template compiled for transforming records, compiling it on first use
+     *
+     * @return
+     */
+    public CompiledViewTemplate compile() {
+        CompiledViewTemplate compiledTemplate = compiled;
+        if (compiledTemplate == null) {
+            compiledTemplate = new CompiledViewTemplate(this);
+            compiled = compiledTemplate;
+        }
+        return compiledTemplate;
+    }
 }
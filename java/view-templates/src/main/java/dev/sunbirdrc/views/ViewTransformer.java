@@ -1,13 +1,10 @@
 package dev.sunbirdrc.views;
 
 import com.fasterxml.jackson.databind.JsonNode;
-import com.fasterxml.jackson.databind.ObjectMapper;
 import com.fasterxml.jackson.databind.node.ArrayNode;
 import com.fasterxml.jackson.databind.node.JsonNodeFactory;
 import com.fasterxml.jackson.databind.node.ObjectNode;
-import java.util.ArrayList;
 import java.util.Iterator;
-import java.util.List;
 import java.util.Map;
 
 public class ViewTransformer {
@@ -22,6 +19,7 @@ public class ViewTransformer {
 	public JsonNode transform(ViewTemplate viewTemplate, JsonNode node) throws Exception {
 
 		ObjectNode result = JsonNodeFactory.instance.objectNode();
+		CompiledViewTemplate compiledTemplate = viewTemplate.compile();
 
 		// loops for all entityTypes
 		Iterator<Map.Entry<String, JsonNode>> fields = node.fields();
@@ -36,13 +34,13 @@ public class ViewTransformer {
 
 				for (int i = 0; i < nodeAttrs.size(); i++) {
 
-					JsonNode tNode = transformNode(viewTemplate, nodeAttrs.get(i));
+					JsonNode tNode = transformNode(compiledTemplate, nodeAttrs.get(i));
 					resultArray.add(tNode);
 				}
 				resultNode = resultArray;
 
 			} else if (nodeAttrs.isObject()) {
-				resultNode = transformNode(viewTemplate, nodeAttrs);
+				resultNode = transformNode(compiledTemplate, nodeAttrs);
 
 			} else {
 				throw new IllegalArgumentException("Not a valid node for transformation, must be a object node or array node");
@@ -61,28 +59,14 @@ public class ViewTransformer {
      * @param nodeAttrs
      * @return
      */
-    private JsonNode transformNode(ViewTemplate viewTemplate, JsonNode nodeAttrs) throws Exception {
+    private JsonNode transformNode(CompiledViewTemplate viewTemplate, JsonNode nodeAttrs) throws Exception {
         ObjectNode result = JsonNodeFactory.instance.objectNode();
 
-        for (Field field : viewTemplate.getFields()) {
+        for (CompiledViewTemplate.CompiledField field : viewTemplate.getFields()) {
 
-            String functionStr = field.getFunction();
-            if (functionStr != null) {
-
-                String fdName = field.getFunctioName();
-                FunctionDefinition funcDef = viewTemplate.getFunctionDefinition(fdName);
-
-                List<Object> actualValues = new ArrayList<>();
-                for (String oneArg : field.getArgNames()) {
-                    // Cut off the $
-                	if(nodeAttrs.get(oneArg.substring(1)) != null) {
-                        actualValues.add(ValueType.getValue(nodeAttrs.get(oneArg.substring(1))));
-                	}
-                }
-
-                IEvaluator<Object> evaluator = EvaluatorFactory.getInstance(funcDef, actualValues, field.getArgNames());
+            if (field.isFunction()) {
                 if (field.getDisplay()) {
-                    Object evaluatedValue = evaluator.evaluate();
+                    Object evaluatedValue = field.evaluate(nodeAttrs);
                     if(evaluatedValue instanceof String){
                         result.put(field.getTitle(), evaluatedValue.toString());
                     } else {
@@ -107,23 +91,18 @@ public class ViewTransformer {
      * @param resultNode
      * @return
      * */
-    private JsonNode appendSignatures(ViewTemplate viewTemplate, JsonNode nodeAttrs, JsonNode resultNode) throws Exception {
+    private JsonNode appendSignatures(CompiledViewTemplate viewTemplate, JsonNode nodeAttrs, JsonNode resultNode) throws Exception {
     	if(nodeAttrs.get("signatures")!=null) {
 
-			ArrayNode sigArray = new ObjectMapper().createArrayNode();
+			ArrayNode sigArray = JsonNodeFactory.instance.arrayNode();
 
 	    	for (JsonNode sigNode : nodeAttrs.get("signatures")) {
 	    		JsonNode signatureField = sigNode.get("signatureFor");
 
 	    		if(signatureField != null){
-	    			//Adds the signatures of fields specified in view template file
-		    		for (Field fieldTemp : viewTemplate.getFields()) {
-		    			if(signatureField.asText().endsWith("/"+fieldTemp.getName()) && fieldTemp.getDisplay()){
-		    				sigArray.add(sigNode);
-		    			}
-		    		}
-		    		//Adds the subject signature
-		    		if(signatureField.asText().endsWith("/"+viewTemplate.getSubject())){
+	    			//Adds the signatures of fields specified in view template file and the subject signature
+	    			int matches = viewTemplate.getSignatureMatches(signatureField.asText());
+	    			for (int i = 0; i < matches; i++) {
 	    				sigArray.add(sigNode);
 	    			}
 	    		}
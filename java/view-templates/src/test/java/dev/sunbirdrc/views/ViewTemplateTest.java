@@ -40,4 +40,16 @@ public class ViewTemplateTest {
 
     }
 
+
+    @Test
+    public void testCompileAgainAfterTheSubjectChanges() {
+        vt.setFields(new ArrayList<>());
+        vt.setSubject("name");
+        assertEquals(1, vt.compile().getSignatureMatches("/Teacher/name"));
+
+        vt.setSubject("email");
+
+        assertEquals(0, vt.compile().getSignatureMatches("/Teacher/name"));
+        assertEquals(1, vt.compile().getSignatureMatches("/Teacher/email"));
+    }
 }
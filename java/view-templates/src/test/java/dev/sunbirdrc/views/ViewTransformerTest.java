@@ -1,6 +1,8 @@
 package dev.sunbirdrc.views;
 
 import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.fail;
 
 import com.fasterxml.jackson.core.JsonProcessingException;
 import com.fasterxml.jackson.databind.JsonNode;
@@ -112,4 +114,47 @@ public class ViewTransformerTest {
 
         assertEquals(expectedNode.toPrettyString(), actualnode.toPrettyString());
     }
+
+    @Test
+    public void testTransformForArrayOfRecords() throws Exception {
+        String persons = "{\"Person\": [" +
+                "{\"firstName\": \"Ram\", \"lastName\": \"Moorthy\"," +
+                " \"signatures\": [{\"signatureFor\": \"Person/firstName\", \"signatureValue\": \"a\"}," +
+                " {\"signatureFor\": \"Person/nationalIdentifier\", \"signatureValue\": \"b\"}]}," +
+                "{\"firstName\": \"Sita\", \"lastName\": \"Raman\"}]}";
+        ObjectNode node = (ObjectNode) new ObjectMapper().readTree(persons);
+        ViewTemplate viewTemplate = getViewTemplatePerson("person_vt.json");
+
+        JsonNode actualnode = transformer.transform(viewTemplate, node);
+        JsonNode expectedNode = new ObjectMapper().readTree("{\"Person\":[" +
+                "{\"NAME\":\"Ram\",\"lastName\":\"Moorthy\",\"Name in passport\":\"Moorthy, Ram\",\"Name as in DL\":\"Ram : Moorthy\"," +
+                "\"signatures\":[{\"signatureFor\":\"Person/firstName\",\"signatureValue\":\"a\"}]}," +
+                "{\"NAME\":\"Sita\",\"lastName\":\"Raman\",\"Name in passport\":\"Raman, Sita\",\"Name as in DL\":\"Sita : Raman\"}]}");
+        assertEquals(expectedNode, actualnode);
+        assertSame(viewTemplate.compile(), viewTemplate.compile());
+    }
+
+    @Test
+    public void shouldKeepTheTemplateWhenAFunctionFailsToCompile() throws Exception {
+        String template = "{\"id\": \"broken\", \"subject\": \"Person\", \"fields\": [" +
+                "{\"title\": \"fullName\", \"function\": \"#/functionDefinitions/concat($firstName, $lastName)\"}, " +
+                "{\"title\": \"broken\", \"display\": false, \"function\": \"#/functionDefinitions/broken($firstName)\"}], " +
+                "\"functionDefinitions\": [" +
+                "{\"name\": \"concat\", \"result\": \"arg1 + \\\" \\\" + arg2\"}, " +
+                "{\"name\": \"broken\", \"result\": \"arg1 +\"}]}";
+        ViewTemplate viewTemplate = new ObjectMapper().readValue(template, ViewTemplate.class);
+
+        JsonNode actualnode = transformer.transform(viewTemplate, getPerson());
+        assertEquals(new ObjectMapper().readTree("{\"Person\":{\"fullName\":\"Ram Moorthy\"}}"), actualnode);
+
+        // The broken function is interpreted, failing as it did before the templates were compiled
+        viewTemplate.getFields().get(1).setDisplay(true);
+        viewTemplate.setFields(viewTemplate.getFields());
+        try {
+            transformer.transform(viewTemplate, getPerson());
+            fail("Transformed with a broken function");
+        } catch (RuntimeException expected) {
+            // expected
+        }
+    }
 }
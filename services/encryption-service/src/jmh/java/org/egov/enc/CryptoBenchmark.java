@@ -0,0 +1,91 @@
+package org.egov.enc;
+
+import org.egov.enc.utils.AsymmetricEncryptionUtil;
+import org.egov.enc.utils.SymmetricEncryptionUtil;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Threads;
+import org.openjdk.jmh.annotations.Warmup;
+
+import javax.crypto.SecretKey;
+import javax.crypto.spec.SecretKeySpec;
+import java.nio.charset.StandardCharsets;
+import java.security.GeneralSecurityException;
+import java.security.KeyPair;
+import java.security.KeyPairGenerator;
+import java.security.SecureRandom;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Values encrypted and decrypted per second with the methods and key sizes of application.properties.
+ * The uncached benchmarks look up and initialise a cipher for every value, as the service did before
+ * caching the ciphers.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Threads(4)
+@Fork(1)
+public class CryptoBenchmark {
+    private static final int SYMMETRIC_KEY_ID = 123456;
+    private static final int ASYMMETRIC_KEY_ID = 654321;
+    private static final byte[] VALUE = "anita.rao@example.com".getBytes(StandardCharsets.UTF_8);
+
+    private SecretKey secretKey;
+    private byte[] initialVector;
+    private byte[] symmetricCiphertext;
+    private KeyPair keyPair;
+    private byte[] asymmetricCiphertext;
+
+    @Setup
+    public void setUp() throws GeneralSecurityException {
+        new SymmetricEncryptionUtil().setSymmetricEncryptionMethod("AES/GCM/NoPadding");
+        new AsymmetricEncryptionUtil().setAsymmetricEncryptionMethod("RSA/NONE/OAEPWithSHA3-256AndMGF1Padding");
+        SecureRandom secureRandom = new SecureRandom();
+        byte[] keyBytes = new byte[32];
+        secureRandom.nextBytes(keyBytes);
+        secretKey = new SecretKeySpec(keyBytes, "AES");
+        initialVector = new byte[12];
+        secureRandom.nextBytes(initialVector);
+        symmetricCiphertext = SymmetricEncryptionUtil.encrypt(VALUE, secretKey, initialVector);
+
+        KeyPairGenerator keyPairGenerator = KeyPairGenerator.getInstance("RSA");
+        keyPairGenerator.initialize(1024);
+        keyPair = keyPairGenerator.generateKeyPair();
+        asymmetricCiphertext = AsymmetricEncryptionUtil.encrypt(VALUE, ASYMMETRIC_KEY_ID, keyPair.getPublic());
+    }
+
+    @Benchmark
+    public byte[] aesGcmEncrypt() throws GeneralSecurityException {
+        return SymmetricEncryptionUtil.encrypt(VALUE, secretKey, initialVector);
+    }
+
+    @Benchmark
+    public byte[] aesGcmDecrypt() throws GeneralSecurityException {
+        return SymmetricEncryptionUtil.decrypt(symmetricCiphertext, SYMMETRIC_KEY_ID, secretKey, initialVector);
+    }
+
+    @Benchmark
+    public byte[] aesGcmDecryptUncached() throws GeneralSecurityException {
+        return SymmetricEncryptionUtil.decrypt(symmetricCiphertext, secretKey, initialVector);
+    }
+
+    @Benchmark
+    public byte[] rsaEncrypt() throws GeneralSecurityException {
+        return AsymmetricEncryptionUtil.encrypt(VALUE, ASYMMETRIC_KEY_ID, keyPair.getPublic());
+    }
+
+    @Benchmark
+    public byte[] rsaDecrypt() throws GeneralSecurityException {
+        return AsymmetricEncryptionUtil.decrypt(asymmetricCiphertext, ASYMMETRIC_KEY_ID, keyPair.getPrivate());
+    }
+}
@@ -44,4 +44,10 @@ public class AppProperties {
     @Value(("${egov.state.level.tenant.id:default}"))
     private String stateLevelTenantId;
 
+    @Value("${batch.threads:0}")
+    private int batchThreads;
+
+    @Value("${batch.parallel.threshold:100}")
+    private int batchParallelThreshold;
+
 }
@@ -31,6 +31,7 @@ import java.util.HashMap;
     All Keys will be stored inside the HashMaps.
     Keys can be extracted from these maps based on Key_ID.
     Active Key for a given Tenant can be got by providing Tenant_ID.
+    The keys are decoded once when they are loaded, and a refresh replaces all the maps at once.
 */
 
 
@@ -43,19 +44,21 @@ public class KeyStore implements ApplicationRunner {
     @Autowired
     private KeyRepository keyRepository;
     @Getter
-    private ArrayList<String> tenantIds;
+    private volatile ArrayList<String> tenantIds;
 
     @Autowired
     private MasterKeyProvider masterKeyProvider;
 
-    private static ArrayList<SymmetricKey> symmetricKeys;
-    private static ArrayList<AsymmetricKey> asymmetricKeys;
+    private static volatile HashMap<Integer, SymmetricKey> symmetricKeyHashMap;
+    private static volatile HashMap<Integer, AsymmetricKey> asymmetricKeyHashMap;
 
-    private static HashMap<Integer, SymmetricKey> symmetricKeyHashMap;
-    private static HashMap<Integer, AsymmetricKey> asymmetricKeyHashMap;
+    private static volatile HashMap<String, Integer> activeSymmetricKeys;
+    private static volatile HashMap<String, Integer> activeAsymmetricKeys;
 
-    private static HashMap<String, Integer> activeSymmetricKeys;
-    private static HashMap<String, Integer> activeAsymmetricKeys;
+    private static volatile HashMap<Integer, SecretKey> secretKeys;
+    private static volatile HashMap<Integer, byte[]> initialVectors;
+    private static volatile HashMap<Integer, PublicKey> publicKeys;
+    private static volatile HashMap<Integer, PrivateKey> privateKeys;
 
     @Autowired
     public KeyStore()  {
@@ -63,28 +66,54 @@ public class KeyStore implements ApplicationRunner {
     }
 
     //Reset and Initialize all the keys and HashMaps from the database
-    public void refreshKeys() throws Exception {
-        tenantIds = (ArrayList<String>) keyRepository.fetchDistinctTenantIds();
+    //The maps are built aside and then published, so that concurrent lookups never see a partial refresh
+    public synchronized void refreshKeys() throws Exception {
+        ArrayList<String> tenantIds = (ArrayList<String>) keyRepository.fetchDistinctTenantIds();
 
-        symmetricKeys = (ArrayList<SymmetricKey>) this.keyRepository.fetchSymmetricKeys();
-        asymmetricKeys = (ArrayList<AsymmetricKey>) this.keyRepository.fetchAsymmtericKeys();
+        ArrayList<SymmetricKey> symmetricKeys = (ArrayList<SymmetricKey>) this.keyRepository.fetchSymmetricKeys();
+        ArrayList<AsymmetricKey> asymmetricKeys = (ArrayList<AsymmetricKey>) this.keyRepository.fetchAsymmtericKeys();
 
-        decryptAllKeys();
+        decryptAllKeys(symmetricKeys, asymmetricKeys);
 
-        symmetricKeyHashMap = new HashMap<>();
-        asymmetricKeyHashMap = new HashMap<>();
+        HashMap<Integer, SecretKey> secretKeys = new HashMap<>();
+        HashMap<Integer, byte[]> initialVectors = new HashMap<>();
+        HashMap<Integer, PublicKey> publicKeys = new HashMap<>();
+        HashMap<Integer, PrivateKey> privateKeys = new HashMap<>();
+        for(SymmetricKey symmetricKey : symmetricKeys) {
+            secretKeys.put(symmetricKey.getKeyId(), decodeSecretKey(symmetricKey));
+            initialVectors.put(symmetricKey.getKeyId(), decodeInitialVector(symmetricKey));
+        }
+        for(AsymmetricKey asymmetricKey : asymmetricKeys) {
+            publicKeys.put(asymmetricKey.getKeyId(), decodePublicKey(asymmetricKey));
+            privateKeys.put(asymmetricKey.getKeyId(), decodePrivateKey(asymmetricKey));
+        }
+
+        HashMap<Integer, SymmetricKey> symmetricKeyHashMap = new HashMap<>();
+        HashMap<Integer, AsymmetricKey> asymmetricKeyHashMap = new HashMap<>();
+
+        initializeKeys(symmetricKeys, asymmetricKeys, symmetricKeyHashMap, asymmetricKeyHashMap);
 
-        initializeKeys();
+        HashMap<String, Integer> activeSymmetricKeys = new HashMap<>();
+        HashMap<String, Integer> activeAsymmetricKeys = new HashMap<>();
 
-        activeSymmetricKeys = new HashMap<>();
-        activeAsymmetricKeys = new HashMap<>();
+        initializeActiveKeys(tenantIds, symmetricKeys, asymmetricKeys, activeSymmetricKeys, activeAsymmetricKeys);
 
-        initializeActiveKeys();
+        KeyStore.secretKeys = secretKeys;
+        KeyStore.initialVectors = initialVectors;
+        KeyStore.publicKeys = publicKeys;
+        KeyStore.privateKeys = privateKeys;
+        KeyStore.symmetricKeyHashMap = symmetricKeyHashMap;
+        KeyStore.asymmetricKeyHashMap = asymmetricKeyHashMap;
+        KeyStore.activeSymmetricKeys = activeSymmetricKeys;
+        KeyStore.activeAsymmetricKeys = activeAsymmetricKeys;
+        this.tenantIds = tenantIds;
     }
 
 
     //Create HashMap to store keys indexed with keyId
-    private void initializeKeys() {
+    private void initializeKeys(ArrayList<SymmetricKey> symmetricKeys, ArrayList<AsymmetricKey> asymmetricKeys,
+                                HashMap<Integer, SymmetricKey> symmetricKeyHashMap,
+                                HashMap<Integer, AsymmetricKey> asymmetricKeyHashMap) {
         for(SymmetricKey symmetricKey : symmetricKeys) {
             symmetricKeyHashMap.put(symmetricKey.getKeyId(), symmetricKey);
         }
@@ -94,7 +123,10 @@ public class KeyStore implements ApplicationRunner {
     }
 
     //Create HashMap to store active keys indexed with tenantId
-    private void initializeActiveKeys() {
+    private void initializeActiveKeys(ArrayList<String> tenantIds, ArrayList<SymmetricKey> symmetricKeys,
+                                      ArrayList<AsymmetricKey> asymmetricKeys,
+                                      HashMap<String, Integer> activeSymmetricKeys,
+                                      HashMap<String, Integer> activeAsymmetricKeys) {
 
         for(String tenant : tenantIds) {
             for(SymmetricKey symmetricKey : symmetricKeys) {
@@ -147,15 +179,39 @@ public class KeyStore implements ApplicationRunner {
         return symmetricKeyHashMap.containsKey(keyId) || asymmetricKeyHashMap.containsKey(keyId);
     }
 
-    //Generate Secret Key to be used by AES from custom object SymmetricKey
+    //Get the decoded Secret Key of the custom object SymmetricKey
     public SecretKey getSecretKey(SymmetricKey symmetricKey) {
+        SecretKey secretKey = secretKeys.get(symmetricKey.getKeyId());
+        return secretKey != null ? secretKey : decodeSecretKey(symmetricKey);
+    }
+
+    //Get the decoded PublicKey of the custom object AsymmetricKey
+    public PublicKey getPublicKey(AsymmetricKey asymmetricKey) throws NoSuchAlgorithmException, InvalidKeySpecException {
+        PublicKey publicKey = publicKeys.get(asymmetricKey.getKeyId());
+        return publicKey != null ? publicKey : decodePublicKey(asymmetricKey);
+    }
+
+    //Get the decoded PrivateKey of the custom object AsymmetricKey
+    public PrivateKey getPrivateKey(AsymmetricKey asymmetricKey) throws NoSuchAlgorithmException, InvalidKeySpecException {
+        PrivateKey privateKey = privateKeys.get(asymmetricKey.getKeyId());
+        return privateKey != null ? privateKey : decodePrivateKey(asymmetricKey);
+    }
+
+    //Get the decoded Initial Vector of the custom object SymmetricKey
+    public byte[] getInitialVector(SymmetricKey symmetricKey) {
+        byte[] initialVector = initialVectors.get(symmetricKey.getKeyId());
+        return initialVector != null ? initialVector : decodeInitialVector(symmetricKey);
+    }
+
+    //Generate Secret Key to be used by AES from custom object SymmetricKey
+    private SecretKey decodeSecretKey(SymmetricKey symmetricKey) {
         String encodedKey = symmetricKey.getSecretKey();
         byte[] decodedKey = Base64.getDecoder().decode(encodedKey);
         return new SecretKeySpec(decodedKey, "AES");
     }
 
     //Generate PublicKey to be used by RSA from custom object AsymmetricKey
-    public PublicKey getPublicKey(AsymmetricKey asymmetricKey) throws NoSuchAlgorithmException, InvalidKeySpecException {
+    private PublicKey decodePublicKey(AsymmetricKey asymmetricKey) throws NoSuchAlgorithmException, InvalidKeySpecException {
         String encodedPublicKey = asymmetricKey.getPublicKey();
         byte[] decodedPublicKey = Base64.getDecoder().decode(encodedPublicKey);
 
@@ -165,7 +221,7 @@ public class KeyStore implements ApplicationRunner {
     }
 
     //Generate PrivateKey to be used by RSA from custom object AsymmetricKey
-    public PrivateKey getPrivateKey(AsymmetricKey asymmetricKey) throws NoSuchAlgorithmException, InvalidKeySpecException {
+    private PrivateKey decodePrivateKey(AsymmetricKey asymmetricKey) throws NoSuchAlgorithmException, InvalidKeySpecException {
         String encodedPrivateKey = asymmetricKey.getPrivateKey();
         byte[] decodedPrivateKey = Base64.getDecoder().decode(encodedPrivateKey);
 
@@ -175,12 +231,12 @@ public class KeyStore implements ApplicationRunner {
     }
 
     //Generate Initial Vecctor to be used by AES from custom object SymmetricKey
-    public byte[] getInitialVector(SymmetricKey symmetricKey) {
+    private byte[] decodeInitialVector(SymmetricKey symmetricKey) {
         return Base64.getDecoder().decode(symmetricKey.getInitialVector());
     }
 
     //Decrypt all keys
-    private void decryptAllKeys() throws Exception {
+    private void decryptAllKeys(ArrayList<SymmetricKey> symmetricKeys, ArrayList<AsymmetricKey> asymmetricKeys) throws Exception {
         for (SymmetricKey symmetricKey : symmetricKeys) {
             symmetricKey.setSecretKey(masterKeyProvider.decryptWithMasterPassword(symmetricKey.getSecretKey()));
             symmetricKey.setInitialVector(masterKeyProvider.decryptWithMasterPassword(symmetricKey.getInitialVector()));
@@ -4,6 +4,7 @@ import lombok.extern.slf4j.Slf4j;
 import org.egov.enc.config.AppProperties;
 import org.egov.enc.models.MethodEnum;
 import org.egov.enc.models.ModeEnum;
+import org.egov.enc.utils.BatchProcessor;
 import org.egov.enc.utils.Constants;
 import org.egov.enc.utils.ProcessJSONUtil;
 import org.egov.enc.web.models.EncReqObject;
@@ -12,7 +13,9 @@ import org.egov.tracer.model.CustomException;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.stereotype.Service;
 
-import java.util.LinkedList;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.util.List;
 
 
 @Slf4j
@@ -25,25 +28,44 @@ public class EncryptionService {
     private ProcessJSONUtil processJSONUtil;
     @Autowired
     private KeyManagementService keyManagementService;
+    @Autowired
+    private BatchProcessor batchProcessor;
 
     public Object encrypt(EncryptionRequest encryptionRequest) throws Exception {
-        LinkedList<Object> outputList = new LinkedList<>();
-        for(EncReqObject encReqObject : encryptionRequest.getEncryptionRequests()) {
-            if(!keyManagementService.checkIfTenantExists(encReqObject.getTenantId())) {
-                throw new CustomException(encReqObject.getTenantId() + Constants.TENANT_NOT_FOUND,
-                        encReqObject.getTenantId() + Constants.TENANT_NOT_FOUND );
-            }
-            MethodEnum encryptionMethod = MethodEnum.fromValue(appProperties.getTypeToMethodMap().get(encReqObject.getType()));
-            if(encryptionMethod == null) {
-                throw new CustomException(encReqObject.getType() + Constants.INVALD_DATA_TYPE,
-                        encReqObject.getType() + Constants.INVALD_DATA_TYPE);
-            }
-            outputList.add(processJSONUtil.processJSON(encReqObject.getValue(), ModeEnum.ENCRYPT, encryptionMethod, encReqObject.getTenantId()));
+        List<EncReqObject> encReqObjects = encryptionRequest.getEncryptionRequests();
+        //Validate all the requests first, as a new tenant gets its keys generated here
+        for(EncReqObject encReqObject : encReqObjects) {
+            getEncryptionMethod(encReqObject.getTenantId(), encReqObject.getType());
         }
-        return outputList;
+        return batchProcessor.process(encReqObjects, encReqObject -> processJSONUtil.processJSON(encReqObject.getValue(),
+                ModeEnum.ENCRYPT, getEncryptionMethod(encReqObject.getType()), encReqObject.getTenantId()));
     }
 
     public Object decrypt(Object decryptionRequest) throws Exception {
         return processJSONUtil.processJSON(decryptionRequest, ModeEnum.DECRYPT, null, null);
     }
+
+    public void encrypt(String tenantId, String type, InputStream inputStream, OutputStream outputStream) throws Exception {
+        MethodEnum encryptionMethod = getEncryptionMethod(tenantId, type);
+        processJSONUtil.processJSONStream(inputStream, outputStream, ModeEnum.ENCRYPT, encryptionMethod, tenantId);
+    }
+
+    public void decrypt(InputStream inputStream, OutputStream outputStream) throws Exception {
+        processJSONUtil.processJSONStream(inputStream, outputStream, ModeEnum.DECRYPT, null, null);
+    }
+
+    private MethodEnum getEncryptionMethod(String tenantId, String type) throws Exception {
+        if(!keyManagementService.checkIfTenantExists(tenantId)) {
+            throw new CustomException(tenantId + Constants.TENANT_NOT_FOUND, tenantId + Constants.TENANT_NOT_FOUND );
+        }
+        MethodEnum encryptionMethod = getEncryptionMethod(type);
+        if(encryptionMethod == null) {
+            throw new CustomException(type + Constants.INVALD_DATA_TYPE, type + Constants.INVALD_DATA_TYPE);
+        }
+        return encryptionMethod;
+    }
+
+    private MethodEnum getEncryptionMethod(String type) {
+        return MethodEnum.fromValue(appProperties.getTypeToMethodMap().get(type));
+    }
 }
@@ -3,18 +3,12 @@ package org.egov.enc.services;
 import org.egov.enc.models.Ciphertext;
 import org.egov.enc.models.Plaintext;
 
-import javax.crypto.BadPaddingException;
-import javax.crypto.IllegalBlockSizeException;
-import javax.crypto.NoSuchPaddingException;
-import java.security.InvalidAlgorithmParameterException;
-import java.security.InvalidKeyException;
-import java.security.NoSuchAlgorithmException;
-import java.security.spec.InvalidKeySpecException;
+import java.security.GeneralSecurityException;
 
 public interface EncryptionServiceInterface {
 
-    public Ciphertext encrypt(Plaintext plaintext) throws NoSuchPaddingException, InvalidKeyException, NoSuchAlgorithmException, IllegalBlockSizeException, BadPaddingException, InvalidAlgorithmParameterException, InvalidKeySpecException;
+    public Ciphertext encrypt(Plaintext plaintext) throws GeneralSecurityException;
 
-    public Plaintext decrypt(Ciphertext ciphertext) throws NoSuchPaddingException, InvalidKeyException, NoSuchAlgorithmException, IllegalBlockSizeException, BadPaddingException, InvalidAlgorithmParameterException, InvalidKeySpecException;
+    public Plaintext decrypt(Ciphertext ciphertext) throws GeneralSecurityException;
 
 }
@@ -8,15 +8,9 @@ import org.egov.enc.utils.SymmetricEncryptionUtil;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.stereotype.Service;
 
-import javax.crypto.BadPaddingException;
-import javax.crypto.IllegalBlockSizeException;
-import javax.crypto.NoSuchPaddingException;
 import javax.crypto.SecretKey;
 import java.nio.charset.StandardCharsets;
-import java.security.InvalidAlgorithmParameterException;
-import java.security.InvalidKeyException;
-import java.security.NoSuchAlgorithmException;
-import java.security.spec.InvalidKeySpecException;
+import java.security.GeneralSecurityException;
 import java.util.Base64;
 
 @Service
@@ -25,7 +19,7 @@ public class SymmetricEncryptionService implements EncryptionServiceInterface {
     @Autowired
     private KeyStore keyStore;
 
-    public Ciphertext encrypt(Plaintext plaintext) throws NoSuchPaddingException, InvalidKeyException, NoSuchAlgorithmException, IllegalBlockSizeException, BadPaddingException, InvalidAlgorithmParameterException, InvalidKeySpecException {
+    public Ciphertext encrypt(Plaintext plaintext) throws GeneralSecurityException {
         SymmetricKey symmetricKey = keyStore.getSymmetricKey(plaintext.getTenantId());
         SecretKey secretKey = keyStore.getSecretKey(symmetricKey);
 
@@ -39,13 +33,14 @@ public class SymmetricEncryptionService implements EncryptionServiceInterface {
         return ciphertext;
     }
 
-    public Plaintext decrypt(Ciphertext ciphertext) throws NoSuchPaddingException, InvalidKeyException, NoSuchAlgorithmException, IllegalBlockSizeException, BadPaddingException, InvalidAlgorithmParameterException, InvalidKeySpecException {
+    public Plaintext decrypt(Ciphertext ciphertext) throws GeneralSecurityException {
         SymmetricKey symmetricKey = keyStore.getSymmetricKey(ciphertext.getKeyId());
         SecretKey secretKey = keyStore.getSecretKey(symmetricKey);
 
         byte[] initialVectorsBytes = keyStore.getInitialVector(symmetricKey);
 
-        byte[] plainBytes = SymmetricEncryptionUtil.decrypt(Base64.getDecoder().decode(ciphertext.getCiphertext()), secretKey, initialVectorsBytes);
+        byte[] plainBytes = SymmetricEncryptionUtil.decrypt(Base64.getDecoder().decode(ciphertext.getCiphertext()),
+                symmetricKey.getKeyId(), secretKey, initialVectorsBytes);
         String plain = new String(plainBytes, StandardCharsets.UTF_8);
 
         Plaintext plaintext = new Plaintext(plain);
@@ -2,15 +2,11 @@ package org.egov.enc.utils;
 
 import lombok.extern.slf4j.Slf4j;
 import org.bouncycastle.jce.provider.BouncyCastleProvider;
-import org.egov.enc.config.AppProperties;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.beans.factory.annotation.Value;
 import org.springframework.stereotype.Component;
 
-import javax.crypto.BadPaddingException;
 import javax.crypto.Cipher;
-import javax.crypto.IllegalBlockSizeException;
-import javax.crypto.NoSuchPaddingException;
 import java.security.*;
 
 @Slf4j
@@ -19,6 +15,9 @@ public class AsymmetricEncryptionUtil {
 
     private static String asymmetricEncryptionMethod;
 
+    private static final CipherCache encryptionCiphers = new CipherCache();
+    private static final CipherCache decryptionCiphers = new CipherCache();
+
     @Autowired
     public void setAsymmetricEncryptionMethod(@Value("${method.asymmetric}") String method) {
         asymmetricEncryptionMethod = method;
@@ -32,16 +31,22 @@ public class AsymmetricEncryptionUtil {
         Security.addProvider(new BouncyCastleProvider());
     }
 
-    public static byte[] encrypt(byte[] plaintext, PublicKey publicKey) throws NoSuchPaddingException, NoSuchAlgorithmException, InvalidKeyException, BadPaddingException, IllegalBlockSizeException {
-        Cipher cipher = Cipher.getInstance(asymmetricEncryptionMethod);
-        cipher.init(Cipher.ENCRYPT_MODE, publicKey);
-        return cipher.doFinal(plaintext);
+    //Encrypt with the cipher of the key cached for the current thread
+    public static byte[] encrypt(byte[] plaintext, int keyId, PublicKey publicKey) throws GeneralSecurityException {
+        return encryptionCiphers.doFinal(keyId, () -> {
+            Cipher cipher = Cipher.getInstance(asymmetricEncryptionMethod);
+            cipher.init(Cipher.ENCRYPT_MODE, publicKey);
+            return cipher;
+        }, plaintext);
     }
 
-    public static byte[] decrypt(byte[] ciphertext, PrivateKey privateKey) throws NoSuchPaddingException, NoSuchAlgorithmException, InvalidKeyException, BadPaddingException, IllegalBlockSizeException {
-        Cipher cipher = Cipher.getInstance(asymmetricEncryptionMethod);
-        cipher.init(Cipher.DECRYPT_MODE, privateKey);
-        return cipher.doFinal(ciphertext);
+    //Decrypt with the cipher of the key cached for the current thread
+    public static byte[] decrypt(byte[] ciphertext, int keyId, PrivateKey privateKey) throws GeneralSecurityException {
+        return decryptionCiphers.doFinal(keyId, () -> {
+            Cipher cipher = Cipher.getInstance(asymmetricEncryptionMethod);
+            cipher.init(Cipher.DECRYPT_MODE, privateKey);
+            return cipher;
+        }, ciphertext);
     }
 
 }
@@ -0,0 +1,97 @@
+package org.egov.enc.utils;
+
+import lombok.extern.slf4j.Slf4j;
+import org.egov.enc.config.AppProperties;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.stereotype.Component;
+
+import javax.annotation.PreDestroy;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Future;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/*
+    BatchProcessor processes the items of large batches in parallel on a bounded pool.
+    Batches smaller than batch.parallel.threshold are processed on the calling thread.
+    The items are split in chunks, and the results are returned in the order of the items.
+    A batch seen from a pool thread is processed on that thread, so pool threads never wait on the pool.
+*/
+
+@Slf4j
+@Component
+public class BatchProcessor {
+
+    private static final ThreadLocal<Boolean> poolThread = ThreadLocal.withInitial(() -> false);
+
+    private final int threads;
+    private final int parallelThreshold;
+    private final ThreadPoolExecutor executor;
+
+    @Autowired
+    public BatchProcessor(AppProperties appProperties) {
+        this.threads = appProperties.getBatchThreads() > 0 ? appProperties.getBatchThreads()
+                : Runtime.getRuntime().availableProcessors();
+        this.parallelThreshold = appProperties.getBatchParallelThreshold();
+        AtomicInteger threadCount = new AtomicInteger();
+        // When the queue is full the chunk runs on the calling thread, which slows down the callers
+        this.executor = new ThreadPoolExecutor(threads, threads, 0L, TimeUnit.MILLISECONDS,
+                new ArrayBlockingQueue<>(threads * 4), runnable -> {
+                    Thread thread = new Thread(() -> {
+                        poolThread.set(true);
+                        runnable.run();
+                    }, "batch-processor-" + threadCount.incrementAndGet());
+                    thread.setDaemon(true);
+                    return thread;
+                }, new ThreadPoolExecutor.CallerRunsPolicy());
+    }
+
+    public <T, R> List<R> process(List<T> items, ItemProcessor<T, R> itemProcessor) throws Exception {
+        if(items.size() < parallelThreshold || parallelThreshold <= 0 || poolThread.get()) {
+            return processChunk(items, itemProcessor);
+        }
+        int chunkSize = (items.size() + threads * 4 - 1) / (threads * 4);
+        List<Future<List<R>>> futures = new ArrayList<>();
+        for(int start = 0; start < items.size(); start += chunkSize) {
+            List<T> chunk = items.subList(start, Math.min(start + chunkSize, items.size()));
+            futures.add(executor.submit(() -> processChunk(chunk, itemProcessor)));
+        }
+        List<R> results = new ArrayList<>(items.size());
+        try {
+            for(Future<List<R>> future : futures) {
+                results.addAll(future.get());
+            }
+        } catch (ExecutionException e) {
+            for(Future<List<R>> future : futures) {
+                future.cancel(false);
+            }
+            if(e.getCause() instanceof Exception) {
+                throw (Exception) e.getCause();
+            }
+            throw e;
+        }
+        return results;
+    }
+
+    private <T, R> List<R> processChunk(List<T> items, ItemProcessor<T, R> itemProcessor) throws Exception {
+        List<R> results = new ArrayList<>(items.size());
+        for(T item : items) {
+            results.add(itemProcessor.process(item));
+        }
+        return results;
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        executor.shutdown();
+    }
+
+    public interface ItemProcessor<T, R> {
+        R process(T item) throws Exception;
+    }
+
+}
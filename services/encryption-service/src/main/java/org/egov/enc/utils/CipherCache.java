@@ -0,0 +1,37 @@
+package org.egov.enc.utils;
+
+import javax.crypto.Cipher;
+import java.security.GeneralSecurityException;
+import java.util.HashMap;
+import java.util.Map;
+
+/*
+    CipherCache keeps an initialized Cipher per thread and per key id.
+    A cached cipher processes a value without a provider lookup and without being initialized again.
+    A cipher that fails is dropped, as its state is unknown after an exception.
+*/
+
+public class CipherCache {
+
+    private final ThreadLocal<Map<Integer, Cipher>> ciphers = ThreadLocal.withInitial(HashMap::new);
+
+    public byte[] doFinal(int keyId, CipherFactory cipherFactory, byte[] input) throws GeneralSecurityException {
+        Map<Integer, Cipher> threadCiphers = ciphers.get();
+        Cipher cipher = threadCiphers.get(keyId);
+        if(cipher == null) {
+            cipher = cipherFactory.create();
+            threadCiphers.put(keyId, cipher);
+        }
+        try {
+            return cipher.doFinal(input);
+        } catch (GeneralSecurityException | RuntimeException e) {
+            threadCiphers.remove(keyId);
+            throw e;
+        }
+    }
+
+    public interface CipherFactory {
+        Cipher create() throws GeneralSecurityException;
+    }
+
+}
@@ -1,5 +1,9 @@
 package org.egov.enc.utils;
 
+import com.fasterxml.jackson.core.JsonFactory;
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.core.JsonParser;
+import com.fasterxml.jackson.core.JsonToken;
 import lombok.extern.slf4j.Slf4j;
 import org.egov.enc.keymanagement.KeyStore;
 import org.egov.enc.models.Ciphertext;
@@ -12,18 +16,14 @@ import org.egov.tracer.model.CustomException;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.stereotype.Component;
 
-import javax.crypto.BadPaddingException;
-import javax.crypto.IllegalBlockSizeException;
-import javax.crypto.NoSuchPaddingException;
-import java.security.InvalidAlgorithmParameterException;
-import java.security.InvalidKeyException;
-import java.security.NoSuchAlgorithmException;
-import java.security.spec.InvalidKeySpecException;
+import java.io.InputStream;
+import java.io.OutputStream;
 import java.util.*;
 
 /*
     ProcessJSONUtil is used to navigate through a JSON Object.
     All the values will be encrypted, keys will remain as it is.
+    The elements of a large top level JSON Array or Object are processed in parallel.
 */
 
 @Slf4j
@@ -36,21 +36,79 @@ public class ProcessJSONUtil {
     private AsymmetricEncryptionService asymmetricEncryptionService;
     @Autowired
     private KeyStore keyStore;
+    @Autowired
+    private BatchProcessor batchProcessor;
+
+    private final JsonFactory jsonFactory = new JsonFactory();
 
     //The input object may be JSON Object or a JSON Array
     public Object processJSON(Object inputObject, ModeEnum mode, MethodEnum method, String tenantId) throws Exception {
         Object outputObject;
 
         if(inputObject instanceof Map) {
-            outputObject = processJSONMap((Map) inputObject, mode, method, tenantId);
+            List<Map.Entry<String, Object>> entries = new ArrayList<>(((Map<String, Object>) inputObject).entrySet());
+            List<Object> values = batchProcessor.process(entries, entry -> processElement(entry.getValue(), mode, method, tenantId));
+            HashMap<String, Object> outputJSONMap = new HashMap<>();
+            for(int i = 0; i < entries.size(); i++) {
+                outputJSONMap.put(entries.get(i).getKey(), values.get(i));
+            }
+            outputObject = outputJSONMap;
         } else if(inputObject instanceof List) {
-            outputObject = processJSONList((List) inputObject, mode, method, tenantId);
+            outputObject = batchProcessor.process((List<Object>) inputObject, element -> processElement(element, mode, method, tenantId));
         } else {
             outputObject = processValue(inputObject, mode, method, tenantId);
         }
         return outputObject;
     }
 
+    //Encrypt or decrypt the values of the JSON read from the input stream, writing the output JSON as the values are processed
+    //Neither the input nor the output is held in memory, the values are processed one after another
+    public void processJSONStream(InputStream inputStream, OutputStream outputStream, ModeEnum mode, MethodEnum method,
+                                  String tenantId) throws Exception {
+        try(JsonParser parser = jsonFactory.createParser(inputStream);
+            JsonGenerator generator = jsonFactory.createGenerator(outputStream)) {
+            JsonToken token;
+            while((token = parser.nextToken()) != null) {
+                switch (token) {
+                    case START_OBJECT:
+                        generator.writeStartObject();
+                        break;
+                    case END_OBJECT:
+                        generator.writeEndObject();
+                        break;
+                    case START_ARRAY:
+                        generator.writeStartArray();
+                        break;
+                    case END_ARRAY:
+                        generator.writeEndArray();
+                        break;
+                    case FIELD_NAME:
+                        generator.writeFieldName(parser.getCurrentName());
+                        break;
+                    case VALUE_NULL:
+                        generator.writeNull();
+                        break;
+                    case VALUE_NUMBER_INT:
+                    case VALUE_NUMBER_FLOAT:
+                        // As the value would be read into an Object by the _encrypt endpoint
+                        generator.writeString(processValue(parser.getNumberValue(), mode, method, tenantId));
+                        break;
+                    default:
+                        generator.writeString(processValue(parser.getText(), mode, method, tenantId));
+                }
+            }
+        }
+    }
+
+    private Object processElement(Object element, ModeEnum mode, MethodEnum method, String tenantId) throws Exception {
+        if(element instanceof List) {
+            return processJSONList((List) element, mode, method, tenantId);
+        } else if(element instanceof Map) {
+            return processJSONMap((Map) element, mode, method, tenantId);
+        }
+        return processValue(element, mode, method, tenantId);
+    }
+
     //Navigate through JSON Object
     private Map<String, Object> processJSONMap(Map jsonMap, ModeEnum mode, MethodEnum method, String tenantId) throws Exception {
         HashMap<String, Object> outputJSONMap = new HashMap<>();
@@ -2,17 +2,17 @@ package org.egov.enc.utils;
 
 import lombok.extern.slf4j.Slf4j;
 import org.bouncycastle.jce.provider.BouncyCastleProvider;
-import org.egov.enc.config.AppProperties;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.beans.factory.annotation.Value;
 import org.springframework.stereotype.Component;
 
 import javax.crypto.*;
 import javax.crypto.spec.GCMParameterSpec;
-import javax.crypto.spec.IvParameterSpec;
+import java.security.GeneralSecurityException;
 import java.security.InvalidAlgorithmParameterException;
 import java.security.InvalidKeyException;
 import java.security.NoSuchAlgorithmException;
+import java.security.Provider;
 import java.security.Security;
 
 @Slf4j
@@ -21,9 +21,15 @@ public class SymmetricEncryptionUtil {
 
     private static String symmetricEncryptionMethod;
 
+    //Provider of the symmetric method, looked up once instead of for every value
+    private static volatile Provider symmetricEncryptionProvider;
+
+    private static final CipherCache decryptionCiphers = new CipherCache();
+
     @Autowired
     public void setSymmetricEncryptionMethod(@Value("${method.symmetric}") String method) {
         symmetricEncryptionMethod = method;
+        symmetricEncryptionProvider = null;
     }
 
     public SymmetricEncryptionUtil() { init(); }
@@ -31,16 +37,37 @@ public class SymmetricEncryptionUtil {
     //Initialize Security Provider to BouncyCastleProvider
     public static void init() { Security.addProvider(new BouncyCastleProvider()); }
 
+    //Encryption ciphers are not cached: each key has a single initial vector, and a GCM cipher refuses to
+    //encrypt again with the key and initial vector it was last initialized with
     public static byte[] encrypt(byte[] plaintext, SecretKey secretKey, byte[] initialVector) throws NoSuchPaddingException, NoSuchAlgorithmException, InvalidAlgorithmParameterException, InvalidKeyException, BadPaddingException, IllegalBlockSizeException {
-        Cipher cipher = Cipher.getInstance(symmetricEncryptionMethod);
+        Cipher cipher = getCipher();
         cipher.init(Cipher.ENCRYPT_MODE, secretKey, new GCMParameterSpec(128, initialVector));
         return cipher.doFinal(plaintext);
     }
 
     public static byte[] decrypt(byte[] ciphertext, SecretKey secretKey, byte[] initialVector) throws NoSuchPaddingException, NoSuchAlgorithmException, InvalidAlgorithmParameterException, InvalidKeyException, BadPaddingException, IllegalBlockSizeException {
-        Cipher cipher = Cipher.getInstance(symmetricEncryptionMethod);
+        Cipher cipher = getCipher();
         cipher.init(Cipher.DECRYPT_MODE, secretKey, new GCMParameterSpec(128, initialVector));
         return cipher.doFinal(ciphertext);
     }
 
+    //Decrypt with the cipher of the key cached for the current thread
+    public static byte[] decrypt(byte[] ciphertext, int keyId, SecretKey secretKey, byte[] initialVector) throws GeneralSecurityException {
+        return decryptionCiphers.doFinal(keyId, () -> {
+            Cipher cipher = getCipher();
+            cipher.init(Cipher.DECRYPT_MODE, secretKey, new GCMParameterSpec(128, initialVector));
+            return cipher;
+        }, ciphertext);
+    }
+
+    private static Cipher getCipher() throws NoSuchPaddingException, NoSuchAlgorithmException {
+        Provider provider = symmetricEncryptionProvider;
+        if(provider == null) {
+            Cipher cipher = Cipher.getInstance(symmetricEncryptionMethod);
+            symmetricEncryptionProvider = cipher.getProvider();
+            return cipher;
+        }
+        return Cipher.getInstance(symmetricEncryptionMethod, provider);
+    }
+
 }
@@ -9,13 +9,16 @@ import org.egov.enc.services.SignatureService;
 import org.egov.enc.web.models.*;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
 import org.springframework.stereotype.Controller;
 import org.springframework.web.bind.annotation.RequestBody;
 import org.springframework.web.bind.annotation.RequestMapping;
 import org.springframework.web.bind.annotation.RequestMethod;
+import org.springframework.web.bind.annotation.RequestParam;
 
 import javax.servlet.http.HttpServletRequest;
+import javax.servlet.http.HttpServletResponse;
 import javax.validation.Valid;
 
 @Slf4j
@@ -48,6 +51,20 @@ public class CryptoApiController{
         return new ResponseEntity<>(encryptionService.decrypt(decryptionRequest), HttpStatus.OK );
     }
 
+    //The body is a single JSON value, encrypted as the value of one encryption request
+    @RequestMapping(value="/crypto/v1/_encrypt/stream", method = RequestMethod.POST)
+    public void cryptoEncryptStream(@RequestParam("tenantId") String tenantId, @RequestParam("type") String type,
+                                    HttpServletResponse response) throws Exception {
+        response.setContentType(MediaType.APPLICATION_JSON_VALUE);
+        encryptionService.encrypt(tenantId, type, request.getInputStream(), response.getOutputStream());
+    }
+
+    @RequestMapping(value="/crypto/v1/_decrypt/stream", method = RequestMethod.POST)
+    public void cryptoDecryptStream(HttpServletResponse response) throws Exception {
+        response.setContentType(MediaType.APPLICATION_JSON_VALUE);
+        encryptionService.decrypt(request.getInputStream(), response.getOutputStream());
+    }
+
     @RequestMapping(value="/crypto/v1/_sign", method = RequestMethod.POST)
     public ResponseEntity<SignResponse> cryptoSignPost(@Valid @RequestBody SignRequest signRequest) throws Exception {
         return new ResponseEntity<>(signatureService.hashAndSign(signRequest), HttpStatus.OK);
@@ -0,0 +1,145 @@
+package org.egov.enc.utils;
+
+import org.egov.enc.config.AppProperties;
+import org.junit.After;
+import org.junit.Test;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+import static org.junit.Assert.fail;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+public class BatchProcessorTest {
+
+    private BatchProcessor batchProcessor;
+
+    @After
+    public void tearDown() {
+        if(batchProcessor != null) {
+            batchProcessor.shutdown();
+        }
+    }
+
+    @Test
+    public void shouldReturnTheResultsInTheOrderOfTheItems() throws Exception {
+        batchProcessor = new BatchProcessor(getAppProperties(4, 10));
+        List<Integer> items = new ArrayList<>();
+        List<Integer> expected = new ArrayList<>();
+        for(int i = 0; i < 1000; i++) {
+            items.add(i);
+            expected.add(i * 2);
+        }
+        Set<String> threads = ConcurrentHashMap.newKeySet();
+
+        List<Integer> results = batchProcessor.process(items, item -> {
+            threads.add(Thread.currentThread().getName());
+            if(ThreadLocalRandom.current().nextInt(50) == 0) {
+                Thread.sleep(1);
+            }
+            return item * 2;
+        });
+
+        assertEquals(expected, results);
+        assertTrue(threads.size() > 1);
+    }
+
+    @Test
+    public void shouldProcessASmallBatchOnTheCallingThread() throws Exception {
+        batchProcessor = new BatchProcessor(getAppProperties(4, 10));
+        Set<String> threads = ConcurrentHashMap.newKeySet();
+
+        List<Integer> results = batchProcessor.process(Arrays.asList(1, 2, 3), item -> {
+            threads.add(Thread.currentThread().getName());
+            return item;
+        });
+
+        assertEquals(Arrays.asList(1, 2, 3), results);
+        assertEquals(1, threads.size());
+        assertTrue(threads.contains(Thread.currentThread().getName()));
+    }
+
+    @Test
+    public void shouldReportTheErrorOfAFailedItem() throws Exception {
+        batchProcessor = new BatchProcessor(getAppProperties(4, 10));
+        List<Integer> items = new ArrayList<>();
+        for(int i = 0; i < 1000; i++) {
+            items.add(i);
+        }
+
+        try {
+            batchProcessor.process(items, item -> {
+                if(item == 500) {
+                    throw new IllegalStateException("Item " + item + " failed");
+                }
+                return item;
+            });
+            fail("The failure of an item should fail the batch");
+        } catch (IllegalStateException e) {
+            assertEquals("Item 500 failed", e.getMessage());
+        }
+    }
+
+    @Test
+    public void shouldRunTheChunksOnTheCallingThreadWhenThePoolIsFull() throws Exception {
+        // One thread and a queue of four chunks
+        batchProcessor = new BatchProcessor(getAppProperties(1, 4));
+        ThreadPoolExecutor executor = (ThreadPoolExecutor) ReflectionTestUtils.getField(batchProcessor, "executor");
+        CountDownLatch started = new CountDownLatch(1);
+        CountDownLatch release = new CountDownLatch(1);
+        Thread caller = Thread.currentThread();
+        ExecutorService otherCaller = Executors.newSingleThreadExecutor();
+        try {
+            // The first chunk holds the pool thread and the other three wait in the queue
+            Future<List<Integer>> blocked = otherCaller.submit(() -> batchProcessor.process(Arrays.asList(1, 2, 3, 4), item -> {
+                started.countDown();
+                release.await(10, TimeUnit.SECONDS);
+                return item;
+            }));
+            assertTrue(started.await(10, TimeUnit.SECONDS));
+            long deadline = System.currentTimeMillis() + 10000;
+            while(executor.getQueue().size() < 3 && System.currentTimeMillis() < deadline) {
+                Thread.sleep(10);
+            }
+            assertEquals(3, executor.getQueue().size());
+
+            Set<Thread> threads = ConcurrentHashMap.newKeySet();
+            List<Integer> results = batchProcessor.process(Arrays.asList(5, 6, 7, 8), item -> {
+                threads.add(Thread.currentThread());
+                if(Thread.currentThread() == caller) {
+                    release.countDown();
+                }
+                return item;
+            });
+
+            assertEquals(Arrays.asList(5, 6, 7, 8), results);
+            assertTrue(threads.contains(caller));
+            assertEquals(Arrays.asList(1, 2, 3, 4), blocked.get(10, TimeUnit.SECONDS));
+        } finally {
+            release.countDown();
+            otherCaller.shutdownNow();
+        }
+    }
+
+    private AppProperties getAppProperties(int threads, int parallelThreshold) {
+        AppProperties appProperties = mock(AppProperties.class);
+        when(appProperties.getBatchThreads()).thenReturn(threads);
+        when(appProperties.getBatchParallelThreshold()).thenReturn(parallelThreshold);
+        return appProperties;
+    }
+
+}
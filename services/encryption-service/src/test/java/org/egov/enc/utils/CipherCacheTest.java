@@ -0,0 +1,112 @@
+package org.egov.enc.utils;
+
+import org.junit.Test;
+
+import javax.crypto.AEADBadTagException;
+import javax.crypto.Cipher;
+import javax.crypto.SecretKey;
+import javax.crypto.spec.GCMParameterSpec;
+import javax.crypto.spec.SecretKeySpec;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.Assert.assertArrayEquals;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.fail;
+
+public class CipherCacheTest {
+
+    private static final byte[] INITIAL_VECTOR = new byte[12];
+
+    private final CipherCache cipherCache = new CipherCache();
+    private final AtomicInteger createdCiphers = new AtomicInteger();
+
+    @Test
+    public void shouldReuseTheCipherOfAKeyId() throws Exception {
+        SecretKey firstKey = getSecretKey(1);
+        SecretKey secondKey = getSecretKey(2);
+
+        for(int i = 0; i < 3; i++) {
+            assertArrayEquals(getBytes("value" + i), decrypt(1, firstKey, encrypt(firstKey, "value" + i)));
+        }
+        assertEquals(1, createdCiphers.get());
+
+        assertArrayEquals(getBytes("value"), decrypt(2, secondKey, encrypt(secondKey, "value")));
+        assertEquals(2, createdCiphers.get());
+    }
+
+    @Test
+    public void shouldKeepACipherPerThread() throws Exception {
+        SecretKey secretKey = getSecretKey(1);
+        int threads = 4;
+        ExecutorService executor = Executors.newFixedThreadPool(threads);
+        try {
+            List<Future<?>> futures = new ArrayList<>();
+            for(int t = 0; t < threads; t++) {
+                futures.add(executor.submit(() -> {
+                    for(int i = 0; i < 100; i++) {
+                        assertArrayEquals(getBytes("value" + i), decrypt(1, secretKey, encrypt(secretKey, "value" + i)));
+                    }
+                    return null;
+                }));
+            }
+            for(Future<?> future : futures) {
+                future.get();
+            }
+        } finally {
+            executor.shutdown();
+        }
+
+        assertEquals(threads, createdCiphers.get());
+    }
+
+    @Test
+    public void shouldDropACipherThatFailed() throws Exception {
+        SecretKey secretKey = getSecretKey(1);
+        byte[] ciphertext = encrypt(secretKey, "value");
+        byte[] tampered = ciphertext.clone();
+        tampered[0] ^= 1;
+
+        assertArrayEquals(getBytes("value"), decrypt(1, secretKey, ciphertext));
+        try {
+            decrypt(1, secretKey, tampered);
+            fail("A tampered ciphertext should not be decrypted");
+        } catch (AEADBadTagException e) {
+            // expected
+        }
+        assertArrayEquals(getBytes("value"), decrypt(1, secretKey, ciphertext));
+
+        assertEquals(2, createdCiphers.get());
+    }
+
+    private byte[] decrypt(int keyId, SecretKey secretKey, byte[] ciphertext) throws Exception {
+        return cipherCache.doFinal(keyId, () -> {
+            createdCiphers.incrementAndGet();
+            Cipher cipher = Cipher.getInstance("AES/GCM/NoPadding");
+            cipher.init(Cipher.DECRYPT_MODE, secretKey, new GCMParameterSpec(128, INITIAL_VECTOR));
+            return cipher;
+        }, ciphertext);
+    }
+
+    private byte[] encrypt(SecretKey secretKey, String value) throws Exception {
+        Cipher cipher = Cipher.getInstance("AES/GCM/NoPadding");
+        cipher.init(Cipher.ENCRYPT_MODE, secretKey, new GCMParameterSpec(128, INITIAL_VECTOR));
+        return cipher.doFinal(getBytes(value));
+    }
+
+    private SecretKey getSecretKey(int seed) {
+        byte[] key = new byte[32];
+        key[0] = (byte) seed;
+        return new SecretKeySpec(key, "AES");
+    }
+
+    private byte[] getBytes(String value) {
+        return value.getBytes(StandardCharsets.UTF_8);
+    }
+
+}
@@ -0,0 +1,154 @@
+package org.egov.enc.web.controllers;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.egov.enc.config.AppProperties;
+import org.egov.enc.keymanagement.KeyStore;
+import org.egov.enc.models.MethodEnum;
+import org.egov.enc.models.SymmetricKey;
+import org.egov.enc.services.AsymmetricEncryptionService;
+import org.egov.enc.services.EncryptionService;
+import org.egov.enc.services.KeyManagementService;
+import org.egov.enc.services.SymmetricEncryptionService;
+import org.egov.enc.utils.BatchProcessor;
+import org.egov.enc.utils.ProcessJSONUtil;
+import org.egov.enc.utils.SymmetricEncryptionUtil;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+import org.springframework.http.MediaType;
+import org.springframework.test.util.ReflectionTestUtils;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.setup.MockMvcBuilders;
+import org.springframework.web.context.request.RequestContextHolder;
+import org.springframework.web.context.request.ServletRequestAttributes;
+
+import javax.crypto.spec.SecretKeySpec;
+import javax.servlet.http.HttpServletRequest;
+import java.util.HashMap;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNotEquals;
+import static org.junit.Assert.assertTrue;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyInt;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.post;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+/**
+* Round trip tests of the streaming endpoints of CryptoApiController, compared with the _encrypt and _decrypt endpoints
+*/
+public class CryptoApiControllerStreamTest {
+
+    private static final String VALUE = "{\"name\": \"Ramesh\", \"age\": 32, \"address\": {\"city\": \"Pune\", "
+            + "\"pincode\": 411001}, \"phones\": [\"9999999999\", \"8888888888\"], \"email\": null}";
+
+    private final ObjectMapper objectMapper = new ObjectMapper();
+    private BatchProcessor batchProcessor;
+    private MockMvc mockMvc;
+
+    @Before
+    public void setUp() throws Exception {
+        SymmetricKey symmetricKey = new SymmetricKey();
+        symmetricKey.setKeyId(101);
+        symmetricKey.setTenantId("default");
+        symmetricKey.setActive(true);
+        KeyStore keyStore = mock(KeyStore.class);
+        when(keyStore.getSymmetricKey(anyString())).thenReturn(symmetricKey);
+        when(keyStore.getSymmetricKey(anyInt())).thenReturn(symmetricKey);
+        when(keyStore.getSecretKey(any())).thenReturn(new SecretKeySpec(new byte[32], "AES"));
+        when(keyStore.getInitialVector(any())).thenReturn(new byte[12]);
+        when(keyStore.checkIfKeyExists(101)).thenReturn(true);
+        when(keyStore.getTypeOfKey(101)).thenReturn(MethodEnum.SYM);
+        new SymmetricEncryptionUtil().setSymmetricEncryptionMethod("AES/GCM/NoPadding");
+
+        AppProperties appProperties = mock(AppProperties.class);
+        HashMap<String, String> typeToMethodMap = new HashMap<>();
+        typeToMethodMap.put("Normal", "SYM");
+        when(appProperties.getTypeToMethodMap()).thenReturn(typeToMethodMap);
+        when(appProperties.getBatchThreads()).thenReturn(2);
+        when(appProperties.getBatchParallelThreshold()).thenReturn(2);
+        batchProcessor = new BatchProcessor(appProperties);
+
+        SymmetricEncryptionService symmetricEncryptionService = new SymmetricEncryptionService();
+        ReflectionTestUtils.setField(symmetricEncryptionService, "keyStore", keyStore);
+        ProcessJSONUtil processJSONUtil = new ProcessJSONUtil();
+        ReflectionTestUtils.setField(processJSONUtil, "symmetricEncryptionService", symmetricEncryptionService);
+        ReflectionTestUtils.setField(processJSONUtil, "asymmetricEncryptionService", mock(AsymmetricEncryptionService.class));
+        ReflectionTestUtils.setField(processJSONUtil, "keyStore", keyStore);
+        ReflectionTestUtils.setField(processJSONUtil, "batchProcessor", batchProcessor);
+
+        KeyManagementService keyManagementService = mock(KeyManagementService.class);
+        when(keyManagementService.checkIfTenantExists("default")).thenReturn(true);
+        EncryptionService encryptionService = new EncryptionService();
+        ReflectionTestUtils.setField(encryptionService, "appProperties", appProperties);
+        ReflectionTestUtils.setField(encryptionService, "processJSONUtil", processJSONUtil);
+        ReflectionTestUtils.setField(encryptionService, "keyManagementService", keyManagementService);
+        ReflectionTestUtils.setField(encryptionService, "batchProcessor", batchProcessor);
+
+        // As the request proxy injected by Spring, reads the request being dispatched
+        HttpServletRequest request = mock(HttpServletRequest.class);
+        when(request.getInputStream()).thenAnswer(invocation -> ((ServletRequestAttributes) RequestContextHolder
+                .currentRequestAttributes()).getRequest().getInputStream());
+        CryptoApiController cryptoApiController = new CryptoApiController(objectMapper, request);
+        ReflectionTestUtils.setField(cryptoApiController, "encryptionService", encryptionService);
+        mockMvc = MockMvcBuilders.standaloneSetup(cryptoApiController).build();
+    }
+
+    @After
+    public void tearDown() {
+        batchProcessor.shutdown();
+    }
+
+    @Test
+    public void cryptoV1EncryptStreamMatchesEncrypt() throws Exception {
+        String encryptionRequest = "{\"encryptionRequests\": [{\"tenantId\": \"default\", \"type\": \"Normal\", \"value\": "
+                + VALUE + "}]}";
+        JsonNode encrypted = objectMapper.readTree(perform("/crypto/v1/_encrypt", encryptionRequest)).get(0);
+
+        JsonNode streamEncrypted = objectMapper.readTree(perform("/crypto/v1/_encrypt/stream?tenantId=default&type=Normal", VALUE));
+
+        assertEquals(encrypted, streamEncrypted);
+        assertNotEquals("Ramesh", streamEncrypted.get("name").asText());
+        assertEquals("101", streamEncrypted.get("name").asText().split("\\|")[0]);
+        assertTrue(streamEncrypted.get("email").isNull());
+    }
+
+    @Test
+    public void cryptoV1DecryptStreamMatchesDecrypt() throws Exception {
+        String encrypted = perform("/crypto/v1/_encrypt/stream?tenantId=default&type=Normal", VALUE);
+
+        JsonNode decrypted = objectMapper.readTree(perform("/crypto/v1/_decrypt", encrypted));
+        JsonNode streamDecrypted = objectMapper.readTree(perform("/crypto/v1/_decrypt/stream", encrypted));
+
+        assertEquals(decrypted, streamDecrypted);
+        // Numbers are encrypted, and decrypted, as strings by both endpoints
+        assertEquals(objectMapper.readTree(VALUE.replace("32", "\"32\"").replace("411001", "\"411001\"")), streamDecrypted);
+    }
+
+    @Test
+    public void cryptoV1StreamRoundTripOfALargeArray() throws Exception {
+        StringBuilder values = new StringBuilder("[");
+        for(int i = 0; i < 500; i++) {
+            values.append(i == 0 ? "" : ", ").append("\"value").append(i).append("\"");
+        }
+        String value = values.append("]").toString();
+
+        String encrypted = perform("/crypto/v1/_encrypt/stream?tenantId=default&type=Normal", value);
+        String encryptionRequest = "{\"encryptionRequests\": [{\"tenantId\": \"default\", \"type\": \"Normal\", \"value\": "
+                + value + "}]}";
+
+        assertEquals(objectMapper.readTree(perform("/crypto/v1/_encrypt", encryptionRequest)).get(0), objectMapper.readTree(encrypted));
+        assertEquals(objectMapper.readTree(value), objectMapper.readTree(perform("/crypto/v1/_decrypt/stream", encrypted)));
+    }
+
+    private String perform(String url, String body) throws Exception {
+        return mockMvc.perform(post(url).contentType(MediaType.APPLICATION_JSON).content(body))
+                .andExpect(status().isOk())
+                .andReturn().getResponse().getContentAsString();
+    }
+
+}
@@ -12,7 +12,9 @@ import org.egov.id.config.PropertiesManager;
 import org.egov.id.masterdata.MasterDataProvider;
 import org.egov.id.masterdata.provider.DBMasterDataProvider;
 import org.egov.id.model.*;
+import org.egov.id.utils.IdFormatCache;
 import org.egov.id.utils.IdGenUtils;
+import org.egov.id.utils.SequenceBlockPool;
 import org.egov.tracer.model.CustomException;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.beans.factory.annotation.Qualifier;
@@ -52,6 +54,12 @@ public class IdGenerationService {
     @Autowired
     private JdbcTemplate jdbcTemplate;
 
+    @Autowired
+    private IdFormatCache idFormatCache;
+
+    @Autowired
+    private SequenceBlockPool sequenceBlockPool;
+
     // by default 'idformat' will be taken from MDMS. Change value of 'ismdms.on' to 'false'
     // in application.properties to get data from DB instead.
     @Value("${idformat.from.mdms}")
@@ -113,6 +121,8 @@ public class IdGenerationService {
             } catch (Exception e){
                 hasErrors = true;
                 errorMsgs.add(e.getMessage());
+            } finally {
+                idFormatCache.invalidate(idRequest.getTenantId(), idRequest.getIdName());
             }
         }
         if(hasErrors) idFormatResponse.setErrorMsgs(errorMsgs);
@@ -170,11 +180,18 @@ public class IdGenerationService {
 
         String idFormat = null;
         try{
+            idFormat = idFormatCache.get(idRequest.getTenantId(), idRequest.getIdName());
+            if (idFormat != null) {
+                return idFormat;
+            }
             if (idFormatFromMDMS) {
                 idFormat = masterDataProvider.getIdFormat(requestInfo, idRequest); //from MDMS
             } else {
                 idFormat = dbMasterDataProvider.getIdFormat(requestInfo, idRequest); //from DB
             }
+            if (!StringUtils.isEmpty(idFormat)) {
+                idFormatCache.put(idRequest.getTenantId(), idRequest.getIdName(), idFormat);
+            }
         }catch(Exception ex){
             if(StringUtils.isEmpty(idFormat)){
                 throw new CustomException("ID_NOT_FOUND",
@@ -185,42 +202,6 @@ public class IdGenerationService {
         return idFormat;
     }
 
-    /**
-     * Description : This method to retrieve Id format from DB
-     *
-     * @param idRequest
-     * @param requestInfo
-     * @return idFormat
-     * @throws Exception
-     */
-    private String getIdFormatfromDB(IdRequest idRequest, RequestInfo requestInfo) throws Exception {
-        // connection and prepared statement
-
-        String idFormat = null;
-        try {
-            String idName = idRequest.getIdName();
-            String tenantId = idRequest.getTenantId();
-            // select the id format from the id generation table
-            StringBuffer idSelectQuery = new StringBuffer();
-            idSelectQuery.append("SELECT format FROM id_generator ").append(" WHERE idname=? and tenantid=?");
-
-           String rs = jdbcTemplate.queryForObject(idSelectQuery.toString(),new Object[]{idName,tenantId}, String.class);
-            if (!StringUtils.isEmpty(rs)) {
-                idFormat = rs;
-            } else {
-                // querying for the id format with idname
-                StringBuffer idNameQuery = new StringBuffer();
-                idNameQuery.append("SELECT format FROM id_generator ").append(" WHERE idname=?");
-                 rs = jdbcTemplate.queryForObject(idSelectQuery.toString(),new Object[]{idName}, String.class);
-                if (!StringUtils.isEmpty(rs))
-                    idFormat = rs;
-            }
-        } catch (Exception ex){
-            log.error("SQL error while trying to retrive format from DB",ex);
-        }
-        return idFormat;
-    }
-
     /**
      * Description : This method to generate Id when format is known
      *
@@ -438,19 +419,40 @@ public class IdGenerationService {
      */
     private List<String> generateSequenceNumber(String sequenceName, RequestInfo requestInfo, IdRequest idRequest,boolean autoCreateNewSeqFlag) throws Exception {
         Integer count = getCount(idRequest);
-        List<String> sequenceList = new LinkedList<>();
+        List<Long> sequenceList;
+        if (sequenceBlockPool.isEnabled()) {
+            sequenceList = sequenceBlockPool.next(sequenceName, count,
+                    size -> fetchSequenceNumbers(sequenceName, size, autoCreateNewSeqFlag));
+        } else {
+            sequenceList = fetchSequenceNumbers(sequenceName, count, autoCreateNewSeqFlag);
+        }
         List<String> sequenceLists = new LinkedList<>();
+        for (Long seqId : sequenceList) {
+            sequenceLists.add(String.format("%06d", seqId));
+        }
+        return sequenceLists;
+    }
+
+    /**
+     * Description : This method to fetch a block of sequence numbers from DB
+     *
+     * @param sequenceName
+     * @param count
+     * @return sequence numbers
+     */
+    private List<Long> fetchSequenceNumbers(String sequenceName, int count, boolean autoCreateNewSeqFlag) {
+        List<Long> sequenceList = new LinkedList<>();
         // To generate a block of seq numbers
 
         String sequenceSql = "SELECT NEXTVAL ('" + sequenceName + "') FROM GENERATE_SERIES(1,?)";
         try {
-            sequenceList = jdbcTemplate.queryForList(sequenceSql, new Object[]{count}, String.class);
+            sequenceList = jdbcTemplate.queryForList(sequenceSql, new Object[]{count}, Long.class);
         } catch (BadSqlGrammarException ex) {
             if (ex.getSQLException().getSQLState().equals("42P01")){
                 try{
                     if (sequenceList.isEmpty() && autoCreateNewSeqFlag && autoCreateNewSeq){
                         createSequenceInDb(sequenceName);
-                        sequenceList = jdbcTemplate.queryForList(sequenceSql, new Object[]{count}, String.class);
+                        sequenceList = jdbcTemplate.queryForList(sequenceSql, new Object[]{count}, Long.class);
                     }
                     else if(sequenceList.isEmpty() && !autoCreateNewSeqFlag)
                         throw new CustomException("SEQ_DOES_NOT_EXIST","auto creation of seq is not allowed in DB");
@@ -464,11 +466,7 @@ public class IdGenerationService {
             log.error("Error retrieving seq number from DB",ex);
             throw new CustomException("SEQ_NUMBER_ERROR","Error retrieving seq number from existing seq in DB");
         }
-        for (String seqId : sequenceList) {
-            String seqNumber = String.format("%06d", Integer.parseInt(seqId)).toString();
-            sequenceLists.add(seqNumber.toString());
-        }
-        return sequenceLists;
+        return sequenceList;
     }
 
 }
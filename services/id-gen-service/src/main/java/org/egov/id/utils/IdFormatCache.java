@@ -0,0 +1,66 @@
+package org.egov.id.utils;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Caches the id formats by tenant and id name. Only the formats found are cached, so an id name
+ * without a format is looked up again until its format is added.
+ */
+@Component
+public class IdFormatCache {
+
+    private final long ttlMillis;
+    private final ConcurrentMap<String, CachedFormat> formats = new ConcurrentHashMap<>();
+
+    public IdFormatCache(@Value("${idformat.cache.ttl.seconds:300}") long ttlSeconds) {
+        this.ttlMillis = TimeUnit.SECONDS.toMillis(ttlSeconds);
+    }
+
+    /**
+     * @return the cached format, null if it is not cached or has expired
+     */
+    public String get(String tenantId, String idName) {
+        if (ttlMillis <= 0) {
+            return null;
+        }
+        String key = getKey(tenantId, idName);
+        CachedFormat cached = formats.get(key);
+        if (cached == null) {
+            return null;
+        }
+        if (cached.expiresAt < System.currentTimeMillis()) {
+            formats.remove(key, cached);
+            return null;
+        }
+        return cached.format;
+    }
+
+    public void put(String tenantId, String idName, String format) {
+        if (ttlMillis > 0 && format != null) {
+            formats.put(getKey(tenantId, idName), new CachedFormat(format, System.currentTimeMillis() + ttlMillis));
+        }
+    }
+
+    public void invalidate(String tenantId, String idName) {
+        formats.remove(getKey(tenantId, idName));
+    }
+
+    private static String getKey(String tenantId, String idName) {
+        return tenantId + "|" + idName;
+    }
+
+    private static class CachedFormat {
+        private final String format;
+        private final long expiresAt;
+
+        CachedFormat(String format, long expiresAt) {
+            this.format = format;
+            this.expiresAt = expiresAt;
+        }
+    }
+}
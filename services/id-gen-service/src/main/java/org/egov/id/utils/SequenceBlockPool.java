@@ -0,0 +1,93 @@
+package org.egov.id.utils;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Hands out sequence numbers from blocks leased from the database, so that a block of numbers
+ * takes one round trip instead of one per request. The numbers of a block left when the service
+ * stops are not handed out, leaving a gap in the sequence.
+ */
+@Component
+public class SequenceBlockPool {
+
+    public interface BlockFetcher {
+        List<Long> fetch(int size) throws Exception;
+    }
+
+    private final int blockSize;
+    private final ConcurrentMap<String, LeasedSequence> sequences = new ConcurrentHashMap<>();
+
+    public SequenceBlockPool(@Value("${id.sequence.block.size:1000}") int blockSize) {
+        this.blockSize = blockSize;
+    }
+
+    public boolean isEnabled() {
+        return blockSize > 1;
+    }
+
+    /**
+     * Returns the next numbers of the sequence, leasing a new block with the fetcher when the
+     * current one runs out
+     *
+     * @param sequenceName
+     * @param count        the number of sequence numbers
+     * @param fetcher      fetches the given number of sequence numbers from the database
+     * @return sequence numbers
+     */
+    public List<Long> next(String sequenceName, int count, BlockFetcher fetcher) throws Exception {
+        List<Long> values = new ArrayList<>(count);
+        LeasedSequence sequence = sequences.computeIfAbsent(sequenceName, name -> new LeasedSequence());
+        sequence.block.take(count, values);
+        if (values.size() < count) {
+            synchronized (sequence) {
+                // Another request may have leased a block in the meantime
+                sequence.block.take(count, values);
+                while (values.size() < count) {
+                    List<Long> leased = fetcher.fetch(Math.max(blockSize, count - values.size()));
+                    if (leased.isEmpty()) {
+                        break;
+                    }
+                    sequence.block = new Block(leased);
+                    sequence.block.take(count, values);
+                }
+            }
+        }
+        return values;
+    }
+
+    private static class LeasedSequence {
+        private volatile Block block = new Block(new ArrayList<>());
+    }
+
+    private static class Block {
+        private final long[] values;
+        private final AtomicInteger next = new AtomicInteger();
+
+        Block(List<Long> leased) {
+            values = leased.stream().mapToLong(Long::longValue).toArray();
+            Arrays.sort(values);
+        }
+
+        /**
+         * Adds the numbers still missing from the list, as many as are left in the block
+         */
+        void take(int count, List<Long> into) {
+            int wanted = count - into.size();
+            if (wanted <= 0 || next.get() >= values.length) {
+                return;
+            }
+            int start = next.getAndAdd(wanted);
+            for (int i = start; i < values.length && i < start + wanted; i++) {
+                into.add(values[i]);
+            }
+        }
+    }
+}
@@ -0,0 +1,94 @@
+package org.egov.id.utils;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class SequenceBlockPoolTest {
+
+    private final AtomicLong sequence = new AtomicLong();
+    private final AtomicInteger fetches = new AtomicInteger();
+
+    private List<Long> fetch(int size) {
+        fetches.incrementAndGet();
+        List<Long> values = new ArrayList<>();
+        for (int i = 0; i < size; i++) {
+            values.add(sequence.incrementAndGet());
+        }
+        return values;
+    }
+
+    @Test
+    void testNumbersAreHandedOutFromTheLeasedBlock() throws Exception {
+        SequenceBlockPool pool = new SequenceBlockPool(10);
+
+        assertEquals(Arrays.asList(1L, 2L, 3L), pool.next("seq_a", 3, this::fetch));
+        assertEquals(Arrays.asList(4L, 5L, 6L, 7L), pool.next("seq_a", 4, this::fetch));
+        assertEquals(1, fetches.get());
+    }
+
+    @Test
+    void testNewBlockIsLeasedWhenTheBlockRunsOut() throws Exception {
+        SequenceBlockPool pool = new SequenceBlockPool(10);
+
+        pool.next("seq_a", 8, this::fetch);
+
+        assertEquals(Arrays.asList(9L, 10L, 11L, 12L), pool.next("seq_a", 4, this::fetch));
+        assertEquals(2, fetches.get());
+    }
+
+    @Test
+    void testCountLargerThanTheBlockIsLeasedAtOnce() throws Exception {
+        SequenceBlockPool pool = new SequenceBlockPool(10);
+
+        assertEquals(25, pool.next("seq_a", 25, this::fetch).size());
+        assertEquals(1, fetches.get());
+    }
+
+    @Test
+    void testSequencesAreLeasedSeparately() throws Exception {
+        SequenceBlockPool pool = new SequenceBlockPool(10);
+
+        pool.next("seq_a", 1, this::fetch);
+        pool.next("seq_b", 1, this::fetch);
+
+        assertEquals(2, fetches.get());
+    }
+
+    @Test
+    void testNothingMoreIsReturnedWhenTheSequenceHasNoNumbers() throws Exception {
+        SequenceBlockPool pool = new SequenceBlockPool(10);
+
+        assertTrue(pool.next("seq_a", 3, size -> Collections.emptyList()).isEmpty());
+    }
+
+    @Test
+    void testConcurrentRequestsGetDistinctNumbers() throws Exception {
+        SequenceBlockPool pool = new SequenceBlockPool(100);
+        ExecutorService executor = Executors.newFixedThreadPool(8);
+        List<Future<List<Long>>> futures = new ArrayList<>();
+        for (int i = 0; i < 1000; i++) {
+            futures.add(executor.submit(() -> pool.next("seq_a", 3, this::fetch)));
+        }
+        Set<Long> numbers = new HashSet<>();
+        for (Future<List<Long>> future : futures) {
+            numbers.addAll(future.get());
+        }
+        executor.shutdown();
+
+        assertEquals(3000, numbers.size());
+    }
+}